@@ -27,6 +27,7 @@ import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.ByteRangeSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.split.InputStreamInputSplit;
 import org.datavec.api.split.StringSplit;
@@ -57,6 +58,8 @@ public class LineRecordReader extends BaseRecordReader {
     public void initialize(InputSplit split) throws IOException, InterruptedException {
         this.inputSplit = split;
         this.iter = getIterator(0);
+        //For a range of a file: line numbers (for metadata) are relative to the start of the file, not the range
+        this.lineIndex = split instanceof ByteRangeSplit ? (int) ((ByteRangeSplit) split).getFirstLine() : 0;
     }
 
     @Override
@@ -163,7 +166,6 @@ public class LineRecordReader extends BaseRecordReader {
         } catch (Exception e) {
             throw new RuntimeException("Error during LineRecordReader reset", e);
         }
-        lineIndex = 0;
     }
 
     @Override
@@ -193,6 +195,13 @@ public class LineRecordReader extends BaseRecordReader {
             if (is != null) {
                 iterator = IOUtils.lineIterator(new InputStreamReader(is));
             }
+        } else if (inputSplit instanceof ByteRangeSplit) {
+            this.locations = inputSplit.locations();
+            try {
+                iterator = IOUtils.lineIterator(new InputStreamReader(((ByteRangeSplit) inputSplit).openStream()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         } else {
             this.locations = inputSplit.locations();
             if (locations != null && locations.length > 0) {
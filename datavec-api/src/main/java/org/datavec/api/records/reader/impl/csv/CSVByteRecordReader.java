@@ -0,0 +1,354 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataLine;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.ByteRangeSplit;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.split.StringSplit;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * CSV record reader that tokenizes the raw bytes of the input directly (see {@link CSVByteTokenizer}), instead of
+ * decoding each line to a String and splitting it as {@link CSVRecordReader} does.<br>
+ * Local files are read via a {@link FileChannel}; other locations via a channel over the URL stream.
+ * <p>
+ * By default, each value is returned as a {@link org.datavec.api.writable.Text} (as per CSVRecordReader). If a
+ * {@link Schema} is provided, values are instead parsed directly from the bytes to the column type: IntWritable for
+ * integer columns, DoubleWritable for double columns etc.
+ * <p>
+ * Skipped lines, delimiter and quote configuration are as per {@link CSVRecordReader}; the delimiter and quote must
+ * be ASCII characters.
+ * <p>
+ * A single large file can be read in parallel by splitting it with
+ * {@link ByteRangeSplit#split(java.io.File, int, boolean, char)} (quote-aware, so that quoted fields containing line
+ * breaks are not split), and using one reader per split.
+ */
+public class CSVByteRecordReader extends BaseRecordReader {
+
+    private int skipNumLines;
+    private char delimiter;
+    private char quote;
+    private final ColumnType[] columnTypes;
+
+    private Configuration conf;
+    private InputSplit inputSplit;
+    private URI[] locations;
+    private int splitIndex;
+    private int lineIndex; //Line index of the next record within the current location
+    private int recordLineIndex; //Line index of the most recently returned record
+    private CSVByteTokenizer tokenizer;
+    private boolean recordReady;
+    private boolean skippedLines;
+
+    public CSVByteRecordReader() {
+        this(0);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of the input
+     */
+    public CSVByteRecordReader(int skipNumLines) {
+        this(skipNumLines, CSVRecordReader.DEFAULT_DELIMITER);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of the input
+     * @param delimiter    Delimiter character
+     */
+    public CSVByteRecordReader(int skipNumLines, char delimiter) {
+        this(skipNumLines, delimiter, CSVRecordReader.DEFAULT_QUOTE);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of the input
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     */
+    public CSVByteRecordReader(int skipNumLines, char delimiter, char quote) {
+        this(skipNumLines, delimiter, quote, null);
+    }
+
+    /**
+     * @param skipNumLines Number of lines to skip at the start of the input
+     * @param delimiter    Delimiter character
+     * @param quote        Quote character
+     * @param schema       Schema for the data. If non-null, values are parsed to the type of each column; each
+     *                     record must have exactly one value per column of the schema
+     */
+    public CSVByteRecordReader(int skipNumLines, char delimiter, char quote, Schema schema) {
+        this.skipNumLines = skipNumLines;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        if (schema != null) {
+            List<ColumnType> types = schema.getColumnTypes();
+            this.columnTypes = types.toArray(new ColumnType[types.size()]);
+        } else {
+            this.columnTypes = null;
+        }
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        close();
+        this.inputSplit = split;
+        this.locations = split.locations();
+        this.splitIndex = 0;
+        this.lineIndex = 0;
+        this.recordReady = false;
+        this.skippedLines = false;
+        if (split instanceof ByteRangeSplit) {
+            //Range of a file: line numbers are relative to the start of the file; lines are only skipped at the start
+            ByteRangeSplit range = (ByteRangeSplit) split;
+            this.lineIndex = (int) range.getFirstLine();
+            this.skippedLines = range.getStart() > 0;
+        }
+        this.tokenizer = new CSVByteTokenizer(openChannel(0), delimiter, quote);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        this.skipNumLines = conf.getInt(CSVRecordReader.SKIP_NUM_LINES, this.skipNumLines);
+        this.delimiter = conf.getChar(CSVRecordReader.DELIMITER, this.delimiter);
+        this.quote = conf.getChar(CSVRecordReader.QUOTE, this.quote);
+        initialize(split);
+    }
+
+    private ReadableByteChannel openChannel(int location) throws IOException {
+        if (inputSplit instanceof StringSplit) {
+            byte[] bytes = ((StringSplit) inputSplit).getData().getBytes(StandardCharsets.UTF_8);
+            return Channels.newChannel(new ByteArrayInputStream(bytes));
+        } else if (inputSplit instanceof InputStreamInputSplit) {
+            InputStream is = ((InputStreamInputSplit) inputSplit).getIs();
+            if (is == null)
+                throw new UnsupportedOperationException("Unknown input split: " + inputSplit);
+            return Channels.newChannel(is);
+        } else if (inputSplit instanceof ByteRangeSplit) {
+            return Channels.newChannel(((ByteRangeSplit) inputSplit).openStream());
+        }
+        if (locations == null || locations.length == 0)
+            throw new UnsupportedOperationException("Unknown input split: " + inputSplit);
+        return openChannel(locations[location]);
+    }
+
+    private static ReadableByteChannel openChannel(URI uri) throws IOException {
+        if ("file".equals(uri.getScheme())) {
+            return FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+        }
+        return Channels.newChannel(uri.toURL().openStream());
+    }
+
+    private boolean singleSource() {
+        return inputSplit instanceof StringSplit || inputSplit instanceof InputStreamInputSplit;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (recordReady)
+            return true;
+        if (tokenizer == null)
+            return false;
+        try {
+            while (true) {
+                if (tokenizer.nextRecord()) {
+                    if (!skippedLines && lineIndex < skipNumLines) {
+                        lineIndex += tokenizer.numLines();
+                        continue;
+                    }
+                    skippedLines = true;
+                    recordReady = true;
+                    return true;
+                }
+
+                tokenizer.close();
+                tokenizer = null;
+                if (singleSource() || locations == null || splitIndex >= locations.length - 1)
+                    return false;
+                splitIndex++;
+                lineIndex = 0;
+                tokenizer = new CSVByteTokenizer(openChannel(splitIndex), delimiter, quote);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV data", e);
+        }
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext())
+            throw new NoSuchElementException("No next element found!");
+        recordReady = false;
+        recordLineIndex = lineIndex;
+        lineIndex += tokenizer.numLines();
+        List<Writable> ret = currentRecord(tokenizer, recordLineIndex);
+        invokeListeners(ret);
+        return ret;
+    }
+
+    private List<Writable> currentRecord(CSVByteTokenizer tokenizer, int line) {
+        int n = tokenizer.numFields();
+        if (columnTypes != null && n != columnTypes.length) {
+            throw new IllegalStateException("Invalid record at line " + line + ": expected " + columnTypes.length
+                            + " values as per schema, got " + n);
+        }
+        List<Writable> ret = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ret.add(columnTypes == null ? tokenizer.getText(i) : tokenizer.getWritable(i, columnTypes[i]));
+        }
+        return ret;
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        URI uri = (locations == null || locations.length < 1 || singleSource() ? null : locations[splitIndex]);
+        RecordMetaData meta = new RecordMetaDataLine(recordLineIndex, uri, CSVByteRecordReader.class);
+        return new org.datavec.api.records.impl.Record(next, meta);
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        //Group the requested lines by location, so that each location is read (at most) once
+        Map<URI, Map<Integer, List<Integer>>> byLocation = new LinkedHashMap<>();
+        for (int i = 0; i < recordMetaDatas.size(); i++) {
+            RecordMetaData rmd = recordMetaDatas.get(i);
+            if (!(rmd instanceof RecordMetaDataLine)) {
+                throw new IllegalArgumentException(
+                                "Invalid metadata; expected RecordMetaDataLine instance; got: " + rmd);
+            }
+            Map<Integer, List<Integer>> lines = byLocation.get(rmd.getURI());
+            if (lines == null) {
+                lines = new HashMap<>();
+                byLocation.put(rmd.getURI(), lines);
+            }
+            int line = ((RecordMetaDataLine) rmd).getLineNumber();
+            List<Integer> idxs = lines.get(line);
+            if (idxs == null) {
+                idxs = new ArrayList<>();
+                lines.put(line, idxs);
+            }
+            idxs.add(i);
+        }
+
+        Record[] out = new Record[recordMetaDatas.size()];
+        for (Map.Entry<URI, Map<Integer, List<Integer>>> e : byLocation.entrySet()) {
+            Map<Integer, List<Integer>> lines = e.getValue();
+            int remaining = lines.size();
+            int maxLine = Collections.max(lines.keySet());
+            try (CSVByteTokenizer t = new CSVByteTokenizer(
+                            e.getKey() == null ? openChannel(0) : openChannel(e.getKey()), delimiter, quote)) {
+                int line = 0;
+                while (remaining > 0 && line <= maxLine && t.nextRecord()) {
+                    List<Integer> idxs = lines.get(line);
+                    if (idxs != null) {
+                        List<Writable> record = currentRecord(t, line);
+                        for (int idx : idxs) {
+                            out[idx] = new org.datavec.api.records.impl.Record(record, recordMetaDatas.get(idx));
+                        }
+                        remaining--;
+                    }
+                    line += t.numLines();
+                }
+            }
+            if (remaining > 0) {
+                throw new IllegalStateException("Could not load all records from location " + e.getKey()
+                                + ": no record starts at one or more of lines " + lines.keySet());
+            }
+        }
+        return Arrays.asList(out);
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        invokeListeners(uri);
+        //Single record from the stream; skipped lines are not applied here
+        CSVByteTokenizer t = new CSVByteTokenizer(Channels.newChannel(dataInputStream), delimiter, quote);
+        if (!t.nextRecord())
+            throw new IllegalStateException("No CSV record found in stream for URI " + uri);
+        return currentRecord(t, 0);
+    }
+
+    @Override
+    public void reset() {
+        if (inputSplit == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        try {
+            inputSplit.reset();
+            initialize(inputSplit);
+        } catch (Exception e) {
+            throw new RuntimeException("Error during CSVByteRecordReader reset", e);
+        }
+    }
+
+    @Override
+    public boolean resetSupported() {
+        if (inputSplit != null) {
+            return inputSplit.resetSupported();
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (tokenizer != null) {
+            tokenizer.close();
+            tokenizer = null;
+        }
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
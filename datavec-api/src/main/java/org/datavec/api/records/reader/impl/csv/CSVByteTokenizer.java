@@ -0,0 +1,455 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl.csv;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte level CSV tokenizer. Reads from a {@link ReadableByteChannel} into a reusable buffer, and finds delimiters,
+ * quotes and line endings directly on the (UTF-8) bytes: no Strings are created while tokenizing.<br>
+ * After {@link #nextRecord()}, the fields of the record can be accessed as {@link Text} (the bytes are copied once,
+ * with no decoding/re-encoding), or parsed directly from the bytes as numbers.
+ * <p>
+ * Quoting follows RFC 4180: a field that starts with the quote character may contain delimiters, line breaks and
+ * doubled (escaped) quote characters; the enclosing quotes are removed. Lines may end with \n or \r\n. Empty lines
+ * are returned as records with a single empty field, as per {@link SerializableCSVParser}.
+ * <p>
+ * Field data is only valid until the next call to {@link #nextRecord()}.
+ */
+public class CSVByteTokenizer implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    //Exact powers of 10 that can be represented as doubles
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++)
+            POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final ReadableByteChannel channel;
+    private final byte delimiter;
+    private final byte quote;
+
+    private ByteBuffer buffer;
+    private byte[] buf;
+    private int pos; //Start of the unread data in the buffer
+    private int limit; //End of the valid data in the buffer
+    private boolean eof;
+
+    //Field boundaries for the current record: start (inclusive) and end (exclusive) offsets in buf
+    private int numFields;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private boolean[] fieldEscaped = new boolean[16];
+    private byte[] scratch = new byte[64];
+    private int linesInRecord;
+
+    public CSVByteTokenizer(ReadableByteChannel channel, char delimiter, char quote) {
+        this(channel, delimiter, quote, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param channel    Channel to read the CSV data from
+     * @param delimiter  Delimiter character. Must be a single byte (ASCII) character
+     * @param quote      Quote character. Must be a single byte (ASCII) character
+     * @param bufferSize Initial size of the buffer. The buffer grows as required if a record does not fit
+     */
+    public CSVByteTokenizer(ReadableByteChannel channel, char delimiter, char quote, int bufferSize) {
+        if (delimiter > 127 || quote > 127)
+            throw new IllegalArgumentException("Delimiter and quote must be ASCII characters: got delimiter='"
+                            + delimiter + "', quote='" + quote + "'");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+        this.channel = channel;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.buf = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(buf);
+    }
+
+    /**
+     * Tokenize the next record
+     *
+     * @return True if a record was read, false if the end of the input was reached
+     */
+    public boolean nextRecord() throws IOException {
+        while (true) {
+            if (pos >= limit) {
+                if (eof || !fill())
+                    return false;
+            }
+            int end = tokenize(pos);
+            if (end >= 0) {
+                pos = end;
+                return true;
+            }
+            //Record is incomplete: need more data
+            if (eof) {
+                //Last record, without a trailing line break
+                tokenizeLast();
+                return true;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * @return Number of fields in the current record
+     */
+    public int numFields() {
+        return numFields;
+    }
+
+    /**
+     * @return Number of lines spanned by the current record (more than 1 only for quoted fields with line breaks)
+     */
+    public int numLines() {
+        return linesInRecord;
+    }
+
+    /**
+     * Get the specified field of the current record as a new Text object
+     */
+    public Text getText(int field) {
+        Text t = new Text();
+        getText(field, t);
+        return t;
+    }
+
+    /**
+     * Set the value of the specified Text object to the specified field of the current record
+     */
+    public void getText(int field, Text out) {
+        if (fieldEscaped[field]) {
+            int len = unescape(field);
+            out.set(scratch, 0, len);
+        } else {
+            out.set(buf, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+        }
+    }
+
+    /**
+     * Get the specified field of the current record as a String
+     */
+    public String getString(int field) {
+        if (fieldEscaped[field]) {
+            int len = unescape(field);
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+        return new String(buf, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the specified field of the current record as a Writable of the specified type. Integer, Long, Time,
+     * Double and Float values are parsed directly from the bytes, Boolean values are parsed as per
+     * {@link Boolean#parseBoolean(String)}, and other types are returned as {@link Text}.
+     */
+    public Writable getWritable(int field, ColumnType type) {
+        if (type == null)
+            return getText(field);
+        switch (type) {
+            case Integer:
+                long l = getLong(field);
+                if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE)
+                    throw new NumberFormatException("Value out of range for int: \"" + getString(field) + "\"");
+                return new IntWritable((int) l);
+            case Long:
+            case Time:
+                return new LongWritable(getLong(field));
+            case Double:
+                return new DoubleWritable(getDouble(field));
+            case Float:
+                return new FloatWritable(Float.parseFloat(getString(field)));
+            case Boolean:
+                return new BooleanWritable(Boolean.parseBoolean(getString(field)));
+            default:
+                return getText(field);
+        }
+    }
+
+    /**
+     * Parse the specified field of the current record as a long, without creating a String
+     */
+    public long getLong(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (fieldEscaped[field] || start == end)
+            return Long.parseLong(getString(field));
+        boolean negative = buf[start] == '-';
+        int i = negative ? start + 1 : start;
+        //Up to 18 digits can't overflow
+        if (i == end || end - i > 18)
+            return Long.parseLong(getString(field));
+        long value = 0;
+        for (; i < end; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9)
+                return Long.parseLong(getString(field)); //Throws NumberFormatException with the usual message
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse the specified field of the current record as a double. Plain decimal values with up to 15 significant
+     * digits (the common case) are parsed directly from the bytes, with correct rounding; other values are parsed
+     * via {@link Double#parseDouble(String)}
+     */
+    public double getDouble(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (fieldEscaped[field] || start == end)
+            return Double.parseDouble(getString(field));
+
+        int i = start;
+        boolean negative = false;
+        if (buf[i] == '-' || buf[i] == '+') {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        boolean anyDigits = false;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                anyDigits = true;
+                if (digits > 0 || b != '0')
+                    digits++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint)
+                    fractionDigits++;
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        int exponent = 0;
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+                negativeExponent = buf[i] == '-';
+                i++;
+            }
+            int expStart = i;
+            for (; i < end && buf[i] >= '0' && buf[i] <= '9' && i - expStart < 4; i++) {
+                exponent = exponent * 10 + (buf[i] - '0');
+            }
+            if (i == expStart)
+                return Double.parseDouble(getString(field));
+            if (negativeExponent)
+                exponent = -exponent;
+        }
+
+        int scale = fractionDigits - exponent;
+        if (i != end || !anyDigits || digits > 15 || scale > 22 || scale < -22) {
+            return Double.parseDouble(getString(field));
+        }
+        //Mantissa and power of 10 are both exact, so a single multiplication/division is correctly rounded
+        double value = scale >= 0 ? mantissa / POW10[scale] : mantissa * POW10[-scale];
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Read more data into the buffer, compacting and/or growing it first as required
+     *
+     * @return False if no more data could be read
+     */
+    private boolean fill() throws IOException {
+        if (pos > 0) {
+            //Compact: move unread data to the start of the buffer
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+            buffer = ByteBuffer.wrap(buf);
+        }
+        buffer.limit(buf.length);
+        buffer.position(limit);
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Tokenize the record starting at the specified offset
+     *
+     * @return Offset after the end of the record (after the line break), or -1 if the record is incomplete
+     */
+    private int tokenize(int from) {
+        numFields = 0;
+        linesInRecord = 1;
+        int i = from;
+        while (true) {
+            if (i >= limit)
+                return -1;
+            int start = i;
+            boolean escaped = false;
+            int fieldEndIdx;
+            if (buf[i] == quote) {
+                //Quoted field: find the closing quote
+                i++;
+                start = i;
+                while (true) {
+                    if (i >= limit)
+                        return -1;
+                    byte b = buf[i];
+                    if (b == quote) {
+                        if (i + 1 >= limit)
+                            return -1;
+                        if (buf[i + 1] == quote) {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    if (b == LF)
+                        linesInRecord++;
+                    i++;
+                }
+                fieldEndIdx = i;
+                i++; //Skip closing quote
+                //Any data between the closing quote and the next delimiter is appended, as per SerializableCSVParser
+                while (i < limit && buf[i] != delimiter && buf[i] != LF && buf[i] != CR)
+                    i++;
+                if (i > fieldEndIdx + 1) {
+                    escaped = true;
+                }
+                if (i >= limit)
+                    return -1;
+            } else {
+                while (i < limit && buf[i] != delimiter && buf[i] != LF)
+                    i++;
+                if (i >= limit)
+                    return -1;
+                fieldEndIdx = i;
+                if (buf[i] == LF && fieldEndIdx > start && buf[fieldEndIdx - 1] == CR)
+                    fieldEndIdx--;
+            }
+
+            addField(start, fieldEndIdx, escaped);
+
+            byte b = buf[i];
+            if (b == delimiter) {
+                i++;
+                continue;
+            }
+            if (b == CR) {
+                if (i + 1 >= limit)
+                    return -1;
+                if (buf[i + 1] == LF)
+                    i++;
+            }
+            return i + 1;
+        }
+    }
+
+    /**
+     * Tokenize the remaining data as the last record, when the input does not end with a line break
+     */
+    private void tokenizeLast() throws IOException {
+        //Append a virtual line break, growing the buffer if required
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length + 1);
+            buffer = ByteBuffer.wrap(buf);
+        }
+        buf[limit++] = LF;
+        int end = tokenize(pos);
+        if (end < 0)
+            throw new IOException("Un-terminated quoted field at end of CSV input");
+        pos = end;
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (numFields == fieldStart.length) {
+            int n = numFields * 2;
+            fieldStart = Arrays.copyOf(fieldStart, n);
+            fieldEnd = Arrays.copyOf(fieldEnd, n);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, n);
+        }
+        fieldStart[numFields] = start;
+        fieldEnd[numFields] = end;
+        fieldEscaped[numFields] = escaped;
+        numFields++;
+    }
+
+    /**
+     * Copy the specified (quoted) field into the scratch buffer, replacing doubled quotes with a single quote and
+     * removing the closing quote
+     *
+     * @return Length of the unescaped value
+     */
+    private int unescape(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (scratch.length < end - start + 64)
+            scratch = new byte[Math.max(scratch.length * 2, end - start + 64)];
+        int len = 0;
+        int i = start;
+        while (i < end) {
+            byte b = buf[i];
+            if (b == quote && i + 1 < end && buf[i + 1] == quote) {
+                scratch[len++] = quote;
+                i += 2;
+            } else {
+                scratch[len++] = b;
+                i++;
+            }
+        }
+        //Trailing data after the closing quote (rare)
+        int j = end + 1;
+        while (j < limit && buf[j] != delimiter && buf[j] != LF && buf[j] != CR) {
+            if (len == scratch.length)
+                scratch = Arrays.copyOf(scratch, len * 2);
+            scratch[len++] = buf[j++];
+        }
+        return len;
+    }
+}
@@ -22,6 +22,7 @@ import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.records.reader.impl.LineRecordReader;
+import org.datavec.api.split.ByteRangeSplit;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
@@ -123,7 +124,8 @@ public class CSVRecordReader extends LineRecordReader {
     }
 
     private boolean skipLines() {
-        if (!skippedLines && skipNumLines > 0) {
+        //Lines are only skipped at the start of a file, not at the start of each range of a split file
+        if (!skippedLines && skipNumLines > 0 && !isRangeAfterStart(inputSplit)) {
             for (int i = 0; i < skipNumLines; i++) {
                 if (!super.hasNext()) {
                     return false;
@@ -135,6 +137,10 @@ public class CSVRecordReader extends LineRecordReader {
         return true;
     }
 
+    private static boolean isRangeAfterStart(InputSplit split) {
+        return split instanceof ByteRangeSplit && ((ByteRangeSplit) split).getStart() > 0;
+    }
+
     @Override
     public boolean hasNext() {
         return skipLines() && super.hasNext();
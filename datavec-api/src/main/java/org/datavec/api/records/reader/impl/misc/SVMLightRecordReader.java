@@ -8,6 +8,7 @@ import org.datavec.api.records.reader.impl.LineRecordReader;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.split.InputSplit;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.conf.Configuration;
 
@@ -15,6 +16,7 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -40,6 +42,10 @@ import java.util.NoSuchElementException;
  *
  * Like scikit-learn, we support both zero-based and one-based indexing.
  *
+ * By default, features are returned as one DoubleWritable per feature (numFeatures writables per record, mostly
+ * zeros). With the "SPARSE_FEATURES" configuration option, features are instead returned as a single
+ * {@link SparseVectorWritable} holding only the features present in the record.
+ *
  * Further details on the format can be found at
  * - http://svmlight.joachims.org/
  * - http://www.csie.ntu.edu.tw/~cjlin/libsvmtools/datasets/multilabel.html
@@ -58,6 +64,7 @@ public class SVMLightRecordReader extends LineRecordReader {
     public static final String ZERO_BASED_LABEL_INDEXING = NAME_SPACE + ".zeroBasedLabelIndexing";
     public static final String MULTILABEL = NAME_SPACE + ".multilabel";
     public static final String NUM_LABELS = NAME_SPACE + ".numLabels";
+    public static final String SPARSE_FEATURES = NAME_SPACE + ".sparseFeatures";
 
     /* Constants. */
     public static final String COMMENT_CHAR = "#";
@@ -81,6 +88,7 @@ public class SVMLightRecordReader extends LineRecordReader {
     protected boolean appendLabel = true; // whether to append labels to output
     protected boolean multilabel = false; // whether targets are multilabel
     protected int numLabels = -1; // number of labels (required for multilabel targets)
+    protected boolean sparseFeatures = false; // whether to return features as a single SparseVectorWritable
     protected Writable recordLookahead = null;
 
     // for backwards compatibility
@@ -122,6 +130,7 @@ public class SVMLightRecordReader extends LineRecordReader {
         zeroBasedIndexing = conf.getBoolean(ZERO_BASED_INDEXING, true);
         zeroBasedLabelIndexing = conf.getBoolean(ZERO_BASED_LABEL_INDEXING, false);
         numLabels = conf.getInt(NUM_LABELS, -1);
+        sparseFeatures = conf.getBoolean(SPARSE_FEATURES, false);
         if (multilabel && numLabels < 0)
             throw new UnsupportedOperationException("numLabels must be set in confirmation for multilabel problems");
     }
@@ -170,7 +179,17 @@ public class SVMLightRecordReader extends LineRecordReader {
         if (w == null)
             throw new NoSuchElementException("No next element found!");
         String line = w.toString();
-        List<Writable> record = new ArrayList<>(Collections.nCopies(numFeatures, ZERO));
+        List<Writable> record;
+        int[] sparseIndices = null;
+        double[] sparseValues = null;
+        int numSparse = 0;
+        if (sparseFeatures) {
+            record = new ArrayList<>();
+            sparseIndices = new int[16];
+            sparseValues = new double[16];
+        } else {
+            record = new ArrayList<>(Collections.nCopies(numFeatures, ZERO));
+        }
 
         // Remove trailing comments
         String commentRegex = ALLOWED_DELIMITERS + "*" + COMMENT_CHAR + ".*$";
@@ -207,9 +226,21 @@ public class SVMLightRecordReader extends LineRecordReader {
                     throw new IndexOutOfBoundsException("Found " + (index+1) + " features in record, expected " + numFeatures);
 
                 // Add feature
-                record.set(index, new DoubleWritable(Double.parseDouble(featureTokens[1])));
+                if (sparseFeatures) {
+                    if (numSparse == sparseIndices.length) {
+                        sparseIndices = Arrays.copyOf(sparseIndices, 2 * numSparse);
+                        sparseValues = Arrays.copyOf(sparseValues, 2 * numSparse);
+                    }
+                    sparseIndices[numSparse] = index;
+                    sparseValues[numSparse++] = Double.parseDouble(featureTokens[1]);
+                } else {
+                    record.set(index, new DoubleWritable(Double.parseDouble(featureTokens[1])));
+                }
             }
         }
+        if (sparseFeatures) {
+            record.add(toSparseVector(sparseIndices, sparseValues, numSparse));
+        }
 
         // If labels should be appended
         if (appendLabel) {
@@ -270,6 +301,22 @@ public class SVMLightRecordReader extends LineRecordReader {
         return record;
     }
 
+    /**
+     * Create the sparse feature vector. Features are usually listed in ascending order; otherwise they are sorted,
+     * and as for dense features, the last value wins for duplicate indices.
+     */
+    protected SparseVectorWritable toSparseVector(int[] indices, double[] values, int n) {
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = indices[i] > indices[i - 1];
+        }
+        if (sorted) {
+            return new SparseVectorWritable(numFeatures, Arrays.copyOf(indices, n), Arrays.copyOf(values, n));
+        }
+
+        return SparseVectorWritable.fromUnsorted(numFeatures, indices, values, n, false);
+    }
+
     /**
      * Return next Record.
      *
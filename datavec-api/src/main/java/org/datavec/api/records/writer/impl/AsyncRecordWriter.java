@@ -0,0 +1,159 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.records.writer.impl;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.writer.RecordWriter;
+import org.datavec.api.writable.Writable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A record writer that writes records on a background thread, using any other record writer.
+ * Records are passed to the background thread through a bounded queue: {@link #write(List)} only blocks when the
+ * queue is full, so that encoding and I/O overlap with the production of records.
+ * <p>
+ * Records must not be modified after being passed to {@link #write(List)}.
+ * Errors from the underlying writer are rethrown by the next call to {@link #write(List)}, or by {@link #close()}.
+ * Closing this writer waits for all queued records to be written, then closes the underlying writer. If the closing
+ * thread is interrupted, the remaining records are discarded, but the underlying writer is still only closed once the
+ * background thread has stopped using it.
+ */
+public class AsyncRecordWriter implements RecordWriter {
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    //Marks the end of the records; compared by identity
+    private static final List<Writable> END = new ArrayList<>(0);
+
+    private final RecordWriter writer;
+    private final BlockingQueue<List<Writable>> queue;
+    private final Thread thread;
+    private volatile Throwable error;
+    private boolean closed = false;
+
+    public AsyncRecordWriter(RecordWriter writer) {
+        this(writer, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * @param writer    The record writer to use on the background thread
+     * @param queueSize Maximum number of records waiting to be written
+     */
+    public AsyncRecordWriter(RecordWriter writer, int queueSize) {
+        if (queueSize <= 0)
+            throw new IllegalArgumentException("Queue size must be positive: got " + queueSize);
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeQueued();
+            }
+        }, "AsyncRecordWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void writeQueued() {
+        while (true) {
+            List<Writable> record;
+            try {
+                record = queue.take();
+            } catch (InterruptedException e) {
+                error = e;
+                return;
+            }
+            if (record == END) {
+                return;
+            }
+            //After an error, keep draining the queue so that producers never block
+            if (error == null) {
+                try {
+                    writer.write(record);
+                } catch (Throwable t) {
+                    error = t;
+                }
+            }
+        }
+    }
+
+    private void checkError() throws IOException {
+        Throwable t = error;
+        if (t instanceof IOException)
+            throw new IOException("Error writing records", t);
+        if (t != null)
+            throw new IllegalStateException("Error writing records", t);
+    }
+
+    @Override
+    public void write(List<Writable> record) throws IOException {
+        if (closed)
+            throw new IllegalStateException("Cannot write records: writer is closed");
+        checkError();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queueing record");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        boolean interrupted = false;
+        try {
+            queue.put(END);
+            thread.join();
+        } catch (InterruptedException e) {
+            //Stop the background thread, and wait for it to exit: it may still be using the underlying writer
+            interrupted = true;
+            thread.interrupt();
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e2) {
+                    //Keep waiting; the interrupt status is restored below
+                }
+            }
+        }
+        writer.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for records to be written");
+        }
+        if (error != null)
+            throw new IllegalStateException("Error writing records", error);
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        writer.setConf(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return writer.getConf();
+    }
+}
@@ -17,13 +17,18 @@
 package org.datavec.api.records.writer.impl;
 
 
+import org.apache.commons.io.output.CountingOutputStream;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.writer.RecordWriter;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.util.List;
 
 /**
@@ -34,6 +39,12 @@ import java.util.List;
  *
  * This is the path used to write to
  *
+ * Output is buffered (see {@link #BUFFER_SIZE}), and may optionally be split across multiple files, by starting a
+ * new file once the current one holds a maximum number of records or bytes
+ * (see {@link #setMaxRecordsPerFile(long)} and {@link #setMaxBytesPerFile(long)}). The first file is the path
+ * to write to; subsequent files have a suffix _1, _2, etc before the extension.
+ * Buffered output is only written to the file on {@link #flush()} or {@link #close()}.
+ *
  *
  * @author Adam Gibson
  */
@@ -46,11 +57,24 @@ public class FileRecordWriter implements RecordWriter {
     public final static String NEW_LINE = "\n";
     private boolean append;
     public final static String PATH = "org.datavec.api.records.writer.path";
+    public final static String BUFFER_SIZE = "org.datavec.api.records.writer.buffersize";
+    public final static String MAX_RECORDS_PER_FILE = "org.datavec.api.records.writer.maxrecordsperfile";
+    public final static String MAX_BYTES_PER_FILE = "org.datavec.api.records.writer.maxbytesperfile";
+    public final static int DEFAULT_BUFFER_SIZE = 1 << 16;
 
     protected Charset encoding = DEFAULT_CHARSET;
 
     protected Configuration conf;
 
+    protected int bufferSize = DEFAULT_BUFFER_SIZE;
+    protected long maxRecordsPerFile = 0;
+    protected long maxBytesPerFile = 0;
+    protected int fileIndex = 0;
+    protected long recordsInFile = 0;
+    private CountingOutputStream counter;
+    private CharsetEncoder encoder;
+    private ByteBuffer encodeBuffer;
+
     public FileRecordWriter() {}
 
     public FileRecordWriter(File path) throws FileNotFoundException {
@@ -66,7 +90,7 @@ public class FileRecordWriter implements RecordWriter {
         this.writeTo = path;
         this.append = append;
         this.encoding = encoding;
-        out = new DataOutputStream(new FileOutputStream(writeTo, append));
+        openFile();
     }
 
 
@@ -81,14 +105,116 @@ public class FileRecordWriter implements RecordWriter {
         setConf(conf);
     }
 
+    /**
+     * Start a new file once the current file holds the given number of records. Default: 0 (no limit)
+     *
+     * @param maxRecordsPerFile Maximum number of records per file, or 0 for no limit
+     */
+    public void setMaxRecordsPerFile(long maxRecordsPerFile) {
+        if (maxRecordsPerFile < 0)
+            throw new IllegalArgumentException("Maximum records per file must be non-negative: got " + maxRecordsPerFile);
+        this.maxRecordsPerFile = maxRecordsPerFile;
+    }
+
+    /**
+     * Start a new file once the current file holds at least the given number of bytes. Files are only split between
+     * records, hence a file may exceed this size by up to one record. Default: 0 (no limit)
+     *
+     * @param maxBytesPerFile Maximum number of bytes per file, or 0 for no limit
+     */
+    public void setMaxBytesPerFile(long maxBytesPerFile) {
+        if (maxBytesPerFile < 0)
+            throw new IllegalArgumentException("Maximum bytes per file must be non-negative: got " + maxBytesPerFile);
+        this.maxBytesPerFile = maxBytesPerFile;
+    }
+
+    /**
+     * @return The file currently being written to
+     */
+    public File getCurrentFile() {
+        return fileForIndex(fileIndex);
+    }
+
+    /**
+     * @param index Index of the file: 0 for the first file
+     * @return The file with the given index, when output is split across multiple files
+     */
+    protected File fileForIndex(int index) {
+        if (index == 0)
+            return writeTo;
+        String name = writeTo.getName();
+        int dot = name.lastIndexOf('.');
+        String rolled = dot > 0 ? name.substring(0, dot) + "_" + index + name.substring(dot) : name + "_" + index;
+        return new File(writeTo.getParentFile(), rolled);
+    }
+
+    private void openFile() throws FileNotFoundException {
+        //Subsequent files are always new files, even when appending to the first file
+        FileOutputStream fos = new FileOutputStream(getCurrentFile(), append && fileIndex == 0);
+        counter = new CountingOutputStream(new BufferedOutputStream(fos, bufferSize));
+        out = new DataOutputStream(counter);
+        recordsInFile = 0;
+    }
+
+    /**
+     * Called by implementations before writing each record: starts a new file if the current file is full
+     */
+    protected void beginRecord() throws IOException {
+        if (recordsInFile > 0 && ((maxRecordsPerFile > 0 && recordsInFile >= maxRecordsPerFile)
+                        || (maxBytesPerFile > 0 && counter.getByteCount() >= maxBytesPerFile))) {
+            out.close();
+            fileIndex++;
+            openFile();
+            newFileStarted();
+        }
+        recordsInFile++;
+    }
+
+    /**
+     * Called after a new file is started, for implementations that need to reset per-file state
+     */
+    protected void newFileStarted() {
+        //No op by default
+    }
+
+    /**
+     * Write the given text, using the configured encoding. The encoding buffers are reused between calls.
+     *
+     * @param text Text to write
+     */
+    protected void writeText(CharSequence text) throws IOException {
+        if (encoder == null) {
+            encoder = encoding.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        int maxBytes = (int) Math.ceil(text.length() * (double) encoder.maxBytesPerChar()) + 16;
+        if (encodeBuffer == null || encodeBuffer.capacity() < maxBytes) {
+            encodeBuffer = ByteBuffer.allocate(Math.max(maxBytes, 1024));
+        }
+        encodeBuffer.clear();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(text), encodeBuffer, true);
+        encoder.flush(encodeBuffer);
+        out.write(encodeBuffer.array(), 0, encodeBuffer.position());
+    }
+
     @Override
     public void write(List<Writable> record) throws IOException {
         if (!record.isEmpty()) {
+            beginRecord();
             Text t = (Text) record.iterator().next();
             t.write(out);
         }
     }
 
+    /**
+     * Write any buffered output to the current file
+     */
+    public void flush() throws IOException {
+        if (out != null)
+            out.flush();
+    }
+
     @Override
     public void close() {
         if (out != null) {
@@ -105,6 +231,9 @@ public class FileRecordWriter implements RecordWriter {
     @Override
     public void setConf(Configuration conf) {
         this.conf = conf;
+        this.bufferSize = conf.getInt(BUFFER_SIZE, bufferSize);
+        setMaxRecordsPerFile(conf.getLong(MAX_RECORDS_PER_FILE, maxRecordsPerFile));
+        setMaxBytesPerFile(conf.getLong(MAX_BYTES_PER_FILE, maxBytesPerFile));
         if (this.writeTo == null) {
             this.writeTo = new File(conf.get(PATH, "input.txt"));
             this.append = conf.getBoolean(APPEND, true);
@@ -121,7 +250,7 @@ public class FileRecordWriter implements RecordWriter {
 
         if (out == null) {
             try {
-                out = new DataOutputStream(new FileOutputStream(writeTo, append));
+                openFile();
             } catch (FileNotFoundException e) {
                 throw new RuntimeException(e);
             }
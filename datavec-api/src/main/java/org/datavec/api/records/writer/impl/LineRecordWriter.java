@@ -48,6 +48,7 @@ public class LineRecordWriter extends FileRecordWriter {
     @Override
     public void write(List<Writable> record) throws IOException {
         if (!record.isEmpty()) {
+            beginRecord();
             Text t = (Text) record.iterator().next();
             t.write(out);
             out.write(NEW_LINE.getBytes());
@@ -35,11 +35,12 @@ import java.util.List;
 public class CSVRecordWriter extends FileRecordWriter {
     public static final String DEFAULT_DELIMITER = ",";
 
-    private final byte[] delimBytes;
+    private final String delimiter;
+    private final StringBuilder line = new StringBuilder();
     private boolean firstLine = true;
 
     public CSVRecordWriter() {
-        delimBytes = DEFAULT_DELIMITER.getBytes(encoding);
+        delimiter = DEFAULT_DELIMITER;
     }
 
     public CSVRecordWriter(File path) throws FileNotFoundException {
@@ -52,20 +53,23 @@ public class CSVRecordWriter extends FileRecordWriter {
 
     public CSVRecordWriter(Configuration conf) throws FileNotFoundException {
         super(conf);
-        delimBytes = DEFAULT_DELIMITER.getBytes(encoding);
+        delimiter = DEFAULT_DELIMITER;
     }
 
     public CSVRecordWriter(File path, boolean append, Charset encoding, String delimiter) throws FileNotFoundException {
         super(path, append, encoding);
-        this.delimBytes = delimiter.getBytes(encoding);
+        this.delimiter = delimiter;
     }
 
     @Override
     public void write(List<Writable> record) throws IOException {
         if (!record.isEmpty()) {
+            beginRecord();
+            //Build and encode the whole line at once: one write to the (buffered) output per record
+            line.setLength(0);
             //Add new line before appending lines rather than after (avoids newline after last line)
             if (!firstLine) {
-                out.write(NEW_LINE.getBytes());
+                line.append(NEW_LINE);
             } else {
                 firstLine = false;
             }
@@ -73,12 +77,17 @@ public class CSVRecordWriter extends FileRecordWriter {
             int count = 0;
             int last = record.size() - 1;
             for (Writable w : record) {
-                out.write(w.toString().getBytes(encoding));
+                line.append(w.toString());
                 if (count++ != last)
-                    out.write(delimBytes);
+                    line.append(delimiter);
             }
 
-            out.flush();
+            writeText(line);
         }
     }
+
+    @Override
+    protected void newFileStarted() {
+        firstLine = true;
+    }
 }
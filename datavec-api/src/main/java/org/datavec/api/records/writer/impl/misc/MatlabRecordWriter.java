@@ -48,6 +48,7 @@ public class MatlabRecordWriter extends FileRecordWriter {
 
     @Override
     public void write(List<Writable> record) throws IOException {
+        beginRecord();
         StringBuilder result = new StringBuilder();
 
         int count = 0;
@@ -62,8 +63,8 @@ public class MatlabRecordWriter extends FileRecordWriter {
 
         }
 
-        out.write(result.toString().getBytes());
-        out.write(NEW_LINE.getBytes());
+        result.append(NEW_LINE);
+        writeText(result);
 
 
 
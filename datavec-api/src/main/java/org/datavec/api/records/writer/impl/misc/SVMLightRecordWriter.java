@@ -21,6 +21,7 @@ import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.reader.impl.misc.SVMLightRecordReader;
 import org.datavec.api.records.writer.impl.FileRecordWriter;
 import org.datavec.api.writable.ArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 
 import java.io.File;
@@ -50,6 +51,9 @@ import java.util.List;
  *
  * Like scikit-learn, we support both zero-based and one-based indexing.
  *
+ * Feature columns may be scalar writables, array writables, or {@link SparseVectorWritable}s (for which only the
+ * stored entries are visited).
+ *
  * Further details on the format can be found at
  * - http://svmlight.joachims.org/
  * - http://www.csie.ntu.edu.tw/~cjlin/libsvmtools/datasets/multilabel.html
@@ -208,8 +212,20 @@ public class SVMLightRecordWriter extends FileRecordWriter {
             int featureIndex = zeroBasedIndexing ? 0 : 1;
             for (int i = featureFirstColumn; i <= featureLastColumn; i++) {
                 Writable w = record.get(i);
-                // Handle array-structured Writables, which themselves have multiple columns
-                if (w instanceof ArrayWritable) {
+                // Sparse vectors: only the stored entries need to be visited
+                if (w instanceof SparseVectorWritable) {
+                    SparseVectorWritable sparse = (SparseVectorWritable) w;
+                    int[] indices = sparse.getIndices();
+                    double[] values = sparse.getValues();
+                    for (int j = 0; j < indices.length; j++) {
+                        if (values[j] != 0) {
+                            result.append(SVMLightRecordReader.PREFERRED_DELIMITER).append(featureIndex + indices[j]);
+                            result.append(SVMLightRecordReader.FEATURE_DELIMITER).append(values[j]);
+                        }
+                    }
+                    featureIndex += sparse.length();
+                } else if (w instanceof ArrayWritable) {
+                    // Handle array-structured Writables, which themselves have multiple columns
                     ArrayWritable arr = (ArrayWritable) w;
                     for (int j = 0; j < arr.length(); j++) {
                         double val = arr.getDouble(j);
@@ -230,9 +246,9 @@ public class SVMLightRecordWriter extends FileRecordWriter {
             }
 
             // Remove extra label delimiter at beginning
-            String line = result.substring(1).toString();
-            out.write(line.getBytes());
-            out.write(NEW_LINE.getBytes());
+            result.deleteCharAt(0).append(NEW_LINE);
+            beginRecord();
+            writeText(result);
         }
     }
 }
@@ -0,0 +1,360 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.split;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.datavec.api.writable.WritableType;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A contiguous byte range of a single file, aligned to record (line) boundaries, so that one large file can be
+ * split and the splits read concurrently (for example, by one {@link org.datavec.api.records.reader.RecordReader}
+ * per split, on separate threads).<br>
+ * Splits are created via {@link #split(File, int)}: the file is divided into ranges of (approximately) equal size,
+ * and each boundary is then moved forward to the start of the next line, as per Hadoop's line splitting. Every
+ * line therefore belongs to exactly one split.
+ * <p>
+ * In quote-aware mode ({@link #split(File, int, boolean, char)}), line breaks within quoted fields are not used as
+ * boundaries. Whether a position is within a quoted field is determined from the parity of the number of quote
+ * characters before it, which is correct for RFC 4180 style quoting (where a quote within a field is escaped by
+ * doubling it).
+ * <p>
+ * Creating the splits requires one pass over the file, which is executed in parallel (one task per range). This
+ * pass also counts the line breaks before each split, so that each split knows the line number of its first line
+ * ({@link #getFirstLine()}). Readers use this to produce RecordMetaDataLine instances with line numbers relative to
+ * the start of the file, hence {@code loadFromMetaData} works as for unsplit files.
+ */
+public class ByteRangeSplit implements InputSplit {
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+
+    private URI location;
+    private long start;
+    private long end;
+    private long firstLine;
+
+    /**
+     * @param location  Location of the file. Must be a local file URI
+     * @param start     Byte offset (inclusive) of the start of the split. Must be the start of a line
+     * @param end       Byte offset (exclusive) of the end of the split. Must be the start of a line, or the file length
+     * @param firstLine Number of lines in the file before the start of the split
+     */
+    public ByteRangeSplit(URI location, long start, long end, long firstLine) {
+        if (start < 0 || end < start)
+            throw new IllegalArgumentException("Invalid range: start=" + start + ", end=" + end);
+        this.location = location;
+        this.start = start;
+        this.end = end;
+        this.firstLine = firstLine;
+    }
+
+    /**
+     * Split the file into (at most) the specified number of line aligned splits, without quote handling
+     *
+     * @param file      File to split
+     * @param numSplits Maximum number of splits. Fewer splits are returned for small files, or if some ranges
+     *                  contain no line breaks
+     * @return Splits, in order of position in the file
+     */
+    public static List<ByteRangeSplit> split(File file, int numSplits) throws IOException {
+        return split(file, numSplits, false, '"');
+    }
+
+    /**
+     * Split the file into (at most) the specified number of line aligned splits
+     *
+     * @param file       File to split
+     * @param numSplits  Maximum number of splits. Fewer splits are returned for small files, or if some ranges
+     *                   contain no (unquoted) line breaks
+     * @param quoteAware If true: line breaks within quoted fields are not used as split boundaries
+     * @param quote      Quote character (ASCII). Only used if quoteAware is true
+     * @return Splits, in order of position in the file
+     */
+    public static List<ByteRangeSplit> split(File file, int numSplits, boolean quoteAware, char quote)
+                    throws IOException {
+        if (numSplits <= 0)
+            throw new IllegalArgumentException("Invalid number of splits: " + numSplits);
+        if (quoteAware && quote > 127)
+            throw new IllegalArgumentException("Quote character must be an ASCII character: got '" + quote + "'");
+
+        long size = file.length();
+        URI uri = file.toURI();
+        int n = (int) Math.max(1, Math.min(numSplits, size));
+        if (n == 1) {
+            return Collections.singletonList(new ByteRangeSplit(uri, 0, size, 0));
+        }
+
+        //Ranges are shifted back by one byte (other than the first): a line starting at nominal boundary s must be
+        //assigned to the split starting at s, which requires checking whether byte s-1 is a line break
+        long[] scanStart = new long[n + 1];
+        for (int k = 0; k <= n; k++) {
+            scanStart[k] = Math.max(0, size * k / n - 1);
+        }
+        scanStart[0] = 0;
+        scanStart[n] = size;
+
+        ExecutorService exec = Executors.newFixedThreadPool(Math.min(n, Runtime.getRuntime().availableProcessors()));
+        List<RangeStats> stats = new ArrayList<>(n);
+        try {
+            List<Future<RangeStats>> futures = new ArrayList<>(n);
+            for (int k = 0; k < n; k++) {
+                futures.add(exec.submit(new RangeScanner(file, scanStart[k], scanStart[k + 1], quoteAware,
+                                (byte) quote)));
+            }
+            for (Future<RangeStats> f : futures) {
+                stats.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while splitting file " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error splitting file " + file, e.getCause());
+        } finally {
+            exec.shutdownNow();
+        }
+
+        //Find the aligned start (and number of preceding lines) of each split, from the prefix sums of the counts
+        List<ByteRangeSplit> out = new ArrayList<>(n);
+        long prevStart = 0;
+        long prevFirstLine = 0;
+        long linesBefore = 0;
+        long quotesBefore = 0;
+        for (int k = 0; k < n; k++) {
+            RangeStats s = stats.get(k);
+            if (k > 0) {
+                int parity = quoteAware ? (int) (quotesBefore & 1) : 0;
+                long boundary = s.firstBreak[parity];
+                if (boundary >= 0) {
+                    long alignedStart = boundary + 1;
+                    long firstLine = linesBefore + s.breaksUpToFirst[parity];
+                    if (alignedStart > prevStart && alignedStart < size) {
+                        out.add(new ByteRangeSplit(uri, prevStart, alignedStart, prevFirstLine));
+                        prevStart = alignedStart;
+                        prevFirstLine = firstLine;
+                    }
+                }
+                //No boundary in this range: the previous split is extended
+            }
+            linesBefore += s.lineBreaks;
+            quotesBefore += s.quotes;
+        }
+        out.add(new ByteRangeSplit(uri, prevStart, size, prevFirstLine));
+        return out;
+    }
+
+    /**
+     * Open a stream over the bytes of this split
+     */
+    public InputStream openStream() throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(location), StandardOpenOption.READ);
+        try {
+            channel.position(start);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedInputStream(Channels.newInputStream(channel), end - start);
+    }
+
+    public URI getLocation() {
+        return location;
+    }
+
+    /**
+     * @return Byte offset of the start of this split (inclusive)
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return Byte offset of the end of this split (exclusive)
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return Number of lines in the file before the start of this split
+     */
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    @Override
+    public long length() {
+        return end - start;
+    }
+
+    @Override
+    public URI[] locations() {
+        return new URI[] {location};
+    }
+
+    @Override
+    public Iterator<URI> locationsIterator() {
+        return Collections.singletonList(location).iterator();
+    }
+
+    @Override
+    public Iterator<String> locationsPathIterator() {
+        return Collections.singletonList(location.getPath()).iterator();
+    }
+
+    @Override
+    public void reset() {
+        //No op
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(location.toString());
+        out.writeLong(start);
+        out.writeLong(end);
+        out.writeLong(firstLine);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        location = URI.create(in.readUTF());
+        start = in.readLong();
+        end = in.readLong();
+        firstLine = in.readLong();
+    }
+
+    @Override
+    public double toDouble() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public float toFloat() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int toInt() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long toLong() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WritableType getType() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeType(DataOutput out) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return "ByteRangeSplit(location=" + location + ",start=" + start + ",end=" + end + ",firstLine=" + firstLine
+                        + ")";
+    }
+
+    /**
+     * Counts for one range of the file. firstBreak and breaksUpToFirst are indexed by the parity of the number of
+     * quotes before the start of the range (always 0 if not quote-aware)
+     */
+    private static class RangeStats {
+        private long lineBreaks;
+        private long quotes;
+        private final long[] firstBreak = {-1, -1};
+        private final long[] breaksUpToFirst = new long[2];
+    }
+
+    private static class RangeScanner implements Callable<RangeStats> {
+        private final File file;
+        private final long from;
+        private final long to;
+        private final boolean quoteAware;
+        private final byte quote;
+
+        private RangeScanner(File file, long from, long to, boolean quoteAware, byte quote) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+            this.quoteAware = quoteAware;
+            this.quote = quote;
+        }
+
+        @Override
+        public RangeStats call() throws IOException {
+            RangeStats s = new RangeStats();
+            int found = 0; //Number of parities for which the first break has been found
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+                byte[] buf = buffer.array();
+                long pos = from;
+                long lineBreaks = 0;
+                long quotes = 0;
+                while (pos < to) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buf.length, to - pos));
+                    int read = channel.read(buffer, pos);
+                    if (read < 0)
+                        break;
+                    for (int i = 0; i < read; i++) {
+                        byte b = buf[i];
+                        if (b == '\n') {
+                            lineBreaks++;
+                            if (found < 2) {
+                                //Local parity p: the break is outside quotes if the parity before the range is p
+                                int p = quoteAware ? (int) (quotes & 1) : 0;
+                                if (s.firstBreak[p] < 0) {
+                                    s.firstBreak[p] = pos + i;
+                                    s.breaksUpToFirst[p] = lineBreaks;
+                                    found += quoteAware ? 1 : 2;
+                                }
+                            }
+                        } else if (quoteAware && b == quote) {
+                            quotes++;
+                        }
+                    }
+                    pos += read;
+                }
+                s.lineBreaks = lineBreaks;
+                s.quotes = quotes;
+            }
+            return s;
+        }
+    }
+}
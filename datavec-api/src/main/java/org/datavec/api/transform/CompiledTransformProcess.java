@@ -0,0 +1,242 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform;
+
+import org.datavec.api.transform.columnar.BatchTransform;
+import org.datavec.api.transform.columnar.BatchTransforms;
+import org.datavec.api.transform.columnar.ColumnTransformBatchAdapter;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled execution plan for the transforms and filters of a {@link TransformProcess}, for executing
+ * (non-sequence) examples one at a time.<br>
+ * Compared to {@link TransformProcess#execute(List)}, column indices are resolved once when the plan is built, and
+ * consecutive single column transforms ({@link BaseColumnTransform} subclasses that do not override
+ * {@link BaseColumnTransform#map(List)}) are fused: they are applied in place on a single copy of the record, instead
+ * of allocating a new list for every step. Filters are evaluated on that same copy.<br>
+ * The input list is never modified. Instances are immutable (beyond the state of the transforms themselves) and may
+ * be shared between threads if the underlying transforms and filters may be.
+ * <p>
+ * Only transforms and filters can be compiled: other operations (ConvertToSequence, reductions etc) require the
+ * full data set to be available and cannot be executed one example at a time.
+ */
+public class CompiledTransformProcess implements Serializable {
+
+    private static final byte COLUMN = 0;
+    private static final byte FILTER = 1;
+    private static final byte TRANSFORM = 2;
+
+    private final List<DataAction> actionList;
+
+    //One entry per step; only the array(s) matching the step type are non-null for a given step
+    private final byte[] stepTypes;
+    private final int[] columnIdxs;
+    private final int[] numColumns;
+    private final BaseColumnTransform[] columnTransforms;
+    private final Filter[] filters;
+    private final Transform[] transforms;
+    //Columnar execution: non-null for each transform step (fused or not)
+    private final BatchTransform[] batchTransforms;
+
+    /**
+     * @param actionList Actions to compile. Each must be a transform or a filter, with the input schemas already set
+     *                   (as is the case for the action list of a {@link TransformProcess})
+     */
+    public CompiledTransformProcess(List<DataAction> actionList) {
+        this.actionList = new ArrayList<>(actionList);
+
+        int n = actionList.size();
+        stepTypes = new byte[n];
+        columnIdxs = new int[n];
+        numColumns = new int[n];
+        columnTransforms = new BaseColumnTransform[n];
+        filters = new Filter[n];
+        transforms = new Transform[n];
+        batchTransforms = new BatchTransform[n];
+
+        for (int i = 0; i < n; i++) {
+            DataAction d = actionList.get(i);
+            if (d.getTransform() != null) {
+                Transform t = d.getTransform();
+                if (isFusable(t)) {
+                    BaseColumnTransform bct = (BaseColumnTransform) t;
+                    stepTypes[i] = COLUMN;
+                    columnIdxs[i] = bct.getColumnNumber();
+                    numColumns[i] = bct.getInputSchema().numColumns();
+                    columnTransforms[i] = bct;
+                    if (columnIdxs[i] < 0) {
+                        throw new IllegalStateException("Cannot compile transform " + t + ": column index is not "
+                                        + "set. setInputSchema not called?");
+                    }
+                    batchTransforms[i] = t instanceof BatchTransform ? (BatchTransform) t
+                                    : new ColumnTransformBatchAdapter(bct);
+                } else {
+                    stepTypes[i] = TRANSFORM;
+                    transforms[i] = t;
+                    batchTransforms[i] = BatchTransforms.forTransform(t);
+                }
+            } else if (d.getFilter() != null) {
+                stepTypes[i] = FILTER;
+                filters[i] = d.getFilter();
+            } else {
+                throw new IllegalStateException("Cannot compile action " + d + ": only Transform and Filter "
+                                + "operations can be executed on individual examples");
+            }
+        }
+    }
+
+    /**
+     * @return The actions that this plan was compiled from
+     */
+    public List<DataAction> getActionList() {
+        return actionList;
+    }
+
+    /**
+     * @return Number of the steps that are executed in place, as part of a fused run of column transforms
+     */
+    public int numFusedSteps() {
+        int count = 0;
+        for (byte b : stepTypes) {
+            if (b == COLUMN)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Execute the compiled steps on a single example. May return null if the example is filtered.
+     * The input list is not modified.
+     *
+     * @param input Input example
+     * @return Output example, or null if the example was removed by a filter
+     */
+    public List<Writable> execute(List<Writable> input) {
+        List<Writable> curr = input;
+        //True when curr is a list that was created here, and hence can be modified in place
+        boolean owned = false;
+
+        for (int i = 0; i < stepTypes.length; i++) {
+            switch (stepTypes[i]) {
+                case COLUMN:
+                    if (!owned) {
+                        if (curr.size() != numColumns[i]) {
+                            throw new IllegalStateException("Cannot execute transform: input writables list length ("
+                                            + curr.size() + ") does not match expected number of elements (schema: "
+                                            + numColumns[i] + "). Transform = " + columnTransforms[i]);
+                        }
+                        curr = new ArrayList<>(curr);
+                        owned = true;
+                    }
+                    int idx = columnIdxs[i];
+                    curr.set(idx, columnTransforms[i].map(curr.get(idx)));
+                    break;
+                case FILTER:
+                    if (filters[i].removeExample(curr))
+                        return null;
+                    break;
+                default:
+                    curr = transforms[i].map(curr);
+                    //We don't know if the transform returned a new list, or (a view of) its input
+                    owned = false;
+            }
+        }
+
+        return curr;
+    }
+
+    /**
+     * Execute the compiled steps on each of the specified examples. Examples that are removed by a filter are not
+     * included in the output.
+     *
+     * @param input Input examples
+     * @return Output examples
+     */
+    public List<List<Writable>> executeBatch(List<List<Writable>> input) {
+        List<List<Writable>> out = new ArrayList<>(input.size());
+        for (List<Writable> l : input) {
+            List<Writable> ex = execute(l);
+            if (ex != null)
+                out.add(ex);
+        }
+        return out;
+    }
+
+    /**
+     * Execute the compiled steps on a columnar batch of examples. Transforms are executed one batch at a time (see
+     * {@link BatchTransform}); filters are evaluated row by row, and only the rows that are retained are copied to
+     * a new batch. The input batch may be modified or reused for the output.
+     *
+     * @param input Input batch. Must match the input schema of the first step
+     * @return Output batch
+     */
+    public ColumnarBatch executeColumnar(ColumnarBatch input) {
+        ColumnarBatch curr = input;
+        for (int i = 0; i < stepTypes.length; i++) {
+            if (stepTypes[i] == FILTER) {
+                curr = filter(curr, filters[i]);
+            } else {
+                curr = batchTransforms[i].mapBatch(curr);
+            }
+        }
+        return curr;
+    }
+
+    private static ColumnarBatch filter(ColumnarBatch batch, Filter filter) {
+        int n = batch.numRows();
+        ColumnarBatch out = null;
+        for (int i = 0; i < n; i++) {
+            List<Writable> record = batch.getRecord(i);
+            boolean remove = filter.removeExample(record);
+            if (remove && out == null) {
+                //First removed row: copy all rows before it
+                out = new ColumnarBatch(batch.getSchema(), Math.max(1, n - 1));
+                for (int j = 0; j < i; j++) {
+                    out.addRecord(batch.getRecord(j));
+                }
+            } else if (!remove && out != null) {
+                out.addRecord(record);
+            }
+        }
+        return out == null ? batch : out;
+    }
+
+    /**
+     * Whether the given transform can be executed in place, on a single column of a (mutable) record
+     */
+    private static boolean isFusable(Transform t) {
+        if (!(t instanceof BaseColumnTransform))
+            return false;
+        try {
+            return t.getClass().getMethod("map", List.class).getDeclaringClass() == BaseColumnTransform.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledTransformProcess(numSteps=" + stepTypes.length + ",numFusedSteps=" + numFusedSteps() + ")";
+    }
+}
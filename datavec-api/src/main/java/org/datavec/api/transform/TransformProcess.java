@@ -258,6 +258,20 @@ public class TransformProcess implements Serializable {
         return currValues;
     }
 
+    /**
+     * Compile the transforms and filters of this TransformProcess into a reusable execution plan, for executing
+     * (non-sequence) examples individually. The returned plan produces the same output as {@link #execute(List)},
+     * but consecutive single-column transforms are fused into a single pass over one copy of the record.<br>
+     * The same restrictions as {@link #execute(List)} apply: this TransformProcess may only contain transforms
+     * and filters.
+     *
+     * @return Compiled execution plan
+     * @see CompiledTransformProcess
+     */
+    public CompiledTransformProcess compile() {
+        return new CompiledTransformProcess(actionList);
+    }
+
     /**
      *
      * @param input
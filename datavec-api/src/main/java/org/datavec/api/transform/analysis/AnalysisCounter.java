@@ -14,7 +14,7 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.analysis;
+package org.datavec.api.transform.analysis;
 
 import org.datavec.api.writable.Writable;
 
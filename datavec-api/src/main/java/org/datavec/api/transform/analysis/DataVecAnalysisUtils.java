@@ -0,0 +1,227 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis;
+
+import com.tdunning.math.stats.TDigest;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.transform.analysis.counter.*;
+import org.datavec.api.transform.analysis.histogram.HistogramCounter;
+import org.datavec.api.transform.analysis.histogram.HistogramUtils;
+import org.datavec.api.transform.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for converting the analysis and histogram counters to {@link DataAnalysis} column analysis objects.
+ * Used by both the Spark and local analysis implementations.
+ */
+public class DataVecAnalysisUtils {
+
+    private DataVecAnalysisUtils() {}
+
+    /**
+     * Convert the analysis counters (one per column) to {@link ColumnAnalysis} objects. Histograms are not set.
+     *
+     * @param schema    Schema of the data
+     * @param counters  Counters, one per column
+     * @param minsMaxes Output array, of shape [numColumns][2]: the min and max values for each column (or min/max
+     *                  lengths for String columns) are set here, for later use in calculating histograms
+     * @return Column analysis objects, one per column
+     */
+    public static List<ColumnAnalysis> convertCounters(Schema schema, List<AnalysisCounter> counters,
+                    double[][] minsMaxes) {
+        List<ColumnType> columnTypes = schema.getColumnTypes();
+        int nColumns = schema.numColumns();
+        List<ColumnAnalysis> list = new ArrayList<>(nColumns);
+
+        for (int i = 0; i < nColumns; i++) {
+            ColumnType ct = columnTypes.get(i);
+
+            switch (ct) {
+                case String:
+                    StringAnalysisCounter sac = (StringAnalysisCounter) counters.get(i);
+                    list.add(new StringAnalysis.Builder().countTotal(sac.getCountTotal())
+                                    .minLength(sac.getMinLengthSeen()).maxLength(sac.getMaxLengthSeen())
+                                    .meanLength(sac.getMean()).sampleStdevLength(sac.getSampleStdev())
+                                    .sampleVarianceLength(sac.getSampleVariance()).build());
+                    minsMaxes[i][0] = sac.getMinLengthSeen();
+                    minsMaxes[i][1] = sac.getMaxLengthSeen();
+                    break;
+                case Integer:
+                    IntegerAnalysisCounter iac = (IntegerAnalysisCounter) counters.get(i);
+                    IntegerAnalysis ia = new IntegerAnalysis.Builder().min(iac.getMinValueSeen())
+                                    .max(iac.getMaxValueSeen()).mean(iac.getMean()).sampleStdev(iac.getSampleStdev())
+                                    .sampleVariance(iac.getSampleVariance()).countZero(iac.getCountZero())
+                                    .countNegative(iac.getCountNegative()).countPositive(iac.getCountPositive())
+                                    .countMinValue(iac.getCountMinValue()).countMaxValue(iac.getCountMaxValue())
+                                    .countTotal(iac.getCountTotal()).digest(iac.getDigest()).build();
+                    list.add(ia);
+
+                    minsMaxes[i][0] = iac.getMinValueSeen();
+                    minsMaxes[i][1] = iac.getMaxValueSeen();
+
+                    break;
+                case Long:
+                    LongAnalysisCounter lac = (LongAnalysisCounter) counters.get(i);
+
+                    LongAnalysis la = new LongAnalysis.Builder().min(lac.getMinValueSeen()).max(lac.getMaxValueSeen())
+                                    .mean(lac.getMean()).sampleStdev(lac.getSampleStdev())
+                                    .sampleVariance(lac.getSampleVariance()).countZero(lac.getCountZero())
+                                    .countNegative(lac.getCountNegative()).countPositive(lac.getCountPositive())
+                                    .countMinValue(lac.getCountMinValue()).countMaxValue(lac.getCountMaxValue())
+                                    .countTotal(lac.getCountTotal()).digest(lac.getDigest()).build();
+
+                    list.add(la);
+
+                    minsMaxes[i][0] = lac.getMinValueSeen();
+                    minsMaxes[i][1] = lac.getMaxValueSeen();
+
+                    break;
+                case Double:
+                    DoubleAnalysisCounter dac = (DoubleAnalysisCounter) counters.get(i);
+                    DoubleAnalysis da = new DoubleAnalysis.Builder().min(dac.getMinValueSeen())
+                                    .max(dac.getMaxValueSeen()).mean(dac.getMean()).sampleStdev(dac.getSampleStdev())
+                                    .sampleVariance(dac.getSampleVariance()).countZero(dac.getCountZero())
+                                    .countNegative(dac.getCountNegative()).countPositive(dac.getCountPositive())
+                                    .countMinValue(dac.getCountMinValue()).countMaxValue(dac.getCountMaxValue())
+                                    .countNaN(dac.getCountNaN()).digest(dac.getDigest()).countTotal(dac.getCountTotal()).build();
+                    list.add(da);
+
+                    minsMaxes[i][0] = dac.getMinValueSeen();
+                    minsMaxes[i][1] = dac.getMaxValueSeen();
+
+                    break;
+                case Categorical:
+                    CategoricalAnalysisCounter cac = (CategoricalAnalysisCounter) counters.get(i);
+                    CategoricalAnalysis ca = new CategoricalAnalysis(cac.getCounts());
+                    list.add(ca);
+
+                    break;
+                case Time:
+                    LongAnalysisCounter lac2 = (LongAnalysisCounter) counters.get(i);
+
+                    TimeAnalysis la2 = new TimeAnalysis.Builder().min(lac2.getMinValueSeen())
+                                    .max(lac2.getMaxValueSeen()).mean(lac2.getMean()).sampleStdev(lac2.getSampleStdev())
+                                    .sampleVariance(lac2.getSampleVariance()).countZero(lac2.getCountZero())
+                                    .countNegative(lac2.getCountNegative()).countPositive(lac2.getCountPositive())
+                                    .countMinValue(lac2.getCountMinValue()).countMaxValue(lac2.getCountMaxValue())
+                                    .countTotal(lac2.getCountTotal()).digest(lac2.getDigest()).build();
+
+                    list.add(la2);
+
+                    minsMaxes[i][0] = lac2.getMinValueSeen();
+                    minsMaxes[i][1] = lac2.getMaxValueSeen();
+
+                    break;
+                case Bytes:
+                    BytesAnalysisCounter bac = (BytesAnalysisCounter) counters.get(i);
+                    list.add(new BytesAnalysis.Builder().countTotal(bac.getCountTotal()).build());
+                    break;
+                case NDArray:
+                    NDArrayAnalysisCounter nac = (NDArrayAnalysisCounter) counters.get(i);
+                    NDArrayAnalysis nda = nac.toAnalysisObject();
+                    list.add(nda);
+
+                    minsMaxes[i][0] = nda.getMinValue();
+                    minsMaxes[i][1] = nda.getMaxValue();
+
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown column type: " + ct);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Set the histograms from the histogram counters (one per column; may be null) on the column analysis objects
+     *
+     * @param list              Column analysis objects
+     * @param histogramCounters Histogram counters, one per column
+     */
+    public static void mergeCounters(List<ColumnAnalysis> list, List<HistogramCounter> histogramCounters) {
+        for (int i = 0; i < list.size(); i++) {
+            HistogramCounter hc = histogramCounters.get(i);
+            if (hc != null)
+                setHistogram(list.get(i), hc.getBins(), hc.getCounts());
+        }
+    }
+
+    /**
+     * Set approximate histograms on the column analysis objects, estimated from the t-digest sketches of the analysis
+     * counters. This allows histograms to be calculated without a second pass over the data.<br>
+     * Histograms are set for Integer, Long, Double, Time and String (length) columns only.
+     *
+     * @param list      Column analysis objects
+     * @param counters  Analysis counters, one per column
+     * @param minsMaxes Min/max values for each column, as set by {@link #convertCounters(Schema, List, double[][])}
+     * @param nBins     Number of histogram bins
+     */
+    public static void estimateHistograms(List<ColumnAnalysis> list, List<AnalysisCounter> counters,
+                    double[][] minsMaxes, int nBins) {
+        for (int i = 0; i < list.size(); i++) {
+            AnalysisCounter c = counters.get(i);
+            TDigest digest;
+            long countTotal;
+            if (c instanceof IntegerAnalysisCounter) {
+                digest = ((IntegerAnalysisCounter) c).getDigest();
+                countTotal = ((IntegerAnalysisCounter) c).getCountTotal();
+            } else if (c instanceof LongAnalysisCounter) {
+                digest = ((LongAnalysisCounter) c).getDigest();
+                countTotal = ((LongAnalysisCounter) c).getCountTotal();
+            } else if (c instanceof DoubleAnalysisCounter) {
+                digest = ((DoubleAnalysisCounter) c).getDigest();
+                countTotal = ((DoubleAnalysisCounter) c).getCountTotal();
+            } else if (c instanceof StringAnalysisCounter) {
+                digest = ((StringAnalysisCounter) c).getDigest();
+                countTotal = ((StringAnalysisCounter) c).getCountTotal();
+            } else {
+                continue;
+            }
+
+            double[] bins = HistogramUtils.getBins(minsMaxes[i][0], minsMaxes[i][1], nBins);
+            long[] counts = HistogramUtils.estimateCounts(digest, bins, countTotal);
+            setHistogram(list.get(i), bins, counts);
+        }
+    }
+
+    private static void setHistogram(ColumnAnalysis ca, double[] bins, long[] counts) {
+        if (ca instanceof IntegerAnalysis) {
+            ((IntegerAnalysis) ca).setHistogramBuckets(bins);
+            ((IntegerAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof DoubleAnalysis) {
+            ((DoubleAnalysis) ca).setHistogramBuckets(bins);
+            ((DoubleAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof LongAnalysis) {
+            ((LongAnalysis) ca).setHistogramBuckets(bins);
+            ((LongAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof TimeAnalysis) {
+            ((TimeAnalysis) ca).setHistogramBuckets(bins);
+            ((TimeAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof StringAnalysis) {
+            ((StringAnalysis) ca).setHistogramBuckets(bins);
+            ((StringAnalysis) ca).setHistogramBucketCounts(counts);
+        } else if (ca instanceof NDArrayAnalysis) {
+            ((NDArrayAnalysis) ca).setHistogramBuckets(bins);
+            ((NDArrayAnalysis) ca).setHistogramBucketCounts(counts);
+        }
+    }
+}
@@ -14,12 +14,12 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.analysis.columns;
+package org.datavec.api.transform.analysis.counter;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,7 +27,7 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * A counter function for doing analysis on Categorical columns, on Spark
+ * A counter function for doing analysis on Categorical columns
  *
  * @author Alex Black
  */
@@ -14,17 +14,16 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.analysis.columns;
+package org.datavec.api.transform.analysis.counter;
 
 import com.tdunning.math.stats.TDigest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.apache.spark.util.StatCounter;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 
 /**
- * A counter function for doing analysis on integer columns, on Spark
+ * A counter function for doing analysis on integer columns
  *
  * @author Alex Black
  */
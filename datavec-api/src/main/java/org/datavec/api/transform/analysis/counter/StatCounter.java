@@ -0,0 +1,147 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis.counter;
+
+import java.io.Serializable;
+
+/**
+ * A mergeable counter for the count, mean, variance, min and max of a set of double values, using the numerically
+ * stable (parallel) algorithm of Chan et al. for merging.<br>
+ * Equivalent to Spark's StatCounter, so that the analysis counters can be used without a dependency on Spark.
+ */
+public class StatCounter implements Serializable {
+
+    private long count = 0;
+    private double mean = 0.0;
+    private double m2 = 0.0; //Sum of squared differences from the mean
+    private double max = Double.NEGATIVE_INFINITY;
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * Add a single value to this counter
+     *
+     * @param value Value to add
+     * @return This counter
+     */
+    public StatCounter merge(double value) {
+        double delta = value - mean;
+        count++;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        max = Math.max(max, value);
+        min = Math.min(min, value);
+        return this;
+    }
+
+    /**
+     * Merge the values of another counter into this counter
+     *
+     * @param other Counter to merge into this one
+     * @return This counter
+     */
+    public StatCounter merge(StatCounter other) {
+        if (other == this) {
+            return merge(other.copy());
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            max = other.max;
+            min = other.min;
+        } else if (other.count != 0) {
+            double delta = other.mean - mean;
+            long n = count + other.count;
+            if (other.count * 10 < count) {
+                mean = mean + (delta * other.count) / n;
+            } else if (count * 10 < other.count) {
+                mean = other.mean - (delta * count) / n;
+            } else {
+                mean = (mean * count + other.mean * other.count) / n;
+            }
+            m2 += other.m2 + (delta * delta * count * other.count) / n;
+            count = n;
+            max = Math.max(max, other.max);
+            min = Math.min(min, other.min);
+        }
+        return this;
+    }
+
+    public StatCounter copy() {
+        StatCounter out = new StatCounter();
+        out.count = count;
+        out.mean = mean;
+        out.m2 = m2;
+        out.max = max;
+        out.min = min;
+        return out;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double sum() {
+        return count * mean;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return Population variance of the values, or NaN if no values have been added
+     */
+    public double variance() {
+        if (count == 0)
+            return Double.NaN;
+        return m2 / count;
+    }
+
+    /**
+     * @return Sample variance of the values (i.e., with Bessel's correction), or NaN if fewer than 2 values have been
+     *         added
+     */
+    public double sampleVariance() {
+        if (count <= 1)
+            return Double.NaN;
+        return m2 / (count - 1);
+    }
+
+    public double stdev() {
+        return Math.sqrt(variance());
+    }
+
+    public double sampleStdev() {
+        return Math.sqrt(sampleVariance());
+    }
+
+    @Override
+    public String toString() {
+        return "StatCounter(count=" + count + ",mean=" + mean + ",stdev=" + stdev() + ",max=" + max + ",min=" + min
+                        + ")";
+    }
+}
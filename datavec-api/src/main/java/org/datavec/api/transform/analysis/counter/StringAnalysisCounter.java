@@ -14,17 +14,16 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.analysis.string;
+package org.datavec.api.transform.analysis.counter;
 
-import com.clearspring.analytics.stream.quantile.TDigest;
+import com.tdunning.math.stats.TDigest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.apache.spark.util.StatCounter;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 
 /**
- * A counter function for doing analysis on String columns, on Spark
+ * A counter function for doing analysis on String columns
  *
  * @author Alex Black
  */
@@ -36,6 +35,10 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
     private long countZeroLength = 0;
     private long countMinLength = 0;
     private long countMaxLength = 0;
+    /**
+     * A sketch of the distribution of String lengths, used to build histograms without a second pass over the data
+     */
+    private TDigest digest = TDigest.createDigest(100);
 
     public StringAnalysisCounter() {};
 
@@ -86,6 +89,7 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
             countMaxLength = 1;
         }
 
+        digest.add(length);
         counter.merge((double) length);
 
         return this;
@@ -116,7 +120,13 @@ public class StringAnalysisCounter implements AnalysisCounter<StringAnalysisCoun
             newCountMaxLength = countMaxLength;
         }
 
+        //Merge into a new digest: neither this counter's nor the other counter's digest is modified or shared
+        TDigest mergedDigest = TDigest.createDigest(100);
+        mergedDigest.add(digest);
+        mergedDigest.add(other.getDigest());
+
         return new StringAnalysisCounter(counter.merge(other.getCounter()),
-                        countZeroLength + other.getCountZeroLength(), newCountMinLength, newCountMaxLength);
+                        countZeroLength + other.getCountZeroLength(), newCountMinLength, newCountMaxLength,
+                        mergedDigest);
     }
 }
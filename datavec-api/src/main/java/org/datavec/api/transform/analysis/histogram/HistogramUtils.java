@@ -0,0 +1,82 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.analysis.histogram;
+
+import com.tdunning.math.stats.TDigest;
+
+/**
+ * Utilities for histograms
+ */
+public class HistogramUtils {
+
+    private HistogramUtils() {}
+
+    /**
+     * Get the histogram bin edges: nBins + 1 values, evenly spaced from minValue to maxValue (inclusive).
+     * These match the bins used by {@link DoubleHistogramCounter}.
+     */
+    public static double[] getBins(double minValue, double maxValue, int nBins) {
+        double[] bins = new double[nBins + 1];
+        double step = (maxValue - minValue) / nBins;
+        for (int i = 0; i < bins.length; i++) {
+            if (i == bins.length - 1)
+                bins[i] = maxValue;
+            else
+                bins[i] = minValue + i * step;
+        }
+        return bins;
+    }
+
+    /**
+     * Estimate histogram bin counts from a {@link TDigest} sketch of the data, without another pass over the data.
+     * Counts are estimated from the cumulative distribution of the digest at each bin edge; they are non-negative
+     * and sum to the total count.
+     *
+     * @param digest     Digest of all values
+     * @param bins       Bin edges, as per {@link #getBins(double, double, int)}
+     * @param countTotal Total number of values
+     * @return Estimated counts for each bin
+     */
+    public static long[] estimateCounts(TDigest digest, double[] bins, long countTotal) {
+        int nBins = bins.length - 1;
+        long[] counts = new long[nBins];
+        if (countTotal == 0)
+            return counts;
+
+        if (bins[nBins] <= bins[0]) {
+            //All values are the same (min == max): consistent with DoubleHistogramCounter, use the last bin
+            counts[nBins - 1] = countTotal;
+            return counts;
+        }
+
+        long prevCumulative = 0;
+        for (int i = 0; i < nBins; i++) {
+            long cumulative;
+            if (i == nBins - 1) {
+                cumulative = countTotal;
+            } else {
+                double cdf = digest.cdf(bins[i + 1]);
+                cumulative = Math.round(cdf * countTotal);
+                cumulative = Math.max(prevCumulative, Math.min(countTotal, cumulative));
+            }
+            counts[i] = cumulative - prevCumulative;
+            prevCumulative = cumulative;
+        }
+        return counts;
+    }
+}
@@ -1,4 +1,4 @@
-package org.datavec.spark.transform.quality;
+package org.datavec.api.transform.analysis.quality;
 
 import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.writable.Writable;
@@ -10,9 +10,9 @@ import java.io.Serializable;
  */
 public interface QualityAnalysisState<T extends QualityAnalysisState> extends Serializable {
 
-    T add(Writable writable) throws Exception;
+    T add(Writable writable);
 
-    T merge(T other) throws Exception;
+    T merge(T other);
 
     ColumnQuality getColumnQuality();
 }
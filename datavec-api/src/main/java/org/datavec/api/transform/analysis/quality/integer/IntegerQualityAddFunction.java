@@ -14,26 +14,28 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.integer;
+package org.datavec.api.transform.analysis.quality.integer;
 
 import lombok.AllArgsConstructor;
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.quality.columns.IntegerQuality;
 import org.datavec.api.writable.NullWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
 @AllArgsConstructor
-public class IntegerQualityAddFunction implements Function2<IntegerQuality, Writable, IntegerQuality> {
+public class IntegerQualityAddFunction implements BiFunction<IntegerQuality, Writable, IntegerQuality>, Serializable {
 
     private final IntegerMetaData meta;
 
     @Override
-    public IntegerQuality call(IntegerQuality v1, Writable writable) throws Exception {
+    public IntegerQuality apply(IntegerQuality v1, Writable writable) {
 
         long valid = v1.getCountValid();
         long invalid = v1.getCountInvalid();
@@ -14,17 +14,20 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.integer;
+package org.datavec.api.transform.analysis.quality.integer;
 
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.quality.columns.IntegerQuality;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
-public class IntegerQualityMergeFunction implements Function2<IntegerQuality, IntegerQuality, IntegerQuality> {
+public class IntegerQualityMergeFunction
+                implements BiFunction<IntegerQuality, IntegerQuality, IntegerQuality>, Serializable {
     @Override
-    public IntegerQuality call(IntegerQuality v1, IntegerQuality v2) throws Exception {
+    public IntegerQuality apply(IntegerQuality v1, IntegerQuality v2) {
         return v1.add(v2);
     }
 }
@@ -14,26 +14,28 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.longq;
+package org.datavec.api.transform.analysis.quality.longq;
 
 import lombok.AllArgsConstructor;
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.metadata.LongMetaData;
 import org.datavec.api.transform.quality.columns.LongQuality;
 import org.datavec.api.writable.NullWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
 @AllArgsConstructor
-public class LongQualityAddFunction implements Function2<LongQuality, Writable, LongQuality> {
+public class LongQualityAddFunction implements BiFunction<LongQuality, Writable, LongQuality>, Serializable {
 
     private final LongMetaData meta;
 
     @Override
-    public LongQuality call(LongQuality v1, Writable writable) throws Exception {
+    public LongQuality apply(LongQuality v1, Writable writable) {
 
         long valid = v1.getCountValid();
         long invalid = v1.getCountInvalid();
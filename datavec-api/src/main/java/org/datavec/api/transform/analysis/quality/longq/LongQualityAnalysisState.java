@@ -1,11 +1,11 @@
-package org.datavec.spark.transform.quality.longq;
+package org.datavec.api.transform.analysis.quality.longq;
 
 import lombok.Getter;
 import org.datavec.api.transform.metadata.LongMetaData;
 import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.transform.quality.columns.LongQuality;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.quality.QualityAnalysisState;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 
 /**
  * Created by huitseeker on 3/6/17.
@@ -23,13 +23,13 @@ public class LongQualityAnalysisState implements QualityAnalysisState<LongQualit
         this.mergeFunction = new LongQualityMergeFunction();
     }
 
-    public LongQualityAnalysisState add(Writable writable) throws Exception {
-        longQuality = addFunction.call(longQuality, writable);
+    public LongQualityAnalysisState add(Writable writable) {
+        longQuality = addFunction.apply(longQuality, writable);
         return this;
     }
 
-    public LongQualityAnalysisState merge(LongQualityAnalysisState other) throws Exception {
-        longQuality = mergeFunction.call(longQuality, other.getLongQuality());
+    public LongQualityAnalysisState merge(LongQualityAnalysisState other) {
+        longQuality = mergeFunction.apply(longQuality, other.getLongQuality());
         return this;
     }
 
@@ -14,17 +14,19 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.longq;
+package org.datavec.api.transform.analysis.quality.longq;
 
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.quality.columns.LongQuality;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
-public class LongQualityMergeFunction implements Function2<LongQuality, LongQuality, LongQuality> {
+public class LongQualityMergeFunction implements BiFunction<LongQuality, LongQuality, LongQuality>, Serializable {
     @Override
-    public LongQuality call(LongQuality v1, LongQuality v2) throws Exception {
+    public LongQuality apply(LongQuality v1, LongQuality v2) {
         return v1.add(v2);
     }
 }
@@ -1,11 +1,11 @@
-package org.datavec.spark.transform.quality.real;
+package org.datavec.api.transform.analysis.quality.real;
 
 import lombok.Getter;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.transform.quality.columns.DoubleQuality;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.quality.QualityAnalysisState;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 
 /**
  * Created by huitseeker on 3/6/17.
@@ -23,13 +23,13 @@ public class RealQualityAnalysisState implements QualityAnalysisState<RealQualit
         this.mergeFunction = new RealQualityMergeFunction();
     }
 
-    public RealQualityAnalysisState add(Writable writable) throws Exception {
-        realQuality = addFunction.call(realQuality, writable);
+    public RealQualityAnalysisState add(Writable writable) {
+        realQuality = addFunction.apply(realQuality, writable);
         return this;
     }
 
-    public RealQualityAnalysisState merge(RealQualityAnalysisState other) throws Exception {
-        realQuality = mergeFunction.call(realQuality, other.getRealQuality());
+    public RealQualityAnalysisState merge(RealQualityAnalysisState other) {
+        realQuality = mergeFunction.apply(realQuality, other.getRealQuality());
         return this;
     }
 
@@ -14,17 +14,19 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.real;
+package org.datavec.api.transform.analysis.quality.real;
 
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.quality.columns.DoubleQuality;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
-public class RealQualityMergeFunction implements Function2<DoubleQuality, DoubleQuality, DoubleQuality> {
+public class RealQualityMergeFunction implements BiFunction<DoubleQuality, DoubleQuality, DoubleQuality>, Serializable {
     @Override
-    public DoubleQuality call(DoubleQuality v1, DoubleQuality v2) throws Exception {
+    public DoubleQuality apply(DoubleQuality v1, DoubleQuality v2) {
         return v1.add(v2);
     }
 }
@@ -14,17 +14,25 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.string;
+package org.datavec.api.transform.analysis.quality.string;
 
-import org.apache.spark.api.java.function.Function2;
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
 import org.datavec.api.transform.quality.columns.StringQuality;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 /**
  * Created by Alex on 5/03/2016.
  */
-public class StringQualityMergeFunction implements Function2<StringQuality, StringQuality, StringQuality> {
+public class StringQualityMergeFunction
+                implements BiFunction<StringQuality, StringQuality, StringQuality>, Serializable {
     @Override
-    public StringQuality call(StringQuality v1, StringQuality v2) throws Exception {
-        return v1.add(v2);
+    public StringQuality apply(StringQuality v1, StringQuality v2) {
+        try {
+            return v1.add(v2);
+        } catch (CardinalityMergeException e) {
+            throw new RuntimeException(e);
+        }
     }
 }
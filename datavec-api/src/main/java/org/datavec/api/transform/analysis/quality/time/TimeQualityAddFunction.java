@@ -14,23 +14,25 @@
  *  *    limitations under the License.
  */
 
-package org.datavec.spark.transform.quality.time;
+package org.datavec.api.transform.analysis.quality.time;
 
 import lombok.AllArgsConstructor;
-import org.apache.spark.api.java.function.Function2;
 import org.datavec.api.transform.metadata.TimeMetaData;
 import org.datavec.api.transform.quality.columns.TimeQuality;
 import org.datavec.api.writable.NullWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 
+import java.io.Serializable;
+import java.util.function.BiFunction;
+
 @AllArgsConstructor
-public class TimeQualityAddFunction implements Function2<TimeQuality, Writable, TimeQuality> {
+public class TimeQualityAddFunction implements BiFunction<TimeQuality, Writable, TimeQuality>, Serializable {
 
     private final TimeMetaData meta;
 
     @Override
-    public TimeQuality call(TimeQuality v1, Writable writable) throws Exception {
+    public TimeQuality apply(TimeQuality v1, Writable writable) {
 
         long valid = v1.getCountValid();
         long invalid = v1.getCountInvalid();
@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import java.io.Serializable;
+
+/**
+ * A vectorized counterpart of {@link org.datavec.api.transform.Transform}: transforms an entire
+ * {@link ColumnarBatch} at once.<br>
+ * Implementations may modify the input batch in place and return it, or return a new batch. The input schema is that
+ * of the batch; the output batch must be consistent with {@code Transform.transform(Schema)}.<br>
+ * Use {@link BatchTransforms#forTransform(org.datavec.api.transform.Transform)} to get a BatchTransform for any
+ * Transform.
+ */
+public interface BatchTransform extends Serializable {
+
+    /**
+     * Transform all rows of the batch
+     *
+     * @param batch Batch to transform
+     * @return Transformed batch (possibly the same object as the input)
+     */
+    ColumnarBatch mapBatch(ColumnarBatch batch);
+
+}
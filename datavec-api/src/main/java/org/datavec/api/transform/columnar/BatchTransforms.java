@@ -0,0 +1,42 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.Transform;
+
+/**
+ * Utility methods for executing transforms on {@link ColumnarBatch}es
+ */
+public class BatchTransforms {
+
+    private BatchTransforms() {}
+
+    /**
+     * Get a BatchTransform for the specified transform: the transform itself if it implements {@link BatchTransform},
+     * or a {@link RowBatchTransformAdapter} (that executes the transform one record at a time) otherwise
+     *
+     * @param transform Transform to get the BatchTransform for
+     * @return BatchTransform
+     */
+    public static BatchTransform forTransform(Transform transform) {
+        if (transform instanceof BatchTransform)
+            return (BatchTransform) transform;
+        return new RowBatchTransformAdapter(transform);
+    }
+
+}
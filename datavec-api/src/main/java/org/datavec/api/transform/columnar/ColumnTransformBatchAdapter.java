@@ -0,0 +1,84 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+
+/**
+ * Adapter for executing a single column transform ({@link BaseColumnTransform}) on a {@link ColumnarBatch}.
+ * Unlike {@link RowBatchTransformAdapter}, only the transformed column is visited: other columns are not converted to
+ * Writables. If the column type (and name) is unchanged by the transform, the column is modified in place;
+ * otherwise a new column vector is created for the output column, and shared with the rest of the input batch.
+ */
+public class ColumnTransformBatchAdapter implements BatchTransform {
+
+    private final BaseColumnTransform transform;
+    private final int columnIdx;
+    private final Schema outputSchema;
+    private final ColumnMetaData outputMetaData;
+    private final boolean inPlace;
+
+    /**
+     * @param transform Column transform to execute. The input schema must already be set
+     */
+    public ColumnTransformBatchAdapter(BaseColumnTransform transform) {
+        Schema inputSchema = transform.getInputSchema();
+        if (inputSchema == null || transform.getColumnNumber() < 0) {
+            throw new IllegalStateException("Cannot execute transform " + transform + " on batches: input schema is "
+                            + "not set. setInputSchema not called?");
+        }
+        this.transform = transform;
+        this.columnIdx = transform.getColumnNumber();
+        this.outputSchema = transform.transform(inputSchema);
+
+        ColumnMetaData in = inputSchema.getMetaData(columnIdx);
+        this.outputMetaData = outputSchema.getMetaData(columnIdx);
+        this.inPlace = in.getColumnType() == outputMetaData.getColumnType()
+                        && in.getName().equals(outputMetaData.getName())
+                        && (in.getColumnType() != ColumnType.Categorical || in.equals(outputMetaData));
+    }
+
+    public BaseColumnTransform getTransform() {
+        return transform;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int n = batch.numRows();
+        ColumnVector column = batch.getColumn(columnIdx);
+        if (inPlace) {
+            for (int i = 0; i < n; i++) {
+                column.set(i, transform.map(column.get(i)));
+            }
+            return batch;
+        }
+
+        ColumnVector out = ColumnVector.create(outputMetaData, Math.max(1, batch.capacity()));
+        for (int i = 0; i < n; i++) {
+            out.set(i, transform.map(column.get(i)));
+        }
+        return batch.replaceColumn(outputSchema, columnIdx, out);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnTransformBatchAdapter(" + transform + ")";
+    }
+}
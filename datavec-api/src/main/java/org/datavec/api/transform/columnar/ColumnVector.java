@@ -0,0 +1,183 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A single column of values in a {@link ColumnarBatch}, stored in a (type specific) array, plus a bitmap for
+ * null (missing) values.<br>
+ * Null values are represented as {@link NullWritable} when converting to/from Writables. The contents of a null
+ * entry in the underlying array are undefined.
+ */
+public abstract class ColumnVector implements Serializable {
+
+    protected final String name;
+    protected final ColumnType columnType;
+    protected int capacity;
+    protected long[] nulls;
+    protected boolean hasNulls;
+
+    protected ColumnVector(String name, ColumnType columnType, int capacity) {
+        this.name = name;
+        this.columnType = columnType;
+        this.capacity = capacity;
+        this.nulls = new long[numWords(capacity)];
+    }
+
+    /**
+     * Create a column vector of the appropriate type for the specified column
+     *
+     * @param metaData Column meta data
+     * @param capacity Initial capacity (number of rows)
+     * @return Column vector for the column
+     */
+    public static ColumnVector create(ColumnMetaData metaData, int capacity) {
+        String name = metaData.getName();
+        ColumnType type = metaData.getColumnType();
+        switch (type) {
+            case Double:
+            case Float:
+                return new DoubleColumnVector(name, type, capacity);
+            case Integer:
+                return new IntColumnVector(name, type, capacity);
+            case Long:
+            case Time:
+                return new LongColumnVector(name, type, capacity);
+            case Categorical:
+                return new DictionaryColumnVector(name, type, capacity,
+                                ((CategoricalMetaData) metaData).getStateNames());
+            case String:
+                return new DictionaryColumnVector(name, type, capacity, null);
+            default:
+                //Bytes, Boolean, NDArray
+                return new WritableColumnVector(name, type, capacity);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getColumnType() {
+        return columnType;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return True if any value has been set to null since this column was created or last reset
+     */
+    public boolean hasNulls() {
+        return hasNulls;
+    }
+
+    public boolean isNull(int row) {
+        return hasNulls && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public void setNull(int row, boolean isNull) {
+        if (isNull) {
+            nulls[row >>> 6] |= 1L << row;
+            hasNulls = true;
+        } else if (hasNulls) {
+            nulls[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    /**
+     * Clear the null bitmap
+     */
+    public void reset() {
+        if (hasNulls) {
+            Arrays.fill(nulls, 0L);
+            hasNulls = false;
+        }
+    }
+
+    /**
+     * Grow the column so that it can hold at least the specified number of rows. Existing values are retained.
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity)
+            return;
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        nulls = Arrays.copyOf(nulls, numWords(newCapacity));
+        resize(newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Get the value at the specified row as a Writable (or {@link NullWritable} if the value is null)
+     */
+    public Writable get(int row) {
+        if (isNull(row))
+            return NullWritable.INSTANCE;
+        return getNonNull(row);
+    }
+
+    /**
+     * Set the value at the specified row. {@link NullWritable} (or null) values set the row's null bit; other values
+     * are converted to the column type.
+     */
+    public void set(int row, Writable value) {
+        if (value == null || value instanceof NullWritable) {
+            setNull(row, true);
+        } else {
+            setNull(row, false);
+            setNonNull(row, value);
+        }
+    }
+
+    /**
+     * Get the value at the specified row as a double. Only supported for numerical columns.
+     */
+    public double getDouble(int row) {
+        throw new UnsupportedOperationException("Cannot get double value from column \"" + name + "\" of type "
+                        + columnType);
+    }
+
+    /**
+     * Set the value at the specified row from a String, parsing as necessary for the column type
+     */
+    public abstract void setString(int row, String value);
+
+    protected abstract Writable getNonNull(int row);
+
+    protected abstract void setNonNull(int row, Writable value);
+
+    protected abstract void resize(int newCapacity);
+
+    private static int numWords(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(name=" + name + ",type=" + columnType + ",capacity=" + capacity + ")";
+    }
+}
@@ -0,0 +1,237 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.metadata.ColumnMetaData;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of (non-sequence) records stored in columnar format: one {@link ColumnVector} per column of the
+ * {@link Schema}, with primitive arrays for numerical columns and dictionary encoding for String and Categorical
+ * columns.<br>
+ * Values are converted to the column type (as per the schema) when they are added to the batch. For example, a
+ * {@code Text("1.5")} value in a double column is stored as the double 1.5, and is returned as a DoubleWritable.
+ * <p>
+ * Batches may be reused: {@link #reset()} clears the batch (retaining the allocated arrays), after which new
+ * records can be added.
+ */
+public class ColumnarBatch implements Serializable {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Schema schema;
+    private final ColumnVector[] columns;
+    private int numRows;
+    private int capacity;
+
+    public ColumnarBatch(Schema schema) {
+        this(schema, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param schema   Schema for the records in the batch
+     * @param capacity Initial capacity (number of rows). The batch will grow as required if more rows are added
+     */
+    public ColumnarBatch(Schema schema, int capacity) {
+        this.schema = schema;
+        this.capacity = capacity;
+        int nCols = schema.numColumns();
+        this.columns = new ColumnVector[nCols];
+        for (int i = 0; i < nCols; i++) {
+            columns[i] = ColumnVector.create(schema.getMetaData(i), capacity);
+        }
+    }
+
+    private ColumnarBatch(Schema schema, ColumnVector[] columns, int numRows, int capacity) {
+        this.schema = schema;
+        this.columns = columns;
+        this.numRows = numRows;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Create a columnar batch from the specified records
+     *
+     * @param schema  Schema for the records
+     * @param records Records to add to the batch
+     * @return Batch containing all records
+     */
+    public static ColumnarBatch fromRecords(Schema schema, List<List<Writable>> records) {
+        ColumnarBatch batch = new ColumnarBatch(schema, Math.max(1, records.size()));
+        for (List<Writable> l : records)
+            batch.addRecord(l);
+        return batch;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public int numRows() {
+        return numRows;
+    }
+
+    public int numColumns() {
+        return columns.length;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Set the number of rows in the batch. Values for rows that are added this way (i.e., beyond the previous
+     * number of rows) should be set directly on the column vectors.
+     */
+    public void setNumRows(int numRows) {
+        ensureCapacity(numRows);
+        this.numRows = numRows;
+    }
+
+    public ColumnVector getColumn(int column) {
+        return columns[column];
+    }
+
+    public ColumnVector getColumn(String columnName) {
+        return columns[schema.getIndexOfColumn(columnName)];
+    }
+
+    /**
+     * Remove all rows from the batch. The underlying arrays are retained for reuse; dictionaries are cleared, except
+     * for the states of categorical columns.
+     */
+    public void reset() {
+        numRows = 0;
+        for (ColumnVector c : columns)
+            c.reset();
+    }
+
+    /**
+     * Grow the batch so that it can hold at least the specified number of rows
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity)
+            return;
+        for (ColumnVector c : columns)
+            c.ensureCapacity(minCapacity);
+        capacity = columns.length == 0 ? minCapacity : columns[0].capacity();
+    }
+
+    /**
+     * Append a record to the batch
+     */
+    public void addRecord(List<Writable> record) {
+        if (record.size() != columns.length) {
+            throw new IllegalStateException("Cannot add record: record has " + record.size()
+                            + " values, but schema has " + columns.length + " columns");
+        }
+        int row = numRows;
+        ensureCapacity(row + 1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].set(row, record.get(i));
+        }
+        numRows++;
+    }
+
+    /**
+     * Append a record to the batch, parsing each raw String value directly into its column (as per
+     * {@link ColumnVector#setString(int, String)}), without creating intermediate Writable objects
+     */
+    public void addStrings(List<String> values) {
+        if (values.size() != columns.length) {
+            throw new IllegalStateException("Cannot add record: record has " + values.size()
+                            + " values, but schema has " + columns.length + " columns");
+        }
+        int row = numRows;
+        ensureCapacity(row + 1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].setNull(row, false);
+            columns[i].setString(row, values.get(i));
+        }
+        numRows++;
+    }
+
+    /**
+     * Create a new batch with the specified column replaced. The new batch shares all other column vectors with this
+     * batch, hence this batch should not be used after calling this method.
+     *
+     * @param newSchema Schema of the new batch
+     * @param column    Index of the column to replace
+     * @param vector    New column vector. Must have at least {@link #numRows()} values set
+     * @return Batch with the column replaced
+     */
+    public ColumnarBatch replaceColumn(Schema newSchema, int column, ColumnVector vector) {
+        if (newSchema.numColumns() != columns.length) {
+            throw new IllegalArgumentException("Cannot replace column: new schema has " + newSchema.numColumns()
+                            + " columns, expected " + columns.length);
+        }
+        vector.ensureCapacity(capacity);
+        ColumnVector[] newColumns = columns.clone();
+        newColumns[column] = vector;
+        return new ColumnarBatch(newSchema, newColumns, numRows, capacity);
+    }
+
+    /**
+     * Create a new batch with the specified column (and its meta data) replaced, as per
+     * {@link #replaceColumn(Schema, int, ColumnVector)}
+     *
+     * @param column   Index of the column to replace
+     * @param metaData Meta data for the new column
+     * @param vector   New column vector. Must have at least {@link #numRows()} values set
+     * @return Batch with the column replaced
+     */
+    public ColumnarBatch replaceColumn(int column, ColumnMetaData metaData, ColumnVector vector) {
+        List<ColumnMetaData> meta = new ArrayList<>(schema.getColumnMetaData());
+        meta.set(column, metaData);
+        return replaceColumn(schema.newSchema(meta), column, vector);
+    }
+
+    /**
+     * Get the specified row as a new list of Writables
+     */
+    public List<Writable> getRecord(int row) {
+        if (row < 0 || row >= numRows)
+            throw new IndexOutOfBoundsException("Invalid row: " + row + ", numRows = " + numRows);
+        List<Writable> out = new ArrayList<>(columns.length);
+        for (ColumnVector c : columns) {
+            out.add(c.get(row));
+        }
+        return out;
+    }
+
+    /**
+     * Convert all rows of this batch to records
+     */
+    public List<List<Writable>> toRecords() {
+        List<List<Writable>> out = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            out.add(getRecord(i));
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBatch(numRows=" + numRows + ",numColumns=" + columns.length + ")";
+    }
+}
@@ -0,0 +1,124 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column vector for String and Categorical columns. Values are dictionary encoded: each row stores an integer
+ * code (index into the dictionary), and each distinct value is stored only once.<br>
+ * For categorical columns, the dictionary is initialized with the state names of the column (in order), so the
+ * code of a value is the same as its integer index (as per {@code CategoricalToIntegerTransform}). New values are
+ * appended to the dictionary as they are first seen.
+ */
+public class DictionaryColumnVector extends ColumnVector {
+
+    private int[] codes;
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> dictionaryIndex = new HashMap<>();
+    private final int initialDictionarySize;
+
+    public DictionaryColumnVector(String name, ColumnType columnType, int capacity, List<String> initialDictionary) {
+        super(name, columnType, capacity);
+        this.codes = new int[capacity];
+        if (initialDictionary != null) {
+            for (String s : initialDictionary)
+                codeFor(s);
+        }
+        this.initialDictionarySize = dictionary.size();
+    }
+
+    /**
+     * @return The underlying array of dictionary codes. Only the first {@link ColumnarBatch#numRows()} values are valid
+     */
+    public int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * @return The dictionary: distinct values, indexed by code
+     */
+    public List<String> getDictionary() {
+        return dictionary;
+    }
+
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    public void setCode(int row, int code) {
+        codes[row] = code;
+    }
+
+    public String getString(int row) {
+        return dictionary.get(codes[row]);
+    }
+
+    /**
+     * Get the dictionary code for the specified value, adding it to the dictionary if it is not already present
+     */
+    public int codeFor(String value) {
+        Integer code = dictionaryIndex.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            dictionaryIndex.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Clear the null bitmap, and remove all values from the dictionary except for the initial dictionary (for
+     * example, the states of a categorical column)
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        while (dictionary.size() > initialDictionarySize) {
+            dictionaryIndex.remove(dictionary.remove(dictionary.size() - 1));
+        }
+    }
+
+    @Override
+    public void setString(int row, String value) {
+        codes[row] = codeFor(value);
+    }
+
+    @Override
+    protected Writable getNonNull(int row) {
+        return new Text(dictionary.get(codes[row]));
+    }
+
+    @Override
+    protected void setNonNull(int row, Writable value) {
+        codes[row] = codeFor(value.toString());
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        codes = Arrays.copyOf(codes, newCapacity);
+    }
+}
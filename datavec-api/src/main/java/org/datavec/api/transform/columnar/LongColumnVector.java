@@ -0,0 +1,77 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Column vector for long and time columns, backed by a long[]
+ */
+public class LongColumnVector extends ColumnVector {
+
+    private long[] data;
+
+    public LongColumnVector(String name, ColumnType columnType, int capacity) {
+        super(name, columnType, capacity);
+        this.data = new long[capacity];
+    }
+
+    /**
+     * @return The underlying array. Only the first {@link ColumnarBatch#numRows()} values are valid
+     */
+    public long[] getData() {
+        return data;
+    }
+
+    public long getLong(int row) {
+        return data[row];
+    }
+
+    public void setLong(int row, long value) {
+        data[row] = value;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return data[row];
+    }
+
+    @Override
+    public void setString(int row, String value) {
+        data[row] = Long.parseLong(value);
+    }
+
+    @Override
+    protected Writable getNonNull(int row) {
+        return new LongWritable(data[row]);
+    }
+
+    @Override
+    protected void setNonNull(int row, Writable value) {
+        data[row] = value.toLong();
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
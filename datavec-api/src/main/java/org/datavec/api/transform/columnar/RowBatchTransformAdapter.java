@@ -0,0 +1,65 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+
+/**
+ * Adapter for executing any {@link Transform} on a {@link ColumnarBatch}, one record at a time via
+ * {@link Transform#map(List)}. Used for transforms that do not implement {@link BatchTransform} directly.
+ */
+public class RowBatchTransformAdapter implements BatchTransform {
+
+    private final Transform transform;
+    private Schema inputSchema;
+    private Schema outputSchema;
+
+    public RowBatchTransformAdapter(Transform transform) {
+        this.transform = transform;
+    }
+
+    public Transform getTransform() {
+        return transform;
+    }
+
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        Schema schema = batch.getSchema();
+        if (inputSchema != schema && !schema.equals(inputSchema)) {
+            outputSchema = transform.transform(schema);
+            inputSchema = schema;
+        }
+
+        int n = batch.numRows();
+        ColumnarBatch out = new ColumnarBatch(outputSchema, Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            List<Writable> in = batch.getRecord(i);
+            out.addRecord(transform.map(in));
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return "RowBatchTransformAdapter(" + transform + ")";
+    }
+}
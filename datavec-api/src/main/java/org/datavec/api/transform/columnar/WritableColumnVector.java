@@ -0,0 +1,72 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.writable.BooleanWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+
+import java.util.Arrays;
+
+/**
+ * Column vector for column types that have no primitive representation (bytes, boolean, NDArray etc).
+ * Values are stored as Writable objects.
+ */
+public class WritableColumnVector extends ColumnVector {
+
+    private Writable[] data;
+
+    public WritableColumnVector(String name, ColumnType columnType, int capacity) {
+        super(name, columnType, capacity);
+        this.data = new Writable[capacity];
+    }
+
+    public Writable[] getData() {
+        return data;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return data[row].toDouble();
+    }
+
+    @Override
+    public void setString(int row, String value) {
+        if (columnType == ColumnType.Boolean) {
+            data[row] = new BooleanWritable(Boolean.parseBoolean(value));
+        } else {
+            data[row] = new Text(value);
+        }
+    }
+
+    @Override
+    protected Writable getNonNull(int row) {
+        return data[row];
+    }
+
+    @Override
+    protected void setNonNull(int row, Writable value) {
+        data[row] = value;
+    }
+
+    @Override
+    protected void resize(int newCapacity) {
+        data = Arrays.copyOf(data, newCapacity);
+    }
+}
@@ -20,9 +20,12 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.datavec.api.transform.condition.SequenceConditionMode;
 import org.datavec.api.transform.condition.column.BaseColumnCondition;
+import org.datavec.api.util.PatternCache;
 import org.datavec.api.writable.Writable;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
+import java.util.regex.Pattern;
+
 /**
  * Condition that applies to the values in a String column, using a provided regex.
  * Condition return true if the String matches the regex, or false otherwise<br>
@@ -37,6 +40,8 @@ public class StringRegexColumnCondition extends BaseColumnCondition {
 
     private final String regex;
 
+    private transient Pattern pattern;
+
     public StringRegexColumnCondition(@JsonProperty("columnName") String columnName,
                     @JsonProperty("regex") String regex) {
         this(columnName, regex, DEFAULT_SEQUENCE_CONDITION_MODE);
@@ -49,7 +54,7 @@ public class StringRegexColumnCondition extends BaseColumnCondition {
 
     @Override
     public boolean columnCondition(Writable writable) {
-        return writable.toString().matches(regex);
+        return matches(writable.toString());
     }
 
     @Override
@@ -67,7 +72,14 @@ public class StringRegexColumnCondition extends BaseColumnCondition {
      */
     @Override
     public boolean condition(Object input) {
-        return input.toString().matches(regex);
+        return matches(input.toString());
+    }
+
+    private boolean matches(String str) {
+        if (pattern == null) {
+            pattern = PatternCache.get(regex);
+        }
+        return pattern.matcher(str).matches();
     }
 
 }
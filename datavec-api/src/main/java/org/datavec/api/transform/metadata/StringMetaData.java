@@ -18,6 +18,7 @@ package org.datavec.api.transform.metadata;
 
 import lombok.EqualsAndHashCode;
 import org.datavec.api.transform.ColumnType;
+import org.datavec.api.util.PatternCache;
 import org.datavec.api.writable.Writable;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
@@ -77,7 +78,7 @@ public class StringMetaData extends BaseColumnMetaData {
         if (maxLength != null && len > maxLength)
             return false;
 
-        return regex == null || str.matches(regex);
+        return regex == null || PatternCache.matches(regex, str);
     }
 
     /**
@@ -98,7 +99,7 @@ public class StringMetaData extends BaseColumnMetaData {
         if (maxLength != null && len > maxLength)
             return false;
 
-        return regex == null || str.matches(regex);
+        return regex == null || PatternCache.matches(regex, str);
     }
 
     @Override
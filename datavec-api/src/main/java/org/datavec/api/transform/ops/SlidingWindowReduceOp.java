@@ -0,0 +1,426 @@
+package org.datavec.api.transform.ops;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.writable.*;
+
+import java.io.Serializable;
+
+/**
+ * A reduction over a sliding window of the last N values of a column, updated incrementally as each value is
+ * added (and the oldest value is evicted), instead of re-reducing the entire window for each step as with an
+ * {@link IAggregableReduceOp}. Each step is O(1) (amortized), independent of the window size.<br>
+ * Values are held in primitive ring buffers. Sum, mean, standard deviation and variance are maintained by adding and
+ * subtracting values (Welford's method, for mean and variance); min, max and range are maintained using monotonic
+ * deques of the window positions.<br>
+ * Output values and types are as per the corresponding ops in {@link AggregatorImpls} (via
+ * {@link org.datavec.api.transform.reduce.AggregableReductionUtils#reduceColumn}). Sums of integer and long columns
+ * are exact; for floating point values, the running totals are recalculated from the window values after every N
+ * evictions, so that rounding error cannot accumulate across the sequence.
+ */
+public abstract class SlidingWindowReduceOp implements Serializable {
+
+    protected final int capacity;
+    protected final ColumnType type;
+    protected long added; //Total number of values added
+
+    protected SlidingWindowReduceOp(int capacity, ColumnType type) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Invalid window size: must be positive, got " + capacity);
+        this.capacity = capacity;
+        this.type = type;
+    }
+
+    /**
+     * Get an incremental sliding window op for the given reduction op and column type.
+     *
+     * @param op       Reduction op
+     * @param type     Type of the column
+     * @param capacity Window size (number of values)
+     * @return The op, or null if the reduction op and column type combination is not supported incrementally (i.e.,
+     * Prod and CountUnique, plus any combination not supported by AggregableReductionUtils)
+     */
+    public static SlidingWindowReduceOp forOp(ReduceOp op, ColumnType type, int capacity) {
+        boolean numeric = type == ColumnType.Integer || type == ColumnType.Long || type == ColumnType.Float
+                        || type == ColumnType.Double;
+        boolean time = type == ColumnType.Time;
+        switch (op) {
+            case Sum:
+            case Variance:
+            case PopulationVariance:
+            case UncorrectedStdDev:
+                return numeric ? new MomentsOp(capacity, type, op) : null;
+            case Mean:
+            case Stdev:
+                return numeric || time ? new MomentsOp(capacity, type, op) : null;
+            case Min:
+            case Max:
+            case Range:
+                return numeric || time ? new ExtremaOp(capacity, type, op) : null;
+            case Count:
+            case TakeFirst:
+            case TakeLast:
+                if (numeric || time || type == ColumnType.String || type == ColumnType.Categorical)
+                    return new ValuesOp(capacity, type, op);
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Add a value to the window, evicting the oldest value if the window is full
+     */
+    public final void add(Writable w) {
+        int slot = (int) (added % capacity);
+        if (added >= capacity)
+            evict(slot);
+        put(slot, w);
+        added++;
+    }
+
+    /**
+     * @return Number of values currently in the window
+     */
+    public final int size() {
+        return (int) Math.min(added, capacity);
+    }
+
+    /**
+     * @return The reduction of the values currently in the window
+     */
+    public abstract Writable get();
+
+    /**
+     * Remove the oldest value (in the given ring buffer slot) from the window
+     */
+    protected abstract void evict(int slot);
+
+    /**
+     * Store the newest value in the given ring buffer slot
+     */
+    protected abstract void put(int slot, Writable w);
+
+    protected boolean isIntegral() {
+        return type == ColumnType.Integer || type == ColumnType.Long || type == ColumnType.Time;
+    }
+
+    /**
+     * Value conversion as per IntWritableOp, LongWritableOp, FloatWritableOp and DoubleWritableOp
+     */
+    protected long toLong(Writable w) {
+        return type == ColumnType.Integer ? w.toInt() : w.toLong();
+    }
+
+    protected double toDouble(Writable w) {
+        return type == ColumnType.Float ? w.toFloat() : w.toDouble();
+    }
+
+    protected Writable toWritable(long l) {
+        return type == ColumnType.Integer ? new IntWritable((int) l) : new LongWritable(l);
+    }
+
+    protected Writable toWritable(double d) {
+        return type == ColumnType.Float ? new FloatWritable((float) d) : new DoubleWritable(d);
+    }
+
+    /**
+     * Sum, Mean, Stdev, UncorrectedStdDev, Variance and PopulationVariance
+     */
+    private static class MomentsOp extends SlidingWindowReduceOp {
+        private final ReduceOp op;
+        private final long[] longValues;
+        private final double[] doubleValues;
+        private long longSum;
+        private double doubleSum;
+        private long count;
+        private double mean;
+        private double m2;
+        private int evictionsSinceResync;
+
+        private MomentsOp(int capacity, ColumnType type, ReduceOp op) {
+            super(capacity, type);
+            this.op = op;
+            this.longValues = isIntegral() ? new long[capacity] : null;
+            this.doubleValues = isIntegral() ? null : new double[capacity];
+        }
+
+        private double value(int slot) {
+            return longValues != null ? longValues[slot] : doubleValues[slot];
+        }
+
+        @Override
+        protected void evict(int slot) {
+            //A NaN or infinite value can't be subtracted from the running totals: resync as soon as it leaves
+            boolean nonFinite = doubleValues != null && (Double.isNaN(doubleValues[slot])
+                            || Double.isInfinite(doubleValues[slot]));
+            if (++evictionsSinceResync >= capacity || nonFinite) {
+                //The slot is about to be overwritten; resync using the remaining values only
+                evictionsSinceResync = 0;
+                resync(slot);
+                return;
+            }
+            double x = value(slot);
+            if (longValues != null) {
+                longSum -= longValues[slot];
+            } else {
+                doubleSum -= x;
+            }
+            long newCount = count - 1;
+            if (newCount == 0) {
+                mean = 0;
+                m2 = 0;
+            } else {
+                double delta = x - mean;
+                mean -= delta / newCount;
+                m2 -= delta * (x - mean);
+            }
+            count = newCount;
+        }
+
+        /**
+         * Recalculate the running totals from the window values, oldest first (excluding the value in the evicted
+         * slot)
+         */
+        private void resync(int evictedSlot) {
+            longSum = 0;
+            doubleSum = 0;
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            for (int i = 1; i < capacity; i++) {
+                int slot = (evictedSlot + i) % capacity;
+                if (longValues != null) {
+                    longSum += longValues[slot];
+                } else {
+                    doubleSum += doubleValues[slot];
+                }
+                accumulate(value(slot));
+            }
+        }
+
+        private void accumulate(double x) {
+            count++;
+            double delta = x - mean;
+            mean += delta / count;
+            m2 += delta * (x - mean);
+        }
+
+        @Override
+        protected void put(int slot, Writable w) {
+            if (longValues != null) {
+                long l = toLong(w);
+                longValues[slot] = l;
+                longSum += l;
+                accumulate(l);
+            } else {
+                double d = toDouble(w);
+                doubleValues[slot] = d;
+                doubleSum += d;
+                accumulate(d);
+            }
+        }
+
+        @Override
+        public Writable get() {
+            //Rounding in the removal updates may leave a small negative value for a constant window
+            double variation = Math.max(0.0, m2);
+            switch (op) {
+                case Sum:
+                    return longValues != null ? toWritable(longSum) : toWritable(doubleSum);
+                case Mean:
+                    return new DoubleWritable(mean);
+                case Stdev:
+                    return new DoubleWritable(Math.sqrt(variation / (count - 1)));
+                case UncorrectedStdDev:
+                    return new DoubleWritable(Math.sqrt(variation / count));
+                case Variance:
+                    return new DoubleWritable(variation / (count - 1));
+                case PopulationVariance:
+                    return new DoubleWritable(variation / count);
+                default:
+                    throw new IllegalStateException("Unexpected op: " + op);
+            }
+        }
+    }
+
+    /**
+     * Min, Max and Range. The min (max) deque holds the positions of the values in the window that are smaller
+     * (larger) than all values after them; the front of the deque is therefore the position of the min (max) value
+     */
+    private static class ExtremaOp extends SlidingWindowReduceOp {
+        private final ReduceOp op;
+        private final long[] longValues;
+        private final double[] doubleValues;
+        private final MonotonicDeque minDeque;
+        private final MonotonicDeque maxDeque;
+
+        private ExtremaOp(int capacity, ColumnType type, ReduceOp op) {
+            super(capacity, type);
+            this.op = op;
+            this.longValues = isIntegral() ? new long[capacity] : null;
+            this.doubleValues = isIntegral() ? null : new double[capacity];
+            this.minDeque = op == ReduceOp.Max ? null : new MonotonicDeque(capacity);
+            this.maxDeque = op == ReduceOp.Min ? null : new MonotonicDeque(capacity);
+        }
+
+        /**
+         * Compare the values at the given positions, as per Long.compareTo and Double.compareTo
+         */
+        private int compare(long pos1, long pos2) {
+            int s1 = (int) (pos1 % capacity);
+            int s2 = (int) (pos2 % capacity);
+            if (longValues != null)
+                return Long.compare(longValues[s1], longValues[s2]);
+            return Double.compare(doubleValues[s1], doubleValues[s2]);
+        }
+
+        @Override
+        protected void evict(int slot) {
+            long oldest = added - capacity;
+            if (minDeque != null && minDeque.front() == oldest)
+                minDeque.popFront();
+            if (maxDeque != null && maxDeque.front() == oldest)
+                maxDeque.popFront();
+        }
+
+        @Override
+        protected void put(int slot, Writable w) {
+            if (longValues != null) {
+                longValues[slot] = toLong(w);
+            } else {
+                doubleValues[slot] = toDouble(w);
+            }
+            long pos = added;
+            if (minDeque != null) {
+                while (!minDeque.isEmpty() && compare(minDeque.back(), pos) > 0)
+                    minDeque.popBack();
+                minDeque.pushBack(pos);
+            }
+            if (maxDeque != null) {
+                while (!maxDeque.isEmpty() && compare(maxDeque.back(), pos) < 0)
+                    maxDeque.popBack();
+                maxDeque.pushBack(pos);
+            }
+        }
+
+        @Override
+        public Writable get() {
+            if (added == 0)
+                return NullWritable.INSTANCE;
+            switch (op) {
+                case Min:
+                    return valueAt(minDeque.front());
+                case Max:
+                    return valueAt(maxDeque.front());
+                case Range:
+                    int minSlot = (int) (minDeque.front() % capacity);
+                    int maxSlot = (int) (maxDeque.front() % capacity);
+                    if (longValues != null)
+                        return toWritable(longValues[maxSlot] - longValues[minSlot]);
+                    if (type == ColumnType.Float)
+                        return new FloatWritable((float) doubleValues[maxSlot] - (float) doubleValues[minSlot]);
+                    return new DoubleWritable(doubleValues[maxSlot] - doubleValues[minSlot]);
+                default:
+                    throw new IllegalStateException("Unexpected op: " + op);
+            }
+        }
+
+        private Writable valueAt(long pos) {
+            int slot = (int) (pos % capacity);
+            return longValues != null ? toWritable(longValues[slot]) : toWritable(doubleValues[slot]);
+        }
+    }
+
+    /**
+     * Count, TakeFirst and TakeLast
+     */
+    private static class ValuesOp extends SlidingWindowReduceOp {
+        private final ReduceOp op;
+        private final Writable[] values;
+
+        private ValuesOp(int capacity, ColumnType type, ReduceOp op) {
+            super(capacity, type);
+            this.op = op;
+            this.values = op == ReduceOp.Count ? null : new Writable[capacity];
+        }
+
+        @Override
+        protected void evict(int slot) {
+            //No op: slot is overwritten by put
+        }
+
+        @Override
+        protected void put(int slot, Writable w) {
+            if (values == null)
+                return;
+            switch (type) {
+                case String:
+                case Categorical:
+                    values[slot] = new Text(w.toString());
+                    break;
+                case Integer:
+                case Long:
+                case Time:
+                    values[slot] = toWritable(toLong(w));
+                    break;
+                default:
+                    values[slot] = toWritable(toDouble(w));
+            }
+        }
+
+        @Override
+        public Writable get() {
+            switch (op) {
+                case Count:
+                    return new LongWritable(size());
+                case TakeFirst:
+                    long oldest = Math.max(0, added - capacity);
+                    return added == 0 ? NullWritable.INSTANCE : values[(int) (oldest % capacity)];
+                case TakeLast:
+                    return added == 0 ? NullWritable.INSTANCE : values[(int) ((added - 1) % capacity)];
+                default:
+                    throw new IllegalStateException("Unexpected op: " + op);
+            }
+        }
+    }
+
+    /**
+     * Fixed capacity deque of window positions, backed by a ring buffer
+     */
+    private static class MonotonicDeque implements Serializable {
+        private final long[] positions;
+        private int head;
+        private int size;
+
+        private MonotonicDeque(int capacity) {
+            this.positions = new long[capacity];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private long front() {
+            return positions[head];
+        }
+
+        private long back() {
+            return positions[(head + size - 1) % positions.length];
+        }
+
+        private void popFront() {
+            head = (head + 1) % positions.length;
+            size--;
+        }
+
+        private void popBack() {
+            size--;
+        }
+
+        private void pushBack(long pos) {
+            positions[(head + size) % positions.length] = pos;
+            size++;
+        }
+    }
+}
@@ -88,6 +88,16 @@ public abstract class BaseColumnComparator implements SequenceComparator, Column
 
     protected abstract int compare(Writable w1, Writable w2);
 
+    /**
+     * Compare two values of the column, rather than two time steps
+     *
+     * @param w1 First value
+     * @param w2 Second value
+     */
+    public int compareColumnValues(Writable w1, Writable w2) {
+        return compare(w1, w2);
+    }
+
     /**
      * The output column name
      * after the operation has been applied
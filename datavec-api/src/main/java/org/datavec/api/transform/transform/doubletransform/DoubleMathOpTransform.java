@@ -16,7 +16,12 @@
 
 package org.datavec.api.transform.transform.doubletransform;
 
+import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.columnar.BatchTransform;
+import org.datavec.api.transform.columnar.ColumnVector;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.DoubleColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -34,7 +39,7 @@ import java.util.List;
  * @author Alex Black
  * @see DoubleColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class DoubleMathOpTransform extends BaseColumnTransform {
+public class DoubleMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final double scalar;
@@ -98,6 +103,35 @@ public class DoubleMathOpTransform extends BaseColumnTransform {
         return new DoubleWritable(doOp(columnWritable.toDouble()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int n = batch.numRows();
+        ColumnVector column = batch.getColumn(columnNumber);
+        ColumnMetaData inMeta = batch.getSchema().getMetaData(columnNumber);
+        DoubleColumnVector out;
+        if (column instanceof DoubleColumnVector && column.getColumnType() == ColumnType.Double) {
+            out = (DoubleColumnVector) column;
+            double[] data = out.getData();
+            for (int i = 0; i < n; i++) {
+                if (!out.isNull(i))
+                    data[i] = doOp(data[i]);
+            }
+        } else {
+            //Other column types: convert values to double as per map(Writable)
+            out = new DoubleColumnVector(inMeta.getName(), ColumnType.Double, Math.max(1, batch.capacity()));
+            for (int i = 0; i < n; i++) {
+                if (column.isNull(i))
+                    out.setNull(i, true);
+                else
+                    out.setDouble(i, doOp(column.get(i).toDouble()));
+            }
+        }
+
+        ColumnMetaData outMeta = inMeta instanceof DoubleMetaData ? getNewColumnMetaData(inMeta.getName(), inMeta)
+                        : new DoubleMetaData(inMeta.getName());
+        return batch.replaceColumn(columnNumber, outMeta, out);
+    }
+
     @Override
     public String toString() {
         return "DoubleMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -16,7 +16,12 @@
 
 package org.datavec.api.transform.transform.integer;
 
+import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.columnar.BatchTransform;
+import org.datavec.api.transform.columnar.ColumnVector;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.IntColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -31,7 +36,7 @@ import org.nd4j.shade.jackson.annotation.JsonProperty;
  * @author Alex Black
  * @see IntegerColumnsMathOpTransform to do a mathematical operation involving multiple columns (instead of a scalar)
  */
-public class IntegerMathOpTransform extends BaseColumnTransform {
+public class IntegerMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final int scalar;
@@ -95,6 +100,35 @@ public class IntegerMathOpTransform extends BaseColumnTransform {
         return new IntWritable(doOp(columnWritable.toInt()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int n = batch.numRows();
+        ColumnVector column = batch.getColumn(columnNumber);
+        ColumnMetaData inMeta = batch.getSchema().getMetaData(columnNumber);
+        IntColumnVector out;
+        if (column instanceof IntColumnVector && column.getColumnType() == ColumnType.Integer) {
+            out = (IntColumnVector) column;
+            int[] data = out.getData();
+            for (int i = 0; i < n; i++) {
+                if (!out.isNull(i))
+                    data[i] = doOp(data[i]);
+            }
+        } else {
+            //Other column types: convert values to int as per map(Writable)
+            out = new IntColumnVector(inMeta.getName(), ColumnType.Integer, Math.max(1, batch.capacity()));
+            for (int i = 0; i < n; i++) {
+                if (column.isNull(i))
+                    out.setNull(i, true);
+                else
+                    out.setInt(i, doOp(column.get(i).toInt()));
+            }
+        }
+
+        ColumnMetaData outMeta = inMeta instanceof IntegerMetaData ? getNewColumnMetaData(inMeta.getName(), inMeta)
+                        : new IntegerMetaData(inMeta.getName());
+        return batch.replaceColumn(columnNumber, outMeta, out);
+    }
+
     @Override
     public String toString() {
         return "IntegerMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
@@ -16,7 +16,12 @@
 
 package org.datavec.api.transform.transform.longtransform;
 
+import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.columnar.BatchTransform;
+import org.datavec.api.transform.columnar.ColumnVector;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.LongColumnVector;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.LongMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
@@ -31,7 +36,7 @@ import org.nd4j.shade.jackson.annotation.JsonProperty;
  * @author Alex Black
  * @see LongColumnsMathOpTransform to do a mathematical operation involving multiple long columns (instead of a scalar)
  */
-public class LongMathOpTransform extends BaseColumnTransform {
+public class LongMathOpTransform extends BaseColumnTransform implements BatchTransform {
 
     private final MathOp mathOp;
     private final long scalar;
@@ -95,6 +100,35 @@ public class LongMathOpTransform extends BaseColumnTransform {
         return new LongWritable(doOp(columnWritable.toLong()));
     }
 
+    @Override
+    public ColumnarBatch mapBatch(ColumnarBatch batch) {
+        int n = batch.numRows();
+        ColumnVector column = batch.getColumn(columnNumber);
+        ColumnMetaData inMeta = batch.getSchema().getMetaData(columnNumber);
+        LongColumnVector out;
+        if (column instanceof LongColumnVector && column.getColumnType() == ColumnType.Long) {
+            out = (LongColumnVector) column;
+            long[] data = out.getData();
+            for (int i = 0; i < n; i++) {
+                if (!out.isNull(i))
+                    data[i] = doOp(data[i]);
+            }
+        } else {
+            //Other column types: convert values to long as per map(Writable)
+            out = new LongColumnVector(inMeta.getName(), ColumnType.Long, Math.max(1, batch.capacity()));
+            for (int i = 0; i < n; i++) {
+                if (column.isNull(i))
+                    out.setNull(i, true);
+                else
+                    out.setLong(i, doOp(column.get(i).toLong()));
+            }
+        }
+
+        ColumnMetaData outMeta = inMeta instanceof LongMetaData ? getNewColumnMetaData(inMeta.getName(), inMeta)
+                        : new LongMetaData(inMeta.getName());
+        return batch.replaceColumn(columnNumber, outMeta, out);
+    }
+
     @Override
     public String toString() {
         return "LongMathOpTransform(mathOp=" + mathOp + ",scalar=" + scalar + ")";
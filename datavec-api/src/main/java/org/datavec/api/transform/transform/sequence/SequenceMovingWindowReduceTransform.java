@@ -24,6 +24,7 @@ import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.ops.SlidingWindowReduceOp;
 import org.datavec.api.transform.reduce.AggregableReductionUtils;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
@@ -45,6 +46,10 @@ import java.util.List;
  * or determine the minimum or maximum values in the last N time steps.
  *
  * For a simple moving average, length 20: {@code new SequenceMovingWindowReduceTransform("myCol", 20, ReduceOp.Mean)}
+ * <p>
+ * Most ops are calculated incrementally as the window moves (see {@link SlidingWindowReduceOp}), so the cost per
+ * time step does not depend on the look back period. Other ops (Prod, CountUnique etc) reduce the entire window at
+ * each time step.
  *
  * @author Alex Black
  */
@@ -168,16 +173,26 @@ public class SequenceMovingWindowReduceTransform implements Transform {
         int colIdx = inputSchema.getIndexOfColumn(columnName);
         ColumnType columnType = inputSchema.getType(colIdx);
         List<List<Writable>> out = new ArrayList<>(sequence.size());
+        SlidingWindowReduceOp windowOp = lookback > 0 ? SlidingWindowReduceOp.forOp(op, columnType, lookback) : null;
         LinkedList<Writable> window = new LinkedList<>();
         for (int i = 0; i < sequence.size(); i++) {
             Writable current = sequence.get(i).get(colIdx);
-            window.addLast(current);
-            if (window.size() > lookback) {
-                window.removeFirst();
+            int windowSize;
+            if (windowOp != null) {
+                windowOp.add(current);
+                windowSize = windowOp.size();
+            } else {
+                window.addLast(current);
+                if (window.size() > lookback) {
+                    window.removeFirst();
+                }
+                windowSize = window.size();
             }
             Writable reduced;
-            if (window.size() < lookback && edgeCaseHandling == EdgeCaseHandling.SpecifiedValue) {
+            if (windowSize < lookback && edgeCaseHandling == EdgeCaseHandling.SpecifiedValue) {
                 reduced = edgeCaseValue;
+            } else if (windowOp != null) {
+                reduced = windowOp.get();
             } else {
                 IAggregableReduceOp<Writable, List<Writable>> reductionOp = AggregableReductionUtils
                                 .reduceColumn(Collections.singletonList(op), columnType, false, null);
@@ -2,21 +2,37 @@ package org.datavec.api.transform.transform.string;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.datavec.api.util.AhoCorasick;
+import org.datavec.api.util.PatternCache;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.nd4j.shade.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
- * Replaces String values that match regular expressions.
+ * Replaces String values that match regular expressions.<br>
+ * The regular expressions are applied in the iteration order of the map, each one to the output of the previous one.
+ * <p>
+ * The patterns are compiled once (and shared via {@link PatternCache}). When the map has several entries that are
+ * all plain literals (no regex metacharacters) with non-empty literal replacements that cannot themselves create
+ * new matches, all replacements are made in a single pass using an {@link AhoCorasick} automaton.
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class ReplaceStringTransform extends BaseStringTransform {
 
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
     private final Map<String, String> map;
 
+    private transient AhoCorasick literalMatcher;
+    private transient String[] replacements;
+    private transient volatile Pattern[] patterns;
+
     /**
      * Constructs a new ReplaceStringTransform using the specified
      * @param columnName Name of the column
@@ -43,12 +59,66 @@ public class ReplaceStringTransform extends BaseStringTransform {
     }
 
     private String replaceAll(String value) {
-        if (map != null && !map.isEmpty()) {
-            for (Map.Entry<String, String> entry : map.entrySet()) {
-                value = value.replaceAll(entry.getKey(), entry.getValue());
+        if (map == null || map.isEmpty()) {
+            return value;
+        }
+        Pattern[] p = patterns;
+        if (p == null) {
+            p = initPatterns();
+        }
+        if (literalMatcher != null) {
+            String out = literalMatcher.replaceAll(value, replacements);
+            if (out != null) {
+                return out;
             }
         }
+        for (int i = 0; i < p.length; i++) {
+            value = p[i].matcher(value).replaceAll(replacements[i]);
+        }
         return value;
     }
 
+    private Pattern[] initPatterns() {
+        int n = map.size();
+        Pattern[] p = new Pattern[n];
+        String[] r = new String[n];
+        List<String> literals = new ArrayList<>(n);
+        StringBuilder keyChars = new StringBuilder();
+        StringBuilder replacementChars = new StringBuilder();
+        boolean allLiteral = n > 1;
+        int i = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            p[i] = PatternCache.get(entry.getKey());
+            r[i] = entry.getValue();
+            if (allLiteral) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                allLiteral = !key.isEmpty() && containsNone(key, REGEX_METACHARACTERS) && value != null
+                                && !value.isEmpty() && containsNone(value, "\\$");
+                literals.add(key);
+                keyChars.append(key);
+                replacementChars.append(value);
+            }
+            i++;
+        }
+
+        //Single pass replacement is only equivalent to sequential replacement if replacement values can never be
+        //part of a match for another key. Values where matches of different keys overlap are handled sequentially
+        if (allLiteral && containsNone(replacementChars.toString(), keyChars.toString())) {
+            literalMatcher = new AhoCorasick(literals);
+        }
+        replacements = r;
+        patterns = p;
+        return p;
+    }
+
+    private static boolean containsNone(String s, String chars) {
+        for (int i = 0; i < s.length(); i++) {
+            if (chars.indexOf(s.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -29,9 +29,11 @@ import org.datavec.api.util.jackson.DateTimeFieldTypeSerializer;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
-import org.joda.time.DateTime;
+import org.joda.time.Chronology;
 import org.joda.time.DateTimeFieldType;
 import org.joda.time.DateTimeZone;
+import org.joda.time.DurationFieldType;
+import org.joda.time.chrono.ISOChronology;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
@@ -57,6 +59,9 @@ import java.util.List;
 @EqualsAndHashCode(exclude = {"inputSchema", "insertAfterIdx", "deriveFromIdx"})
 public class DeriveColumnsFromTimeTransform implements Transform {
 
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+
     private final String columnName;
     private final String insertAfter;
     private DateTimeZone inputTimeZone;
@@ -65,6 +70,8 @@ public class DeriveColumnsFromTimeTransform implements Transform {
     private int insertAfterIdx = -1;
     private int deriveFromIdx = -1;
 
+    private transient volatile DayFields lastDay;
+
 
     private DeriveColumnsFromTimeTransform(Builder builder) {
         this.derivedColumns = builder.derivedColumns;
@@ -135,6 +142,7 @@ public class DeriveColumnsFromTimeTransform implements Transform {
                             + "\" is not a time column. Is: " + inputSchema.getMetaData(columnName));
         TimeMetaData meta = (TimeMetaData) inputSchema.getMetaData(columnName);
         inputTimeZone = meta.getTimeZone();
+        lastDay = null;
     }
 
     @Override
@@ -151,19 +159,22 @@ public class DeriveColumnsFromTimeTransform implements Transform {
         }
 
         int i = 0;
-        Writable source = writables.get(deriveFromIdx);
+        long time = writables.get(deriveFromIdx).toLong();
+        int[] fieldValues = null;
         List<Writable> list = new ArrayList<>(writables.size() + derivedColumns.size());
         for (Writable w : writables) {
             list.add(w);
             if (i++ == insertAfterIdx) {
-                for (DerivedColumn d : derivedColumns) {
+                for (int j = 0; j < derivedColumns.size(); j++) {
+                    DerivedColumn d = derivedColumns.get(j);
                     switch (d.columnType) {
                         case String:
-                            list.add(new Text(d.dateTimeFormatter.print(source.toLong())));
+                            list.add(new Text(d.dateTimeFormatter.print(time)));
                             break;
                         case Integer:
-                            DateTime dt = new DateTime(source.toLong(), inputTimeZone);
-                            list.add(new IntWritable(dt.get(d.fieldType)));
+                            if (fieldValues == null)
+                                fieldValues = integerFieldValues(time);
+                            list.add(new IntWritable(fieldValues[j]));
                             break;
                         default:
                             throw new IllegalStateException("Unexpected column type: " + d.columnType);
@@ -194,14 +205,17 @@ public class DeriveColumnsFromTimeTransform implements Transform {
     public Object map(Object input) {
         List<Object> ret = new ArrayList<>();
         Long l = (Long) input;
-        for (DerivedColumn d : derivedColumns) {
+        int[] fieldValues = null;
+        for (int j = 0; j < derivedColumns.size(); j++) {
+            DerivedColumn d = derivedColumns.get(j);
             switch (d.columnType) {
                 case String:
                     ret.add(d.dateTimeFormatter.print(l));
                     break;
                 case Integer:
-                    DateTime dt = new DateTime(l, inputTimeZone);
-                    ret.add(dt.get(d.fieldType));
+                    if (fieldValues == null)
+                        fieldValues = integerFieldValues(l);
+                    ret.add(fieldValues[j]);
                     break;
                 default:
                     throw new IllegalStateException("Unexpected column type: " + d.columnType);
@@ -225,6 +239,40 @@ public class DeriveColumnsFromTimeTransform implements Transform {
         return ret;
     }
 
+    /**
+     * Values of the integer derived columns (indexed as per derivedColumns) for the given time.<br>
+     * Fields that are constant within a day (year, month, day of week etc) are cached for the last local day seen,
+     * hence runs of times from the same day only need their time-of-day fields computed.
+     */
+    private int[] integerFieldValues(long time) {
+        //Equivalent to new DateTime(time, inputTimeZone).get(fieldType), which uses the UTC chronology on local time
+        long local = inputTimeZone.convertUTCToLocal(time);
+        long day = local / MILLIS_PER_DAY;
+        if (local < 0 && local % MILLIS_PER_DAY != 0)
+            day--;
+
+        DayFields dayFields = lastDay;
+        if (dayFields == null || dayFields.day != day) {
+            long dayStart = day * MILLIS_PER_DAY;
+            int[] values = new int[derivedColumns.size()];
+            for (int j = 0; j < values.length; j++) {
+                DerivedColumn d = derivedColumns.get(j);
+                if (d.columnType == ColumnType.Integer && !d.timeOfDayField)
+                    values[j] = d.fieldType.getField(UTC).get(dayStart);
+            }
+            dayFields = new DayFields(day, values);
+            lastDay = dayFields;
+        }
+
+        int[] out = new int[derivedColumns.size()];
+        for (int j = 0; j < out.length; j++) {
+            DerivedColumn d = derivedColumns.get(j);
+            if (d.columnType == ColumnType.Integer)
+                out[j] = d.timeOfDayField ? d.fieldType.getField(UTC).get(local) : dayFields.values[j];
+        }
+        return out;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -359,6 +407,7 @@ public class DeriveColumnsFromTimeTransform implements Transform {
         @JsonDeserialize(using = DateTimeFieldTypeDeserializer.class)
         private final DateTimeFieldType fieldType;
         private transient DateTimeFormatter dateTimeFormatter;
+        private transient boolean timeOfDayField;
 
         //        public DerivedColumn(String columnName, ColumnType columnType, String format, DateTimeZone dateTimeZone, DateTimeFieldType fieldType) {
         public DerivedColumn(@JsonProperty("columnName") String columnName,
@@ -370,8 +419,18 @@ public class DeriveColumnsFromTimeTransform implements Transform {
             this.format = format;
             this.dateTimeZone = dateTimeZone;
             this.fieldType = fieldType;
+            init();
+        }
+
+        private void init() {
             if (format != null)
                 dateTimeFormatter = DateTimeFormat.forPattern(this.format).withZone(dateTimeZone);
+            if (fieldType != null) {
+                DurationFieldType t = fieldType.getDurationType();
+                timeOfDayField = t.equals(DurationFieldType.millis()) || t.equals(DurationFieldType.seconds())
+                                || t.equals(DurationFieldType.minutes()) || t.equals(DurationFieldType.hours())
+                                || t.equals(DurationFieldType.halfdays());
+            }
         }
 
         @Override
@@ -387,8 +446,17 @@ public class DeriveColumnsFromTimeTransform implements Transform {
 
         private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
             in.defaultReadObject();
-            if (format != null)
-                dateTimeFormatter = DateTimeFormat.forPattern(format).withZone(dateTimeZone);
+            init();
+        }
+    }
+
+    private static class DayFields {
+        private final long day;
+        private final int[] values;
+
+        private DayFields(long day, int[] values) {
+            this.day = day;
+            this.values = values;
         }
     }
 }
@@ -0,0 +1,311 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.transform.transform.time;
+
+import org.joda.time.DateTimeZone;
+
+import java.util.Arrays;
+
+/**
+ * Parser for fixed-width numeric date/time formats such as {@code yyyy-MM-dd HH:mm:ss.SSS} or
+ * {@code yyyy-MM-dd'T'HH:mm:ss}, operating directly on the (UTF-8) bytes of a Text value.<br>
+ * Supported patterns consist of the fields yyyy (or YYYY), MM and dd, optionally followed by HH, mm, ss and SSS, plus
+ * literal separators. The date fields must all come before the time fields.
+ * <p>
+ * Only input that exactly matches the fixed-width layout is parsed; anything else (variable width numbers, invalid
+ * field values, local times that fall into a daylight saving gap) is rejected with {@link #NOT_PARSED}, so that the
+ * caller can fall back to the full Joda Time parser, which handles (or reports) such values consistently.
+ * <p>
+ * The date prefix of the last parsed value is cached, hence runs of timestamps from the same day only need their
+ * time fields parsed. Instances are safe for use by multiple threads.
+ */
+class FixedWidthTimeParser {
+
+    /**
+     * Returned by {@link #parse(byte[], int)} if the input could not be parsed by this parser
+     */
+    static final long NOT_PARSED = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private final DateTimeZone zone;
+    private final int fixedOffset;
+    private final boolean yearOfEra;
+    //Template for the literal characters; digit positions are marked in isDigit
+    private final byte[] template;
+    private final boolean[] isDigit;
+    private final int prefixLength;
+    private final int yearPos, monthPos, dayPos;
+    private final int hourPos, minutePos, secondPos, millisPos;
+
+    private volatile DayPrefix lastDay;
+
+    private FixedWidthTimeParser(DateTimeZone zone, boolean yearOfEra, byte[] template, boolean[] isDigit, int[] pos) {
+        this.zone = zone;
+        this.fixedOffset = zone.isFixed() ? zone.getOffset(0L) : 0;
+        this.yearOfEra = yearOfEra;
+        this.template = template;
+        this.isDigit = isDigit;
+        this.yearPos = pos[0];
+        this.monthPos = pos[1];
+        this.dayPos = pos[2];
+        this.hourPos = pos[3];
+        this.minutePos = pos[4];
+        this.secondPos = pos[5];
+        this.millisPos = pos[6];
+        this.prefixLength = Math.max(yearPos + 4, Math.max(monthPos + 2, dayPos + 2));
+    }
+
+    /**
+     * Create a parser for the given Joda Time pattern, if it is supported
+     *
+     * @param pattern Joda Time pattern, as per {@link org.joda.time.format.DateTimeFormat}
+     * @param zone    Time zone for parsing
+     * @return The parser, or null if the pattern is not a supported fixed-width pattern
+     */
+    static FixedWidthTimeParser forPattern(String pattern, DateTimeZone zone) {
+        //Field order: year, month, day, hour, minute, second, millisecond
+        String letters = "yMdHmsS";
+        int[] widths = {4, 2, 2, 2, 2, 2, 3};
+        int[] pos = new int[7];
+        Arrays.fill(pos, -1);
+        boolean yearOfEra = false;
+        StringBuilder literal = new StringBuilder();
+        boolean[] digit = new boolean[pattern.length()];
+        int width = 0;
+
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                //Quoted literal text; '' is an escaped quote, both inside and outside of quoted text
+                StringBuilder quoted = new StringBuilder();
+                int end = i + 1;
+                if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                    quoted.append('\'');
+                    end++;
+                } else {
+                    boolean closed = false;
+                    while (end < pattern.length() && !closed) {
+                        char q = pattern.charAt(end++);
+                        if (q != '\'') {
+                            quoted.append(q);
+                        } else if (end < pattern.length() && pattern.charAt(end) == '\'') {
+                            quoted.append('\'');
+                            end++;
+                        } else {
+                            closed = true;
+                        }
+                    }
+                    if (!closed)
+                        return null;
+                }
+                for (int j = 0; j < quoted.length(); j++) {
+                    if (quoted.charAt(j) >= 128)
+                        return null;
+                    literal.append(quoted.charAt(j));
+                    width++;
+                }
+                i = end;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int end = i;
+                while (end < pattern.length() && pattern.charAt(end) == c)
+                    end++;
+                int field = letters.indexOf(c == 'Y' ? 'y' : c);
+                if (field < 0 || pos[field] >= 0 || end - i != widths[field])
+                    return null;
+                if (c == 'Y')
+                    yearOfEra = true;
+                pos[field] = width;
+                for (int j = 0; j < widths[field]; j++) {
+                    literal.append('0');
+                    digit[width++] = true;
+                }
+                i = end;
+            } else {
+                if (c >= 128 || (c >= '0' && c <= '9'))
+                    return null;
+                literal.append(c);
+                width++;
+                i++;
+            }
+        }
+
+        //Date fields are required, and must precede the time fields
+        if (pos[0] < 0 || pos[1] < 0 || pos[2] < 0)
+            return null;
+        int datePrefix = Math.max(pos[0] + 4, Math.max(pos[1] + 2, pos[2] + 2));
+        for (int f = 3; f < 7; f++) {
+            if (pos[f] >= 0 && pos[f] < datePrefix)
+                return null;
+        }
+
+        byte[] template = new byte[width];
+        for (int j = 0; j < width; j++)
+            template[j] = (byte) literal.charAt(j);
+        return new FixedWidthTimeParser(zone, yearOfEra, template, Arrays.copyOf(digit, width), pos);
+    }
+
+    /**
+     * Parse the given UTF-8 bytes
+     *
+     * @param bytes  Bytes to parse
+     * @param length Number of bytes to parse
+     * @return Time in epoch milliseconds, or {@link #NOT_PARSED} if the input is not in this parser's format
+     */
+    long parse(byte[] bytes, int length) {
+        if (length != template.length)
+            return NOT_PARSED;
+
+        DayPrefix day = lastDay;
+        if (day == null || !day.matches(bytes, prefixLength)) {
+            day = parseDay(bytes);
+            if (day == null)
+                return NOT_PARSED;
+            lastDay = day;
+        }
+
+        //Check the remaining literals and digits
+        for (int i = prefixLength; i < length; i++) {
+            byte b = bytes[i];
+            if (isDigit[i] ? (b < '0' || b > '9') : b != template[i])
+                return NOT_PARSED;
+        }
+
+        long local = day.localMillis;
+        if (hourPos >= 0) {
+            int hour = digits(bytes, hourPos, 2);
+            if (hour > 23)
+                return NOT_PARSED;
+            local += hour * 3600000L;
+        }
+        if (minutePos >= 0) {
+            int minute = digits(bytes, minutePos, 2);
+            if (minute > 59)
+                return NOT_PARSED;
+            local += minute * 60000L;
+        }
+        if (secondPos >= 0) {
+            int second = digits(bytes, secondPos, 2);
+            if (second > 59)
+                return NOT_PARSED;
+            local += second * 1000L;
+        }
+        if (millisPos >= 0) {
+            local += digits(bytes, millisPos, 3);
+        }
+
+        if (zone.isFixed()) {
+            return local - fixedOffset;
+        }
+        //As per Joda Time parsing: local times in a daylight saving gap are invalid
+        int offset = zone.getOffsetFromLocal(local);
+        long utc = local - offset;
+        if (offset != zone.getOffset(utc))
+            return NOT_PARSED;
+        return utc;
+    }
+
+    private DayPrefix parseDay(byte[] bytes) {
+        for (int i = 0; i < prefixLength; i++) {
+            byte b = bytes[i];
+            if (isDigit[i] ? (b < '0' || b > '9') : b != template[i])
+                return null;
+        }
+        int year = digits(bytes, yearPos, 4);
+        int month = digits(bytes, monthPos, 2);
+        int day = digits(bytes, dayPos, 2);
+        if ((yearOfEra && year == 0) || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+            return null;
+        return new DayPrefix(Arrays.copyOf(bytes, prefixLength), daysFromCivil(year, month, day) * MILLIS_PER_DAY);
+    }
+
+    /**
+     * Parse an integer number of seconds or milliseconds since the epoch
+     *
+     * @param bytes      Bytes to parse: an optional minus sign followed by digits
+     * @param length     Number of bytes to parse
+     * @param multiplier Multiplier to convert the value to milliseconds
+     * @return Time in epoch milliseconds, or {@link #NOT_PARSED} if the input is not a (small enough) integer
+     */
+    static long parseEpoch(byte[] bytes, int length, long multiplier) {
+        int start = length > 0 && bytes[0] == '-' ? 1 : 0;
+        //At most 15 digits: no overflow, even after converting seconds to milliseconds
+        if (length == start || length - start > 15)
+            return NOT_PARSED;
+        long v = 0;
+        for (int i = start; i < length; i++) {
+            int d = bytes[i] - '0';
+            if (d < 0 || d > 9)
+                return NOT_PARSED;
+            v = 10 * v + d;
+        }
+        return (start == 1 ? -v : v) * multiplier;
+    }
+
+    private static int digits(byte[] bytes, int pos, int count) {
+        int v = 0;
+        for (int i = pos; i < pos + count; i++)
+            v = 10 * v + (bytes[i] - '0');
+        return v;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for the given date in the proleptic Gregorian calendar (as used by ISOChronology)
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static class DayPrefix {
+        private final byte[] prefix;
+        private final long localMillis;
+
+        private DayPrefix(byte[] prefix, long localMillis) {
+            this.prefix = prefix;
+            this.localMillis = localMillis;
+        }
+
+        private boolean matches(byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != prefix[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+}
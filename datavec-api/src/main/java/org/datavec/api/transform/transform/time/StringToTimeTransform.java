@@ -20,6 +20,7 @@ import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.metadata.TimeMetaData;
 import org.datavec.api.transform.transform.BaseColumnTransform;
 import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
@@ -34,18 +35,34 @@ import java.util.TimeZone;
 /**
  * Convert a String column to a time column by parsing the date/time String, using a JodaTime.
  * <p>
- * Time format is specified as per http://www.joda.org/joda-time/apidocs/org/joda/time/format/DateTimeFormat.html
+ * Time format is specified as per http://www.joda.org/joda-time/apidocs/org/joda/time/format/DateTimeFormat.html,
+ * or is one of {@link #EPOCH_SECONDS} or {@link #EPOCH_MILLIS} for times given as a number since the epoch.
+ * <p>
+ * Fixed-width numeric formats such as {@code yyyy-MM-dd HH:mm:ss.SSS} or {@code yyyy-MM-dd'T'HH:mm:ss} are parsed
+ * directly from the bytes of Text values, reusing the parsed date for runs of values from the same day. Values that
+ * don't exactly match such a format are parsed by Joda Time.
  *
  * @author Alex Black
  */
 public class StringToTimeTransform extends BaseColumnTransform {
 
+    /**
+     * Time format for times given as seconds since the epoch (1970-01-01T00:00:00Z)
+     */
+    public static final String EPOCH_SECONDS = "epoch_seconds";
+    /**
+     * Time format for times given as milliseconds since the epoch (1970-01-01T00:00:00Z)
+     */
+    public static final String EPOCH_MILLIS = "epoch_millis";
+
     private final String timeFormat;
     private final DateTimeZone timeZone;
     private final Long minValidTime;
     private final Long maxValidTime;
 
     private transient DateTimeFormatter formatter;
+    private transient FixedWidthTimeParser fastParser;
+    private transient long epochMultiplier;
 
     /**
      * @param columnName Name of the String column
@@ -93,7 +110,18 @@ public class StringToTimeTransform extends BaseColumnTransform {
         this.minValidTime = minValidTime;
         this.maxValidTime = maxValidTime;
 
-        this.formatter = DateTimeFormat.forPattern(timeFormat).withZone(timeZone);
+        initParsers();
+    }
+
+    private void initParsers() {
+        if (EPOCH_SECONDS.equals(timeFormat)) {
+            epochMultiplier = 1000L;
+        } else if (EPOCH_MILLIS.equals(timeFormat)) {
+            epochMultiplier = 1L;
+        } else {
+            formatter = DateTimeFormat.forPattern(timeFormat).withZone(timeZone);
+            fastParser = FixedWidthTimeParser.forPattern(timeFormat, timeZone);
+        }
     }
 
 
@@ -104,7 +132,27 @@ public class StringToTimeTransform extends BaseColumnTransform {
 
     @Override
     public Writable map(Writable columnWritable) {
+        if (columnWritable instanceof Text) {
+            Text t = (Text) columnWritable;
+            long time = FixedWidthTimeParser.NOT_PARSED;
+            if (epochMultiplier > 0) {
+                time = FixedWidthTimeParser.parseEpoch(t.getBytes(), t.getLength(), epochMultiplier);
+            } else if (fastParser != null) {
+                time = fastParser.parse(t.getBytes(), t.getLength());
+            }
+            if (time != FixedWidthTimeParser.NOT_PARSED) {
+                return new LongWritable(time);
+            }
+        }
+
         String str = columnWritable.toString();
+        if (epochMultiplier > 0) {
+            long value = Long.parseLong(str);
+            if (Math.abs(value) > Long.MAX_VALUE / epochMultiplier) {
+                throw new IllegalArgumentException("Invalid epoch time: \"" + str + "\" is out of range");
+            }
+            return new LongWritable(value * epochMultiplier);
+        }
         long time = formatter.parseMillis(str);
         return new LongWritable(time);
     }
@@ -131,7 +179,7 @@ public class StringToTimeTransform extends BaseColumnTransform {
 
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
-        formatter = DateTimeFormat.forPattern(timeFormat).withZone(timeZone);
+        initParsers();
     }
 
     /**
@@ -0,0 +1,205 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton for finding occurrences of a set of literal strings in a single pass over the input.<br>
+ * The automaton is compiled to a dense transition table over the characters that appear in the patterns (all other
+ * characters share a single index), so that each input character costs one table lookup regardless of the number
+ * of patterns.
+ */
+public class AhoCorasick {
+
+    private final int numPatterns;
+    private final int[] patternLength;
+    private final int[] asciiIndex = new int[128];
+    private final Map<Character, Integer> otherIndex = new HashMap<>();
+    private final int alphabetSize;
+    //delta[node * alphabetSize + c]: next node for character index c
+    private final int[] delta;
+    //Pattern ending at each node (or -1), and the next node on the suffix chain that has a pattern (or -1)
+    private final int[] output;
+    private final int[] outputLink;
+
+    /**
+     * @param patterns Literal strings to search for. Must be non-empty strings
+     */
+    public AhoCorasick(List<String> patterns) {
+        this.numPatterns = patterns.size();
+        this.patternLength = new int[numPatterns];
+        int totalLength = 0;
+        int nextIndex = 1;
+        for (int i = 0; i < numPatterns; i++) {
+            String s = patterns.get(i);
+            if (s == null || s.isEmpty()) {
+                throw new IllegalArgumentException("Patterns must be non-empty strings: got \"" + s + "\" at index " + i);
+            }
+            patternLength[i] = s.length();
+            totalLength += s.length();
+            for (int j = 0; j < s.length(); j++) {
+                char c = s.charAt(j);
+                if (c < 128) {
+                    if (asciiIndex[c] == 0)
+                        asciiIndex[c] = nextIndex++;
+                } else if (!otherIndex.containsKey(c)) {
+                    otherIndex.put(c, nextIndex++);
+                }
+            }
+        }
+        this.alphabetSize = nextIndex;
+
+        //Build the trie
+        int maxNodes = totalLength + 1;
+        int[] trie = new int[maxNodes * alphabetSize];
+        Arrays.fill(trie, -1);
+        int[] out = new int[maxNodes];
+        Arrays.fill(out, -1);
+        int numNodes = 1;
+        for (int i = 0; i < numPatterns; i++) {
+            String s = patterns.get(i);
+            int node = 0;
+            for (int j = 0; j < s.length(); j++) {
+                int idx = node * alphabetSize + charIndex(s.charAt(j));
+                if (trie[idx] == -1) {
+                    trie[idx] = numNodes++;
+                }
+                node = trie[idx];
+            }
+            if (out[node] == -1) {
+                out[node] = i;
+            }
+        }
+
+        //Breadth-first construction of failure links, converting the trie into a complete transition table
+        this.delta = Arrays.copyOf(trie, numNodes * alphabetSize);
+        this.output = Arrays.copyOf(out, numNodes);
+        this.outputLink = new int[numNodes];
+        int[] fail = new int[numNodes];
+        int[] queue = new int[numNodes];
+        int head = 0;
+        int tail = 0;
+        outputLink[0] = -1;
+        for (int c = 0; c < alphabetSize; c++) {
+            int v = delta[c];
+            if (v == -1) {
+                delta[c] = 0;
+            } else {
+                fail[v] = 0;
+                outputLink[v] = -1;
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int c = 0; c < alphabetSize; c++) {
+                int idx = u * alphabetSize + c;
+                int v = delta[idx];
+                if (v == -1) {
+                    delta[idx] = delta[fail[u] * alphabetSize + c];
+                } else {
+                    int f = delta[fail[u] * alphabetSize + c];
+                    fail[v] = f;
+                    outputLink[v] = output[f] >= 0 ? f : outputLink[f];
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    private int charIndex(char c) {
+        if (c < 128)
+            return asciiIndex[c];
+        Integer idx = otherIndex.get(c);
+        return idx == null ? 0 : idx;
+    }
+
+    /**
+     * @return Number of patterns in this automaton
+     */
+    public int numPatterns() {
+        return numPatterns;
+    }
+
+    /**
+     * Replace all occurrences of each pattern with the corresponding replacement string, in a single pass.<br>
+     * Occurrences of each pattern are replaced left to right without overlapping, in the same way as
+     * {@link String#replace(CharSequence, CharSequence)}. If an occurrence of one pattern overlaps an occurrence of
+     * a different pattern, the result would depend on the order in which the patterns are applied; in that case this
+     * method returns null, and the caller should apply the replacements sequentially instead.
+     *
+     * @param text         Text to replace occurrences in
+     * @param replacements Replacement for each pattern, in the same order as the patterns
+     * @return Text with all occurrences replaced (the same String instance if there were no occurrences), or null
+     * if occurrences of different patterns overlap
+     */
+    public String replaceAll(String text, String[] replacements) {
+        if (replacements.length != numPatterns) {
+            throw new IllegalArgumentException("Expected " + numPatterns + " replacements, got " + replacements.length);
+        }
+        StringBuilder sb = null;
+        int copyFrom = 0;
+        int[] lastEnd = null;
+        //Largest end position of any occurrence so far (and its pattern), and largest end of any other pattern
+        int maxEnd = 0;
+        int maxEndPattern = -1;
+        int maxEndOther = 0;
+
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            node = delta[node * alphabetSize + charIndex(text.charAt(i))];
+            int n = output[node] >= 0 ? node : outputLink[node];
+            while (n >= 0) {
+                int p = output[n];
+                int end = i + 1;
+                int start = end - patternLength[p];
+                int otherEnd = (p == maxEndPattern ? maxEndOther : maxEnd);
+                if (otherEnd > start) {
+                    return null;
+                }
+                if (lastEnd == null) {
+                    lastEnd = new int[numPatterns];
+                    sb = new StringBuilder(text.length() + 16);
+                }
+                if (start >= lastEnd[p]) {
+                    lastEnd[p] = end;
+                    sb.append(text, copyFrom, start).append(replacements[p]);
+                    copyFrom = end;
+                }
+
+                if (p == maxEndPattern) {
+                    maxEnd = end;
+                } else {
+                    maxEndOther = maxEnd;
+                    maxEnd = end;
+                    maxEndPattern = p;
+                }
+                n = outputLink[n];
+            }
+        }
+
+        if (sb == null) {
+            return text;
+        }
+        sb.append(text, copyFrom, text.length());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,64 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A shared cache of compiled regular expressions.<br>
+ * {@link String#matches(String)} and {@link String#replaceAll(String, String)} compile the regex on every call; this
+ * class compiles each distinct regex once per JVM, so that transforms, conditions and column metadata can look up
+ * (and then hold in a transient field) the compiled {@link Pattern} instead.
+ * <p>
+ * The cache is bounded: when it exceeds {@link #MAX_SIZE} entries it is cleared, which avoids unbounded growth for
+ * pipelines that generate many distinct regexes.
+ */
+public class PatternCache {
+
+    public static final int MAX_SIZE = 1024;
+
+    private static final Map<String, Pattern> cache = new ConcurrentHashMap<>();
+
+    private PatternCache() {}
+
+    /**
+     * Get the compiled pattern for the given regex, compiling and caching it if required
+     *
+     * @param regex Regular expression
+     * @return Compiled pattern
+     */
+    public static Pattern get(String regex) {
+        Pattern p = cache.get(regex);
+        if (p == null) {
+            p = Pattern.compile(regex);
+            if (cache.size() >= MAX_SIZE) {
+                cache.clear();
+            }
+            cache.put(regex, p);
+        }
+        return p;
+    }
+
+    /**
+     * Equivalent to {@link String#matches(String)}, using the cached compiled pattern
+     */
+    public static boolean matches(String regex, CharSequence input) {
+        return get(regex).matcher(input).matches();
+    }
+}
@@ -0,0 +1,91 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.util.ndarray;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * A matrix in compressed sparse row (CSR) format: the column indices and values of the stored entries of row i are
+ * at positions rowPointers[i] (inclusive) to rowPointers[i+1] (exclusive) of the column index and value arrays.
+ * Column indices are in ascending order within each row.
+ *
+ * @see RecordConverter#toCSR(java.util.List)
+ */
+public class CSRMatrix implements Serializable {
+
+    private final int rows;
+    private final int columns;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+
+    public CSRMatrix(int rows, int columns, int[] rowPointers, int[] columnIndices, double[] values) {
+        if (rowPointers.length != rows + 1)
+            throw new IllegalArgumentException("Expected " + (rows + 1) + " row pointers, got " + rowPointers.length);
+        if (columnIndices.length < rowPointers[rows] || values.length < rowPointers[rows])
+            throw new IllegalArgumentException("Row pointers reference " + rowPointers[rows] + " entries, but only "
+                            + Math.min(columnIndices.length, values.length) + " are present");
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return Number of stored entries
+     */
+    public int numStored() {
+        return rowPointers[rows];
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public int[] getColumnIndices() {
+        return columnIndices;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return The matrix as a dense INDArray of shape [rows, columns]
+     */
+    public INDArray toDense() {
+        double[] dense = new double[rows * columns];
+        for (int i = 0; i < rows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                dense[i * columns + columnIndices[k]] = values[k];
+            }
+        }
+        return Nd4j.create(dense, new int[] {rows, columns}, 'c');
+    }
+}
@@ -17,9 +17,14 @@
 package org.datavec.api.util.ndarray;
 
 import org.datavec.api.timeseries.util.TimeSeriesWritableUtils;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.columnar.ColumnVector;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.columnar.DictionaryColumnVector;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSet;
@@ -85,7 +90,113 @@ public class RecordConverter {
     }
 
     /**
-     * Convert a record to an INDArray. May contain a mix of Writables and row vector NDArrayWritables.
+     * Convert a set of records in to a matrix in compressed sparse row format, with one row per record.
+     * Records may contain a mix of {@link SparseVectorWritable}s, row vector {@link NDArrayWritable}s and single
+     * value writables (all converted to doubles); only non-zero values of dense writables are stored.
+     * All records must have the same total length.
+     *
+     * @param records the records to convert
+     * @return the CSR matrix for the records
+     */
+    public static CSRMatrix toCSR(List<List<Writable>> records) {
+        int rows = records.size();
+        int[] rowPointers = new int[rows + 1];
+        int[] columnIndices = new int[16];
+        double[] values = new double[16];
+        int n = 0;
+        int columns = -1;
+        for (int r = 0; r < rows; r++) {
+            int col = 0;
+            for (Writable w : records.get(r)) {
+                if (w instanceof SparseVectorWritable) {
+                    SparseVectorWritable s = (SparseVectorWritable) w;
+                    int[] idx = s.getIndices();
+                    double[] val = s.getValues();
+                    if (n + idx.length > columnIndices.length) {
+                        int newSize = Math.max(2 * columnIndices.length, n + idx.length);
+                        columnIndices = Arrays.copyOf(columnIndices, newSize);
+                        values = Arrays.copyOf(values, newSize);
+                    }
+                    for (int k = 0; k < idx.length; k++) {
+                        if (val[k] != 0.0) {
+                            columnIndices[n] = col + idx[k];
+                            values[n++] = val[k];
+                        }
+                    }
+                    col += (int) s.length();
+                } else if (w instanceof NDArrayWritable) {
+                    INDArray a = ((NDArrayWritable) w).get();
+                    if (!a.isRowVector())
+                        throw new UnsupportedOperationException("NDArrayWritable is not a row vector: cannot convert "
+                                        + "to CSR format. Shape: " + Arrays.toString(a.shape()));
+                    for (int k = 0; k < a.length(); k++) {
+                        double d = a.getDouble(k);
+                        if (d != 0.0) {
+                            if (n == columnIndices.length) {
+                                columnIndices = Arrays.copyOf(columnIndices, 2 * n);
+                                values = Arrays.copyOf(values, 2 * n);
+                            }
+                            columnIndices[n] = col + k;
+                            values[n++] = d;
+                        }
+                    }
+                    col += a.length();
+                } else {
+                    double d = w.toDouble();
+                    if (d != 0.0) {
+                        if (n == columnIndices.length) {
+                            columnIndices = Arrays.copyOf(columnIndices, 2 * n);
+                            values = Arrays.copyOf(values, 2 * n);
+                        }
+                        columnIndices[n] = col;
+                        values[n++] = d;
+                    }
+                    col++;
+                }
+            }
+            if (columns < 0) {
+                columns = col;
+            } else if (columns != col) {
+                throw new IllegalArgumentException("Records must all have the same length: record 0 has length "
+                                + columns + ", record " + r + " has length " + col);
+            }
+            rowPointers[r + 1] = n;
+        }
+        return new CSRMatrix(rows, Math.max(columns, 0), rowPointers, Arrays.copyOf(columnIndices, n),
+                        Arrays.copyOf(values, n));
+    }
+
+    /**
+     * Convert a columnar batch in to a matrix, with one row per record. Values are copied directly from the
+     * column vectors into the matrix buffer, without converting each record to a list of Writables first.<br>
+     * Batches with NDArray columns are converted via {@link #toMatrix(List)}.
+     *
+     * @param batch the batch to convert
+     * @return the matrix for the batch
+     */
+    public static INDArray toMatrix(ColumnarBatch batch) {
+        int rows = batch.numRows();
+        int cols = batch.numColumns();
+        for (int j = 0; j < cols; j++) {
+            if (batch.getColumn(j).getColumnType() == ColumnType.NDArray)
+                return toMatrix(batch.toRecords());
+        }
+
+        double[] data = new double[rows * cols];
+        for (int j = 0; j < cols; j++) {
+            ColumnVector c = batch.getColumn(j);
+            //String/categorical values, and nulls, are converted as for individual writables
+            boolean viaWritable = c instanceof DictionaryColumnVector || c.hasNulls();
+            for (int i = 0; i < rows; i++) {
+                data[i * cols + j] = viaWritable ? c.get(i).toDouble() : c.getDouble(i);
+            }
+        }
+        return Nd4j.create(data, new int[] {rows, cols}, 'c');
+    }
+
+    /**
+     * Convert a record to an INDArray. May contain a mix of Writables, row vector NDArrayWritables and
+     * SparseVectorWritables.
      * @param record the record to convert
      * @return the array
      */
@@ -112,6 +223,8 @@ public class RecordConverter {
                             + Arrays.toString(a.shape()));
                 }
                 length += a.length();
+            } else if (w instanceof SparseVectorWritable) {
+                length += ((SparseVectorWritable) w).length();
             } else {
                 //Assume all others are single value
                 length++;
@@ -127,6 +240,14 @@ public class RecordConverter {
                 arr.put(new INDArrayIndex[] {NDArrayIndex.point(0),
                         NDArrayIndex.interval(k, k + toPut.length())}, toPut);
                 k += toPut.length();
+            } else if (w instanceof SparseVectorWritable) {
+                SparseVectorWritable s = (SparseVectorWritable) w;
+                int[] idx = s.getIndices();
+                double[] val = s.getValues();
+                for (int j = 0; j < idx.length; j++) {
+                    arr.putScalar(0, k + idx[j], val[j]);
+                }
+                k += s.length();
             } else {
                 arr.putScalar(0, k, w.toDouble());
                 k++;
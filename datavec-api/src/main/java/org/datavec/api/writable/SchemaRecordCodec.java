@@ -0,0 +1,269 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.writable;
+
+import org.datavec.api.io.WritableUtils;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.metadata.CategoricalMetaData;
+import org.datavec.api.transform.schema.Schema;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding for records, driven by a {@link Schema}.<br>
+ * Unlike {@link WritableFactory#writeWithType(Writable, DataOutput)}, no type information is written for each value:
+ * the column types are known from the schema, hence a record is written as the non-null values only, with a null
+ * bitmap byte (one bit per column, set for {@link NullWritable} values) before each group of 8 columns:
+ * <ul>
+ *     <li>Integer, Long and Time: variable length integers ({@link WritableUtils#writeVLong(DataOutput, long)})</li>
+ *     <li>Double and Float: the IEEE 754 bits in reversed byte order, as a variable length integer. Values with
+ *     trailing zero bits in the mantissa (such as 0, 1, 0.5 or small integers) use 1 to 3 bytes</li>
+ *     <li>String: variable length byte count plus UTF-8 bytes, as per {@link Text}</li>
+ *     <li>Categorical: the index of the state in the schema's state names. Values that are not one of the schema's
+ *     states are written as a string</li>
+ *     <li>Boolean: one byte</li>
+ *     <li>NDArray: as per {@link NDArrayWritable}, without the type header</li>
+ *     <li>Bytes: as per {@link WritableFactory#writeWithType(Writable, DataOutput)}</li>
+ * </ul>
+ * Values are converted to the column type when writing (for example, a {@link Text} value in an integer column is
+ * parsed), hence records are always decoded to the writable type of each column: {@link IntWritable},
+ * {@link LongWritable}, {@link DoubleWritable}, {@link FloatWritable}, {@link Text}, {@link BooleanWritable} or
+ * {@link NDArrayWritable}.<br>
+ * {@link #decode(DataInput, List)} can decode into an existing record, setting the values of its writables in-place
+ * instead of allocating new ones.<br>
+ * Instances are immutable after construction, and may be used from multiple threads.
+ */
+public class SchemaRecordCodec implements Serializable {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Schema schema;
+    private final ColumnType[] types;
+    private final Map<String, Integer>[] stateIndices;
+    private final byte[][][] stateBytes;
+
+    public SchemaRecordCodec(Schema schema) {
+        this.schema = schema;
+        List<ColumnType> list = schema.getColumnTypes();
+        this.types = list.toArray(new ColumnType[list.size()]);
+        this.stateIndices = new Map[types.length];
+        this.stateBytes = new byte[types.length][][];
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == ColumnType.Categorical) {
+                List<String> states = ((CategoricalMetaData) schema.getMetaData(i)).getStateNames();
+                stateIndices[i] = new HashMap<>();
+                stateBytes[i] = new byte[states.size()][];
+                for (int j = 0; j < states.size(); j++) {
+                    stateIndices[i].put(states.get(j), j);
+                    stateBytes[i][j] = states.get(j).getBytes(UTF8);
+                }
+            }
+        }
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Encode the record to the given output
+     *
+     * @param record Record to encode. Must have one value per column of the schema
+     * @param out    Output to write to
+     */
+    public void encode(List<Writable> record, DataOutput out) throws IOException {
+        if (record.size() != types.length) {
+            throw new IllegalArgumentException("Invalid record: schema has " + types.length + " columns, record has "
+                            + record.size() + " values: " + record);
+        }
+
+        for (int i = 0; i < types.length; i++) {
+            if ((i & 7) == 0) {
+                //Null bitmap for this column and (up to) the next 7 columns
+                int bits = 0;
+                for (int j = i; j < types.length && j < i + 8; j++) {
+                    if (record.get(j) instanceof NullWritable) {
+                        bits |= 1 << (j - i);
+                    }
+                }
+                out.writeByte(bits);
+            }
+            Writable w = record.get(i);
+            if (w instanceof NullWritable) {
+                continue;
+            }
+            switch (types[i]) {
+                case Integer:
+                    if (w instanceof IntWritable) {
+                        WritableUtils.writeVInt(out, ((IntWritable) w).get());
+                    } else {
+                        long l = w.toLong();
+                        if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+                            throw new IllegalArgumentException("Value " + w + " for Integer column \""
+                                            + schema.getName(i) + "\" is out of range for an integer");
+                        }
+                        WritableUtils.writeVInt(out, (int) l);
+                    }
+                    break;
+                case Long:
+                case Time:
+                    WritableUtils.writeVLong(out, w.toLong());
+                    break;
+                case Double:
+                    WritableUtils.writeVLong(out, Long.reverseBytes(Double.doubleToLongBits(w.toDouble())));
+                    break;
+                case Float:
+                    WritableUtils.writeVInt(out, Integer.reverseBytes(Float.floatToIntBits(w.toFloat())));
+                    break;
+                case String:
+                    if (w instanceof Text) {
+                        w.write(out);
+                    } else {
+                        Text.writeString(out, w.toString());
+                    }
+                    break;
+                case Categorical:
+                    Integer idx = stateIndices[i].get(w.toString());
+                    if (idx != null) {
+                        WritableUtils.writeVInt(out, idx + 1);
+                    } else {
+                        WritableUtils.writeVInt(out, 0);
+                        Text.writeString(out, w.toString());
+                    }
+                    break;
+                case Boolean:
+                    boolean b;
+                    if (w instanceof BooleanWritable) {
+                        b = ((BooleanWritable) w).get();
+                    } else if (w instanceof Text) {
+                        b = Boolean.parseBoolean(w.toString());
+                    } else {
+                        b = w.toDouble() != 0.0;
+                    }
+                    out.writeBoolean(b);
+                    break;
+                case NDArray:
+                    if (!(w instanceof NDArrayWritable)) {
+                        throw new IllegalArgumentException("Expected NDArrayWritable for NDArray column \""
+                                        + schema.getName(i) + "\", got " + w.getClass().getSimpleName());
+                    }
+                    w.write(out);
+                    break;
+                default:
+                    WritableFactory.getInstance().writeWithType(w, out);
+            }
+        }
+    }
+
+    /**
+     * Decode a record to a new list of new writables
+     *
+     * @param in Input to read from
+     * @return The decoded record
+     */
+    public List<Writable> decode(DataInput in) throws IOException {
+        return decode(in, null);
+    }
+
+    /**
+     * Decode a record, reusing the writables of an existing record where possible: writables in the existing record
+     * that have the same type as the column type are set in-place. Other values (and nulls) are replaced in the list.
+     *
+     * @param in    Input to read from
+     * @param reuse Existing record to decode into. May be null, in which case a new record is created
+     * @return The decoded record: the same instance as the reuse argument, if non-null
+     */
+    public List<Writable> decode(DataInput in, List<Writable> reuse) throws IOException {
+        List<Writable> out = reuse;
+        if (out == null) {
+            out = new ArrayList<>(types.length);
+        }
+        while (out.size() < types.length) {
+            out.add(null);
+        }
+        while (out.size() > types.length) {
+            out.remove(out.size() - 1);
+        }
+
+        int bits = 0;
+        for (int i = 0; i < types.length; i++) {
+            if ((i & 7) == 0) {
+                bits = in.readUnsignedByte();
+            }
+            if ((bits & (1 << (i & 7))) != 0) {
+                out.set(i, NullWritable.INSTANCE);
+            } else {
+                out.set(i, readValue(i, in, out.get(i)));
+            }
+        }
+        return out;
+    }
+
+    private Writable readValue(int column, DataInput in, Writable reuse) throws IOException {
+        switch (types[column]) {
+            case Integer:
+                IntWritable iw = reuse instanceof IntWritable ? (IntWritable) reuse : new IntWritable();
+                iw.set(WritableUtils.readVInt(in));
+                return iw;
+            case Long:
+            case Time:
+                LongWritable lw = reuse instanceof LongWritable ? (LongWritable) reuse : new LongWritable();
+                lw.set(WritableUtils.readVLong(in));
+                return lw;
+            case Double:
+                DoubleWritable dw = reuse instanceof DoubleWritable ? (DoubleWritable) reuse : new DoubleWritable();
+                dw.set(Double.longBitsToDouble(Long.reverseBytes(WritableUtils.readVLong(in))));
+                return dw;
+            case Float:
+                FloatWritable fw = reuse instanceof FloatWritable ? (FloatWritable) reuse : new FloatWritable();
+                fw.set(Float.intBitsToFloat(Integer.reverseBytes(WritableUtils.readVInt(in))));
+                return fw;
+            case String:
+                Text t = reuse instanceof Text ? (Text) reuse : new Text();
+                t.readFields(in);
+                return t;
+            case Categorical:
+                Text c = reuse instanceof Text ? (Text) reuse : new Text();
+                int idx = WritableUtils.readVInt(in);
+                if (idx == 0) {
+                    c.readFields(in);
+                } else {
+                    byte[] state = stateBytes[column][idx - 1];
+                    c.set(state, 0, state.length);
+                }
+                return c;
+            case Boolean:
+                BooleanWritable bw = reuse instanceof BooleanWritable ? (BooleanWritable) reuse : new BooleanWritable();
+                bw.set(in.readBoolean());
+                return bw;
+            case NDArray:
+                NDArrayWritable nw = reuse instanceof NDArrayWritable ? (NDArrayWritable) reuse : new NDArrayWritable();
+                nw.readFields(in);
+                return nw;
+            default:
+                return WritableFactory.getInstance().readWithType(in);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.api.writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A sparse vector of double values: the length of the vector, plus the indices (in strictly ascending order) and
+ * values of the stored entries. All other entries are zero.<br>
+ * Memory use and serialized size are proportional to the number of stored entries rather than the length,
+ * which makes this suitable for high dimensional data such as bag of words or hashed features.
+ * Record readers and writers for SVMLight/LibSVM data can produce and consume this writable directly;
+ * see {@link org.datavec.api.util.ndarray.RecordConverter#toCSR(java.util.List)} to convert a batch of records
+ * with sparse vectors.
+ */
+public class SparseVectorWritable extends ArrayWritable {
+
+    private int length;
+    private int[] indices;
+    private double[] values;
+
+    public SparseVectorWritable() {
+        //No-arg constructor for reflection-based creation
+        this(0, new int[0], new double[0]);
+    }
+
+    /**
+     * @param length  Length of the vector
+     * @param indices Indices of the stored entries, in strictly ascending order
+     * @param values  Values of the stored entries
+     */
+    public SparseVectorWritable(int length, int[] indices, double[] values) {
+        set(length, indices, values);
+    }
+
+    /**
+     * Create a sparse vector from the first n index/value pairs of the given arrays, in any order.
+     * Values for duplicate indices are summed, and zero values are dropped. The arrays are not modified.
+     *
+     * @param length  Length of the vector
+     * @param indices Indices of the entries, in any order
+     * @param values  Values of the entries
+     * @param n       Number of entries to use
+     */
+    public static SparseVectorWritable fromUnsorted(int length, int[] indices, double[] values, int n) {
+        return fromUnsorted(length, indices, values, n, true);
+    }
+
+    /**
+     * Create a sparse vector from the first n index/value pairs of the given arrays, in any order.
+     * The arrays are not modified.
+     *
+     * @param length        Length of the vector
+     * @param indices       Indices of the entries, in any order
+     * @param values        Values of the entries
+     * @param n             Number of entries to use
+     * @param sumDuplicates If true: values for duplicate indices are summed, and zero values are dropped.
+     *                      If false: the last value (in input order) is kept for duplicate indices, and all other
+     *                      values are stored as given, including zeros
+     */
+    public static SparseVectorWritable fromUnsorted(int length, int[] indices, double[] values, int n,
+                    boolean sumDuplicates) {
+        //Sort positions by index: index in the upper 32 bits, position in the lower 32 bits
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long) indices[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] outIdx = new int[n];
+        double[] outVal = new double[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int idx = (int) (order[i] >>> 32);
+            double v = values[(int) order[i]];
+            if (count > 0 && outIdx[count - 1] == idx) {
+                //Positions of equal indices are sorted in input order
+                outVal[count - 1] = sumDuplicates ? outVal[count - 1] + v : v;
+            } else {
+                outIdx[count] = idx;
+                outVal[count] = v;
+                count++;
+            }
+        }
+        if (!sumDuplicates) {
+            return new SparseVectorWritable(length, Arrays.copyOf(outIdx, count), Arrays.copyOf(outVal, count));
+        }
+        int nonZero = 0;
+        for (int i = 0; i < count; i++) {
+            if (outVal[i] != 0.0) {
+                outIdx[nonZero] = outIdx[i];
+                outVal[nonZero] = outVal[i];
+                nonZero++;
+            }
+        }
+        return new SparseVectorWritable(length, Arrays.copyOf(outIdx, nonZero), Arrays.copyOf(outVal, nonZero));
+    }
+
+    public void set(int length, int[] indices, double[] values) {
+        if (length < 0)
+            throw new IllegalArgumentException("Length must be non-negative: got " + length);
+        if (indices.length != values.length)
+            throw new IllegalArgumentException("Number of indices (" + indices.length
+                            + ") does not match number of values (" + values.length + ")");
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0 || indices[i] >= length || (i > 0 && indices[i] <= indices[i - 1]))
+                throw new IllegalArgumentException("Indices must be in strictly ascending order, in range 0 to "
+                                + (length - 1) + ": got " + indices[i] + " at position " + i);
+        }
+        this.length = length;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * @return Indices of the stored entries. Must not be modified
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return Values of the stored entries. Must not be modified
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return Number of stored entries
+     */
+    public int numStored() {
+        return indices.length;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public double getDouble(long i) {
+        if (i < 0 || i >= length)
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        int pos = Arrays.binarySearch(indices, (int) i);
+        return pos >= 0 ? values[pos] : 0.0;
+    }
+
+    @Override
+    public float getFloat(long i) {
+        return (float) getDouble(i);
+    }
+
+    @Override
+    public int getInt(long i) {
+        return (int) getDouble(i);
+    }
+
+    @Override
+    public long getLong(long i) {
+        return (long) getDouble(i);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(length);
+        out.writeInt(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            out.writeInt(indices[i]);
+        }
+        for (int i = 0; i < values.length; i++) {
+            out.writeDouble(values[i]);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int length = in.readInt();
+        int n = in.readInt();
+        if (n < 0 || n > length)
+            throw new IOException("Invalid sparse vector: " + n + " stored entries for length " + length);
+        int[] indices = new int[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = in.readInt();
+        }
+        for (int i = 0; i < n; i++) {
+            values[i] = in.readDouble();
+        }
+        try {
+            set(length, indices, values);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid sparse vector: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void writeType(DataOutput out) throws IOException {
+        out.writeShort(WritableType.SparseVector.typeIdx());
+    }
+
+    @Override
+    public WritableType getType() {
+        return WritableType.SparseVector;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SparseVectorWritable))
+            return false;
+        SparseVectorWritable w = (SparseVectorWritable) o;
+        return length == w.length && Arrays.equals(indices, w.indices) && Arrays.equals(values, w.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * length + Arrays.hashCode(indices)) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{length=").append(length);
+        for (int i = 0; i < indices.length; i++) {
+            sb.append(", ").append(indices[i]).append(':').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
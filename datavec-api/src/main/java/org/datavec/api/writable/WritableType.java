@@ -20,7 +20,7 @@ package org.datavec.api.writable;
  * Created by Alex on 30/05/2017.
  */
 public enum WritableType {
-    Boolean, Byte, Double, Float, Int, Long, Null, Text, NDArray, Image;
+    Boolean, Byte, Double, Float, Int, Long, Null, Text, NDArray, Image, SparseVector;
 
     //NOTE TO DEVELOPERS:
     //In the current implementation, the order (ordinal idx) for the WritableType values matters.
@@ -78,6 +78,8 @@ public enum WritableType {
                 return Text.class;
             case NDArray:
                 return NDArrayWritable.class;
+            case SparseVector:
+                return SparseVectorWritable.class;
             case Image:
             default:
                 return null;
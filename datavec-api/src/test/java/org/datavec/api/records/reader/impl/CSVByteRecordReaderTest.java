@@ -0,0 +1,128 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.records.reader.impl;
+
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVByteRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVByteTokenizer;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.StringSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CSVByteRecordReaderTest {
+
+    @Test
+    public void testSameAsCSVRecordReader() throws Exception {
+        RecordReader expected = new CSVRecordReader(2, ',');
+        expected.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        RecordReader rr = new CSVByteRecordReader(2, ',');
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        int count = 0;
+        while (expected.hasNext()) {
+            assertTrue(rr.hasNext());
+            assertEquals(expected.next(), rr.next());
+            count++;
+        }
+        assertFalse(rr.hasNext());
+        assertEquals(148, count);
+
+        String csv = "a,\"b,c\",\"d \"\"e\"\"\"\r\n\"\",x,\n1,2,3";
+        expected = new CSVRecordReader();
+        expected.initialize(new StringSplit(csv.replace("\r\n", "\n").split("\n")[0]));
+        rr = new CSVByteRecordReader();
+        rr.initialize(new StringSplit(csv));
+        assertEquals(expected.next(), rr.next());
+        assertEquals(Arrays.<Writable>asList(new Text(""), new Text("x"), new Text("")), rr.next());
+        assertEquals(Arrays.<Writable>asList(new Text("1"), new Text("2"), new Text("3")), rr.next());
+        assertFalse(rr.hasNext());
+    }
+
+    @Test
+    public void testTypedValuesAndMetaData() throws Exception {
+        Schema schema = new Schema.Builder().addColumnsDouble("a", "b", "c", "d").addColumnString("label").build();
+        RecordReader rr = new CSVByteRecordReader(0, ',', '"', schema);
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+
+        List<Record> records = new ArrayList<>();
+        while (rr.hasNext()) {
+            records.add(rr.nextRecord());
+        }
+        assertEquals(150, records.size());
+        assertEquals(Arrays.<Writable>asList(new DoubleWritable(5.1), new DoubleWritable(3.5),
+                        new DoubleWritable(1.4), new DoubleWritable(0.2), new Text("0")), records.get(0).getRecord());
+
+        List<RecordMetaData> meta = Arrays.asList(records.get(100).getMetaData(), records.get(3).getMetaData());
+        List<Record> loaded = rr.loadFromMetaData(meta);
+        assertEquals(records.get(100).getRecord(), loaded.get(0).getRecord());
+        assertEquals(records.get(3).getRecord(), loaded.get(1).getRecord());
+
+        rr.reset();
+        assertEquals(records.get(0).getRecord(), rr.next());
+
+        Schema intSchema = new Schema.Builder().addColumnInteger("x").addColumnString("y").build();
+        rr = new CSVByteRecordReader(0, ',', '"', intSchema);
+        rr.initialize(new StringSplit("-12,\"a,b\""));
+        assertEquals(Arrays.<Writable>asList(new IntWritable(-12), new Text("a,b")), rr.next());
+    }
+
+    @Test
+    public void testBufferBoundariesAndNumberParsing() throws Exception {
+        Random r = new Random(12345);
+        StringBuilder sb = new StringBuilder();
+        List<String[]> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String d = String.valueOf(r.nextDouble() * Math.pow(10, r.nextInt(20) - 10));
+            String l = String.valueOf(r.nextLong());
+            String s = "q\"" + i + "\"\nx";
+            expected.add(new String[] {d, l, s});
+            sb.append(d).append(',').append(l).append(",\"").append(s.replace("\"", "\"\"")).append("\"\n");
+        }
+
+        //Small buffer: records and quoted fields straddle buffer boundaries
+        CSVByteTokenizer t = new CSVByteTokenizer(
+                        Channels.newChannel(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))),
+                        ',', '"', 7);
+        for (String[] e : expected) {
+            assertTrue(t.nextRecord());
+            assertEquals(3, t.numFields());
+            assertEquals(2, t.numLines());
+            assertEquals(Double.parseDouble(e[0]), t.getDouble(0), 0.0);
+            assertEquals(Long.parseLong(e[1]), t.getLong(1));
+            assertEquals(e[2], t.getString(2));
+            assertEquals(new Text(e[2]), t.getText(2));
+        }
+        assertFalse(t.nextRecord());
+    }
+}
@@ -25,6 +25,7 @@ import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 
@@ -417,4 +418,34 @@ public class SVMLightRecordReaderTest {
         rr.initialize(config, new FileSplit(new ClassPathResource("svmlight/zeroIndexLabel.txt").getFile()));
         rr.next();
     }
+
+    @Test
+    public void testSparseFeatures() throws IOException, InterruptedException {
+        Configuration config = new Configuration();
+        config.setBoolean(SVMLightRecordReader.ZERO_BASED_INDEXING, false);
+        config.setInt(SVMLightRecordReader.NUM_FEATURES, 10);
+
+        SVMLightRecordReader dense = new SVMLightRecordReader();
+        dense.initialize(config, new FileSplit(new ClassPathResource("svmlight/basic.txt").getFile()));
+
+        config.setBoolean(SVMLightRecordReader.SPARSE_FEATURES, true);
+        SVMLightRecordReader sparse = new SVMLightRecordReader();
+        sparse.initialize(config, new FileSplit(new ClassPathResource("svmlight/basic.txt").getFile()));
+
+        int i = 0;
+        while (dense.hasNext()) {
+            List<Writable> expected = dense.next();
+            List<Writable> record = sparse.next();
+            assertEquals(2, record.size());
+            SparseVectorWritable features = (SparseVectorWritable) record.get(0);
+            assertEquals(10, features.length());
+            for (int j = 0; j < 10; j++) {
+                assertEquals(expected.get(j).toDouble(), features.getDouble(j), 0.0);
+            }
+            assertEquals(expected.get(10), record.get(1));
+            i++;
+        }
+        assertEquals(3, i);
+        assertEquals(false, sparse.hasNext());
+    }
 }
@@ -16,7 +16,9 @@
 
 package org.datavec.api.records.writer.impl;
 
+import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.writer.RecordWriter;
 import org.datavec.api.records.writer.impl.csv.CSVRecordWriter;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.writable.Text;
@@ -24,11 +26,22 @@ import org.datavec.api.writable.Writable;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.writable.IntWritable;
+
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author raver119@gmail.com
@@ -53,6 +66,7 @@ public class CSVRecordWriterTest {
         collection.add(new Text("14"));
 
         writer.write(collection);
+        writer.flush();
 
         CSVRecordReader reader = new CSVRecordReader(0);
         reader.initialize(new FileSplit(tempFile));
@@ -68,4 +82,87 @@ public class CSVRecordWriterTest {
         }
         assertEquals(1, cnt);
     }
+
+    @Test
+    public void testAsyncRollingWrite() throws Exception {
+        File dir = Files.createTempDirectory("datavec_writer").toFile();
+        try {
+            File f = new File(dir, "out.csv");
+            CSVRecordWriter csv = new CSVRecordWriter(f);
+            csv.setMaxRecordsPerFile(4);
+            AsyncRecordWriter writer = new AsyncRecordWriter(csv, 2);
+            for (int i = 0; i < 10; i++) {
+                writer.write(Arrays.<Writable>asList(new IntWritable(i), new Text("value" + i)));
+            }
+            writer.close();
+
+            assertEquals("0,value0\n1,value1\n2,value2\n3,value3", FileUtils.readFileToString(f));
+            assertEquals("4,value4\n5,value5\n6,value6\n7,value7",
+                            FileUtils.readFileToString(new File(dir, "out_1.csv")));
+            assertEquals("8,value8\n9,value9", FileUtils.readFileToString(new File(dir, "out_2.csv")));
+            assertFalse(new File(dir, "out_3.csv").exists());
+
+            //Rolling by size: a new file once the current one holds at least 20 bytes
+            File g = new File(dir, "bytes");
+            CSVRecordWriter bySize = new CSVRecordWriter(g);
+            bySize.setMaxBytesPerFile(20);
+            for (int i = 0; i < 5; i++) {
+                bySize.write(Arrays.<Writable>asList(new IntWritable(i), new Text("value" + i)));
+            }
+            bySize.close();
+            assertEquals("0,value0\n1,value1\n2,value2", FileUtils.readFileToString(g));
+            assertEquals("3,value3\n4,value4", FileUtils.readFileToString(new File(dir, "bytes_1")));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testAsyncCloseInterrupted() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final AtomicBoolean inWrite = new AtomicBoolean();
+        final AtomicBoolean closedDuringWrite = new AtomicBoolean();
+        RecordWriter slow = new RecordWriter() {
+            @Override
+            public void write(List<Writable> record) throws IOException {
+                inWrite.set(true);
+                writing.countDown();
+                //Slow write that ignores interrupts
+                long end = System.currentTimeMillis() + 500;
+                while (System.currentTimeMillis() < end) {
+                    Thread.yield();
+                }
+                inWrite.set(false);
+            }
+
+            @Override
+            public void close() {
+                if (inWrite.get())
+                    closedDuringWrite.set(true);
+            }
+
+            @Override
+            public void setConf(Configuration conf) {}
+
+            @Override
+            public Configuration getConf() {
+                return null;
+            }
+        };
+
+        AsyncRecordWriter writer = new AsyncRecordWriter(slow, 4);
+        writer.write(Arrays.<Writable>asList(new IntWritable(0)));
+        writer.write(Arrays.<Writable>asList(new IntWritable(1)));
+        writing.await();
+        Thread.currentThread().interrupt();
+        try {
+            writer.close();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //Expected
+        }
+        //Interrupt status is restored (and cleared here)
+        assertTrue(Thread.interrupted());
+        assertFalse(closedDuringWrite.get());
+    }
 }
@@ -0,0 +1,141 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.split;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVByteRecordReader;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.writable.Writable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ByteRangeSplitTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testLineAlignedSplits() throws Exception {
+        StringBuilder sb = new StringBuilder("header,value\n");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("row").append(i).append(',').append(i * 17 % 1001).append('\n');
+        }
+        File f = testDir.newFile("lines.csv");
+        FileUtils.writeStringToFile(f, sb.toString(), StandardCharsets.UTF_8);
+
+        RecordReader full = new CSVRecordReader(1, ',');
+        full.initialize(new FileSplit(f));
+        List<Record> expected = readAll(full);
+
+        List<ByteRangeSplit> splits = ByteRangeSplit.split(f, 7);
+        assertEquals(7, splits.size());
+        assertContiguous(splits, f.length());
+
+        List<Record> actual = new ArrayList<>();
+        for (ByteRangeSplit s : splits) {
+            RecordReader rr = new CSVRecordReader(1, ',');
+            rr.initialize(s);
+            actual.addAll(readAll(rr));
+        }
+        assertSameRecords(expected, actual);
+
+        //Metadata line numbers are relative to the whole file
+        List<RecordMetaData> meta = new ArrayList<>();
+        for (Record r : actual) {
+            meta.add(r.getMetaData());
+        }
+        List<Record> loaded = full.loadFromMetaData(meta);
+        assertSameRecords(expected, loaded);
+    }
+
+    @Test
+    public void testQuoteAwareSplits() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            if (i % 3 == 0) {
+                sb.append(i).append(",\"multi\nline \"\"quoted\"\"\n").append(i).append("\"\n");
+            } else {
+                sb.append(i).append(",plain").append(i).append('\n');
+            }
+        }
+        File f = testDir.newFile("quoted.csv");
+        FileUtils.writeStringToFile(f, sb.toString(), StandardCharsets.UTF_8);
+
+        RecordReader full = new CSVByteRecordReader();
+        full.initialize(new FileSplit(f));
+        List<Record> expected = readAll(full);
+        assertEquals(500, expected.size());
+
+        for (int numSplits : new int[] {2, 5, 16}) {
+            List<ByteRangeSplit> splits = ByteRangeSplit.split(f, numSplits, true, '"');
+            assertContiguous(splits, f.length());
+
+            List<Record> actual = new ArrayList<>();
+            List<RecordMetaData> meta = new ArrayList<>();
+            for (ByteRangeSplit s : splits) {
+                RecordReader rr = new CSVByteRecordReader();
+                rr.initialize(s);
+                for (Record r : readAll(rr)) {
+                    actual.add(r);
+                    meta.add(r.getMetaData());
+                }
+            }
+            assertSameRecords(expected, actual);
+            assertSameRecords(expected, full.loadFromMetaData(meta));
+        }
+    }
+
+    private static List<Record> readAll(RecordReader rr) {
+        List<Record> out = new ArrayList<>();
+        while (rr.hasNext()) {
+            out.add(rr.nextRecord());
+        }
+        return out;
+    }
+
+    private static void assertSameRecords(List<Record> expected, List<Record> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<Writable> e = expected.get(i).getRecord();
+            assertEquals(e, actual.get(i).getRecord());
+            assertEquals(expected.get(i).getMetaData().getLocation(), actual.get(i).getMetaData().getLocation());
+        }
+    }
+
+    private static void assertContiguous(List<ByteRangeSplit> splits, long length) {
+        long pos = 0;
+        for (ByteRangeSplit s : splits) {
+            assertEquals(pos, s.getStart());
+            assertTrue(s.getEnd() > s.getStart());
+            pos = s.getEnd();
+        }
+        assertEquals(length, pos);
+    }
+}
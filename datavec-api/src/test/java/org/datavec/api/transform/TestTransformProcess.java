@@ -16,6 +16,9 @@
 
 package org.datavec.api.transform;
 
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.nlp.TextToCharacterIndexTransform;
 import org.datavec.api.writable.DoubleWritable;
@@ -27,6 +30,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class TestTransformProcess {
 
@@ -79,6 +83,53 @@ public class TestTransformProcess {
     }
 
 
+    @Test
+    public void testCompiledExecution(){
+
+        Schema schema = new Schema.Builder()
+                .addColumnsString("col")
+                .addColumnsDouble("col2")
+                .addColumnInteger("col3")
+                .build();
+
+        TransformProcess transformProcess = new TransformProcess.Builder(schema)
+                .doubleMathOp("col2", MathOp.Add, 1.0)
+                .doubleMathOp("col2", MathOp.Multiply, 2.0)
+                .appendStringColumnTransform("col", "_x")
+                .filter(new ConditionFilter(new IntegerColumnCondition("col3", ConditionOp.LessThan, 0)))
+                .integerMathOp("col3", MathOp.Add, 10)
+                .removeColumns("col")
+                .integerMathOp("col3", MathOp.Multiply, 3)
+                .build();
+
+        CompiledTransformProcess compiled = transformProcess.compile();
+        assertEquals(5, compiled.numFusedSteps());
+
+        List<List<Writable>> in = new ArrayList<>();
+        in.add(Arrays.<Writable>asList(new Text("a"), new DoubleWritable(2.0), new IntWritable(1)));
+        in.add(Arrays.<Writable>asList(new Text("b"), new DoubleWritable(3.0), new IntWritable(-1)));
+        in.add(Arrays.<Writable>asList(new Text("c"), new DoubleWritable(4.0), new IntWritable(5)));
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for(List<Writable> l : in){
+            List<Writable> out = transformProcess.execute(l);
+            if(out != null)
+                expected.add(out);
+        }
+        assertEquals(2, expected.size());
+        assertEquals(Arrays.<Writable>asList(new DoubleWritable(6.0), new IntWritable(33)), expected.get(0));
+
+        List<List<Writable>> copy = new ArrayList<>();
+        for(List<Writable> l : in){
+            copy.add(new ArrayList<>(l));
+        }
+        assertEquals(expected, compiled.executeBatch(in));
+        assertNull(compiled.execute(in.get(1)));
+
+        //Input must not be modified
+        assertEquals(copy, in);
+    }
+
     public static Map<Character,Integer> defaultCharIndex() {
         Map<Character,Integer> ret = new TreeMap<>();
 
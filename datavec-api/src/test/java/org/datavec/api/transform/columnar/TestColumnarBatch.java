@@ -0,0 +1,207 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.api.transform.columnar;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.BaseColumnTransform;
+import org.datavec.api.transform.transform.column.RemoveColumnsTransform;
+import org.datavec.api.transform.transform.doubletransform.DoubleMathOpTransform;
+import org.datavec.api.transform.transform.integer.IntegerMathOpTransform;
+import org.datavec.api.transform.transform.longtransform.LongMathOpTransform;
+import org.datavec.api.writable.*;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarBatch {
+
+    private static Schema getSchema() {
+        return new Schema.Builder().addColumnInteger("int").addColumnDouble("double").addColumnLong("long")
+                        .addColumnCategorical("cat", "a", "b", "c").addColumnString("str").build();
+    }
+
+    private static List<List<Writable>> getData() {
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            data.add(Arrays.<Writable>asList(new IntWritable(i), new DoubleWritable(i + 0.5), new LongWritable(10L * i),
+                            new Text(String.valueOf((char) ('a' + (i % 3)))), new Text("s" + (i % 7))));
+        }
+        return data;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Schema schema = getSchema();
+        List<List<Writable>> data = getData();
+
+        ColumnarBatch batch = ColumnarBatch.fromRecords(schema, data);
+        assertEquals(100, batch.numRows());
+        assertEquals(5, batch.numColumns());
+        assertTrue(batch.getColumn(0) instanceof IntColumnVector);
+        assertTrue(batch.getColumn(1) instanceof DoubleColumnVector);
+        assertTrue(batch.getColumn(2) instanceof LongColumnVector);
+        assertTrue(batch.getColumn(3) instanceof DictionaryColumnVector);
+        assertTrue(batch.getColumn(4) instanceof DictionaryColumnVector);
+
+        assertEquals(data, batch.toRecords());
+
+        //Categorical codes should match state indexes; string dictionary should only hold distinct values
+        DictionaryColumnVector cat = (DictionaryColumnVector) batch.getColumn("cat");
+        assertEquals(Arrays.asList("a", "b", "c"), cat.getDictionary());
+        assertEquals(2, cat.getCode(5));
+        assertEquals(7, ((DictionaryColumnVector) batch.getColumn("str")).getDictionary().size());
+
+        //Reuse after reset
+        batch.reset();
+        assertEquals(0, batch.numRows());
+        batch.addRecord(data.get(3));
+        assertEquals(data.get(3), batch.getRecord(0));
+    }
+
+    @Test
+    public void testConversionAndNulls() {
+        Schema schema = getSchema();
+        ColumnarBatch batch = new ColumnarBatch(schema, 2);
+
+        batch.addRecord(Arrays.<Writable>asList(new Text("3"), new Text("1.5"), NullWritable.INSTANCE, new Text("b"),
+                        new Text("x")));
+        batch.addRecord(Arrays.<Writable>asList(NullWritable.INSTANCE, new DoubleWritable(2.0), new LongWritable(4),
+                        NullWritable.INSTANCE, new Text("y")));
+        //Beyond initial capacity: should grow
+        for (int i = 0; i < 100; i++) {
+            batch.addRecord(Arrays.<Writable>asList(new IntWritable(i), new DoubleWritable(i), new LongWritable(i),
+                            new Text("c"), new Text("z")));
+        }
+        assertEquals(102, batch.numRows());
+
+        assertEquals(Arrays.<Writable>asList(new IntWritable(3), new DoubleWritable(1.5), NullWritable.INSTANCE,
+                        new Text("b"), new Text("x")), batch.getRecord(0));
+        assertEquals(Arrays.<Writable>asList(NullWritable.INSTANCE, new DoubleWritable(2.0), new LongWritable(4),
+                        NullWritable.INSTANCE, new Text("y")), batch.getRecord(1));
+        assertTrue(batch.getColumn(0).isNull(1));
+        assertFalse(batch.getColumn(0).isNull(0));
+        assertFalse(batch.getColumn(0).isNull(101));
+        assertEquals(99, ((IntColumnVector) batch.getColumn(0)).getInt(101));
+    }
+
+    @Test
+    public void testBatchTransforms() {
+        Schema schema = getSchema();
+        List<List<Writable>> data = getData();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).integerMathOp("int", MathOp.Multiply, 3)
+                        .doubleMathOp("double", MathOp.Add, 1.0).longMathOp("long", MathOp.Subtract, 5)
+                        .removeColumns("str").build();
+
+        ColumnarBatch batch = ColumnarBatch.fromRecords(schema, data);
+        for (int i = 0; i < tp.getActionList().size(); i++) {
+            Transform t = tp.getActionList().get(i).getTransform();
+            BatchTransform bt = BatchTransforms.forTransform(t);
+            if (i < 3) {
+                assertSame(t, bt);
+            } else {
+                assertTrue(bt instanceof RowBatchTransformAdapter);
+            }
+            batch = bt.mapBatch(batch);
+        }
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for (List<Writable> l : data) {
+            expected.add(tp.execute(l));
+        }
+
+        assertEquals(tp.getFinalSchema().getColumnNames(), batch.getSchema().getColumnNames());
+        assertEquals(expected, batch.toRecords());
+    }
+
+    @Test
+    public void testMathOpsMismatchedColumnTypes() {
+        //Batch execution should give the same values (and output types) as row execution, for all column types
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnFloat("float")
+                        .addColumnDouble("double").addColumnTime("time", DateTimeZone.UTC).build();
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            data.add(Arrays.<Writable>asList(new IntWritable(i), new LongWritable(1000L * i),
+                            new FloatWritable(i + 0.25f), new DoubleWritable(1.5 * i), new LongWritable(1000000L * i)));
+        }
+
+        for (String col : schema.getColumnNames()) {
+            int idx = schema.getIndexOfColumn(col);
+            for (MathOp op : MathOp.values()) {
+                BaseColumnTransform[] transforms = {new DoubleMathOpTransform(col, op, 3),
+                                new IntegerMathOpTransform(col, op, 3), new LongMathOpTransform(col, op, 3)};
+                ColumnType[] outTypes = {ColumnType.Double, ColumnType.Integer, ColumnType.Long};
+                for (int j = 0; j < transforms.length; j++) {
+                    BaseColumnTransform t = transforms[j];
+                    t.setInputSchema(schema);
+                    String msg = t + " on " + col;
+
+                    List<List<Writable>> exp = new ArrayList<>();
+                    for (List<Writable> l : data) {
+                        exp.add(t.map(l));
+                    }
+                    ColumnarBatch out = ((BatchTransform) t).mapBatch(ColumnarBatch.fromRecords(schema, data));
+                    assertEquals(msg, exp, out.toRecords());
+                    assertEquals(msg, outTypes[j], out.getSchema().getType(idx));
+                    if (schema.getType(idx) == outTypes[j]) {
+                        assertEquals(msg, t.transform(schema), out.getSchema());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDictionaryReset() {
+        Schema schema = getSchema();
+        ColumnarBatch batch = ColumnarBatch.fromRecords(schema, getData());
+        batch.reset();
+        batch.addRecord(Arrays.<Writable>asList(new IntWritable(0), new DoubleWritable(0), new LongWritable(0),
+                        new Text("c"), new Text("new")));
+        assertEquals(Arrays.asList("a", "b", "c"), ((DictionaryColumnVector) batch.getColumn("cat")).getDictionary());
+        assertEquals(Arrays.asList("new"), ((DictionaryColumnVector) batch.getColumn("str")).getDictionary());
+        assertEquals(new Text("new"), batch.getRecord(0).get(4));
+    }
+
+    @Test
+    public void testRowAdapterSchemaChange() {
+        Transform t = new RemoveColumnsTransform("long");
+        RowBatchTransformAdapter adapter = new RowBatchTransformAdapter(t);
+        Schema schema = getSchema();
+        t.setInputSchema(schema);
+        assertEquals(t.transform(schema), adapter.mapBatch(ColumnarBatch.fromRecords(schema, getData())).getSchema());
+
+        Schema schema2 = new Schema.Builder().addColumnLong("long").addColumnString("str").build();
+        t.setInputSchema(schema2);
+        List<List<Writable>> data2 = Collections.singletonList(Arrays.<Writable>asList(new LongWritable(1),
+                        new Text("x")));
+        ColumnarBatch out = adapter.mapBatch(ColumnarBatch.fromRecords(schema2, data2));
+        assertEquals(t.transform(schema2), out.getSchema());
+        assertEquals(Collections.singletonList(Collections.<Writable>singletonList(new Text("x"))), out.toRecords());
+    }
+}
@@ -26,6 +26,8 @@ import org.datavec.api.transform.metadata.CategoricalMetaData;
 import org.datavec.api.transform.metadata.DoubleMetaData;
 import org.datavec.api.transform.metadata.IntegerMetaData;
 import org.datavec.api.transform.metadata.LongMetaData;
+import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.reduce.AggregableReductionUtils;
 import org.datavec.api.transform.reduce.IAssociativeReducer;
 import org.datavec.api.transform.reduce.Reducer;
 import org.datavec.api.transform.schema.Schema;
@@ -51,8 +53,11 @@ import org.datavec.api.transform.transform.time.DeriveColumnsFromTimeTransform;
 import org.datavec.api.transform.transform.time.StringToTimeTransform;
 import org.datavec.api.transform.transform.time.TimeMathOpTransform;
 import org.datavec.api.writable.*;
+import org.joda.time.DateTime;
 import org.joda.time.DateTimeFieldType;
 import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
 import org.junit.Assert;
 import org.junit.Test;
 import org.nd4j.linalg.factory.Nd4j;
@@ -715,6 +720,63 @@ public class TestTransforms {
                         deserialized.map(Collections.singletonList((Writable) new Text(in2))));
     }
 
+    @Test
+    public void testStringToTimeTransformFastPath() throws Exception {
+        Schema schema = getSchema(ColumnType.String);
+        String[] formats = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'",
+                        "YYYYMMdd", "dd/MM/yyyy HH:mm", "yyyy-MM-dd 'o''clock' HH", "yyyy-MM-dd''HH:mm"};
+        DateTimeZone[] zones = {DateTimeZone.UTC, DateTimeZone.forOffsetHours(5),
+                        DateTimeZone.forID("America/New_York")};
+
+        Random r = new Random(12345);
+        for (String format : formats) {
+            for (DateTimeZone zone : zones) {
+                Transform transform = new StringToTimeTransform("column", format, zone);
+                transform.setInputSchema(schema);
+                DateTimeFormatter formatter = DateTimeFormat.forPattern(format).withZone(zone);
+
+                //Runs of values from the same day, including daylight saving transitions, plus invalid values
+                List<String> values = new ArrayList<>();
+                long t = 1425700000000L;
+                for (int i = 0; i < 500; i++) {
+                    t += r.nextInt(4) == 0 ? (long) r.nextInt(1000) * 86400000L : r.nextInt(3600000);
+                    values.add(DateTimeFormat.forPattern(format).withZone(DateTimeZone.UTC).print(t));
+                }
+                values.addAll(Arrays.asList("2017-02-29 10:00:00", "2017-1-5 10:00:00", "2017-03-12 02:30:00",
+                                "2017-03-12 02:30:00.000", "2017-01-05t10:00:00.000Z", "20171305", "29/02/2016 24:00",
+                                "2017-01-05 oclock 10", "2017-01-05 o'clock 10", "2017-01-05'10:00"));
+
+                for (String s : values) {
+                    Long exp;
+                    try {
+                        exp = formatter.parseMillis(s);
+                    } catch (IllegalArgumentException e) {
+                        exp = null;
+                    }
+                    try {
+                        List<Writable> out = transform.map(Collections.singletonList((Writable) new Text(s)));
+                        assertEquals(format + " - " + zone + " - " + s, exp, (Long) out.get(0).toLong());
+                    } catch (IllegalArgumentException e) {
+                        assertNull(format + " - " + zone + " - " + s, exp);
+                    }
+                }
+            }
+        }
+
+        Transform seconds = new StringToTimeTransform("column", StringToTimeTransform.EPOCH_SECONDS, DateTimeZone.UTC);
+        Transform millis = new StringToTimeTransform("column", StringToTimeTransform.EPOCH_MILLIS, DateTimeZone.UTC);
+        seconds.setInputSchema(schema);
+        millis.setInputSchema(schema);
+        assertEquals(Collections.singletonList((Writable) new LongWritable(1451651445000L)),
+                        seconds.map(Collections.singletonList((Writable) new Text("1451651445"))));
+        assertEquals(Collections.singletonList((Writable) new LongWritable(-1451651445000L)),
+                        seconds.map(Collections.singletonList((Writable) new Text("-1451651445"))));
+        assertEquals(Collections.singletonList((Writable) new LongWritable(1451651445123L)),
+                        millis.map(Collections.singletonList((Writable) new Text("1451651445123"))));
+        assertEquals(Collections.singletonList((Writable) new LongWritable(1451651445123L)),
+                        millis.map(Collections.singletonList((Writable) new Text("+1451651445123"))));
+    }
+
     @Test
     public void testDeriveColumnsFromTimeTransform() throws Exception {
         Schema schema = new Schema.Builder().addColumnTime("column", DateTimeZone.forID("UTC"))
@@ -788,6 +850,34 @@ public class TestTransforms {
     }
 
 
+    @Test
+    public void testDeriveColumnsFromTimeTransformCachedFields() {
+        DateTimeZone zone = DateTimeZone.forID("America/New_York");
+        Schema schema = new Schema.Builder().addColumnTime("column", zone).build();
+        DateTimeFieldType[] types = {DateTimeFieldType.year(), DateTimeFieldType.monthOfYear(),
+                        DateTimeFieldType.dayOfWeek(), DateTimeFieldType.weekOfWeekyear(),
+                        DateTimeFieldType.hourOfDay(), DateTimeFieldType.minuteOfDay(),
+                        DateTimeFieldType.millisOfSecond(), DateTimeFieldType.halfdayOfDay()};
+        DeriveColumnsFromTimeTransform.Builder b = new DeriveColumnsFromTimeTransform.Builder("column");
+        for (DateTimeFieldType t : types) {
+            b.addIntegerDerivedColumn(t.getName(), t);
+        }
+        Transform transform = b.build();
+        transform.setInputSchema(schema);
+
+        //Runs of times from the same day, including daylight saving transitions and times before 1970
+        Random r = new Random(12345);
+        long t = -86400000L * 1000;
+        for (int i = 0; i < 2000; i++) {
+            t += r.nextInt(4) == 0 ? (long) r.nextInt(100) * 86400000L : r.nextInt(3600000);
+            List<Writable> out = transform.map(Collections.singletonList((Writable) new LongWritable(t)));
+            DateTime dt = new DateTime(t, zone);
+            for (int j = 0; j < types.length; j++) {
+                assertEquals(types[j] + " - " + dt, dt.get(types[j]), out.get(j + 1).toInt());
+            }
+        }
+    }
+
     @Test
     public void testDuplicateColumnsTransform() {
 
@@ -1190,6 +1280,40 @@ public class TestTransforms {
             transform.map(Collections.singletonList((Writable) new Text("  4.25 "))));
     }
 
+    @Test
+    public void testReplaceStringTransformLiterals() {
+        Schema schema = getSchema(ColumnType.String);
+
+        //All literal keys: replaced in a single pass, falling back to sequential replacement for overlapping keys
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("ab", "1");
+        map.put("bc", "22");
+        map.put("a", "3");
+        map.put("xyz", "4");
+        map.put("\u00e9", "5");
+        Transform transform = new ReplaceStringTransform("column", map);
+        transform.setInputSchema(schema);
+
+        Random r = new Random(12345);
+        String chars = "abcxyz \u00e9";
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = r.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                sb.append(chars.charAt(r.nextInt(chars.length())));
+            }
+            String in = sb.toString();
+            String exp = in;
+            for (Map.Entry<String, String> e : map.entrySet()) {
+                exp = exp.replaceAll(e.getKey(), e.getValue());
+            }
+
+            assertEquals(in, Collections.singletonList((Writable) new Text(exp)),
+                            transform.map(Collections.singletonList((Writable) new Text(in))));
+            assertEquals(in, exp, transform.map((Object) in));
+        }
+    }
+
     @Test
     public void testReduceSequenceTransform(){
 
@@ -1265,6 +1389,81 @@ public class TestTransforms {
         assertEquals(exp2, act2);
     }
 
+    @Test
+    public void testSequenceMovingWindowReduceIncremental(){
+        //Incremental (sliding window) ops should give the same values as reducing each window separately
+        Random r = new Random(12345);
+        List<List<Writable>> seq = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            //Repeated values (ties) for min/max; large values for sum/variance accuracy
+            int intVal = r.nextInt(20) - 10;
+            double doubleVal = 1e6 + r.nextInt(50) / 8.0;
+            seq.add(Arrays.<Writable>asList(new IntWritable(intVal), new LongWritable(intVal * 1000000000L),
+                    new DoubleWritable(doubleVal), new Text("s" + intVal)));
+        }
+        Schema schema = new SequenceSchema.Builder().addColumnInteger("int").addColumnLong("long")
+                .addColumnDouble("double").addColumnString("str").build();
+
+        ReduceOp[] numericOps = {ReduceOp.Sum, ReduceOp.Mean, ReduceOp.Stdev, ReduceOp.UncorrectedStdDev,
+                ReduceOp.Variance, ReduceOp.PopulationVariance, ReduceOp.Min, ReduceOp.Max, ReduceOp.Range,
+                ReduceOp.Count, ReduceOp.TakeFirst, ReduceOp.TakeLast};
+        for (int lookback : new int[]{1, 7, 50}) {
+            for (String col : new String[]{"int", "long", "double"}) {
+                for (ReduceOp op : numericOps) {
+                    checkMovingWindow(schema, seq, col, lookback, op);
+                }
+            }
+            for (ReduceOp op : new ReduceOp[]{ReduceOp.Count, ReduceOp.TakeFirst, ReduceOp.TakeLast}) {
+                checkMovingWindow(schema, seq, "str", lookback, op);
+            }
+        }
+    }
+
+    @Test
+    public void testSequenceMovingWindowReduceNonFinite(){
+        //NaN and infinite values should only affect the windows that contain them
+        List<List<Writable>> seq = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            double d = i == 20 ? Double.NaN : (i == 50 ? Double.POSITIVE_INFINITY : i / 4.0);
+            seq.add(Collections.<Writable>singletonList(new DoubleWritable(d)));
+        }
+        Schema schema = new SequenceSchema.Builder().addColumnDouble("double").build();
+
+        for (int lookback : new int[]{1, 7, 50}) {
+            for (ReduceOp op : new ReduceOp[]{ReduceOp.Sum, ReduceOp.Mean, ReduceOp.Stdev, ReduceOp.Variance}) {
+                checkMovingWindow(schema, seq, "double", lookback, op);
+            }
+        }
+    }
+
+    private static void checkMovingWindow(Schema schema, List<List<Writable>> seq, String col, int lookback,
+                                          ReduceOp op) {
+        SequenceMovingWindowReduceTransform t = new SequenceMovingWindowReduceTransform(col, lookback, op);
+        t.setInputSchema(schema);
+        List<List<Writable>> out = t.mapSequence(seq);
+
+        int colIdx = schema.getIndexOfColumn(col);
+        ColumnType type = schema.getType(colIdx);
+        for (int i = 0; i < seq.size(); i++) {
+            IAggregableReduceOp<Writable, List<Writable>> reduce = AggregableReductionUtils
+                    .reduceColumn(Collections.singletonList(op), type, false, null);
+            for (int j = Math.max(0, i - lookback + 1); j <= i; j++) {
+                reduce.accept(seq.get(j).get(colIdx));
+            }
+            Writable exp = reduce.get().get(0);
+            Writable act = out.get(i).get(schema.numColumns());
+            String msg = op + "(" + lookback + "," + col + ") at step " + i;
+            assertEquals(msg, exp.getClass(), act.getClass());
+            if (exp instanceof DoubleWritable && Double.isNaN(exp.toDouble())) {
+                assertTrue(msg, Double.isNaN(act.toDouble()));
+            } else if (exp instanceof DoubleWritable) {
+                assertEquals(msg, exp.toDouble(), act.toDouble(), 1e-6 * Math.max(1.0, Math.abs(exp.toDouble())));
+            } else {
+                assertEquals(msg, exp, act);
+            }
+        }
+    }
+
     @Test
     public void testTrimSequenceTransform(){
         List<List<Writable>> seq = Arrays.asList(
@@ -19,6 +19,7 @@ package org.datavec.api.writable;
 import com.google.common.collect.Lists;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.util.ndarray.CSRMatrix;
 import org.datavec.api.util.ndarray.RecordConverter;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -30,6 +31,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class RecordConverterTest {
@@ -106,4 +108,26 @@ public class RecordConverterTest {
 
         assertEquals(exp, act);
     }
+
+    @Test
+    public void testSparseToCSR() {
+        List<Writable> l1 = Arrays.<Writable>asList(new SparseVectorWritable(4, new int[] {0, 3}, new double[] {1, 4}),
+                        new DoubleWritable(5));
+        List<Writable> l2 = Arrays.<Writable>asList(new SparseVectorWritable(4, new int[0], new double[0]),
+                        new DoubleWritable(0));
+        List<Writable> l3 = Arrays.<Writable>asList(new SparseVectorWritable(4, new int[] {2}, new double[] {7}),
+                        new DoubleWritable(8));
+
+        INDArray exp = Nd4j.create(new double[][] {{1, 0, 0, 4, 5}, {0, 0, 0, 0, 0}, {0, 0, 7, 0, 8}});
+
+        CSRMatrix csr = RecordConverter.toCSR(Arrays.asList(l1, l2, l3));
+        assertEquals(3, csr.rows());
+        assertEquals(5, csr.columns());
+        assertEquals(5, csr.numStored());
+        assertArrayEquals(new int[] {0, 3, 3, 5}, csr.getRowPointers());
+        assertArrayEquals(new int[] {0, 3, 4, 2, 4}, csr.getColumnIndices());
+        assertEquals(exp, csr.toDense());
+
+        assertEquals(exp, RecordConverter.toMatrix(Arrays.asList(l1, l2, l3)));
+    }
 }
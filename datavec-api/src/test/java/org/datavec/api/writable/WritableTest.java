@@ -1,10 +1,17 @@
 package org.datavec.api.writable;
 
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.comparator.TextWritableComparator;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class WritableTest {
@@ -75,4 +82,127 @@ public class WritableTest {
         assertTrue(new LongWritable(1).fuzzyEquals(new DoubleWritable(1.05f), 1e-1d));
 
     }
+
+    @Test
+    public void testSparseVectorWritable() throws IOException {
+        SparseVectorWritable w = new SparseVectorWritable(10, new int[] {1, 4, 9}, new double[] {0.5, -2, 3});
+        assertEquals(10, w.length());
+        assertEquals(3, w.numStored());
+        assertEquals(-2.0, w.getDouble(4), 0.0);
+        assertEquals(0.0, w.getDouble(5), 0.0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WritableFactory.getInstance().writeWithType(w, new DataOutputStream(baos));
+        Writable read = WritableFactory.getInstance()
+                        .readWithType(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(WritableType.SparseVector, read.getType());
+        assertEquals(w, read);
+        assertNotEquals(w, new SparseVectorWritable(10, new int[] {1, 4}, new double[] {0.5, -2}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSparseVectorWritableUnsorted() {
+        new SparseVectorWritable(10, new int[] {4, 1}, new double[] {1, 2});
+    }
+
+    @Test
+    public void testSparseVectorWritableReadInvalid() throws IOException {
+        //Unsorted, duplicate and out of range indices are rejected when reading, as when constructing
+        int[][] invalid = {{4, 1}, {1, 1}, {1, 10}, {-1, 2}};
+        for (int[] indices : invalid) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            dos.writeInt(10);
+            dos.writeInt(indices.length);
+            for (int i : indices) {
+                dos.writeInt(i);
+            }
+            for (int i = 0; i < indices.length; i++) {
+                dos.writeDouble(1.0);
+            }
+
+            SparseVectorWritable w = new SparseVectorWritable();
+            try {
+                w.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+                fail("Expected IOException for indices " + Arrays.toString(indices));
+            } catch (IOException e) {
+                //Expected
+            }
+        }
+    }
+
+    @Test
+    public void testSparseVectorWritableFromUnsorted() {
+        int[] indices = {7, 2, 7, 5, 2, 0};
+        double[] values = {1, 2, 3, 4, -2, 0};
+        SparseVectorWritable summed = SparseVectorWritable.fromUnsorted(10, indices, values, 6);
+        assertArrayEquals(new int[] {5, 7}, summed.getIndices());
+        assertArrayEquals(new double[] {4, 4}, summed.getValues(), 0.0);
+
+        SparseVectorWritable lastWins = SparseVectorWritable.fromUnsorted(10, indices, values, 6, false);
+        assertArrayEquals(new int[] {0, 2, 5, 7}, lastWins.getIndices());
+        assertArrayEquals(new double[] {0, -2, 4, 3}, lastWins.getValues(), 0.0);
+    }
+
+    @Test
+    public void testSchemaRecordCodecIntegerRange() throws IOException {
+        Schema schema = new Schema.Builder().addColumnInteger("int").build();
+        SchemaRecordCodec codec = new SchemaRecordCodec(schema);
+        DataOutputStream dos = new DataOutputStream(new ByteArrayOutputStream());
+
+        //Long values within the integer range are fine; values outside it must not be silently truncated
+        codec.encode(Collections.<Writable>singletonList(new LongWritable(Integer.MIN_VALUE)), dos);
+        for (long l : new long[] {Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE}) {
+            try {
+                codec.encode(Collections.<Writable>singletonList(new LongWritable(l)), dos);
+                fail("Expected IllegalArgumentException for " + l);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("out of range"));
+            }
+        }
+    }
+
+    @Test
+    public void testSchemaRecordCodec() throws IOException {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnDouble("double")
+                        .addColumnFloat("float").addColumnString("str").addColumnCategorical("cat", "a", "b")
+                        .addColumnTime("time", java.util.TimeZone.getTimeZone("UTC"))
+                        .addColumnNDArray("arr", new int[] {1, 3}).build();
+        SchemaRecordCodec codec = new SchemaRecordCodec(schema);
+
+        List<List<Writable>> records = new ArrayList<>();
+        records.add(Arrays.<Writable>asList(new IntWritable(-5), new LongWritable(Long.MAX_VALUE),
+                        new DoubleWritable(1.0), new FloatWritable(-2.5f), new Text("hello"), new Text("b"),
+                        new LongWritable(1500000000000L),
+                        new NDArrayWritable(Nd4j.create(new double[] {1, 2, 3}))));
+        records.add(Arrays.<Writable>asList(NullWritable.INSTANCE, new LongWritable(0), new DoubleWritable(Math.PI),
+                        NullWritable.INSTANCE, new Text(""), new Text("not a state"), NullWritable.INSTANCE,
+                        NullWritable.INSTANCE));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        for (List<Writable> l : records) {
+            codec.encode(l, dos);
+        }
+        byte[] bytes = baos.toByteArray();
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        List<Writable> reuse = codec.decode(dis);
+        assertEquals(records.get(0), reuse);
+        Writable doubleWritable = reuse.get(2);
+        //Decoding into an existing record sets the writables in-place
+        assertSame(reuse, codec.decode(dis, reuse));
+        assertEquals(records.get(1), reuse);
+        assertSame(doubleWritable, reuse.get(2));
+
+        //Values are converted to the column type; integral values use fewer bytes than with type tags
+        ByteArrayOutputStream baos2 = new ByteArrayOutputStream();
+        codec.encode(Arrays.<Writable>asList(new Text("3"), new IntWritable(7), new DoubleWritable(0),
+                        new FloatWritable(1), new Text("x"), new Text("a"), new LongWritable(0),
+                        new NDArrayWritable(Nd4j.create(new double[] {1, 2, 3}))), new DataOutputStream(baos2));
+        List<Writable> decoded = codec.decode(new DataInputStream(new ByteArrayInputStream(baos2.toByteArray())));
+        assertEquals(new IntWritable(3), decoded.get(0));
+        assertEquals(WritableType.Long, decoded.get(1).getType());
+        assertEquals(new Text("a"), decoded.get(5));
+    }
 }
@@ -17,6 +17,7 @@ package org.datavec.image.data;
 
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.FrameConverter;
+import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.WritableFactory;
 import org.datavec.api.writable.WritableType;
@@ -24,12 +25,26 @@ import org.datavec.api.writable.WritableType;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.nio.Buffer;
+import java.nio.*;
+
+import static org.bytedeco.javacpp.opencv_core.Mat;
+import static org.bytedeco.javacpp.opencv_imgcodecs.CV_LOAD_IMAGE_ANYCOLOR;
+import static org.bytedeco.javacpp.opencv_imgcodecs.CV_LOAD_IMAGE_ANYDEPTH;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imdecode;
 
 /**
  * Wraps a {@link Frame} to allow serialization within this framework.
  * Frame objects can be converted back and forth easily to and from classes
  * used by Android, Java 2D, OpenCV, FFmpeg, and others.
+ * <p>
+ * The binary format written by {@link #write(DataOutput)} is a one byte format flag followed by either:
+ * <ul>
+ * <li>the width, height, depth and number of channels of the frame (as ints) and the raw pixel values
+ *     (row by row, without row padding, big endian), or</li>
+ * <li>the length and bytes of the compressed image (JPEG, PNG, etc), when the writable was created from
+ *     compressed bytes with {@link #ImageWritable(byte[])}. The frame is then decoded on first access.</li>
+ * </ul>
+ * When reading raw pixel values, the frame is allocated once and filled directly, one row at a time.
  *
  * @author saudet
  * @see Frame
@@ -40,7 +55,11 @@ public class ImageWritable implements Writable {
         WritableFactory.getInstance().registerWritableType(WritableType.Image.typeIdx(), ImageWritable.class);
     }
 
+    private static final byte FORMAT_RAW = 0;
+    private static final byte FORMAT_ENCODED = 1;
+
     protected Frame frame;
+    protected byte[] encoded;
 
     public ImageWritable() {
         //No-arg cosntructor for reflection-based creation of ImageWritable objects
@@ -50,22 +69,176 @@ public class ImageWritable implements Writable {
         this.frame = frame;
     }
 
+    /**
+     * Create an ImageWritable from a compressed image (in any format supported by OpenCV), decoded on first
+     * access to the frame. The compressed bytes are used for serialization, which is usually much more compact
+     * than the raw pixel values.
+     *
+     * @param encoded the compressed image
+     */
+    public ImageWritable(byte[] encoded) {
+        this.encoded = encoded;
+    }
+
     public Frame getFrame() {
+        if (frame == null && encoded != null) {
+            Mat mat = imdecode(new Mat(encoded), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
+            if (mat == null || mat.empty()) {
+                throw new IllegalStateException("Could not decode image from " + encoded.length + " bytes");
+            }
+            frame = new OpenCVFrameConverter.ToMat().convert(mat);
+        }
         return frame;
     }
 
     public void setFrame(Frame frame) {
         this.frame = frame;
+        this.encoded = null;
+    }
+
+    /**
+     * @return the compressed image this writable was created from, or null if only the frame is available
+     */
+    public byte[] getEncoded() {
+        return encoded;
     }
 
     @Override
     public void write(DataOutput out) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+        if (encoded != null) {
+            out.writeByte(FORMAT_ENCODED);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+            return;
+        }
+        if (frame == null || frame.image == null) {
+            throw new IllegalStateException("Cannot write ImageWritable: no image");
+        }
+        if (frame.image.length != 1) {
+            throw new UnsupportedOperationException("Only frames with a single image buffer are supported: got "
+                            + frame.image.length);
+        }
+        out.writeByte(FORMAT_RAW);
+        out.writeInt(frame.imageWidth);
+        out.writeInt(frame.imageHeight);
+        out.writeInt(frame.imageDepth);
+        out.writeInt(frame.imageChannels);
+
+        int rowLength = frame.imageWidth * frame.imageChannels;
+        ByteBuffer row = ByteBuffer.allocate(rowLength * bytesPerValue(frame.imageDepth));
+        Buffer image = frame.image[0];
+        for (int i = 0; i < frame.imageHeight; i++) {
+            row.clear();
+            put(view(row, frame.imageDepth), slice(image, i * frame.imageStride, rowLength));
+            out.write(row.array());
+        }
     }
 
     @Override
     public void readFields(DataInput in) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+        byte format = in.readByte();
+        if (format == FORMAT_ENCODED) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            this.frame = null;
+            this.encoded = bytes;
+            return;
+        } else if (format != FORMAT_RAW) {
+            throw new IOException("Unknown ImageWritable format: " + format);
+        }
+        int width = in.readInt();
+        int height = in.readInt();
+        int depth = in.readInt();
+        int channels = in.readInt();
+
+        Frame f = new Frame(width, height, depth, channels);
+        int rowLength = width * channels;
+        byte[] row = new byte[rowLength * bytesPerValue(depth)];
+        ByteBuffer rowBuffer = ByteBuffer.wrap(row);
+        for (int i = 0; i < height; i++) {
+            in.readFully(row);
+            rowBuffer.clear();
+            put(slice(f.image[0], i * f.imageStride, rowLength), view(rowBuffer, depth));
+        }
+        this.frame = f;
+        this.encoded = null;
+    }
+
+    private static int bytesPerValue(int depth) {
+        switch (depth) {
+            case Frame.DEPTH_BYTE:
+            case Frame.DEPTH_UBYTE:
+                return 1;
+            case Frame.DEPTH_SHORT:
+            case Frame.DEPTH_USHORT:
+                return 2;
+            case Frame.DEPTH_INT:
+            case Frame.DEPTH_FLOAT:
+                return 4;
+            case Frame.DEPTH_LONG:
+            case Frame.DEPTH_DOUBLE:
+                return 8;
+            default:
+                throw new UnsupportedOperationException("Unsupported image depth: " + depth);
+        }
+    }
+
+    /**
+     * @return a view of the given (big endian) byte buffer, of the same type as frame buffers for the given depth
+     */
+    private static Buffer view(ByteBuffer bytes, int depth) {
+        switch (bytesPerValue(depth)) {
+            case 1:
+                return bytes;
+            case 2:
+                return bytes.asShortBuffer();
+            case 4:
+                return depth == Frame.DEPTH_FLOAT ? bytes.asFloatBuffer() : bytes.asIntBuffer();
+            default:
+                return depth == Frame.DEPTH_DOUBLE ? bytes.asDoubleBuffer() : bytes.asLongBuffer();
+        }
+    }
+
+    private static Buffer slice(Buffer buffer, int position, int length) {
+        Buffer b = duplicate(buffer);
+        b.limit(position + length);
+        b.position(position);
+        return b;
+    }
+
+    private static Buffer duplicate(Buffer buffer) {
+        if (buffer instanceof ByteBuffer) {
+            return ((ByteBuffer) buffer).duplicate();
+        } else if (buffer instanceof ShortBuffer) {
+            return ((ShortBuffer) buffer).duplicate();
+        } else if (buffer instanceof IntBuffer) {
+            return ((IntBuffer) buffer).duplicate();
+        } else if (buffer instanceof LongBuffer) {
+            return ((LongBuffer) buffer).duplicate();
+        } else if (buffer instanceof FloatBuffer) {
+            return ((FloatBuffer) buffer).duplicate();
+        } else if (buffer instanceof DoubleBuffer) {
+            return ((DoubleBuffer) buffer).duplicate();
+        }
+        throw new UnsupportedOperationException("Unsupported buffer type: " + buffer.getClass());
+    }
+
+    private static void put(Buffer dst, Buffer src) {
+        if (dst instanceof ByteBuffer) {
+            ((ByteBuffer) dst).put((ByteBuffer) src);
+        } else if (dst instanceof ShortBuffer) {
+            ((ShortBuffer) dst).put((ShortBuffer) src);
+        } else if (dst instanceof IntBuffer) {
+            ((IntBuffer) dst).put((IntBuffer) src);
+        } else if (dst instanceof LongBuffer) {
+            ((LongBuffer) dst).put((LongBuffer) src);
+        } else if (dst instanceof FloatBuffer) {
+            ((FloatBuffer) dst).put((FloatBuffer) src);
+        } else if (dst instanceof DoubleBuffer) {
+            ((DoubleBuffer) dst).put((DoubleBuffer) src);
+        } else {
+            throw new UnsupportedOperationException("Unsupported buffer type: " + dst.getClass());
+        }
     }
 
     @Override
@@ -103,7 +276,7 @@ public class ImageWritable implements Writable {
         if (obj instanceof ImageWritable) {
             Frame f2 = ((ImageWritable) obj).getFrame();
 
-            Buffer[] b1 = this.frame.image;
+            Buffer[] b1 = this.getFrame().image;
             Buffer[] b2 = f2.image;
 
             if (b1.length != b2.length)
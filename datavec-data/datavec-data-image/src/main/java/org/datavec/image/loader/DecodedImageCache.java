@@ -0,0 +1,489 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.image.loader;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A persistent cache of decoded (and resized) images, for use with {@link NativeImageLoader#setCache(DecodedImageCache)}.
+ * <p>
+ * Images are stored as uint8 tensors in a single append only file, which is memory mapped for reading and writing
+ * (the mapped region grows geometrically as images are added), with an in-memory LRU cache (bounded by the number
+ * of bytes of image data) in front of it.
+ * Each entry is keyed by the URI of the image file and the configuration of the loader (size, channels, cropping,
+ * deterministic {@link org.datavec.image.transform.ImageTransform}), and is invalidated when the last modified time
+ * or the length of the image file changes. The index is rebuilt by scanning the file when the cache is opened,
+ * so the cache can be reused across runs.
+ * <p>
+ * Replacing an entry (for example, after the image file was modified) leaves the old entry in the file as garbage.
+ * The file is compacted (rewritten with only the current entries) when it holds more garbage than current entries,
+ * and at least {@link #setMinCompactionBytes(long)} bytes of garbage; see also {@link #compact()}.
+ * <p>
+ * Only images whose values are all integers in the range 0 to 255 are cached.
+ * All methods are thread safe.
+ */
+public class DecodedImageCache implements Closeable {
+    private static final int MAGIC = 0x44564943;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    //lastModified, fileLength, c, h, w, origC, origH, origW, key length
+    private static final int RECORD_HEADER_SIZE = 8 + 8 + 6 * 4 + 4;
+    private static final long WINDOW_SIZE = 1L << 28;
+    private static final long MIN_MAPPED_SIZE = 1L << 20;
+    public static final long DEFAULT_MIN_COMPACTION_BYTES = 1L << 26;
+
+    private final File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private final long maxMemoryBytes;
+    private final Map<String, Long> index = new HashMap<>();
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<MappedByteBuffer> windows = new ArrayList<>();
+    private long memoryBytes;
+    private long size;
+    private long garbageBytes;
+    private long minCompactionBytes = DEFAULT_MIN_COMPACTION_BYTES;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Open (or create) a cache file
+     *
+     * @param file           the cache file
+     * @param maxMemoryBytes maximum number of bytes of image data to also keep in memory
+     * @throws IOException if the file is not a valid cache file
+     */
+    public DecodedImageCache(File file, long maxMemoryBytes) throws IOException {
+        this.file = file;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = raf.getChannel();
+        this.size = channel.size();
+        try {
+            if (size == 0) {
+                writeFully(channel, fileHeader(), 0);
+                size = FILE_HEADER_SIZE;
+            } else {
+                //Read the header without mapping, as mapping for writing could extend a file that isn't a cache file
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                }
+                header.flip();
+                if (size < FILE_HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                    throw new IOException("Not a decoded image cache file: " + file);
+                }
+                scan();
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    /**
+     * Rebuild the index from the file. A truncated record at the end of the file (from an interrupted write), or
+     * unused space at the end of the mapped region (if the cache was not closed) is discarded; later records for the
+     * same key replace earlier ones.
+     */
+    private void scan() throws IOException {
+        long offset = FILE_HEADER_SIZE;
+        while (offset < size) {
+            if (offset + 4 + RECORD_HEADER_SIZE > size) {
+                break;
+            }
+            int length = region(offset, 4).getInt();
+            if (length < RECORD_HEADER_SIZE || offset + 4 + length > size) {
+                break;
+            }
+            ByteBuffer header = region(offset + 4, RECORD_HEADER_SIZE);
+            header.position(RECORD_HEADER_SIZE - 4);
+            int keyLength = header.getInt();
+            if (keyLength < 0 || RECORD_HEADER_SIZE + keyLength > length) {
+                break;
+            }
+            byte[] key = new byte[keyLength];
+            region(offset + 4 + RECORD_HEADER_SIZE, keyLength).get(key);
+            replaced(index.put(new String(key, StandardCharsets.UTF_8), offset));
+            offset += 4 + length;
+        }
+        if (offset < size) {
+            windows.clear();
+            channel.truncate(offset);
+            size = offset;
+        }
+    }
+
+    /**
+     * Get a cached image
+     *
+     * @param key   the cache key (see {@link NativeImageLoader})
+     * @param image the image file, to check if the cached image is still valid
+     * @return the cached image, or null if not cached or out of date
+     */
+    public synchronized Entry get(String key, File image) throws IOException {
+        long lastModified = image.lastModified();
+        long fileLength = image.length();
+        Entry e = memory.get(key);
+        if (e != null && e.lastModified == lastModified && e.fileLength == fileLength) {
+            hitCount++;
+            return e;
+        }
+
+        Long offset = index.get(key);
+        if (offset == null) {
+            missCount++;
+            return null;
+        }
+        int length = region(offset, 4).getInt();
+        ByteBuffer record = region(offset + 4, length);
+        long recordLastModified = record.getLong();
+        long recordFileLength = record.getLong();
+        if (recordLastModified != lastModified || recordFileLength != fileLength) {
+            missCount++;
+            return null;
+        }
+        int c = record.getInt();
+        int h = record.getInt();
+        int w = record.getInt();
+        int origC = record.getInt();
+        int origH = record.getInt();
+        int origW = record.getInt();
+        int keyLength = record.getInt();
+        record.position(record.position() + keyLength);
+        byte[] data = new byte[c * h * w];
+        record.get(data);
+
+        e = new Entry(lastModified, fileLength, c, h, w, origC, origH, origW, data);
+        remember(key, e);
+        hitCount++;
+        return e;
+    }
+
+    /**
+     * Add an image to the cache, replacing any previous entry for the same key
+     *
+     * @param key   the cache key
+     * @param image the image file the array was decoded from
+     * @param array the decoded image, with shape [c, h, w] or [1, c, h, w]
+     * @param origC number of channels of the original image (or 0 if unknown)
+     * @param origH height of the original image (or 0 if unknown)
+     * @param origW width of the original image (or 0 if unknown)
+     * @return true if the image was cached, false if its values cannot be stored as uint8
+     */
+    public synchronized boolean put(String key, File image, INDArray array, int origC, int origH, int origW)
+                    throws IOException {
+        int[] shape = array.shape();
+        int r = shape.length;
+        if (r < 3 || (r == 4 && shape[0] != 1) || r > 4) {
+            throw new IllegalArgumentException("Expected image with shape [c,h,w] or [1,c,h,w], got "
+                            + Arrays.toString(shape));
+        }
+        byte[] data = toBytes(array);
+        if (data == null) {
+            return false;
+        }
+
+        Entry e = new Entry(image.lastModified(), image.length(), shape[r - 3], shape[r - 2], shape[r - 1], origC,
+                        origH, origW, data);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_SIZE + keyBytes.length + data.length;
+        ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length).putLong(e.lastModified).putLong(e.fileLength);
+        record.putInt(e.c).putInt(e.h).putInt(e.w).putInt(origC).putInt(origH).putInt(origW);
+        record.putInt(keyBytes.length).put(keyBytes).put(data);
+        record.flip();
+
+        long offset = size;
+        long end = offset + record.capacity();
+        int w = (int) (offset / WINDOW_SIZE);
+        if (end <= (w + 1) * WINDOW_SIZE) {
+            //Append directly in to the mapped window
+            ByteBuffer b = window(w, end).duplicate();
+            b.position((int) (offset - w * WINDOW_SIZE));
+            b.put(record);
+        } else {
+            writeFully(channel, record, offset);
+        }
+        size = end;
+        replaced(index.put(key, offset));
+        remember(key, e);
+
+        if (garbageBytes >= minCompactionBytes && garbageBytes > size - FILE_HEADER_SIZE - garbageBytes) {
+            compact();
+        }
+        return true;
+    }
+
+    private void replaced(Long oldOffset) throws IOException {
+        if (oldOffset != null) {
+            garbageBytes += 4 + region(oldOffset, 4).getInt();
+        }
+    }
+
+    /**
+     * Rewrite the cache file with only the current entry for each key, removing replaced entries.
+     * The entries are written to a temporary file, which then replaces the cache file.
+     */
+    public synchronized void compact() throws IOException {
+        if (garbageBytes == 0) {
+            return;
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(index.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+                return Long.compare(e1.getValue(), e2.getValue());
+            }
+        });
+
+        File tmp = new File(file.getPath() + ".compact");
+        Map<String, Long> newIndex = new HashMap<>();
+        long newSize = FILE_HEADER_SIZE;
+        try (RandomAccessFile out = new RandomAccessFile(tmp, "rw")) {
+            out.setLength(0);
+            FileChannel outChannel = out.getChannel();
+            writeFully(outChannel, fileHeader(), 0);
+            for (Map.Entry<String, Long> e : entries) {
+                long offset = e.getValue();
+                int recordSize = 4 + region(offset, 4).getInt();
+                writeFully(outChannel, region(offset, recordSize), newSize);
+                newIndex.put(e.getKey(), newSize);
+                newSize += recordSize;
+            }
+            outChannel.force(true);
+        }
+
+        windows.clear();
+        raf.close();
+        boolean moved = false;
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            //Reopen the compacted file, or the original file if it could not be replaced
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+            if (!moved) {
+                tmp.delete();
+            }
+        }
+        index.clear();
+        index.putAll(newIndex);
+        size = newSize;
+        garbageBytes = 0;
+    }
+
+    private static byte[] toBytes(INDArray array) {
+        INDArray c = array.isView() || array.ordering() != 'c' ? array.dup('c') : array;
+        int length = c.length();
+        byte[] out = new byte[length];
+        for (int i = 0; i < length; i++) {
+            double d = c.getDouble(i);
+            if (d < 0 || d > 255 || d != Math.rint(d)) {
+                return null;
+            }
+            out[i] = (byte) d;
+        }
+        return out;
+    }
+
+    private void remember(String key, Entry e) {
+        Entry old = memory.put(key, e);
+        if (old != null) {
+            memoryBytes -= old.data.length;
+        }
+        memoryBytes += e.data.length;
+        Iterator<Entry> iter = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iter.hasNext()) {
+            memoryBytes -= iter.next().data.length;
+            iter.remove();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * @return a buffer over the given region of the file, from a memory mapped window where possible
+     */
+    private ByteBuffer region(long offset, int length) throws IOException {
+        int w = (int) (offset / WINDOW_SIZE);
+        long windowStart = w * WINDOW_SIZE;
+        if (offset + length > windowStart + WINDOW_SIZE) {
+            //Spans two windows
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        ByteBuffer b = window(w, offset + length).duplicate();
+        b.position((int) (offset - windowStart));
+        b.limit((int) (offset - windowStart) + length);
+        return b.slice();
+    }
+
+    /**
+     * @return window w, mapped up to at least the given end offset. When the window is (re)mapped, its size is at
+     * least doubled (up to the window size), so appending to the file only remaps it a logarithmic number of times.
+     * Mapping beyond the end of the file extends the file; the unused space is removed by {@link #close()}
+     */
+    private MappedByteBuffer window(int w, long end) throws IOException {
+        while (windows.size() <= w) {
+            windows.add(null);
+        }
+        long windowStart = w * WINDOW_SIZE;
+        MappedByteBuffer window = windows.get(w);
+        if (window == null || windowStart + window.capacity() < end) {
+            long mapSize = window == null ? MIN_MAPPED_SIZE : 2L * window.capacity();
+            mapSize = Math.min(WINDOW_SIZE, Math.max(mapSize, end - windowStart));
+            window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, mapSize);
+            windows.set(w, window);
+        }
+        return window;
+    }
+
+    /**
+     * @return the number of entries in the cache file (including entries that are out of date)
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of bytes used by replaced entries, which are removed when the file is compacted
+     */
+    public synchronized long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * Set the minimum number of bytes of replaced entries before the file is compacted automatically.
+     * Default: {@link #DEFAULT_MIN_COMPACTION_BYTES}
+     */
+    public synchronized void setMinCompactionBytes(long minCompactionBytes) {
+        if (minCompactionBytes < 0)
+            throw new IllegalArgumentException("Minimum compaction bytes must be non-negative: got "
+                            + minCompactionBytes);
+        this.minCompactionBytes = minCompactionBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        windows.clear();
+        memory.clear();
+        memoryBytes = 0;
+        try {
+            //Remove the unused (mapped) space at the end of the file
+            channel.truncate(size);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * A cached image: uint8 values in c order, with shape [c, h, w]
+     */
+    public static class Entry {
+        private final long lastModified;
+        private final long fileLength;
+        private final int c;
+        private final int h;
+        private final int w;
+        private final int origC;
+        private final int origH;
+        private final int origW;
+        private final byte[] data;
+
+        private Entry(long lastModified, long fileLength, int c, int h, int w, int origC, int origH, int origW,
+                        byte[] data) {
+            this.lastModified = lastModified;
+            this.fileLength = fileLength;
+            this.c = c;
+            this.h = h;
+            this.w = w;
+            this.origC = origC;
+            this.origH = origH;
+            this.origW = origW;
+            this.data = data;
+        }
+
+        public int getOrigC() {
+            return origC;
+        }
+
+        public int getOrigH() {
+            return origH;
+        }
+
+        public int getOrigW() {
+            return origW;
+        }
+
+        /**
+         * @return the image, with shape [1, c, h, w]
+         */
+        public INDArray toArray() {
+            float[] values = new float[data.length];
+            for (int i = 0; i < data.length; i++) {
+                values[i] = data[i] & 0xFF;
+            }
+            return Nd4j.create(values, new int[] {1, c, h, w}, 'c');
+        }
+
+        /**
+         * Copy the image in to the given array, with shape [c, h, w]
+         */
+        public void copyTo(INDArray view) {
+            if (view.length() != data.length) {
+                throw new IllegalArgumentException("INDArray provided to store image not equal to image: {channels: "
+                                + c + ", rows: " + h + ", columns: " + w + "}");
+            }
+            view.assign(toArray().reshape(view.shape()));
+        }
+    }
+}
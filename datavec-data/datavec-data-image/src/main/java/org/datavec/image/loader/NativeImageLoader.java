@@ -24,7 +24,11 @@ import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.datavec.image.data.Image;
 import org.datavec.image.data.ImageWritable;
+import org.datavec.image.transform.BaseImageTransform;
 import org.datavec.image.transform.ImageTransform;
+import org.datavec.image.transform.ImageTransformProcess;
+import org.datavec.image.transform.PipelineImageTransform;
+import org.datavec.image.transform.RandomCropTransform;
 import org.nd4j.linalg.api.concurrency.AffinityManager;
 import org.nd4j.linalg.api.memory.pointers.PagedPointer;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -52,6 +56,10 @@ public class NativeImageLoader extends BaseImageLoader {
                     "PNG", "TIF", "TIFF", "EXR", "WEBP"};
 
     protected OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+    protected boolean fastDecode = false;
+    protected transient DecodedImageCache cache;
+    private transient ImageTransform cacheKeyTransform;
+    private transient String cacheKeyTransformJson;
 
     /**
      * Loads images with no scaling or conversion.
@@ -110,12 +118,87 @@ public class NativeImageLoader extends BaseImageLoader {
         this.imageTransform = imageTransform;
     }
 
-    protected NativeImageLoader(NativeImageLoader other) {
+    /**
+     * Instantiate a loader with the same configuration as the given loader.
+     * Loaders are not thread safe: this may be used to create one loader per thread
+     * @param other the loader to copy the configuration from
+     */
+    public NativeImageLoader(NativeImageLoader other) {
         this.height = other.height;
         this.width = other.width;
         this.channels = other.channels;
         this.centerCropIfNeeded = other.centerCropIfNeeded;
         this.imageTransform = other.imageTransform;
+        this.fastDecode = other.fastDecode;
+        this.cache = other.cache;
+    }
+
+    /**
+     * Enable or disable the fast decoding path, used when no {@link ImageTransform} is set and the height and
+     * width to load are known. JPEG images much larger than the output are decoded at a reduced scale
+     * (1/2, 1/4 or 1/8, as large as possible while still at least the output size),
+     * and cropping, resizing and channel conversion of 8 bit images are done in a single pass,
+     * writing straight in to the output array. Output values may differ slightly from the default path,
+     * as channels are converted after resizing, rather than before. Default: false
+     *
+     * @param fastDecode whether to use the fast decoding path
+     */
+    public void setFastDecode(boolean fastDecode) {
+        this.fastDecode = fastDecode;
+    }
+
+    public boolean isFastDecode() {
+        return fastDecode;
+    }
+
+    /**
+     * Set the cache of decoded images used when loading from a {@link File}, or null to disable caching.
+     * Images are only cached when the {@link ImageTransform} (if any) is deterministic.
+     * The cache may be shared by multiple loaders, with any configuration.
+     *
+     * @param cache the cache to use
+     */
+    public void setCache(DecodedImageCache cache) {
+        this.cache = cache;
+    }
+
+    public DecodedImageCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the key for the given file and the current configuration, or null if the result is not cacheable
+     */
+    protected String cacheKey(File f, String mode) {
+        if (cache == null) {
+            return null;
+        }
+        String transform = "";
+        if (imageTransform != null) {
+            if (imageTransform != cacheKeyTransform) {
+                cacheKeyTransform = imageTransform;
+                cacheKeyTransformJson = deterministicTransformJson(imageTransform);
+            }
+            if (cacheKeyTransformJson == null) {
+                return null;
+            }
+            transform = cacheKeyTransformJson;
+        }
+        return f.toURI() + "|" + mode + "|" + height + "," + width + "," + channels + "," + centerCropIfNeeded + ","
+                        + fastDecode + "|" + transform;
+    }
+
+    private static String deterministicTransformJson(ImageTransform transform) {
+        if (transform instanceof PipelineImageTransform || transform instanceof RandomCropTransform
+                        || (transform instanceof BaseImageTransform && ((BaseImageTransform) transform).getRandom() != null)) {
+            return null;
+        }
+        try {
+            //Fails for transforms (including nested ones) holding a Random
+            return new ImageTransformProcess(0, transform).toJson();
+        } catch (RuntimeException e) {
+            return null;
+        }
     }
 
     @Override
@@ -195,17 +278,19 @@ public class NativeImageLoader extends BaseImageLoader {
     }
 
 
-    @Override
-    public INDArray asMatrix(File f) throws IOException {
-        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
-            return asMatrix(bis);
+    /**
+     * Decode an encoded image, falling back on Leptonica for formats not supported by OpenCV
+     * @param bytes the encoded image
+     * @param allowReduced whether a reduced scale may be used (see {@link #setFastDecode(boolean)})
+     * @return the decoded image
+     * @throws IOException
+     */
+    protected Mat decode(byte[] bytes, boolean allowReduced) throws IOException {
+        int flags = CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR;
+        if (allowReduced && fastDecode && imageTransform == null && height > 0 && width > 0) {
+            flags = reducedDecodeFlags(bytes, flags);
         }
-    }
-
-    @Override
-    public INDArray asMatrix(InputStream is) throws IOException {
-        byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
+        Mat image = imdecode(new Mat(bytes), flags);
         if (image == null || image.empty()) {
             PIX pix = pixReadMem(bytes, bytes.length);
             if (pix == null) {
@@ -214,6 +299,114 @@ public class NativeImageLoader extends BaseImageLoader {
             image = convert(pix);
             pixDestroy(pix);
         }
+        return image;
+    }
+
+    /**
+     * Select the imdecode flags for the smallest JPEG decoding scale that is still at least
+     * the output size (in either orientation, to allow for EXIF rotation)
+     */
+    private int reducedDecodeFlags(byte[] bytes, int defaultFlags) {
+        int[] header = readJpegHeader(bytes);
+        if (header == null || header[3] != 8 || (header[2] != 1 && header[2] != 3)) {
+            return defaultFlags;
+        }
+        int srcHeight = header[0];
+        int srcWidth = header[1];
+        if (centerCropIfNeeded) {
+            //Same as centerCropIfNeeded(Mat)
+            int diff = Math.abs(srcWidth - srcHeight) / 2;
+            if (srcWidth > srcHeight) {
+                srcWidth -= diff;
+            } else {
+                srcHeight -= diff;
+            }
+        }
+        boolean gray = header[2] == 1;
+        for (int scale = 8; scale > 1; scale /= 2) {
+            int h = srcHeight / scale;
+            int w = srcWidth / scale;
+            if (h >= height && w >= width && h >= width && w >= height) {
+                switch (scale) {
+                    case 8:
+                        return gray ? IMREAD_REDUCED_GRAYSCALE_8 : IMREAD_REDUCED_COLOR_8;
+                    case 4:
+                        return gray ? IMREAD_REDUCED_GRAYSCALE_4 : IMREAD_REDUCED_COLOR_4;
+                    default:
+                        return gray ? IMREAD_REDUCED_GRAYSCALE_2 : IMREAD_REDUCED_COLOR_2;
+                }
+            }
+        }
+        return defaultFlags;
+    }
+
+    /**
+     * Read the frame header of a baseline, extended or progressive JPEG image
+     * @return {height, width, number of components, sample precision}, or null if not such a JPEG image
+     */
+    static int[] readJpegHeader(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xFF) != 0xFF || (b[1] & 0xFF) != 0xD8) {
+            return null;
+        }
+        int i = 2;
+        while (i + 3 < b.length) {
+            if ((b[i] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = b[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                //Fill byte
+                i++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                //Markers without a length
+                i += 2;
+                continue;
+            }
+            if (marker == 0xC0 || marker == 0xC1 || marker == 0xC2) {
+                if (i + 9 >= b.length) {
+                    return null;
+                }
+                int precision = b[i + 4] & 0xFF;
+                int height = (b[i + 5] & 0xFF) << 8 | (b[i + 6] & 0xFF);
+                int width = (b[i + 7] & 0xFF) << 8 | (b[i + 8] & 0xFF);
+                int components = b[i + 9] & 0xFF;
+                return new int[] {height, width, components, precision};
+            }
+            if ((marker >= 0xC3 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC)
+                            || marker == 0xD9 || marker == 0xDA) {
+                //Lossless or arithmetic coding, or no frame header before the image data
+                return null;
+            }
+            i += 2 + ((b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF));
+        }
+        return null;
+    }
+
+    @Override
+    public INDArray asMatrix(File f) throws IOException {
+        String key = cacheKey(f, "m");
+        if (key != null) {
+            DecodedImageCache.Entry e = cache.get(key, f);
+            if (e != null) {
+                return e.toArray();
+            }
+        }
+        INDArray a;
+        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
+            a = asMatrix(bis);
+        }
+        if (key != null) {
+            cache.put(key, f, a, 0, 0, 0);
+        }
+        return a;
+    }
+
+    @Override
+    public INDArray asMatrix(InputStream is) throws IOException {
+        byte[] bytes = IOUtils.toByteArray(is);
+        Mat image = decode(bytes, true);
         INDArray a = asMatrix(image);
         image.deallocate();
         return a;
@@ -221,23 +414,28 @@ public class NativeImageLoader extends BaseImageLoader {
 
     @Override
     public Image asImageMatrix(File f) throws IOException {
+        //The state of the transform is needed for ImageTransform.query(), so only cache without a transform
+        String key = imageTransform == null ? cacheKey(f, "i") : null;
+        if (key != null) {
+            DecodedImageCache.Entry e = cache.get(key, f);
+            if (e != null) {
+                return new Image(e.toArray(), e.getOrigC(), e.getOrigH(), e.getOrigW());
+            }
+        }
+        Image i;
         try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
-            return asImageMatrix(bis);
+            i = asImageMatrix(bis);
+        }
+        if (key != null) {
+            cache.put(key, f, i.getImage(), i.getOrigC(), i.getOrigH(), i.getOrigW());
         }
+        return i;
     }
 
     @Override
     public Image asImageMatrix(InputStream is) throws IOException {
         byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
-        if (image == null || image.empty()) {
-            PIX pix = pixReadMem(bytes, bytes.length);
-            if (pix == null) {
-                throw new IOException("Could not decode image from input stream");
-            }
-            image = convert(pix);
-            pixDestroy(pix);
-        }
+        Mat image = decode(bytes, false);
         INDArray a = asMatrix(image);
         Image i = new Image(a, image.channels(), image.rows(), image.cols());
 
@@ -400,15 +598,7 @@ public class NativeImageLoader extends BaseImageLoader {
 
     public void asMatrixView(InputStream is, INDArray view) throws IOException {
         byte[] bytes = IOUtils.toByteArray(is);
-        Mat image = imdecode(new Mat(bytes), CV_LOAD_IMAGE_ANYDEPTH | CV_LOAD_IMAGE_ANYCOLOR);
-        if (image == null || image.empty()) {
-            PIX pix = pixReadMem(bytes, bytes.length);
-            if (pix == null) {
-                throw new IOException("Could not decode image from input stream");
-            }
-            image = convert(pix);
-            pixDestroy(pix);
-        }
+        Mat image = decode(bytes, true);
         if (image == null)
             throw new RuntimeException();
         asMatrixView(image, view);
@@ -416,9 +606,20 @@ public class NativeImageLoader extends BaseImageLoader {
     }
 
     public void asMatrixView(File f, INDArray view) throws IOException {
+        String key = cacheKey(f, "m");
+        if (key != null) {
+            DecodedImageCache.Entry e = cache.get(key, f);
+            if (e != null) {
+                e.copyTo(view);
+                return;
+            }
+        }
         try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
             asMatrixView(bis, view);
         }
+        if (key != null) {
+            cache.put(key, f, view, 0, 0, 0);
+        }
     }
 
     public void asMatrixView(Mat image, INDArray view) throws IOException {
@@ -441,42 +642,13 @@ public class NativeImageLoader extends BaseImageLoader {
             writable = imageTransform.transform(writable);
             image = converter.convert(writable.getFrame());
         }
+        if (fastDecode && imageTransform == null && height > 0 && width > 0 && image.depth() == CV_8U) {
+            return fusedTransformImage(image, ret);
+        }
         Mat image2 = null, image3 = null, image4 = null;
 
         if (channels > 0 && image.channels() != channels) {
-            int code = -1;
-            switch (image.channels()) {
-                case 1:
-                    switch (channels) {
-                        case 3:
-                            code = CV_GRAY2BGR;
-                            break;
-                        case 4:
-                            code = CV_GRAY2RGBA;
-                            break;
-                    }
-                    break;
-                case 3:
-                    switch (channels) {
-                        case 1:
-                            code = CV_BGR2GRAY;
-                            break;
-                        case 4:
-                            code = CV_BGR2RGBA;
-                            break;
-                    }
-                    break;
-                case 4:
-                    switch (channels) {
-                        case 1:
-                            code = CV_RGBA2GRAY;
-                            break;
-                        case 3:
-                            code = CV_RGBA2BGR;
-                            break;
-                    }
-                    break;
-            }
+            int code = colorConversionCode(image.channels(), channels);
             if (code < 0) {
                 throw new IOException("Cannot convert from " + image.channels() + " to " + channels + " channels.");
             }
@@ -520,6 +692,163 @@ public class NativeImageLoader extends BaseImageLoader {
         return ret;
     }
 
+    /**
+     * @return the cvtColor code to convert between the given numbers of channels, or -1 if not supported
+     */
+    protected static int colorConversionCode(int fromChannels, int toChannels) {
+        int code = -1;
+        switch (fromChannels) {
+            case 1:
+                switch (toChannels) {
+                    case 3:
+                        code = CV_GRAY2BGR;
+                        break;
+                    case 4:
+                        code = CV_GRAY2RGBA;
+                        break;
+                }
+                break;
+            case 3:
+                switch (toChannels) {
+                    case 1:
+                        code = CV_BGR2GRAY;
+                        break;
+                    case 4:
+                        code = CV_BGR2RGBA;
+                        break;
+                }
+                break;
+            case 4:
+                switch (toChannels) {
+                    case 1:
+                        code = CV_RGBA2GRAY;
+                        break;
+                    case 3:
+                        code = CV_RGBA2BGR;
+                        break;
+                }
+                break;
+        }
+        return code;
+    }
+
+    /**
+     * Crop, resize and convert the channels of an 8 bit image in a single pass, writing straight in to
+     * the output array. The crop is a view of the image, and the resize is the only intermediate copy.
+     */
+    protected INDArray fusedTransformImage(Mat image, INDArray ret) throws IOException {
+        int srcChannels = image.channels();
+        int dstChannels = channels > 0 ? channels : srcChannels;
+        int code = -1;
+        if (dstChannels != srcChannels) {
+            code = colorConversionCode(srcChannels, dstChannels);
+            if (code < 0) {
+                throw new IOException("Cannot convert from " + srcChannels + " to " + dstChannels + " channels.");
+            }
+        }
+
+        Mat cropped = centerCropIfNeeded ? centerCropIfNeeded(image) : image;
+        Mat scaled = scalingIfNeed(cropped);
+        int rows = scaled.rows();
+        int cols = scaled.cols();
+
+        if (ret == null) {
+            ret = Nd4j.create(dstChannels, rows, cols);
+        }
+        if (ret.lengthLong() != (long) rows * cols * dstChannels) {
+            throw new ND4JIllegalStateException("INDArray provided to store image not equal to image: {channels: "
+                            + dstChannels + ", rows: " + rows + ", columns: " + cols + "}");
+        }
+
+        UByteIndexer src = scaled.createIndexer();
+        Pointer pointer = ret.data().pointer();
+        int[] stride = ret.stride();
+        PagedPointer pagedPointer = new PagedPointer(pointer, (long) rows * cols * dstChannels,
+                        ret.data().offset() * Nd4j.sizeOfDataType(ret.data().dataType()));
+        FloatIndexer floatidx = null;
+        DoubleIndexer doubleidx = null;
+        long[] sizes = {dstChannels, rows, cols};
+        long[] strides = {stride[0], stride[1], stride[2]};
+        if (pointer instanceof FloatPointer) {
+            floatidx = FloatIndexer.create((FloatPointer) pagedPointer.asFloatPointer(), sizes, strides);
+        } else if (pointer instanceof DoublePointer) {
+            doubleidx = DoubleIndexer.create((DoublePointer) pagedPointer.asDoublePointer(), sizes, strides);
+        }
+
+        int[] px = new int[Math.max(dstChannels, 4)];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                convertPixel(src, i, j, srcChannels, code, px);
+                for (int k = 0; k < dstChannels; k++) {
+                    if (floatidx != null) {
+                        floatidx.put(k, i, j, px[k]);
+                    } else if (doubleidx != null) {
+                        doubleidx.put(k, i, j, px[k]);
+                    } else {
+                        ret.putScalar(k, i, j, px[k]);
+                    }
+                }
+            }
+        }
+
+        scaled.data(); // dummy call to make sure it does not get deallocated prematurely
+        if (scaled != cropped) {
+            scaled.deallocate();
+        }
+        if (cropped != image) {
+            cropped.deallocate();
+        }
+        Nd4j.getAffinityManager().tagLocation(ret, AffinityManager.Location.HOST);
+        return ret;
+    }
+
+    /**
+     * Read one pixel, converting it as per cvtColor with the given code (or -1 for no conversion)
+     */
+    private static void convertPixel(UByteIndexer src, int i, int j, int srcChannels, int code, int[] out) {
+        if (code < 0) {
+            for (int k = 0; k < srcChannels; k++) {
+                out[k] = src.get(i, j, k);
+            }
+            return;
+        }
+        switch (code) {
+            case CV_GRAY2BGR:
+            case CV_GRAY2RGBA: {
+                int g = src.get(i, j, 0);
+                out[0] = g;
+                out[1] = g;
+                out[2] = g;
+                out[3] = 255;
+                break;
+            }
+            case CV_BGR2GRAY:
+                out[0] = gray(src.get(i, j, 2), src.get(i, j, 1), src.get(i, j, 0));
+                break;
+            case CV_RGBA2GRAY:
+                out[0] = gray(src.get(i, j, 0), src.get(i, j, 1), src.get(i, j, 2));
+                break;
+            case CV_BGR2RGBA:
+            case CV_RGBA2BGR: {
+                int c0 = src.get(i, j, 0);
+                out[0] = src.get(i, j, 2);
+                out[1] = src.get(i, j, 1);
+                out[2] = c0;
+                out[3] = 255;
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unsupported color conversion code: " + code);
+        }
+    }
+
+    /**
+     * Luma of an 8 bit pixel, with the same fixed point coefficients as cvtColor
+     */
+    private static int gray(int r, int g, int b) {
+        return (r * 4899 + g * 9617 + b * 1868 + (1 << 13)) >> 14;
+    }
+
     // TODO build flexibility on where to crop the image
     protected Mat centerCropIfNeeded(Mat img) {
         int x = 0;
@@ -16,6 +16,7 @@
 
 package org.datavec.image.recordreader;
 
+import lombok.extern.slf4j.Slf4j;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.io.labels.PathLabelGenerator;
 import org.datavec.api.records.Record;
@@ -31,6 +32,7 @@ import org.datavec.api.writable.IntWritable;
 import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.datavec.image.loader.BaseImageLoader;
+import org.datavec.image.loader.DecodedImageCache;
 import org.datavec.image.loader.ImageLoader;
 import org.datavec.image.loader.NativeImageLoader;
 import org.datavec.image.transform.ImageTransform;
@@ -41,12 +43,19 @@ import org.nd4j.linalg.factory.Nd4j;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Base class for the image record reader
+ * <p>
+ * Decoding may optionally be parallelized and overlapped with consumption of the records:
+ * see {@link #setNumDecodeThreads(int)} and {@link #setPrefetchBatches(int)}
+ * (or {@link #DECODE_THREADS} and {@link #PREFETCH_BATCHES} for configuration based initialization).
+ * Decoded images may also be cached across epochs and runs: see {@link #setImageCache(DecodedImageCache)}.
  *
  * @author Adam Gibson
  */
+@Slf4j
 public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected Iterator<File> iter;
     protected Configuration conf;
@@ -65,12 +74,23 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     protected Map<String, String> fileNameMap = new LinkedHashMap<>();
     protected String pattern; // Pattern to split and segment file name, pass in regex
     protected int patternPosition = 0;
+    protected int numDecodeThreads = 1;
+    protected int prefetchBatches = 0;
+    protected transient DecodedImageCache imageCache;
+    private transient ExecutorService decodeExecutor;
+    private transient ExecutorService prefetchExecutor;
+    private transient NativeImageLoader[] decodeLoaders;
+    private final Deque<PendingRecords> prefetched = new ArrayDeque<>();
+    private final Deque<File> pushedBack = new ArrayDeque<>();
 
     public final static String HEIGHT = NAME_SPACE + ".height";
     public final static String WIDTH = NAME_SPACE + ".width";
     public final static String CHANNELS = NAME_SPACE + ".channels";
     public final static String CROP_IMAGE = NAME_SPACE + ".cropimage";
     public final static String IMAGE_LOADER = NAME_SPACE + ".imageloader";
+    public final static String DECODE_THREADS = NAME_SPACE + ".decodethreads";
+    public final static String PREFETCH_BATCHES = NAME_SPACE + ".prefetchbatches";
+    public final static String FAST_DECODE = NAME_SPACE + ".fastdecode";
 
     public BaseImageRecordReader() {}
 
@@ -98,9 +118,13 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
 
     @Override
     public void initialize(InputSplit split) throws IOException {
+        discardPrefetched();
+        pushedBack.clear();
+        resetDecodeLoaders();
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
         }
+        applyImageCache();
         inputSplit = split;
         URI[] locations = split.locations();
         if (locations != null && locations.length >= 1) {
@@ -142,10 +166,14 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         this.width = conf.getInt(WIDTH, width);
         this.channels = conf.getInt(CHANNELS, channels);
         this.cropImage = conf.getBoolean(CROP_IMAGE, cropImage);
+        setNumDecodeThreads(conf.getInt(DECODE_THREADS, numDecodeThreads));
+        setPrefetchBatches(conf.getInt(PREFETCH_BATCHES, prefetchBatches));
         if ("imageio".equals(conf.get(IMAGE_LOADER))) {
             this.imageLoader = new ImageLoader(height, width, channels, cropImage);
         } else {
-            this.imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
+            NativeImageLoader loader = new NativeImageLoader(height, width, channels, imageTransform);
+            loader.setFastDecode(conf.getBoolean(FAST_DECODE, false));
+            this.imageLoader = loader;
         }
         this.conf = conf;
         initialize(split);
@@ -182,33 +210,90 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     }
 
 
+    /**
+     * Set the number of threads used to decode the images of a batch in {@link #next(int)}.
+     * Each thread decodes a contiguous slice of the batch directly in to the features array.
+     * Default: 1 (decode on the calling thread, or on the prefetch thread when prefetching).
+     * Note that ImageTransforms are not thread safe: when an ImageTransform is set, images are decoded on a
+     * single thread irrespective of this setting.
+     *
+     * @param numDecodeThreads Number of decode threads
+     */
+    public void setNumDecodeThreads(int numDecodeThreads) {
+        if (numDecodeThreads < 1)
+            throw new IllegalArgumentException("Number of decode threads must be at least 1: got " + numDecodeThreads);
+        if (numDecodeThreads != this.numDecodeThreads) {
+            discardPrefetched();
+            shutdownExecutors();
+        }
+        synchronized (this) {
+            //Guarded, as the decode loaders and executor are created on the prefetch thread when prefetching
+            decodeLoaders = null;
+            this.numDecodeThreads = numDecodeThreads;
+        }
+    }
+
+    public int getNumDecodeThreads() {
+        return numDecodeThreads;
+    }
+
+    /**
+     * Set the number of batches (or single records, for {@link #next()}) to decode ahead of time on a
+     * background thread, while the current batch is being consumed. Default: 0 (no prefetching).
+     * When prefetching, the image loader is used from the background thread.
+     *
+     * @param prefetchBatches Maximum number of batches to prefetch
+     */
+    public void setPrefetchBatches(int prefetchBatches) {
+        if (prefetchBatches < 0)
+            throw new IllegalArgumentException("Number of prefetch batches must be non-negative: got " + prefetchBatches);
+        if (prefetchBatches < this.prefetchBatches)
+            discardPrefetched();
+        this.prefetchBatches = prefetchBatches;
+    }
+
+    public int getPrefetchBatches() {
+        return prefetchBatches;
+    }
+
+    /**
+     * Set the cache of decoded images, or null to disable caching (default). The cache is used by the
+     * {@link NativeImageLoader} for images loaded from local files, including when loading from metadata,
+     * and is not closed by this record reader.
+     *
+     * @param imageCache Cache to use
+     * @see DecodedImageCache
+     */
+    public void setImageCache(DecodedImageCache imageCache) {
+        this.imageCache = imageCache;
+        resetDecodeLoaders();
+        applyImageCache();
+    }
+
+    public DecodedImageCache getImageCache() {
+        return imageCache;
+    }
+
+    protected void applyImageCache() {
+        if (imageLoader instanceof NativeImageLoader) {
+            ((NativeImageLoader) imageLoader).setCache(imageCache);
+        }
+    }
+
     @Override
     public List<Writable> next() {
         if (iter != null) {
-            List<Writable> ret;
-            File image = iter.next();
+            if (prefetchBatches > 0)
+                return nextPrefetched(0);
+            discardPrefetched();
+
+            File image = nextFile();
             currentFile = image;
 
             if (image.isDirectory())
                 return next();
-            try {
-                invokeListeners(image);
-                INDArray row = imageLoader.asMatrix(image);
-                Nd4j.getAffinityManager().ensureLocation(row, AffinityManager.Location.DEVICE);
-                ret = RecordConverter.toRecord(row);
-                if (appendLabel || writeLabel){
-                    if( labelGenerator.inferLabelClasses()){
-                        //Standard classification use case (i.e., handle String -> integer conversion
-                        ret.add(new IntWritable(labels.indexOf(getLabel(image.getPath()))));
-                    } else {
-                        //Regression use cases, and PathLabelGenerator instances that already map to integers
-                        ret.add(labelGenerator.getLabelForPath(image.getPath()));
-                    }
-                }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-            return ret;
+            invokeListeners(image);
+            return loadRecord(imageLoader, image, labelFor(image));
         } else if (record != null) {
             hitImage = true;
             invokeListeners(record);
@@ -217,10 +302,46 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         throw new IllegalStateException("No more elements");
     }
 
+    private Writable labelFor(File image) {
+        if (appendLabel || writeLabel) {
+            if (labelGenerator.inferLabelClasses()) {
+                //Standard classification use case (i.e., handle String -> integer conversion
+                return new IntWritable(labels.indexOf(getLabel(image.getPath())));
+            } else {
+                //Regression use cases, and PathLabelGenerator instances that already map to integers
+                return labelGenerator.getLabelForPath(image.getPath());
+            }
+        }
+        return null;
+    }
+
+    private List<Writable> loadRecord(BaseImageLoader loader, File image, Writable label) {
+        List<Writable> ret;
+        try {
+            INDArray row = loader.asMatrix(image);
+            Nd4j.getAffinityManager().ensureLocation(row, AffinityManager.Location.DEVICE);
+            ret = RecordConverter.toRecord(row);
+            if (label != null) {
+                ret.add(label);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return ret;
+    }
+
+    private File nextFile() {
+        return pushedBack.isEmpty() ? iter.next() : pushedBack.removeFirst();
+    }
+
+    private boolean hasNextFile() {
+        return !pushedBack.isEmpty() || iter.hasNext();
+    }
+
     @Override
     public boolean hasNext() {
         if (iter != null) {
-            return iter.hasNext();
+            return !prefetched.isEmpty() || hasNextFile();
         } else if (record != null) {
             return !hitImage;
         }
@@ -237,48 +358,48 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
         }
+        if (prefetchBatches > 0)
+            return nextPrefetched(num);
+        discardPrefetched();
 
-        List<File> currBatch = new ArrayList<>();
-
-        int cnt = 0;
+        Batch batch = collectBatch(num);
+        currentFile = batch.files.get(batch.files.size() - 1);
+        return loadBatch(batch);
+    }
 
-        int numCategories = (appendLabel || writeLabel) ? labels.size() : 0;
-        List<Integer> currLabels = null;
-        List<Writable> currLabelsWritable = null;
-        while (cnt < num && iter.hasNext()) {
-            currentFile = iter.next();
-            currBatch.add(currentFile);
+    private Batch collectBatch(int num) {
+        Batch batch = new Batch();
+        while (batch.files.size() < num && hasNextFile()) {
+            File f = nextFile();
+            batch.files.add(f);
             if (appendLabel || writeLabel) {
-                if(labelGenerator.inferLabelClasses()){
-                    if(currLabels == null)
-                        currLabels = new ArrayList<>();
-                    currLabels.add(labels.indexOf(getLabel(currentFile.getPath())));
+                if (labelGenerator.inferLabelClasses()) {
+                    batch.labels.add(labels.indexOf(getLabel(f.getPath())));
                 } else {
-                    if(currLabelsWritable == null)
-                        currLabelsWritable = new ArrayList<>();
-                    currLabelsWritable.add(labelGenerator.getLabelForPath(currentFile.getPath()));
+                    batch.labelsWritable.add(labelGenerator.getLabelForPath(f.getPath()));
                 }
             }
-            cnt++;
         }
+        if (batch.files.isEmpty())
+            throw new NoSuchElementException("No more elements");
+        return batch;
+    }
+
+    private List<Writable> loadBatch(Batch batch) {
+        int cnt = batch.files.size();
+        int numCategories = (appendLabel || writeLabel) ? labels.size() : 0;
 
         INDArray features = Nd4j.createUninitialized(new int[] {cnt, channels, height, width}, 'c');
         Nd4j.getAffinityManager().tagLocation(features, AffinityManager.Location.HOST);
-        for (int i = 0; i < cnt; i++) {
-            try {
-                ((NativeImageLoader) imageLoader).asMatrixView(currBatch.get(i),
-                                features.tensorAlongDimension(i, 1, 2, 3));
-            } catch (Exception e) {
-                System.out.println("Image file failed during load: " + currBatch.get(i).getAbsolutePath());
-                throw new RuntimeException(e);
-            }
-        }
+        decode(batch.files, features);
         Nd4j.getAffinityManager().ensureLocation(features, AffinityManager.Location.DEVICE);
 
 
         List<Writable> ret = (RecordConverter.toRecord(features));
         if (appendLabel || writeLabel) {
             INDArray labels;
+            List<Integer> currLabels = batch.labels;
+            List<Writable> currLabelsWritable = batch.labelsWritable;
             if( labelGenerator.inferLabelClasses()){
                 //Standard classification use case (i.e., handle String -> integer conversion)
                 labels = Nd4j.create(cnt, numCategories, 'c');
@@ -308,9 +429,222 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         return ret;
     }
 
+    /**
+     * Decode the files in to the rows of the features array, split in to contiguous slices
+     * across the decode threads
+     */
+    private void decode(final List<File> files, INDArray features) {
+        int cnt = files.size();
+        int numSlices = imageTransform != null ? 1 : Math.min(numDecodeThreads, cnt);
+        if (numSlices <= 1) {
+            decodeSlice((NativeImageLoader) imageLoader, files, features, 0, cnt);
+            return;
+        }
+
+        NativeImageLoader[] loaders;
+        ExecutorService executor;
+        synchronized (this) {
+            if (decodeLoaders == null) {
+                decodeLoaders = new NativeImageLoader[numDecodeThreads];
+                for (int i = 0; i < decodeLoaders.length; i++) {
+                    decodeLoaders[i] = new NativeImageLoader((NativeImageLoader) imageLoader);
+                }
+            }
+            if (decodeExecutor == null) {
+                decodeExecutor = newDaemonExecutor(numDecodeThreads, "ImageRecordReader-decode");
+            }
+            loaders = decodeLoaders;
+            executor = decodeExecutor;
+        }
+        numSlices = Math.min(numSlices, loaders.length);
+
+        List<Future<?>> futures = new ArrayList<>(numSlices);
+        for (int s = 0; s < numSlices; s++) {
+            final NativeImageLoader loader = loaders[s];
+            final int from = (int) ((long) s * cnt / numSlices);
+            final int to = (int) ((long) (s + 1) * cnt / numSlices);
+            //Create the views on this thread; the workers only write to them
+            final INDArray[] views = new INDArray[to - from];
+            for (int i = from; i < to; i++) {
+                views[i - from] = features.tensorAlongDimension(i, 1, 2, 3);
+            }
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = from; i < to; i++) {
+                        decodeInto(loader, files.get(i), views[i - from]);
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            await(f);
+        }
+    }
+
+    private static void decodeSlice(NativeImageLoader loader, List<File> files, INDArray features, int from, int to) {
+        for (int i = from; i < to; i++) {
+            decodeInto(loader, files.get(i), features.tensorAlongDimension(i, 1, 2, 3));
+        }
+    }
+
+    private static void decodeInto(NativeImageLoader loader, File file, INDArray view) {
+        try {
+            loader.asMatrixView(file, view);
+        } catch (Exception e) {
+            log.error("Image file failed during load: {}", file.getAbsolutePath());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Return the next prefetched batch (num > 0) or single record (num == 0), keeping up to
+     * prefetchBatches further batches in flight on the prefetch thread
+     */
+    private List<Writable> nextPrefetched(int num) {
+        if (!prefetched.isEmpty() && prefetched.peekFirst().num != num) {
+            //Requested batch size changed: the prefetched records are read again at the new batch size
+            discardPrefetched();
+        }
+        if (prefetched.isEmpty() && !submitPrefetch(num)) {
+            throw new NoSuchElementException("No more elements");
+        }
+        PendingRecords next = prefetched.removeFirst();
+        while (prefetched.size() < prefetchBatches && submitPrefetch(num)) {
+            //Keep the queue full while the current batch is consumed
+        }
+
+        List<Writable> ret = await(next.result);
+        currentFile = next.files.get(next.files.size() - 1);
+        if (num == 0)
+            invokeListeners(currentFile);
+        return ret;
+    }
+
+    private boolean submitPrefetch(final int num) {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = newDaemonExecutor(1, "ImageRecordReader-prefetch");
+        }
+
+        Future<List<Writable>> result;
+        List<File> files;
+        if (num == 0) {
+            File image = null;
+            while (image == null && hasNextFile()) {
+                File f = nextFile();
+                if (!f.isDirectory())
+                    image = f;
+            }
+            if (image == null)
+                return false;
+            final File toLoad = image;
+            final Writable label = labelFor(image);
+            result = prefetchExecutor.submit(new Callable<List<Writable>>() {
+                @Override
+                public List<Writable> call() {
+                    return loadRecord(imageLoader, toLoad, label);
+                }
+            });
+            files = Collections.singletonList(image);
+        } else {
+            if (!hasNextFile())
+                return false;
+            final Batch batch = collectBatch(num);
+            result = prefetchExecutor.submit(new Callable<List<Writable>>() {
+                @Override
+                public List<Writable> call() {
+                    return loadBatch(batch);
+                }
+            });
+            files = batch.files;
+        }
+        prefetched.addLast(new PendingRecords(num, files, result));
+        return true;
+    }
+
+    /**
+     * Wait for any prefetched records, and return their files to the front of the queue,
+     * so that they are read again on the next call
+     */
+    private void discardPrefetched() {
+        if (prefetched.isEmpty())
+            return;
+        List<File> files = new ArrayList<>();
+        for (PendingRecords p : prefetched) {
+            try {
+                p.result.get();
+            } catch (Exception e) {
+                //Ignore: the files are decoded again (and any failure reported) on the next call
+            }
+            files.addAll(p.files);
+        }
+        prefetched.clear();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            pushedBack.addFirst(files.get(i));
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static ExecutorService newDaemonExecutor(int numThreads, final String name) {
+        return Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    private synchronized void resetDecodeLoaders() {
+        decodeLoaders = null;
+    }
+
+    private synchronized void shutdownExecutors() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+        }
+        if (decodeExecutor != null) {
+            decodeExecutor.shutdownNow();
+            decodeExecutor = null;
+        }
+    }
+
+    private static class Batch {
+        private final List<File> files = new ArrayList<>();
+        private final List<Integer> labels = new ArrayList<>();
+        private final List<Writable> labelsWritable = new ArrayList<>();
+    }
+
+    private static class PendingRecords {
+        private final int num;
+        private final List<File> files;
+        private final Future<List<Writable>> result;
+
+        private PendingRecords(int num, List<File> files, Future<List<Writable>> result) {
+            this.num = num;
+            this.files = files;
+            this.result = result;
+        }
+    }
+
     @Override
     public void close() throws IOException {
-
+        discardPrefetched();
+        shutdownExecutors();
     }
 
     @Override
@@ -378,6 +712,8 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
     public void reset() {
         if (inputSplit == null)
             throw new UnsupportedOperationException("Cannot reset without first initializing");
+        discardPrefetched();
+        pushedBack.clear();
         inputSplit.reset();
         if (iter != null) {
             iter = new FileFromPathIterator(inputSplit.locationsPathIterator());
@@ -406,8 +742,14 @@ public abstract class BaseImageRecordReader extends BaseRecordReader {
         invokeListeners(uri);
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
+            applyImageCache();
+        }
+        INDArray row;
+        if (imageCache != null && "file".equals(uri.getScheme())) {
+            row = imageLoader.asMatrix(new File(uri));
+        } else {
+            row = imageLoader.asMatrix(dataInputStream);
         }
-        INDArray row = imageLoader.asMatrix(dataInputStream);
         List<Writable> ret = RecordConverter.toRecord(row);
         if (appendLabel)
             ret.add(new IntWritable(labels.indexOf(getLabel(uri.getPath()))));
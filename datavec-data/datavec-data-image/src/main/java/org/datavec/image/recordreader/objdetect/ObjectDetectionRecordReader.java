@@ -110,6 +110,7 @@ public class ObjectDetectionRecordReader extends BaseImageRecordReader {
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
         }
+        applyImageCache();
         inputSplit = split;
         URI[] locations = split.locations();
         Set<String> labelSet = new HashSet<>();
@@ -236,8 +237,14 @@ public class ObjectDetectionRecordReader extends BaseImageRecordReader {
         invokeListeners(uri);
         if (imageLoader == null) {
             imageLoader = new NativeImageLoader(height, width, channels, imageTransform);
+            applyImageCache();
+        }
+        Image image;
+        if (imageCache != null && "file".equals(uri.getScheme())) {
+            image = this.imageLoader.asImageMatrix(new File(uri));
+        } else {
+            image = this.imageLoader.asImageMatrix(dataInputStream);
         }
-        Image image = this.imageLoader.asImageMatrix(dataInputStream);
         Nd4j.getAffinityManager().ensureLocation(image.getImage(), AffinityManager.Location.DEVICE);
 
         List<Writable> ret = RecordConverter.toRecord(image.getImage());
@@ -40,6 +40,13 @@ public abstract class BaseImageTransform<F> implements ImageTransform {
         this.random = random;
     }
 
+    /**
+     * @return the random object used by {@link #transform(ImageWritable)}, or null if deterministic
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     @Override
     public ImageWritable transform(ImageWritable image) {
         return transform(image, random);
@@ -15,23 +15,41 @@
  */
 package org.datavec.image.loader;
 
+import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.indexer.UByteIndexer;
 import org.bytedeco.javacv.Frame;
 import org.bytedeco.javacv.Java2DFrameConverter;
 import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.datavec.api.io.labels.ParentPathLabelGenerator;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.split.FileSplit;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.WritableFactory;
+import org.datavec.image.data.Image;
 import org.datavec.image.data.ImageWritable;
+import org.datavec.image.recordreader.ImageRecordReader;
+import org.datavec.image.transform.FlipImageTransform;
+import org.datavec.image.transform.RandomCropTransform;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import static org.bytedeco.javacpp.lept.*;
 import static org.bytedeco.javacpp.opencv_core.*;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.bytedeco.javacpp.opencv_imgcodecs.imencode;
+import static org.junit.Assert.*;
 
 /**
  *
@@ -252,6 +270,60 @@ public class TestNativeImageLoader {
     }
 
 
+    @Test
+    public void testFastDecode() throws Exception {
+        //Smooth 3 channel image, much larger than the output
+        int srcHeight = 960, srcWidth = 1280;
+        Mat src = new Mat(srcHeight, srcWidth, CV_8UC3);
+        UByteIndexer idx = src.createIndexer();
+        for (int i = 0; i < srcHeight; i++) {
+            for (int j = 0; j < srcWidth; j++) {
+                idx.put(i, j, 0, (i / 4) % 256);
+                idx.put(i, j, 1, (j / 5) % 256);
+                idx.put(i, j, 2, ((i + j) / 9) % 256);
+            }
+        }
+        BytePointer buf = new BytePointer();
+        assertTrue(imencode(".jpg", src, buf));
+        byte[] jpeg = new byte[(int) buf.limit()];
+        buf.get(jpeg);
+
+        assertArrayEquals(new int[] {srcHeight, srcWidth, 3, 8}, NativeImageLoader.readJpegHeader(jpeg));
+        assertNull(NativeImageLoader.readJpegHeader(new byte[] {1, 2, 3, 4}));
+
+        for (int ch : new int[] {3, 1}) {
+            NativeImageLoader slow = new NativeImageLoader(100, 120, ch);
+            NativeImageLoader fast = new NativeImageLoader(100, 120, ch);
+            fast.setFastDecode(true);
+            INDArray expected = slow.asMatrix(new ByteArrayInputStream(jpeg));
+            INDArray actual = fast.asMatrix(new ByteArrayInputStream(jpeg));
+            assertArrayEquals(expected.shape(), actual.shape());
+            double meanAbsDiff = Transforms.abs(expected.sub(actual)).meanNumber().doubleValue();
+            assertTrue("Mean difference: " + meanAbsDiff, meanAbsDiff < 3.0);
+
+            INDArray view = Nd4j.create(2, ch, 100, 120);
+            fast.asMatrixView(new ByteArrayInputStream(jpeg), view.tensorAlongDimension(1, 1, 2, 3));
+            assertEquals(actual.tensorAlongDimension(0, 1, 2, 3), view.tensorAlongDimension(1, 1, 2, 3));
+        }
+
+        //Without channel conversion, the fused crop and resize is the same as the default path
+        Mat img = makeRandomImage(150, 200, 3);
+        NativeImageLoader slow = new NativeImageLoader(70, 50, 3, true);
+        NativeImageLoader fast = new NativeImageLoader(70, 50, 3, true);
+        fast.setFastDecode(true);
+        assertEquals(slow.asMatrix(img), fast.asMatrix(img));
+
+        //With channel conversion, only rounding differences are expected
+        Mat img4 = makeRandomImage(150, 200, 4);
+        for (int ch : new int[] {1, 3}) {
+            INDArray expected = new NativeImageLoader(60, 80, ch).asMatrix(img4);
+            NativeImageLoader fastConvert = new NativeImageLoader(60, 80, ch);
+            fastConvert.setFastDecode(true);
+            INDArray actual = fastConvert.asMatrix(img4);
+            assertTrue(Transforms.abs(expected.sub(actual)).maxNumber().doubleValue() <= 2.0);
+        }
+    }
+
     BufferedImage makeRandomBufferedImage(int height, int width, int channels) {
         Mat img = makeRandomImage(height, width, channels);
 
@@ -281,6 +353,175 @@ public class TestNativeImageLoader {
         return img;
     }
 
+    @Test
+    public void testImageWritableSerialization() throws Exception {
+        NativeImageLoader loader = new NativeImageLoader();
+        OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+
+        Mat mat8 = makeRandomImage(31, 17, 3);
+        Mat mat32 = new Mat();
+        mat8.convertTo(mat32, CV_32F, 1.0 / 255, 0);
+        byte[] jpeg = IOUtils.toByteArray(new FileInputStream(new ClassPathResource("/testimages/class0/0.jpg").getFile()));
+
+        for (ImageWritable w : new ImageWritable[] {new ImageWritable(converter.convert(mat8)),
+                        new ImageWritable(converter.convert(mat32)), new ImageWritable(jpeg)}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            WritableFactory.getInstance().writeWithType(w, new DataOutputStream(baos));
+            Writable read = WritableFactory.getInstance()
+                            .readWithType(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+            assertTrue(read instanceof ImageWritable);
+            ImageWritable iw = (ImageWritable) read;
+            assertEquals(w.getFrame().imageDepth, iw.getFrame().imageDepth);
+            assertEquals(w.getFrame().imageChannels, iw.getFrame().imageChannels);
+            assertEquals(loader.asMatrix(w), loader.asMatrix(iw));
+        }
+
+        //Compressed images are written as is, and decoded on first access
+        ImageWritable w = new ImageWritable(jpeg);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        w.write(new DataOutputStream(baos));
+        assertEquals(1 + 4 + jpeg.length, baos.size());
+        assertEquals(32, w.getFrame().imageWidth);
+    }
+
+    @Test
+    public void testDecodedImageCache() throws Exception {
+        File dir = Files.createTempDirectory("datavec_cache_test").toFile();
+        try {
+            File img = new File(dir, "class0/0.jpg");
+            FileUtils.copyFile(new ClassPathResource("/testimages/class0/0.jpg").getFile(), img);
+            FileUtils.copyFile(new ClassPathResource("/testimages/class1/A.jpg").getFile(), new File(dir, "class1/A.jpg"));
+            File cacheFile = new File(dir, "images.cache");
+
+            NativeImageLoader plain = new NativeImageLoader(20, 24, 3);
+            INDArray expected = plain.asMatrix(img);
+            Image expectedImage = plain.asImageMatrix(img);
+
+            DecodedImageCache cache = new DecodedImageCache(cacheFile, 1 << 20);
+            NativeImageLoader loader = new NativeImageLoader(20, 24, 3);
+            loader.setCache(cache);
+            assertEquals(expected, loader.asMatrix(img));
+            assertEquals(1, cache.getMissCount());
+            assertEquals(expected, loader.asMatrix(img));
+            assertEquals(1, cache.getHitCount());
+            INDArray view = Nd4j.create(2, 3, 20, 24);
+            loader.asMatrixView(img, view.tensorAlongDimension(1, 1, 2, 3));
+            assertEquals(2, cache.getHitCount());
+            assertEquals(expected.tensorAlongDimension(0, 1, 2, 3), view.tensorAlongDimension(1, 1, 2, 3));
+
+            Image image = loader.asImageMatrix(img);
+            image = loader.asImageMatrix(img);
+            assertEquals(3, cache.getHitCount());
+            assertEquals(expectedImage.getImage(), image.getImage());
+            assertEquals(expectedImage.getOrigH(), image.getOrigH());
+            assertEquals(expectedImage.getOrigW(), image.getOrigW());
+
+            //A different configuration or a deterministic transform uses a different entry; random transforms are not cached
+            NativeImageLoader gray = new NativeImageLoader(20, 24, 1);
+            gray.setCache(cache);
+            assertEquals(new NativeImageLoader(20, 24, 1).asMatrix(img), gray.asMatrix(img));
+            NativeImageLoader flip = new NativeImageLoader(20, 24, 3, new FlipImageTransform(1));
+            flip.setCache(cache);
+            flip.asMatrix(img);
+            NativeImageLoader crop = new NativeImageLoader(20, 24, 3, new RandomCropTransform(12345, 10, 10));
+            crop.setCache(cache);
+            crop.asMatrix(img);
+            crop.asMatrix(img);
+            assertEquals(4, cache.size());
+            cache.close();
+
+            //Entries persist across instances, and are invalidated when the file is modified
+            cache = new DecodedImageCache(cacheFile, 0);
+            assertEquals(4, cache.size());
+            loader.setCache(cache);
+            assertEquals(expected, loader.asMatrix(img));
+            assertEquals(1, cache.getHitCount());
+            assertTrue(img.setLastModified(img.lastModified() - 10000));
+            assertEquals(expected, loader.asMatrix(img));
+            assertEquals(1, cache.getMissCount());
+            assertEquals(expected, loader.asMatrix(img));
+            assertEquals(2, cache.getHitCount());
+
+            //The record reader uses the cache, including when loading from metadata
+            ImageRecordReader rr = new ImageRecordReader(20, 24, 3, new ParentPathLabelGenerator());
+            rr.setImageCache(cache);
+            rr.initialize(new FileSplit(dir, new String[] {"jpg"}));
+            List<Record> records = new ArrayList<>();
+            List<RecordMetaData> meta = new ArrayList<>();
+            while (rr.hasNext()) {
+                Record r = rr.nextRecord();
+                records.add(r);
+                meta.add(r.getMetaData());
+            }
+            assertEquals(2, records.size());
+            long hits = cache.getHitCount();
+            assertEquals(records, rr.loadFromMetaData(meta));
+            assertEquals(hits + 2, cache.getHitCount());
+            cache.close();
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testDecodedImageCacheCompaction() throws Exception {
+        File dir = Files.createTempDirectory("datavec_cache_test").toFile();
+        try {
+            File img = new File(dir, "0.jpg");
+            FileUtils.copyFile(new ClassPathResource("/testimages/class0/0.jpg").getFile(), img);
+            File cacheFile = new File(dir, "images.cache");
+            INDArray a1 = Nd4j.linspace(0, 59, 60).reshape(1, 3, 4, 5);
+            INDArray a2 = a1.rsub(255);
+
+            DecodedImageCache cache = new DecodedImageCache(cacheFile, 0);
+            cache.setMinCompactionBytes(Long.MAX_VALUE);
+            assertTrue(cache.put("a", img, a1, 3, 8, 10));
+            assertTrue(cache.put("b", img, a2, 3, 8, 10));
+            cache.close();
+            //Unused mapped space is removed on close
+            long twoEntries = cacheFile.length();
+            assertTrue(twoEntries < 1024);
+
+            //Replaced entries are garbage until compacted
+            cache = new DecodedImageCache(cacheFile, 0);
+            cache.setMinCompactionBytes(Long.MAX_VALUE);
+            assertEquals(0, cache.getGarbageBytes());
+            for (int i = 0; i < 5; i++) {
+                assertTrue(cache.put("a", img, i % 2 == 0 ? a2 : a1, 3, 8, 10));
+            }
+            assertEquals(2, cache.size());
+            assertTrue(cache.getGarbageBytes() > 0);
+            cache.compact();
+            assertEquals(0, cache.getGarbageBytes());
+            assertEquals(a2, cache.get("a", img).toArray());
+            assertEquals(a2, cache.get("b", img).toArray());
+            cache.close();
+            assertEquals(twoEntries, cacheFile.length());
+
+            //Compaction happens automatically once there is more garbage than live data
+            cache = new DecodedImageCache(cacheFile, 0);
+            cache.setMinCompactionBytes(0);
+            assertTrue(cache.put("b", img, a1, 3, 8, 10));
+            assertTrue(cache.put("b", img, a2, 3, 8, 10));
+            assertTrue(cache.getGarbageBytes() > 0);
+            assertTrue(cache.put("b", img, a2, 3, 8, 10));
+            assertEquals(0, cache.getGarbageBytes());
+            cache.close();
+            assertEquals(twoEntries, cacheFile.length());
+
+            cache = new DecodedImageCache(cacheFile, 0);
+            assertEquals(2, cache.size());
+            assertEquals(a2, cache.get("a", img).toArray());
+            DecodedImageCache.Entry e = cache.get("b", img);
+            assertEquals(a2, e.toArray());
+            assertEquals(8, e.getOrigH());
+            cache.close();
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
     @Test
     public void testAsWritable() throws Exception {
         File f0 = new ClassPathResource("/testimages/class0/0.jpg").getFile();
@@ -29,6 +29,7 @@ import org.datavec.api.writable.NDArrayWritable;
 import org.datavec.api.writable.Writable;
 import org.junit.Test;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.io.File;
 import java.io.IOException;
@@ -220,6 +221,54 @@ public class TestImageRecordReader {
         assertEquals(l2, b2.get(1));
     }
 
+    @Test
+    public void testParallelPrefetchDecode() throws Exception {
+        File rootDir = new ClassPathResource("/testimages/").getFile();
+
+        ImageRecordReader serial = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+        serial.initialize(new FileSplit(rootDir));
+        List<List<Writable>> expBatches = new ArrayList<>();
+        while (serial.hasNext()) {
+            expBatches.add(serial.next(4));
+        }
+        serial.reset();
+        List<List<Writable>> expSingle = new ArrayList<>();
+        while (serial.hasNext()) {
+            expSingle.add(serial.next());
+        }
+
+        ImageRecordReader rr = new ImageRecordReader(28, 28, 3, new ParentPathLabelGenerator());
+        rr.setNumDecodeThreads(3);
+        rr.setPrefetchBatches(2);
+        rr.initialize(new FileSplit(rootDir));
+        try {
+            List<List<Writable>> batches = new ArrayList<>();
+            while (rr.hasNext()) {
+                batches.add(rr.next(4));
+            }
+            assertEquals(expBatches, batches);
+
+            rr.reset();
+            List<List<Writable>> single = new ArrayList<>();
+            while (rr.hasNext()) {
+                single.add(rr.next());
+            }
+            assertEquals(expSingle, single);
+
+            //Changing the batch size discards the prefetched batches, without skipping any files
+            rr.reset();
+            List<Writable> b1 = rr.next(2);
+            List<Writable> b2 = rr.next(4);
+            assertFalse(rr.hasNext());
+            assertEquals(expBatches.get(0).get(0), new NDArrayWritable(
+                            Nd4j.concat(0, ((NDArrayWritable) b1.get(0)).get(), ((NDArrayWritable) b2.get(0)).get())
+                                            .get(NDArrayIndex.interval(0, 4), NDArrayIndex.all(),
+                                                            NDArrayIndex.all(), NDArrayIndex.all())));
+        } finally {
+            rr.close();
+        }
+    }
+
     private static class TestRegressionLabelGen implements PathLabelGenerator {
 
         @Override
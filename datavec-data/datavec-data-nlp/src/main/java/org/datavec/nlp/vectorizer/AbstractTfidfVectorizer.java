@@ -16,12 +16,9 @@
 
 package org.datavec.nlp.vectorizer;
 
-import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
-import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
-import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -47,18 +44,6 @@ public abstract class AbstractTfidfVectorizer<VECTOR_TYPE> extends TextVectorize
         }
     }
 
-    @Override
-    public TokenizerFactory createTokenizerFactory(Configuration conf) {
-        String clazz = conf.get(TOKENIZER, DefaultTokenizerFactory.class.getName());
-        try {
-            Class<? extends TokenizerFactory> tokenizerFactoryClazz =
-                            (Class<? extends TokenizerFactory>) Class.forName(clazz);
-            return tokenizerFactoryClazz.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     @Override
     public abstract VECTOR_TYPE createVector(Object[] args);
 
@@ -0,0 +1,221 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.nlp.vectorizer;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.util.ndarray.CSRMatrix;
+import org.datavec.api.util.ndarray.RecordConverter;
+import org.datavec.api.writable.SparseVectorWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hashing vectorizer: maps each term to a feature index using a hash function (the "hashing trick"), hence
+ * requires no vocabulary and no fitting pass over the data. The value for each feature is the number of times
+ * terms that hash to that feature occur in the document (excluding stop words). By default the sign of each
+ * term's contribution is also given by the hash, so that collisions tend to cancel out rather than accumulate.
+ * <p>
+ * Vectors have {@link #NUM_FEATURES} (default 2^20) features. {@link #transform(Record)} and
+ * {@link #fitTransform(RecordReader)} return a {@link CSRMatrix} with one row per record, as
+ * {@link TfidfVectorizer} returns one dense row per record; {@link #transformSparse(Record)} and
+ * {@link #fitTransformSparse(RecordReader)} return a {@link SparseVectorWritable} per record instead.
+ */
+public class HashingVectorizer extends TextVectorizer<CSRMatrix> {
+    public final static String NUM_FEATURES = "org.datavec.nlp.hashing.numfeatures";
+    public final static String ALTERNATE_SIGN = "org.datavec.nlp.hashing.alternatesign";
+    public final static int DEFAULT_NUM_FEATURES = 1 << 20;
+
+    protected int numFeatures = DEFAULT_NUM_FEATURES;
+    protected boolean alternateSign = true;
+
+    @Override
+    public void initialize(Configuration conf) {
+        super.initialize(conf);
+        numFeatures = conf.getInt(NUM_FEATURES, DEFAULT_NUM_FEATURES);
+        alternateSign = conf.getBoolean(ALTERNATE_SIGN, true);
+        if (numFeatures <= 0)
+            throw new IllegalArgumentException("Number of features must be positive: got " + numFeatures);
+    }
+
+    /**
+     * No fitting is required: only calls the callback (if any) for each record
+     */
+    @Override
+    public void fit(RecordReader reader, RecordCallBack callBack) {
+        while (reader.hasNext()) {
+            Record record = reader.nextRecord();
+            if (callBack != null)
+                callBack.onRecord(record);
+        }
+    }
+
+    @Override
+    public void doWithTokens(Tokenizer tokenizer) {
+        //No vocabulary to build
+    }
+
+    /**
+     * @param args a single {@link Tokenizer} over the document
+     * @return a single row matrix
+     */
+    @Override
+    public CSRMatrix createVector(Object[] args) {
+        return toCSR(Collections.singletonList(createSparseVector((Tokenizer) args[0])));
+    }
+
+    /**
+     * Create the hashed term count vector for a document
+     *
+     * @param tokenizer Tokenizer over the document
+     * @return The vector, of size {@link #getNumFeatures()}
+     */
+    public SparseVectorWritable createSparseVector(Tokenizer tokenizer) {
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        int n = 0;
+        while (tokenizer.hasMoreTokens()) {
+            String token = tokenizer.nextToken();
+            if (stopWords.contains(token))
+                continue;
+            int hash = murmur3(token);
+            if (n == indices.length) {
+                indices = Arrays.copyOf(indices, 2 * n);
+                values = Arrays.copyOf(values, 2 * n);
+            }
+            indices[n] = (hash & Integer.MAX_VALUE) % numFeatures;
+            values[n++] = alternateSign && hash < 0 ? -1.0 : 1.0;
+        }
+        return SparseVectorWritable.fromUnsorted(numFeatures, indices, values, n);
+    }
+
+    /**
+     * Transform a record in to a sparse vector
+     *
+     * @param record the record to transform
+     * @return the sparse vector
+     */
+    public SparseVectorWritable transformSparse(Record record) {
+        return createSparseVector(tokenizerFactory.create(toString(record.getRecord())));
+    }
+
+    /**
+     * @return a single row matrix
+     */
+    @Override
+    public CSRMatrix transform(Record record) {
+        return toCSR(Collections.singletonList(transformSparse(record)));
+    }
+
+    /**
+     * Transform all records of the given reader in to sparse vectors. As there is nothing to fit, this is the same
+     * as calling {@link #transformSparse(Record)} for each record
+     *
+     * @param reader the record reader
+     * @return a sparse vector for each record
+     */
+    public List<SparseVectorWritable> fitTransformSparse(RecordReader reader) {
+        List<SparseVectorWritable> ret = new ArrayList<>();
+        while (reader.hasNext()) {
+            ret.add(transformSparse(reader.nextRecord()));
+        }
+        return ret;
+    }
+
+    @Override
+    public CSRMatrix fitTransform(RecordReader reader) {
+        return fitTransform(reader, null);
+    }
+
+    /**
+     * Transform all records of the given reader. As for {@link TfidfVectorizer}, the callback (if any) is called for
+     * each record with the vector for that record, followed by the last value of the original record (the label).
+     *
+     * @return a matrix with one row per record
+     */
+    @Override
+    public CSRMatrix fitTransform(RecordReader reader, RecordCallBack callBack) {
+        List<SparseVectorWritable> vectors = new ArrayList<>();
+        while (reader.hasNext()) {
+            Record record = reader.nextRecord();
+            SparseVectorWritable vector = transformSparse(record);
+            vectors.add(vector);
+            if (callBack != null) {
+                List<Writable> original = record.getRecord();
+                callBack.onRecord(new org.datavec.api.records.impl.Record(
+                                Arrays.<Writable>asList(vector, original.get(original.size() - 1)),
+                                record.getMetaData()));
+            }
+        }
+
+        if (vectors.isEmpty())
+            throw new IllegalStateException("No records found!");
+        return toCSR(vectors);
+    }
+
+    private static CSRMatrix toCSR(List<SparseVectorWritable> vectors) {
+        List<List<Writable>> rows = new ArrayList<>(vectors.size());
+        for (SparseVectorWritable v : vectors) {
+            rows.add(Collections.<Writable>singletonList(v));
+        }
+        return RecordConverter.toCSR(rows);
+    }
+
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * 32 bit MurmurHash3 of the UTF-16 code units of the string
+     */
+    protected static int murmur3(String s) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int h = 0;
+        int len = s.length();
+        int i = 0;
+        for (; i + 1 < len; i += 2) {
+            int k = s.charAt(i) | (s.charAt(i + 1) << 16);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        if (i < len) {
+            int k = s.charAt(i);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+        }
+        h ^= 2 * len;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -27,6 +27,7 @@ import org.datavec.nlp.metadata.DefaultVocabCache;
 import org.datavec.nlp.metadata.VocabCache;
 import org.datavec.nlp.stopwords.StopWords;
 import org.datavec.nlp.tokenization.tokenizer.Tokenizer;
+import org.datavec.nlp.tokenization.tokenizerfactory.DefaultTokenizerFactory;
 import org.datavec.nlp.tokenization.tokenizerfactory.TokenizerFactory;
 
 import java.io.ByteArrayOutputStream;
@@ -128,6 +129,15 @@ public abstract class TextVectorizer<VECTOR_TYPE> implements Vectorizer<VECTOR_T
      * @param conf the configuration to use
      * @return the tokenizer factory based on the configuration
      */
-    public abstract TokenizerFactory createTokenizerFactory(Configuration conf);
+    public TokenizerFactory createTokenizerFactory(Configuration conf) {
+        String clazz = conf.get(TOKENIZER, DefaultTokenizerFactory.class.getName());
+        try {
+            Class<? extends TokenizerFactory> tokenizerFactoryClazz =
+                            (Class<? extends TokenizerFactory>) Class.forName(clazz);
+            return tokenizerFactoryClazz.newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 
 }
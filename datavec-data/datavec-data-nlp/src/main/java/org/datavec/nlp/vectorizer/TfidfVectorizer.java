@@ -21,7 +21,9 @@ import org.nd4j.linalg.primitives.Counter;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.metadata.RecordMetaDataURI;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.util.Index;
 import org.datavec.api.writable.NDArrayWritable;
+import org.datavec.api.writable.SparseVectorWritable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -32,6 +34,10 @@ import java.util.List;
 /**
  *
  * Nd4j tfidf vectorizer
+ * <p>
+ * Besides the dense output of {@link #transform(Record)} and {@link #fitTransform(RecordReader)}, a sparse output
+ * mode is available ({@link #transformSparse(Record)} and {@link #fitTransformSparse(RecordReader)}) that only
+ * stores the values for the terms present in each document.
  *
  * @author Adam Gibson
  */
@@ -39,14 +45,72 @@ public class TfidfVectorizer extends AbstractTfidfVectorizer<INDArray> {
     @Override
     public INDArray createVector(Object[] args) {
         Counter<String> docFrequencies = (Counter<String>) args[0];
-        double[] vector = new double[cache.vocabWords().size()];
-        for (int i = 0; i < cache.vocabWords().size(); i++) {
-            double freq = docFrequencies.getCount(cache.wordAt(i));
-            vector[i] = cache.tfidf(cache.wordAt(i), freq);
+        Index vocab = cache.vocabWords();
+        double[] vector = new double[vocab.size()];
+        //Terms not in the document have a tf-idf of 0: only look up the terms in the document
+        for (String word : docFrequencies.keySet()) {
+            int idx = vocab.indexOf(word);
+            if (idx >= 0) {
+                vector[idx] = cache.tfidf(word, docFrequencies.getCount(word));
+            }
         }
         return Nd4j.create(vector);
     }
 
+    /**
+     * Create a sparse tf-idf vector, with values for the vocabulary words in the document only
+     *
+     * @param docFrequencies Term counts for the document
+     * @return The tf-idf vector, of size equal to the vocabulary size
+     */
+    public SparseVectorWritable createSparseVector(Counter<String> docFrequencies) {
+        Index vocab = cache.vocabWords();
+        int[] indices = new int[docFrequencies.size()];
+        double[] values = new double[indices.length];
+        int n = 0;
+        for (String word : docFrequencies.keySet()) {
+            int idx = vocab.indexOf(word);
+            if (idx >= 0) {
+                indices[n] = idx;
+                values[n++] = cache.tfidf(word, docFrequencies.getCount(word));
+            }
+        }
+        return SparseVectorWritable.fromUnsorted(vocab.size(), indices, values, n);
+    }
+
+    /**
+     * Transform a record in to a sparse tf-idf vector
+     *
+     * @param record the record to transform
+     * @return the sparse vector
+     */
+    public SparseVectorWritable transformSparse(Record record) {
+        return createSparseVector(wordFrequenciesForRecord(record.getRecord()));
+    }
+
+    /**
+     * Fit on the record reader, then transform all of its records in to sparse tf-idf vectors. Unlike
+     * {@link #fitTransform(RecordReader)}, no dense records x vocabulary matrix is created.
+     *
+     * @param reader the record reader to fit and transform
+     * @return a sparse vector for each record
+     */
+    public List<SparseVectorWritable> fitTransformSparse(RecordReader reader) {
+        final List<Record> records = new ArrayList<>();
+        fit(reader, new RecordCallBack() {
+            @Override
+            public void onRecord(Record record) {
+                records.add(record);
+            }
+        });
+
+        List<SparseVectorWritable> ret = new ArrayList<>(records.size());
+        for (Record record : records) {
+            ret.add(transformSparse(record));
+        }
+        return ret;
+    }
+
     @Override
     public INDArray fitTransform(RecordReader reader) {
         return fitTransform(reader, null);
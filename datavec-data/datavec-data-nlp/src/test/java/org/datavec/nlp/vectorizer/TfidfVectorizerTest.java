@@ -0,0 +1,144 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.nlp.vectorizer;
+
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.util.ndarray.CSRMatrix;
+import org.datavec.api.vector.Vectorizer;
+import org.datavec.api.writable.SparseVectorWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TfidfVectorizerTest {
+
+    private static List<List<Writable>> docs() {
+        String[] text = {"the quick brown fox jumps over the lazy dog", "the lazy dog sleeps all day",
+                        "a quick brown dog and a quick red fox", "nothing in common here"};
+        List<List<Writable>> docs = new ArrayList<>();
+        for (String s : text) {
+            docs.add(Collections.<Writable>singletonList(new Text(s)));
+        }
+        return docs;
+    }
+
+    @Test
+    public void testSparseMatchesDense() {
+        Configuration conf = new Configuration();
+        conf.setInt(TfidfVectorizer.MIN_WORD_FREQUENCY, 1);
+        TfidfVectorizer vectorizer = new TfidfVectorizer();
+        vectorizer.initialize(conf);
+
+        INDArray dense = vectorizer.fitTransform(new CollectionRecordReader(docs()));
+        List<SparseVectorWritable> sparse = new ArrayList<>();
+        CollectionRecordReader reader = new CollectionRecordReader(docs());
+        while (reader.hasNext()) {
+            Record r = reader.nextRecord();
+            SparseVectorWritable v = vectorizer.transformSparse(r);
+            sparse.add(v);
+            assertEquals(vectorizer.transform(r), toDense(v));
+        }
+
+        assertEquals(dense.rows(), sparse.size());
+        for (int i = 0; i < sparse.size(); i++) {
+            assertEquals(dense.getRow(i), toDense(sparse.get(i)));
+            assertTrue(sparse.get(i).numStored() < dense.columns());
+        }
+
+        TfidfVectorizer refit = new TfidfVectorizer();
+        refit.initialize(conf);
+        assertEquals(sparse, refit.fitTransformSparse(new CollectionRecordReader(docs())));
+    }
+
+    @Test
+    public void testHashingVectorizer() {
+        Configuration conf = new Configuration();
+        conf.setInt(HashingVectorizer.NUM_FEATURES, 1 << 10);
+        conf.setBoolean(HashingVectorizer.ALTERNATE_SIGN, false);
+        HashingVectorizer vectorizer = new HashingVectorizer();
+        vectorizer.initialize(conf);
+
+        List<SparseVectorWritable> vectors = vectorizer.fitTransformSparse(new CollectionRecordReader(docs()));
+        assertEquals(4, vectors.size());
+        SparseVectorWritable first = vectors.get(0);
+        assertEquals(1 << 10, first.length());
+        //Same terms give the same features; counts are summed
+        Record firstRecord = new CollectionRecordReader(docs()).nextRecord();
+        assertEquals(first, vectorizer.transformSparse(firstRecord));
+        assertEquals(toDense(first), vectorizer.transform(firstRecord).toDense());
+        double total = 0;
+        for (double d : first.getValues()) {
+            total += d;
+        }
+        assertTrue(total > 0 && total <= 9);
+
+        //Signed hashing: same indices, values of magnitude at most the unsigned counts
+        conf.setBoolean(HashingVectorizer.ALTERNATE_SIGN, true);
+        HashingVectorizer signed = new HashingVectorizer();
+        signed.initialize(conf);
+        SparseVectorWritable s = signed.transformSparse(firstRecord);
+        for (int i = 0; i < s.numStored(); i++) {
+            assertTrue(Math.abs(s.getValues()[i]) <= first.getDouble(s.getIndices()[i]));
+        }
+
+        //fitTransform: the callback gets each vector, and a row is returned for each record
+        final List<SparseVectorWritable> fromCallBack = new ArrayList<>();
+        CSRMatrix matrix = vectorizer.fitTransform(new CollectionRecordReader(docs()),
+                        new Vectorizer.RecordCallBack() {
+                            @Override
+                            public void onRecord(Record record) {
+                                fromCallBack.add((SparseVectorWritable) record.getRecord().get(0));
+                            }
+                        });
+        assertEquals(vectors, fromCallBack);
+        assertEquals(4, matrix.rows());
+        assertEquals(1 << 10, matrix.columns());
+        INDArray dense = matrix.toDense();
+        for (int i = 0; i < vectors.size(); i++) {
+            assertEquals(toDense(vectors.get(i)), dense.getRow(i));
+        }
+        assertEquals(dense, vectorizer.fitTransform(new CollectionRecordReader(docs())).toDense());
+    }
+
+    @Test
+    public void testSparseVectorFromUnsorted() {
+        SparseVectorWritable v = SparseVectorWritable.fromUnsorted(10, new int[] {7, 2, 7, 5, 2, 0},
+                        new double[] {1, 2, 3, 4, -2, 0}, 6);
+        assertArrayEquals(new int[] {5, 7}, v.getIndices());
+        assertArrayEquals(new double[] {4, 4}, v.getValues(), 0.0);
+        assertEquals(0.0, v.getDouble(2), 0.0);
+        assertEquals(4.0, v.getDouble(7), 0.0);
+    }
+
+    private static INDArray toDense(SparseVectorWritable v) {
+        double[] dense = new double[(int) v.length()];
+        for (int i = 0; i < v.numStored(); i++) {
+            dense[v.getIndices()[i]] = v.getValues()[i];
+        }
+        return Nd4j.create(dense);
+    }
+}
@@ -84,6 +84,20 @@ public class MapFileReader<V> implements Closeable {
         recordIndexesEachReader = indexToKey.initialize(readers, recordClass);
     }
 
+    /**
+     * Read the header of the data file of a single MapFile
+     *
+     * @param path Path (directory) of the MapFile
+     * @return The value class, and the SequenceFile metadata of the MapFile
+     * @throws IOException If an error occurs during reading
+     */
+    public static Pair<Class<?>, SequenceFile.Metadata> readHeader(String path) throws IOException {
+        Path dataFile = new Path(path, MapFile.DATA_FILE_NAME);
+        try (SequenceFile.Reader r = new SequenceFile.Reader(new Configuration(), SequenceFile.Reader.file(dataFile))) {
+            return new Pair<Class<?>, SequenceFile.Metadata>(r.getValueClass(), r.getMetadata());
+        }
+    }
+
     /**
      * Determine the total number of records in the map file, using the {@link IndexToKey} instance
      *
@@ -16,6 +16,8 @@
 
 package org.datavec.hadoop.records.reader.mapfile;
 
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
 import org.datavec.api.conf.Configuration;
 import org.datavec.api.records.Record;
 import org.datavec.api.records.listener.RecordListener;
@@ -23,10 +25,14 @@ import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataIndex;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.RandomUtils;
+import org.datavec.api.writable.SchemaRecordCodec;
 import org.datavec.api.writable.Writable;
 import org.datavec.hadoop.records.reader.mapfile.index.LongIndexToKey;
 import org.datavec.hadoop.records.reader.mapfile.record.RecordWritable;
+import org.datavec.hadoop.records.reader.mapfile.record.SchemaRecordWritable;
+import org.nd4j.linalg.primitives.Pair;
 
 import java.io.DataInputStream;
 import java.io.File;
@@ -52,15 +58,18 @@ import java.util.*;
  * </pre>
  *
  * Alternatively, use {@link org.datavec.hadoop.records.writer.mapfile.MapFileRecordWriter}.<br>
- * Note that this record reader supports optional randomisation of order.
+ * Note that this record reader supports optional randomisation of order.<br>
+ * Map files with {@link RecordWritable} and {@link SchemaRecordWritable} values are both supported. For the latter,
+ * the schema is read from the map file metadata if present; otherwise (for example, for map files saved from Spark)
+ * it must be provided via the constructor.
  *
  * @author Alex Black
  */
 public class MapFileRecordReader implements RecordReader {
-    private static final Class<? extends org.apache.hadoop.io.Writable> recordClass = RecordWritable.class;
-
     private final IndexToKey indexToKey;
-    private MapFileReader<RecordWritable> mapFileReader;
+    private final Schema schema;
+    private SchemaRecordCodec codec;
+    private MapFileReader<org.apache.hadoop.io.Writable> mapFileReader;
     private URI baseDirUri;
     private List<RecordListener> listeners;
 
@@ -97,8 +106,22 @@ public class MapFileRecordReader implements RecordReader {
      *
      */
     public MapFileRecordReader(IndexToKey indexToKey, Random rng) {
+        this(indexToKey, rng, null);
+    }
+
+    /**
+     * Create a MapFileRecordReader with optional randomisation, with a custom {@link IndexToKey} instance to
+     * handle MapFile keys, for map files with {@link SchemaRecordWritable} values
+     *
+     * @param indexToKey Handles conversion between long indices and key values (see for example {@link LongIndexToKey}
+     * @param rng If non-null, will be used to randomize the order of examples
+     * @param schema If non-null, the schema used to decode {@link SchemaRecordWritable} values. If null, the schema
+     *               stored in the map file metadata will be used
+     */
+    public MapFileRecordReader(IndexToKey indexToKey, Random rng, Schema schema) {
         this.indexToKey = indexToKey;
         this.rng = rng;
+        this.schema = schema;
     }
 
     @Override
@@ -157,6 +180,24 @@ public class MapFileRecordReader implements RecordReader {
             mapFileReader.close();
         }
 
+        Class<? extends org.apache.hadoop.io.Writable> recordClass = RecordWritable.class;
+        codec = null;
+        Pair<Class<?>, SequenceFile.Metadata> header = MapFileReader.readHeader(mapFilePartRootDirectories.get(0));
+        if (header.getFirst() == SchemaRecordWritable.class) {
+            recordClass = SchemaRecordWritable.class;
+            if (schema != null) {
+                codec = new SchemaRecordCodec(schema);
+            } else {
+                Text json = header.getSecond().get(new Text(SchemaRecordWritable.SCHEMA_KEY));
+                if (json == null) {
+                    throw new IllegalStateException("Map file values are SchemaRecordWritable instances, but no "
+                                    + "schema is stored in the map file metadata: the schema must be provided via "
+                                    + "the MapFileRecordReader constructor");
+                }
+                codec = SchemaRecordWritable.getCodec(json.toString());
+            }
+        }
+
         this.mapFileReader = new MapFileReader<>(mapFilePartRootDirectories, indexToKey, recordClass);
         this.numRecords = mapFileReader.numRecords();
 
@@ -265,7 +306,7 @@ public class MapFileRecordReader implements RecordReader {
             throw new NoSuchElementException();
         }
 
-        RecordWritable rec;
+        org.apache.hadoop.io.Writable rec;
         long currIdx;
         if (order != null) {
             currIdx = order[(int) position++];
@@ -292,6 +333,15 @@ public class MapFileRecordReader implements RecordReader {
             }
         }
 
-        return new org.datavec.api.records.impl.Record(rec.getRecord(), meta);
+        List<Writable> record;
+        if (codec != null) {
+            SchemaRecordWritable srw = (SchemaRecordWritable) rec;
+            srw.setCodec(codec);
+            record = srw.getRecord();
+        } else {
+            record = ((RecordWritable) rec).getRecord();
+        }
+
+        return new org.datavec.api.records.impl.Record(record, meta);
     }
 }
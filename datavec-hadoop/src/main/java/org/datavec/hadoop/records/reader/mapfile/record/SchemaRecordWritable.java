@@ -0,0 +1,156 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.hadoop.records.reader.mapfile.record;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.SchemaRecordCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact alternative to {@link RecordWritable}: records are encoded using a {@link SchemaRecordCodec}, without
+ * any per-value type information.<br>
+ * The encoded bytes are length-prefixed, so values can be read without knowing the schema: records are decoded on
+ * the first call to {@link #getRecord()}. The schema may be provided via the constructor,
+ * {@link #setCodec(SchemaRecordCodec)}, or (for instances created by Hadoop) as JSON via the {@link #SCHEMA_KEY}
+ * configuration key. Map files written by {@link org.datavec.hadoop.records.writer.mapfile.MapFileRecordWriter} also
+ * store the schema in the file metadata under the same key.
+ */
+public class SchemaRecordWritable implements Writable, Configurable {
+
+    /**
+     * Configuration and SequenceFile metadata key for the schema (as JSON) of the records
+     */
+    public static final String SCHEMA_KEY = "org.datavec.hadoop.schema";
+
+    private static final Map<String, SchemaRecordCodec> CODECS = new ConcurrentHashMap<>();
+
+    private List<org.datavec.api.writable.Writable> record;
+    private SchemaRecordCodec codec;
+    private Configuration conf;
+    private final DataOutputBuffer encoded = new DataOutputBuffer();
+    private final DataInputBuffer decodeInput = new DataInputBuffer();
+    private boolean hasEncoded;
+
+    public SchemaRecordWritable() {
+        //No-arg constructor for reflection-based creation
+    }
+
+    public SchemaRecordWritable(List<org.datavec.api.writable.Writable> record, SchemaRecordCodec codec) {
+        this.record = record;
+        this.codec = codec;
+    }
+
+    /**
+     * Get a (shared) codec for the given schema JSON
+     */
+    public static SchemaRecordCodec getCodec(String schemaJson) {
+        SchemaRecordCodec c = CODECS.get(schemaJson);
+        if (c == null) {
+            c = new SchemaRecordCodec(Schema.fromJson(schemaJson));
+            CODECS.put(schemaJson, c);
+        }
+        return c;
+    }
+
+    public SchemaRecordCodec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(SchemaRecordCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * @return The record, decoding it if necessary
+     */
+    public List<org.datavec.api.writable.Writable> getRecord() {
+        if (record == null && hasEncoded) {
+            if (codec == null) {
+                throw new IllegalStateException("Cannot decode record: no schema has been set. Provide the schema via "
+                                + "setCodec or the \"" + SCHEMA_KEY + "\" configuration key");
+            }
+            try {
+                decodeInput.reset(encoded.getData(), encoded.getLength());
+                record = codec.decode(decodeInput);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error decoding record", e);
+            }
+        }
+        return record;
+    }
+
+    public void setRecord(List<org.datavec.api.writable.Writable> record) {
+        this.record = record;
+        this.hasEncoded = false;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        if (record != null) {
+            if (codec == null) {
+                throw new IllegalStateException("Cannot encode record: no schema has been set");
+            }
+            encoded.reset();
+            codec.encode(record, encoded);
+            hasEncoded = true;
+        } else if (!hasEncoded) {
+            throw new IllegalStateException("Cannot write: no record has been set");
+        }
+        WritableUtils.writeVInt(out, encoded.getLength());
+        out.write(encoded.getData(), 0, encoded.getLength());
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int length = WritableUtils.readVInt(in);
+        encoded.reset();
+        encoded.write(in, length);
+        hasEncoded = true;
+        record = null;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        String json = conf == null ? null : conf.get(SCHEMA_KEY);
+        if (json != null) {
+            codec = getCodec(json);
+        }
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(getRecord());
+    }
+}
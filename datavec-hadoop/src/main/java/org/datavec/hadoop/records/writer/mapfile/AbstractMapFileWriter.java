@@ -22,7 +22,9 @@ import org.apache.hadoop.io.MapFile;
 import org.apache.hadoop.io.SequenceFile;
 import org.apache.hadoop.io.WritableComparable;
 import org.datavec.api.conf.Configuration;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.*;
+import org.datavec.hadoop.records.reader.mapfile.record.SchemaRecordWritable;
 
 import java.io.File;
 import java.io.IOException;
@@ -57,6 +59,8 @@ public abstract class AbstractMapFileWriter<T> {
     protected final WritableType convertTextTo;
     protected final int indexInterval;
     protected final String filenamePattern;
+    protected final Schema schema;
+    protected final SchemaRecordCodec codec;
     protected org.apache.hadoop.conf.Configuration hadoopConfiguration;
 
     protected final AtomicLong counter = new AtomicLong();
@@ -156,6 +160,28 @@ public abstract class AbstractMapFileWriter<T> {
     public AbstractMapFileWriter(@NonNull File outputDir, int mapFileSplitSize, WritableType convertTextTo,
                                  int indexInterval, String filenamePattern,
                                  org.apache.hadoop.conf.Configuration hadoopConfiguration) {
+        this(outputDir, mapFileSplitSize, convertTextTo, indexInterval, filenamePattern, hadoopConfiguration, null);
+    }
+
+    /**
+     *
+     * @param outputDir           Output directory for the map file(s)
+     * @param mapFileSplitSize    Split size for the map file: if 0, use a single map file for all output. If > 0,
+     *                            multiple map files will be used: each will contain a maximum of mapFileSplitSize.
+     *                            This can be used to avoid having a single multi gigabyte map file, which may be
+     *                            undesirable in some cases (transfer across the network, for example)
+     * @param convertTextTo       If null: Make no changes to Text writable objects. If non-null, Text writable instances
+     *                            will be converted to this type. This is useful, when would rather store numerical values
+     *                            even if the original record reader produces strings/text.
+     * @param indexInterval       Index interval for the Map file. Defaults to 1, which is suitable for most cases
+     * @param filenamePattern     The naming pattern for the map files. Used with String.format(pattern, int)
+     * @param hadoopConfiguration Hadoop configuration.
+     * @param schema              Nullable. If non-null: values are encoded in a compact schema-based format (see
+     *                            {@link SchemaRecordCodec}), and the schema is stored in the map file metadata
+     */
+    public AbstractMapFileWriter(@NonNull File outputDir, int mapFileSplitSize, WritableType convertTextTo,
+                                 int indexInterval, String filenamePattern,
+                                 org.apache.hadoop.conf.Configuration hadoopConfiguration, Schema schema) {
         if(indexInterval <= 0){
             throw new UnsupportedOperationException("Index interval: must be >= 0 (got: " + indexInterval + ")");
         }
@@ -173,8 +199,19 @@ public abstract class AbstractMapFileWriter<T> {
             this.hadoopConfiguration.set(MAP_FILE_INDEX_INTERVAL_KEY, String.valueOf(indexInterval));
         }
 
-        opts = new SequenceFile.Writer.Option[]{MapFile.Writer.keyClass(KEY_CLASS),
-                SequenceFile.Writer.valueClass(getValueClass())};
+        this.schema = schema;
+        if (schema != null) {
+            this.codec = new SchemaRecordCodec(schema);
+            SequenceFile.Metadata metadata = new SequenceFile.Metadata();
+            metadata.set(new org.apache.hadoop.io.Text(SchemaRecordWritable.SCHEMA_KEY),
+                    new org.apache.hadoop.io.Text(schema.toJson()));
+            opts = new SequenceFile.Writer.Option[]{MapFile.Writer.keyClass(KEY_CLASS),
+                    SequenceFile.Writer.valueClass(getValueClass()), SequenceFile.Writer.metadata(metadata)};
+        } else {
+            this.codec = null;
+            opts = new SequenceFile.Writer.Option[]{MapFile.Writer.keyClass(KEY_CLASS),
+                    SequenceFile.Writer.valueClass(getValueClass())};
+        }
 
     }
 
@@ -18,16 +18,20 @@ package org.datavec.hadoop.records.writer.mapfile;
 
 import lombok.NonNull;
 import org.datavec.api.records.writer.RecordWriter;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.WritableType;
 import org.datavec.hadoop.records.reader.mapfile.record.RecordWritable;
+import org.datavec.hadoop.records.reader.mapfile.record.SchemaRecordWritable;
 
 import java.io.File;
 import java.util.List;
 
 /**
  * MapFileRecordWriter is used to write values to a Hadoop MapFile, that can then be read by:
- * {@link org.datavec.hadoop.records.reader.mapfile.MapFileRecordReader}
+ * {@link org.datavec.hadoop.records.reader.mapfile.MapFileRecordReader}<br>
+ * If a {@link Schema} is provided, values are stored as {@link SchemaRecordWritable}s, which are typically several
+ * times smaller than the default {@link RecordWritable} format.
  *
  * @author Alex Black
  * @see org.datavec.hadoop.records.reader.mapfile.MapFileRecordReader
@@ -140,9 +144,42 @@ public class MapFileRecordWriter extends AbstractMapFileWriter<List<Writable>> i
         super(outputDir, mapFileSplitSize, convertTextTo, indexInterval, filenamePattern, hadoopConfiguration);
     }
 
+    /**
+     * Constructor for a single output MapFile with the compact schema-based format
+     *
+     * @param outputDir           Output directory for the map file(s)
+     * @param schema              Schema of the records to write
+     */
+    public MapFileRecordWriter(@NonNull File outputDir, @NonNull Schema schema) {
+        this(outputDir, DEFAULT_MAP_FILE_SPLIT_SIZE, null, DEFAULT_INDEX_INTERVAL, DEFAULT_FILENAME_PATTERN,
+                        new org.apache.hadoop.conf.Configuration(), schema);
+    }
+
+    /**
+     *
+     * @param outputDir           Output directory for the map file(s)
+     * @param mapFileSplitSize    Split size for the map file: if 0, use a single map file for all output. If > 0,
+     *                            multiple map files will be used: each will contain a maximum of mapFileSplitSize
+     *                            examples. This can be used to avoid having a single multi gigabyte map file, which may
+     *                            be undesirable in some cases (transfer across the network, for example).
+     * @param convertTextTo       If null: Make no changes to Text writable objects. If non-null, Text writable instances
+     *                            will be converted to this type. This is useful, when would rather store numerical values
+     *                            even if the original record reader produces strings/text.
+     * @param indexInterval       Index interval for the Map file. Defaults to 1, which is suitable for most cases
+     * @param filenamePattern     The naming pattern for the map files. Used with String.format(pattern, int)
+     * @param hadoopConfiguration Hadoop configuration.
+     * @param schema              Nullable. If non-null: values are stored as {@link SchemaRecordWritable}s, encoded
+     *                            using the schema
+     */
+    public MapFileRecordWriter(@NonNull File outputDir, int mapFileSplitSize, WritableType convertTextTo,
+                                       int indexInterval, String filenamePattern,
+                                       org.apache.hadoop.conf.Configuration hadoopConfiguration, Schema schema) {
+        super(outputDir, mapFileSplitSize, convertTextTo, indexInterval, filenamePattern, hadoopConfiguration, schema);
+    }
+
     @Override
     protected Class<? extends org.apache.hadoop.io.Writable> getValueClass() {
-        return RecordWritable.class;
+        return schema == null ? RecordWritable.class : SchemaRecordWritable.class;
     }
 
     @Override
@@ -151,6 +188,9 @@ public class MapFileRecordWriter extends AbstractMapFileWriter<List<Writable>> i
             input = convertTextWritables(input);
         }
 
+        if (codec != null) {
+            return new SchemaRecordWritable(input, codec);
+        }
         return new RecordWritable(input);
     }
 }
@@ -25,8 +25,11 @@ import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.records.writer.RecordWriter;
 import org.datavec.api.records.writer.SequenceRecordWriter;
 import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.FloatWritable;
+import org.datavec.api.writable.Text;
 import org.datavec.api.writable.Writable;
 import org.datavec.api.writable.WritableType;
 import org.datavec.hadoop.records.reader.mapfile.MapFileRecordReader;
@@ -40,6 +43,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 07/07/2017.
@@ -128,6 +132,53 @@ public class TestMapFileRecordWriter {
     }
 
 
+    @Test
+    public void testSchemaWriter() throws Exception {
+        File tempDirDefault = Files.createTempDir();
+        File tempDirSchema = Files.createTempDir();
+        tempDirDefault.deleteOnExit();
+        tempDirSchema.deleteOnExit();
+
+        Schema schema = new Schema.Builder().addColumnsDouble("c%d", 0, 3).addColumnCategorical("label", "0", "1", "2")
+                        .build();
+
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.dat").getFile()));
+        List<List<Writable>> exp = new ArrayList<>();
+        while (rr.hasNext()) {
+            List<Writable> l = rr.next();
+            List<Writable> converted = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                converted.add(new DoubleWritable(l.get(i).toDouble()));
+            }
+            converted.add(new Text(l.get(4).toString()));
+            exp.add(converted);
+        }
+
+        RecordWriter defaultWriter = new MapFileRecordWriter(tempDirDefault);
+        RecordWriter schemaWriter = new MapFileRecordWriter(tempDirSchema, schema);
+        for (List<Writable> l : exp) {
+            defaultWriter.write(l);
+            schemaWriter.write(l);
+        }
+        defaultWriter.close();
+        schemaWriter.close();
+
+        //Schema is read from the map file metadata
+        RecordReader rr1 = new MapFileRecordReader();
+        rr1.initialize(new FileSplit(tempDirSchema));
+        List<List<Writable>> s1 = new ArrayList<>();
+        while (rr1.hasNext()) {
+            s1.add(rr1.next());
+        }
+        rr1.close();
+        assertEquals(exp, s1);
+
+        long defaultSize = new File(new File(tempDirDefault, "part-r-00000"), "data").length();
+        long schemaSize = new File(new File(tempDirSchema, "part-r-00000"), "data").length();
+        assertTrue(defaultSize + " vs. " + schemaSize, schemaSize < defaultSize);
+    }
+
     @Test
     public void testSequenceWriter() throws Exception {
 
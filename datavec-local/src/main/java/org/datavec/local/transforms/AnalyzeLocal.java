@@ -0,0 +1,178 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.transform.analysis.AnalysisCounter;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.DataVecAnalysisUtils;
+import org.datavec.api.transform.analysis.aggregate.AnalysisAddFunction;
+import org.datavec.api.transform.analysis.aggregate.AnalysisCombineFunction;
+import org.datavec.api.transform.analysis.columns.ColumnAnalysis;
+import org.datavec.api.transform.analysis.histogram.HistogramAddFunction;
+import org.datavec.api.transform.analysis.histogram.HistogramCombineFunction;
+import org.datavec.api.transform.analysis.histogram.HistogramCounter;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.quality.columns.ColumnQuality;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+/**
+ * Data analysis and data quality analysis for data that fits on a single machine, without Spark.<br>
+ * Records are read from a {@link RecordReader} in batches; each batch is analyzed as a separate task on a
+ * {@link ForkJoinPool}, and the resulting counters are merged as tasks complete. The number of batches in flight is
+ * bounded, so the full data set is never held in memory.<br>
+ * As with AnalyzeSpark, histograms are calculated in a second pass over the data (after {@link RecordReader#reset()})
+ * once the min/max values for each column are known. If the reader does not support resetting, histograms are
+ * instead estimated from the t-digest sketches collected in the first pass (see
+ * {@link DataVecAnalysisUtils#estimateHistograms(List, List, double[][], int)}).
+ * <p>
+ * The RecordReader must be initialized before calling these methods.
+ */
+public class AnalyzeLocal {
+
+    public static final int DEFAULT_HISTOGRAM_BUCKETS = 30;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private AnalyzeLocal() {}
+
+    /**
+     * Analyze the data from the record reader, using the common fork-join pool and the default number of histogram
+     * buckets
+     *
+     * @param schema Schema of the data
+     * @param rr     Record reader (initialized) to read the data from
+     * @return Data analysis
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader rr) {
+        return analyze(schema, rr, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyze the data from the record reader, using the common fork-join pool
+     *
+     * @param schema              Schema of the data
+     * @param rr                  Record reader (initialized) to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets for each column
+     * @return Data analysis
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader rr, int maxHistogramBuckets) {
+        return analyze(schema, rr, maxHistogramBuckets, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Analyze the data from the record reader
+     *
+     * @param schema              Schema of the data
+     * @param rr                  Record reader (initialized) to read the data from
+     * @param maxHistogramBuckets Number of histogram buckets for each column
+     * @param pool                Pool to execute the analysis on
+     * @param batchSize           Number of records to analyze in each task
+     * @return Data analysis
+     */
+    public static DataAnalysis analyze(Schema schema, RecordReader rr, int maxHistogramBuckets, ForkJoinPool pool,
+                    int batchSize) {
+        List<AnalysisCounter> counters =
+                        aggregate(rr, pool, batchSize, new AnalysisAddFunction(schema), new AnalysisCombineFunction());
+
+        double[][] minsMaxes = new double[counters.size()][2];
+        List<ColumnAnalysis> list = DataVecAnalysisUtils.convertCounters(schema, counters, minsMaxes);
+
+        if (rr.resetSupported()) {
+            rr.reset();
+            List<HistogramCounter> histogramCounters = aggregate(rr, pool, batchSize,
+                            new HistogramAddFunction(maxHistogramBuckets, schema, minsMaxes),
+                            new HistogramCombineFunction());
+            DataVecAnalysisUtils.mergeCounters(list, histogramCounters);
+        } else {
+            DataVecAnalysisUtils.estimateHistograms(list, counters, minsMaxes, maxHistogramBuckets);
+        }
+
+        return new DataAnalysis(schema, list);
+    }
+
+    /**
+     * Analyze the data quality of the data from the record reader, using the common fork-join pool
+     *
+     * @param schema Schema of the data
+     * @param rr     Record reader (initialized) to read the data from
+     * @return Data quality analysis
+     */
+    public static DataQualityAnalysis analyzeQuality(Schema schema, RecordReader rr) {
+        return analyzeQuality(schema, rr, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Analyze the data quality of the data from the record reader
+     *
+     * @param schema    Schema of the data
+     * @param rr        Record reader (initialized) to read the data from
+     * @param pool      Pool to execute the analysis on
+     * @param batchSize Number of records to analyze in each task
+     * @return Data quality analysis
+     */
+    public static DataQualityAnalysis analyzeQuality(Schema schema, RecordReader rr, ForkJoinPool pool,
+                    int batchSize) {
+        List<QualityAnalysisState> states = aggregate(rr, pool, batchSize, new QualityAnalysisAddFunction(schema),
+                        new QualityAnalysisCombineFunction());
+
+        List<ColumnQuality> list = new ArrayList<>(states.size());
+        for (QualityAnalysisState qualityState : states) {
+            list.add(qualityState.getColumnQuality());
+        }
+        return new DataQualityAnalysis(schema, list);
+    }
+
+    /**
+     * Read all remaining records from the reader, aggregating each batch of records in a separate fork-join task.
+     * Task results are merged (in order) on the calling thread, which also does the reading.
+     */
+    private static <T> List<T> aggregate(RecordReader rr, ForkJoinPool pool, int batchSize,
+                    final BiFunction<List<T>, List<Writable>, List<T>> addFunction,
+                    BiFunction<List<T>, List<T>, List<T>> combineFunction) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Invalid batch size: must be positive, got " + batchSize);
+
+        //Bound the number of batches held in memory at any time
+        int maxInFlight = 2 * pool.getParallelism();
+        Deque<ForkJoinTask<List<T>>> inFlight = new ArrayDeque<>();
+        List<T> result = null;
+
+        while (rr.hasNext()) {
+            final List<List<Writable>> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize && rr.hasNext()) {
+                batch.add(rr.next());
+            }
+
+            inFlight.add(pool.submit(() -> {
+                List<T> out = null;
+                for (List<Writable> record : batch) {
+                    out = addFunction.apply(out, record);
+                }
+                return out;
+            }));
+
+            while (inFlight.size() >= maxInFlight) {
+                result = combineFunction.apply(result, inFlight.poll().join());
+            }
+        }
+
+        while (!inFlight.isEmpty()) {
+            result = combineFunction.apply(result, inFlight.poll().join());
+        }
+
+        if (result == null)
+            throw new IllegalStateException("Cannot analyze data: record reader did not return any records");
+
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.WritableFactory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Sorts an arbitrary number of records using a bounded amount of memory.<br>
+ * Records are buffered until the buffer holds the maximum number of in-memory records; the buffer is then sorted and
+ * spilled to a temporary file as a sorted run. {@link #sortedIterator()} returns a k-way merge of all runs plus the
+ * remaining in-memory buffer. Temporary files are deleted on {@link #close()}.
+ * <p>
+ * Records are written using {@link WritableFactory#writeWithType(Writable, DataOutput)}, hence only registered
+ * writable types are supported for data that is spilled to disk.
+ */
+class ExternalRecordSorter implements Closeable {
+
+    private final Comparator<List<Writable>> comparator;
+    private final int maxInMemoryRecords;
+    private final File tempDir;
+    private final List<File> runFiles = new ArrayList<>();
+    private final List<Integer> runSizes = new ArrayList<>();
+    private final List<DataInputStream> openStreams = new ArrayList<>();
+    private List<List<Writable>> buffer = new ArrayList<>();
+
+    /**
+     * @param comparator         Order of the sorted output
+     * @param maxInMemoryRecords Maximum number of records to hold in memory before spilling a run to disk
+     * @param tempDir            Directory for the sorted runs. May be null (default temporary directory)
+     */
+    ExternalRecordSorter(Comparator<List<Writable>> comparator, int maxInMemoryRecords, File tempDir) {
+        if (maxInMemoryRecords <= 0) {
+            throw new IllegalArgumentException("Maximum number of in-memory records must be positive: got "
+                            + maxInMemoryRecords);
+        }
+        this.comparator = comparator;
+        this.maxInMemoryRecords = maxInMemoryRecords;
+        this.tempDir = tempDir;
+    }
+
+    void add(List<Writable> record) throws IOException {
+        buffer.add(record);
+        if (buffer.size() >= maxInMemoryRecords) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        Collections.sort(buffer, comparator);
+        File f = File.createTempFile("datavec_sort_", ".bin", tempDir);
+        f.deleteOnExit();
+        runFiles.add(f);
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            WritableFactory wf = WritableFactory.getInstance();
+            for (List<Writable> record : buffer) {
+                dos.writeInt(record.size());
+                for (Writable w : record) {
+                    wf.writeWithType(w, dos);
+                }
+            }
+        }
+        runSizes.add(buffer.size());
+        buffer = new ArrayList<>();
+    }
+
+    /**
+     * Sort the buffered records and merge them with all runs spilled so far. No more records should be added after
+     * calling this method.
+     *
+     * @return Iterator over all added records, in sorted order
+     */
+    Iterator<List<Writable>> sortedIterator() throws IOException {
+        Collections.sort(buffer, comparator);
+        if (runFiles.isEmpty()) {
+            return buffer.iterator();
+        }
+
+        List<Iterator<List<Writable>>> sources = new ArrayList<>(runFiles.size() + 1);
+        for (int i = 0; i < runFiles.size(); i++) {
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(runFiles.get(i))));
+            openStreams.add(dis);
+            sources.add(new RunIterator(dis, runSizes.get(i)));
+        }
+        sources.add(buffer.iterator());
+        return new MergeIterator(sources, comparator);
+    }
+
+    @Override
+    public void close() {
+        for (DataInputStream dis : openStreams) {
+            try {
+                dis.close();
+            } catch (IOException e) {
+                //Ignore
+            }
+        }
+        openStreams.clear();
+        for (File f : runFiles) {
+            f.delete();
+        }
+        runFiles.clear();
+        runSizes.clear();
+        buffer = new ArrayList<>();
+    }
+
+    private static class RunIterator implements Iterator<List<Writable>> {
+        private final DataInputStream in;
+        private int remaining;
+
+        private RunIterator(DataInputStream in, int size) {
+            this.in = in;
+            this.remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (remaining <= 0)
+                throw new NoSuchElementException();
+            try {
+                int n = in.readInt();
+                List<Writable> record = new ArrayList<>(n);
+                WritableFactory wf = WritableFactory.getInstance();
+                for (int i = 0; i < n; i++) {
+                    record.add(wf.readWithType(in));
+                }
+                remaining--;
+                return record;
+            } catch (IOException e) {
+                throw new IllegalStateException("Error reading sorted run", e);
+            }
+        }
+    }
+
+    private static class MergeIterator implements Iterator<List<Writable>> {
+        private final List<Iterator<List<Writable>>> sources;
+        private final PriorityQueue<Head> heap;
+
+        private MergeIterator(List<Iterator<List<Writable>>> sources, final Comparator<List<Writable>> comparator) {
+            this.sources = sources;
+            //Ties are broken by source index, so records with equal keys keep their original relative order
+            this.heap = new PriorityQueue<>(sources.size(), (a, b) -> {
+                int c = comparator.compare(a.record, b.record);
+                return c != 0 ? c : Integer.compare(a.source, b.source);
+            });
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i).hasNext()) {
+                    heap.add(new Head(sources.get(i).next(), i));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public List<Writable> next() {
+            Head h = heap.poll();
+            if (h == null)
+                throw new NoSuchElementException();
+            List<Writable> ret = h.record;
+            Iterator<List<Writable>> source = sources.get(h.source);
+            if (source.hasNext()) {
+                h.record = source.next();
+                heap.add(h);
+            }
+            return ret;
+        }
+    }
+
+    private static class Head {
+        private List<Writable> record;
+        private final int source;
+
+        private Head(List<Writable> record, int source) {
+            this.record = record;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Memory bounded execution of a {@link Join} on a single machine, without Spark.<br>
+ * If one of the inputs fits in memory, a hash join is used: a hash table is built on the smaller input and the larger
+ * input is streamed through it, so only the smaller side is ever held in memory. When the join is on a single
+ * integer, long or time column, the hash table is keyed on primitive long values, avoiding a key list per record.
+ * Integer and long key values are always compared as longs, so an integer column may be joined to a long column.<br>
+ * If neither input fits in memory, an external sort-merge join is used instead: both inputs are sorted by join key in
+ * runs of at most the maximum number of in-memory records, spilled to temporary files, then merged and joined.
+ * Note that all records for any single key are held in memory while that key is joined.
+ * <p>
+ * The memory budget is expressed as a maximum number of records per input, rather than a number of bytes.
+ * Output order is not defined. For joining data that is already fully in memory, see also
+ * {@link LocalTransformExecutor#executeJoin(Join, List, List)}, which partitions the join over a ForkJoinPool.
+ */
+public class LocalJoinExecutor {
+
+    /**
+     * Default maximum number of records per input to hold in memory
+     */
+    public static final int DEFAULT_MAX_IN_MEMORY_RECORDS = 1000000;
+
+    private LocalJoinExecutor() {}
+
+    /**
+     * Execute a hash join on the specified data. The hash table is built on the smaller of the two inputs.
+     *
+     * @param join  Join to execute
+     * @param left  Left data for join
+     * @param right Right data for join
+     * @return Joined data
+     */
+    public static List<List<Writable>> executeJoin(Join join, List<List<Writable>> left, List<List<Writable>> right) {
+        List<List<Writable>> out = new ArrayList<>();
+        if (right.size() <= left.size()) {
+            hashJoin(join, right, false, left.iterator(), out::add);
+        } else {
+            hashJoin(join, left, true, right.iterator(), out::add);
+        }
+        return out;
+    }
+
+    /**
+     * Execute a join on the data from the specified record readers, collecting the output.
+     * See {@link #executeJoin(Join, RecordReader, RecordReader, int, File, Consumer)}
+     *
+     * @param join               Join to execute
+     * @param left               Left data for join
+     * @param right              Right data for join
+     * @param maxInMemoryRecords Maximum number of records per input to hold in memory
+     * @return Joined data
+     */
+    public static List<List<Writable>> executeJoin(Join join, RecordReader left, RecordReader right,
+                    int maxInMemoryRecords) throws IOException {
+        List<List<Writable>> out = new ArrayList<>();
+        executeJoin(join, left, right, maxInMemoryRecords, null, out::add);
+        return out;
+    }
+
+    /**
+     * Execute a join on the data from the specified record readers.<br>
+     * Up to maxInMemoryRecords records are read from the right input, then (if required) the left input. If either
+     * input is exhausted within that limit, a hash join is performed on that input, streaming the other input.
+     * Otherwise, an external sort-merge join is performed, spilling sorted runs to temporary files.
+     * <p>
+     * The RecordReaders must be initialized before calling this method.
+     *
+     * @param join               Join to execute
+     * @param left               Left data for join
+     * @param right              Right data for join
+     * @param maxInMemoryRecords Maximum number of records per input to hold in memory
+     * @param tempDir            Directory for temporary files. May be null (default temporary directory)
+     * @param output             Consumer for the joined records
+     */
+    public static void executeJoin(Join join, RecordReader left, RecordReader right, int maxInMemoryRecords,
+                    File tempDir, Consumer<List<Writable>> output) throws IOException {
+        if (maxInMemoryRecords <= 0) {
+            throw new IllegalArgumentException("Maximum number of in-memory records must be positive: got "
+                            + maxInMemoryRecords);
+        }
+
+        List<List<Writable>> rightBuffer = read(right, maxInMemoryRecords);
+        if (!right.hasNext()) {
+            hashJoin(join, rightBuffer, false, new RecordReaderIterator(left), output);
+            return;
+        }
+
+        List<List<Writable>> leftBuffer = read(left, maxInMemoryRecords);
+        Iterator<List<Writable>> rightAll = new ConcatIterator(rightBuffer.iterator(), new RecordReaderIterator(right));
+        if (!left.hasNext()) {
+            hashJoin(join, leftBuffer, true, rightAll, output);
+            return;
+        }
+
+        Iterator<List<Writable>> leftAll = new ConcatIterator(leftBuffer.iterator(), new RecordReaderIterator(left));
+        sortMergeJoin(join, leftAll, rightAll, maxInMemoryRecords, tempDir, output);
+    }
+
+    private static List<List<Writable>> read(RecordReader rr, int max) {
+        List<List<Writable>> out = new ArrayList<>();
+        while (out.size() < max && rr.hasNext()) {
+            out.add(rr.next());
+        }
+        return out;
+    }
+
+    private static void hashJoin(Join join, List<List<Writable>> build, boolean buildIsLeft,
+                    Iterator<List<Writable>> probe, Consumer<List<Writable>> out) {
+        int[] leftIdxs = join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft());
+        int[] rightIdxs = join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight());
+        int[] buildIdxs = buildIsLeft ? leftIdxs : rightIdxs;
+        int[] probeIdxs = buildIsLeft ? rightIdxs : leftIdxs;
+        Schema buildSchema = buildIsLeft ? join.getLeftSchema() : join.getRightSchema();
+
+        BuildTable table = new BuildTable(buildIdxs, hasPrimitiveKey(buildSchema, buildIdxs), build.size());
+        for (List<Writable> record : build) {
+            table.add(record);
+        }
+
+        Join.JoinType type = join.getJoinType();
+        boolean keepUnmatchedBuild = type == Join.JoinType.FullOuter
+                        || type == (buildIsLeft ? Join.JoinType.LeftOuter : Join.JoinType.RightOuter);
+        boolean keepUnmatchedProbe = type == Join.JoinType.FullOuter
+                        || type == (buildIsLeft ? Join.JoinType.RightOuter : Join.JoinType.LeftOuter);
+
+        boolean[] matched = new boolean[table.groups.size()];
+        while (probe.hasNext()) {
+            List<Writable> p = probe.next();
+            int group = table.find(p, probeIdxs);
+            if (group >= 0) {
+                matched[group] = true;
+                for (List<Writable> b : table.groups.get(group)) {
+                    out.accept(buildIsLeft ? join.joinExamples(b, p) : join.joinExamples(p, b));
+                }
+            } else if (keepUnmatchedProbe) {
+                out.accept(buildIsLeft ? join.joinExamples(null, p) : join.joinExamples(p, null));
+            }
+        }
+
+        if (keepUnmatchedBuild) {
+            for (int i = 0; i < matched.length; i++) {
+                if (matched[i])
+                    continue;
+                for (List<Writable> b : table.groups.get(i)) {
+                    out.accept(buildIsLeft ? join.joinExamples(b, null) : join.joinExamples(null, b));
+                }
+            }
+        }
+    }
+
+    private static boolean hasPrimitiveKey(Schema schema, int[] keyIdxs) {
+        if (keyIdxs.length != 1)
+            return false;
+        ColumnType type = schema.getType(keyIdxs[0]);
+        switch (type) {
+            case Integer:
+            case Long:
+            case Time:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isIntegral(Writable w) {
+        return w instanceof IntWritable || w instanceof LongWritable;
+    }
+
+    /**
+     * As per {@link LocalTransformExecutor#extractKeys(List, int[])}, but with integer keys converted to long keys,
+     * so that equal values match regardless of whether they are held in an IntWritable or a LongWritable
+     */
+    private static List<Writable> joinKeys(List<Writable> record, int[] keyIdxs) {
+        List<Writable> key = new ArrayList<>(keyIdxs.length);
+        for (int idx : keyIdxs) {
+            Writable w = record.get(idx);
+            key.add(w instanceof IntWritable ? new LongWritable(w.toLong()) : w);
+        }
+        return key;
+    }
+
+    private static void sortMergeJoin(Join join, Iterator<List<Writable>> left, Iterator<List<Writable>> right,
+                    int maxInMemoryRecords, File tempDir, Consumer<List<Writable>> out) throws IOException {
+        final int[] leftIdxs = join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft());
+        final int[] rightIdxs = join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight());
+
+        try (ExternalRecordSorter leftSorter = new ExternalRecordSorter(recordOrder(leftIdxs), maxInMemoryRecords,
+                        tempDir);
+                        ExternalRecordSorter rightSorter = new ExternalRecordSorter(recordOrder(rightIdxs),
+                                        maxInMemoryRecords, tempDir)) {
+            while (left.hasNext()) {
+                leftSorter.add(left.next());
+            }
+            while (right.hasNext()) {
+                rightSorter.add(right.next());
+            }
+
+            PeekingIterator l = new PeekingIterator(leftSorter.sortedIterator());
+            PeekingIterator r = new PeekingIterator(rightSorter.sortedIterator());
+            while (l.hasNext() || r.hasNext()) {
+                List<Writable> leftKey = l.hasNext() ? joinKeys(l.peek(), leftIdxs) : null;
+                List<Writable> rightKey = r.hasNext() ? joinKeys(r.peek(), rightIdxs) : null;
+                int c;
+                if (leftKey == null) {
+                    c = 1;
+                } else if (rightKey == null) {
+                    c = -1;
+                } else {
+                    c = compareKeys(leftKey, rightKey);
+                }
+
+                List<List<Writable>> leftGroup = c <= 0 ? takeGroup(l, leftKey, leftIdxs)
+                                : Collections.<List<Writable>>emptyList();
+                List<List<Writable>> rightGroup = c >= 0 ? takeGroup(r, rightKey, rightIdxs)
+                                : Collections.<List<Writable>>emptyList();
+                LocalTransformExecutor.joinGroup(join, leftGroup, rightGroup, out);
+            }
+        }
+    }
+
+    private static List<List<Writable>> takeGroup(PeekingIterator iter, List<Writable> key, int[] keyIdxs) {
+        List<List<Writable>> group = new ArrayList<>();
+        while (iter.hasNext() && compareKeys(key, joinKeys(iter.peek(), keyIdxs)) == 0) {
+            group.add(iter.next());
+        }
+        return group;
+    }
+
+    private static Comparator<List<Writable>> recordOrder(final int[] keyIdxs) {
+        return (a, b) -> compareKeys(joinKeys(a, keyIdxs), joinKeys(b, keyIdxs));
+    }
+
+    private static int compareKeys(List<Writable> a, List<Writable> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = compareWritables(a.get(i), b.get(i));
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareWritables(Writable a, Writable b) {
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        //Different (or non-comparable) types: any consistent total order will do for grouping
+        int c = a.getClass().getName().compareTo(b.getClass().getName());
+        return c != 0 ? c : a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Hash table for the build side of a hash join, mapping each distinct key to a group of records.<br>
+     * Integer and long keys are stored in an open addressing table keyed on the long value, if the build side key is
+     * a single integer, long or time column; all other keys (including NullWritable) use a HashMap on the key list.
+     */
+    private static class BuildTable {
+        private final int[] keyIdxs;
+        private final boolean primitiveKeys;
+        private final Map<List<Writable>, Integer> keyGroups = new HashMap<>();
+        private final List<List<List<Writable>>> groups = new ArrayList<>();
+        private long[] keys;
+        private int[] values; //Group index + 1; 0 for empty slots
+        private int size;
+
+        private BuildTable(int[] keyIdxs, boolean primitiveKeys, int expectedSize) {
+            this.keyIdxs = keyIdxs;
+            this.primitiveKeys = primitiveKeys;
+            if (primitiveKeys) {
+                int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+                keys = new long[capacity];
+                values = new int[capacity];
+            }
+        }
+
+        private void add(List<Writable> record) {
+            int group;
+            Writable w = record.get(keyIdxs[0]);
+            if (primitiveKeys && isIntegral(w)) {
+                long key = w.toLong();
+                int slot = slot(key);
+                if (values[slot] == 0) {
+                    group = newGroup();
+                    keys[slot] = key;
+                    values[slot] = group + 1;
+                    if (++size * 2 > keys.length) {
+                        resize();
+                    }
+                } else {
+                    group = values[slot] - 1;
+                }
+            } else {
+                List<Writable> key = joinKeys(record, keyIdxs);
+                Integer g = keyGroups.get(key);
+                if (g == null) {
+                    group = newGroup();
+                    keyGroups.put(key, group);
+                } else {
+                    group = g;
+                }
+            }
+            groups.get(group).add(record);
+        }
+
+        /**
+         * @return Index of the group matching the key columns of the record, or -1 if no group matches
+         */
+        private int find(List<Writable> record, int[] recordKeyIdxs) {
+            Writable w = record.get(recordKeyIdxs[0]);
+            if (primitiveKeys && isIntegral(w)) {
+                return values[slot(w.toLong())] - 1;
+            }
+            Integer g = keyGroups.get(joinKeys(record, recordKeyIdxs));
+            return g == null ? -1 : g;
+        }
+
+        private int newGroup() {
+            groups.add(new ArrayList<List<Writable>>(1));
+            return groups.size() - 1;
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            long h = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h ^ (h >>> 32)) & mask;
+            while (values[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != 0) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    private static class RecordReaderIterator implements Iterator<List<Writable>> {
+        private final RecordReader rr;
+
+        private RecordReaderIterator(RecordReader rr) {
+            this.rr = rr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rr.hasNext();
+        }
+
+        @Override
+        public List<Writable> next() {
+            return rr.next();
+        }
+    }
+
+    private static class ConcatIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> first;
+        private final Iterator<List<Writable>> second;
+
+        private ConcatIterator(Iterator<List<Writable>> first, Iterator<List<Writable>> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return first.hasNext() || second.hasNext();
+        }
+
+        @Override
+        public List<Writable> next() {
+            return first.hasNext() ? first.next() : second.next();
+        }
+    }
+
+    private static class PeekingIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> iter;
+        private List<Writable> next;
+
+        private PeekingIterator(Iterator<List<Writable>> iter) {
+            this.iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null || iter.hasNext();
+        }
+
+        private List<Writable> peek() {
+            if (next == null)
+                next = iter.next();
+            return next;
+        }
+
+        @Override
+        public List<Writable> next() {
+            List<Writable> ret = peek();
+            next = null;
+            return ret;
+        }
+    }
+}
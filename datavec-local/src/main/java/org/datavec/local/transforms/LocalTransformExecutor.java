@@ -0,0 +1,568 @@
+package org.datavec.local.transforms;
+
+import org.apache.commons.math3.util.Pair;
+import org.datavec.api.transform.CompiledTransformProcess;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.ops.IAggregableReduceOp;
+import org.datavec.api.transform.rank.CalculateSortedRank;
+import org.datavec.api.transform.reduce.IAssociativeReducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.transform.sequence.ConvertToSequence;
+import org.datavec.api.transform.sequence.SequenceSplit;
+import org.datavec.api.writable.LongWritable;
+import org.datavec.api.writable.Writable;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Execute a DataVec {@link TransformProcess} on in-memory data, using all cores of a single machine.<br>
+ * This supports the same set of operations as SparkTransformExecutor: transforms, filters, ConvertToSequence,
+ * ConvertFromSequence, SequenceSplit, reductions, CalculateSortedRank and joins (via
+ * {@link #executeJoin(Join, List, List)}).
+ * <p>
+ * The input data is split into partitions, which are processed in parallel on a {@link ForkJoinPool}. As with the
+ * Spark executor, consecutive transforms and filters are fused into a single pass over each partition (see
+ * {@link CompiledTransformProcess}). Operations that group by key (ConvertToSequence, reductions, joins) use a
+ * hash-partitioned group-by: each partition is first split into buckets by key hash (combining values for reductions
+ * as it goes), and each bucket is then merged in parallel.<br>
+ * For operations that do not group by key, the order of the output is the same as the order of the input.
+ * The input lists are not modified.
+ */
+public class LocalTransformExecutor {
+
+    private LocalTransformExecutor() {}
+
+    /**
+     * Execute the specified TransformProcess with the given input data<br>
+     * Note: this method can only be used if the TransformProcess returns non-sequence data. For TransformProcesses
+     * that return a sequence, use {@link #executeToSequence(List, TransformProcess)}
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed data
+     */
+    public static List<List<Writable>> execute(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess) {
+        return execute(inputWritables, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * As per {@link #execute(List, TransformProcess)}, using the specified pool
+     */
+    public static List<List<Writable>> execute(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+
+        return collect(execute(inputWritables, null, transformProcess, pool).getFirst());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data<br>
+     * Note: this method can only be used if the TransformProcess starts with non-sequential data, but returns
+     * <i>sequence</i> data (after grouping or converting to a sequence as one of the steps)
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeToSequence(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess) {
+        return executeToSequence(inputWritables, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * As per {@link #executeToSequence(List, TransformProcess)}, using the specified pool
+     */
+    public static List<List<List<Writable>>> executeToSequence(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+
+        return collect(execute(inputWritables, null, transformProcess, pool).getSecond());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, but returns
+     * <i>non-sequential</i> data (after reducing or converting sequential data to individual examples)
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (non-sequential) data
+     */
+    public static List<List<Writable>> executeSequenceToSeparate(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess) {
+        return executeSequenceToSeparate(inputSequence, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * As per {@link #executeSequenceToSeparate(List, TransformProcess)}, using the specified pool
+     */
+    public static List<List<Writable>> executeSequenceToSeparate(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema) {
+            throw new IllegalStateException("Cannot return sequence data with this method");
+        }
+
+        return collect(execute(null, inputSequence, transformProcess, pool).getFirst());
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given <i>sequence</i> input data<br>
+     * Note: this method can only be used if the TransformProcess starts with sequence data, and also returns sequence
+     * data
+     *
+     * @param inputSequence    Input sequence data to process
+     * @param transformProcess TransformProcess to execute
+     * @return Processed (sequence) data
+     */
+    public static List<List<List<Writable>>> executeSequenceToSequence(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess) {
+        return executeSequenceToSequence(inputSequence, transformProcess, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * As per {@link #executeSequenceToSequence(List, TransformProcess)}, using the specified pool
+     */
+    public static List<List<List<Writable>>> executeSequenceToSequence(List<List<List<Writable>>> inputSequence,
+                    TransformProcess transformProcess, ForkJoinPool pool) {
+        if (!(transformProcess.getFinalSchema() instanceof SequenceSchema)) {
+            throw new IllegalStateException("Cannot return non-sequence data with this method");
+        }
+
+        return collect(execute(null, inputSequence, transformProcess, pool).getSecond());
+    }
+
+    /**
+     * Execute a join on the specified data
+     *
+     * @param join  Join to execute
+     * @param left  Left data for join
+     * @param right Right data for join
+     * @return Joined data
+     */
+    public static List<List<Writable>> executeJoin(Join join, List<List<Writable>> left,
+                    List<List<Writable>> right) {
+        return executeJoin(join, left, right, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * As per {@link #executeJoin(Join, List, List)}, using the specified pool
+     */
+    public static List<List<Writable>> executeJoin(final Join join, List<List<Writable>> left,
+                    List<List<Writable>> right, ForkJoinPool pool) {
+        final int[] leftColumnIndexes = join.getLeftSchema().getIndexOfColumns(join.getJoinColumnsLeft());
+        final int[] rightColumnIndexes = join.getRightSchema().getIndexOfColumns(join.getJoinColumnsRight());
+
+        int numPartitions = numPartitions(pool);
+        final List<Map<List<Writable>, List<List<Writable>>>> leftGroups = groupByKey(pool,
+                        partition(left, numPartitions), r -> extractKeys(r, leftColumnIndexes), numPartitions);
+        final List<Map<List<Writable>, List<List<Writable>>>> rightGroups = groupByKey(pool,
+                        partition(right, numPartitions), r -> extractKeys(r, rightColumnIndexes), numPartitions);
+
+        //Co-group each pair of (left, right) buckets; keys in different buckets never match
+        return collect(mapPartitions(pool, bucketIndices(numPartitions), b -> {
+            List<List<Writable>> out = new ArrayList<>();
+            Map<List<Writable>, List<List<Writable>>> l = leftGroups.get(b);
+            Map<List<Writable>, List<List<Writable>>> r = rightGroups.get(b);
+            for (Map.Entry<List<Writable>, List<List<Writable>>> e : l.entrySet()) {
+                List<List<Writable>> rightValues = r.get(e.getKey());
+                joinGroup(join, e.getValue(),
+                                rightValues == null ? Collections.<List<Writable>>emptyList() : rightValues, out::add);
+            }
+            for (Map.Entry<List<Writable>, List<List<Writable>>> e : r.entrySet()) {
+                if (!l.containsKey(e.getKey())) {
+                    joinGroup(join, Collections.<List<Writable>>emptyList(), e.getValue(), out::add);
+                }
+            }
+            return out;
+        }));
+    }
+
+    private static Pair<List<List<List<Writable>>>, List<List<List<List<Writable>>>>> execute(
+                    List<List<Writable>> inputWritables, List<List<List<Writable>>> inputSequence,
+                    TransformProcess sequence, ForkJoinPool pool) {
+        int numPartitions = numPartitions(pool);
+        List<List<List<Writable>>> currentWritables = null;
+        List<List<List<List<Writable>>>> currentSequence = null;
+
+        int nColumns = sequence.getInitialSchema().numColumns();
+        if (inputWritables != null) {
+            if (!inputWritables.isEmpty() && inputWritables.get(0).size() != nColumns) {
+                throw new IllegalStateException("Input data number of columns (" + inputWritables.get(0).size()
+                                + ") does not match the number of columns for the transform process (" + nColumns
+                                + ")");
+            }
+            currentWritables = partition(inputWritables, numPartitions);
+        } else {
+            if (!inputSequence.isEmpty() && !inputSequence.get(0).isEmpty()
+                            && inputSequence.get(0).get(0).size() != nColumns) {
+                throw new IllegalStateException("Input sequence data number of columns ("
+                                + inputSequence.get(0).get(0).size()
+                                + ") does not match the number of columns for the transform process (" + nColumns
+                                + ")");
+            }
+            currentSequence = partition(inputSequence, numPartitions);
+        }
+
+        List<DataAction> dataActions = sequence.getActionList();
+        for (int i = 0; i < dataActions.size(); i++) {
+            DataAction d = dataActions.get(i);
+
+            if (d.getTransform() != null || d.getFilter() != null) {
+                //Fuse all consecutive transforms and filters into a single pass over each partition
+                int end = i + 1;
+                while (end < dataActions.size() && (dataActions.get(end).getTransform() != null
+                                || dataActions.get(end).getFilter() != null)) {
+                    end++;
+                }
+                List<DataAction> stage = new ArrayList<>(dataActions.subList(i, end));
+
+                if (currentWritables != null) {
+                    final CompiledTransformProcess compiled = new CompiledTransformProcess(stage);
+                    currentWritables = mapPartitions(pool, currentWritables, compiled::executeBatch);
+                } else {
+                    final List<DataAction> sequenceStage = stage;
+                    currentSequence = mapPartitions(pool, currentSequence,
+                                    p -> executeSequenceStage(sequenceStage, p));
+                }
+                i = end - 1;
+            } else if (d.getConvertToSequence() != null) {
+                final ConvertToSequence cts = d.getConvertToSequence();
+                if (currentWritables == null)
+                    throw new IllegalStateException("Cannot execute ConvertToSequence operation: current writables "
+                                    + "are null. Data is already a sequence?");
+
+                if (cts.isSingleStepSequencesMode()) {
+                    //Edge case: create a sequence from each example, by treating each value as a sequence of length 1
+                    currentSequence = mapPartitions(pool, currentWritables, p -> {
+                        List<List<List<Writable>>> out = new ArrayList<>(p.size());
+                        for (List<Writable> l : p) {
+                            out.add(Collections.singletonList(l));
+                        }
+                        return out;
+                    });
+                } else {
+                    //Standard case: group by key, then sort each group
+                    Schema schema = cts.getInputSchema();
+                    final int[] colIdxs = schema.getIndexOfColumns(cts.getKeyColumns());
+                    List<Map<List<Writable>, List<List<Writable>>>> grouped = groupByKey(pool, currentWritables,
+                                    r -> extractKeys(r, colIdxs), numPartitions);
+
+                    currentSequence = mapPartitions(pool, grouped, g -> {
+                        List<List<List<Writable>>> out = new ArrayList<>(g.size());
+                        for (List<List<Writable>> seq : g.values()) {
+                            Collections.sort(seq, cts.getComparator());
+                            out.add(seq);
+                        }
+                        return out;
+                    });
+                }
+                currentWritables = null;
+            } else if (d.getConvertFromSequence() != null) {
+                if (currentSequence == null) {
+                    throw new IllegalStateException(
+                                    "Cannot execute ConvertFromSequence operation: current sequence is null");
+                }
+
+                currentWritables = mapPartitions(pool, currentSequence, p -> {
+                    List<List<Writable>> out = new ArrayList<>();
+                    for (List<List<Writable>> seq : p) {
+                        out.addAll(seq);
+                    }
+                    return out;
+                });
+                currentSequence = null;
+            } else if (d.getSequenceSplit() != null) {
+                final SequenceSplit sequenceSplit = d.getSequenceSplit();
+                if (currentSequence == null)
+                    throw new IllegalStateException("Error during execution of SequenceSplit: currentSequence is null");
+
+                currentSequence = mapPartitions(pool, currentSequence, p -> {
+                    List<List<List<Writable>>> out = new ArrayList<>();
+                    for (List<List<Writable>> seq : p) {
+                        out.addAll(sequenceSplit.split(seq));
+                    }
+                    return out;
+                });
+            } else if (d.getReducer() != null) {
+                final IAssociativeReducer reducer = d.getReducer();
+                if (currentWritables == null)
+                    throw new IllegalStateException("Error during execution of reduction: current writables are null. "
+                                    + "Trying to execute a reduce operation on a sequence?");
+
+                Schema schema = reducer.getInputSchema();
+                List<String> keyColumns = reducer.getKeyColumns();
+                final int[] keyIdxs = schema.getIndexOfColumns(keyColumns);
+
+                //Map-side combine: each partition is reduced by key, before the partial results are merged
+                List<Map<String, IAggregableReduceOp<List<Writable>, List<Writable>>>> reduced = combineByKey(pool,
+                                currentWritables, r -> reducerKey(r, keyIdxs), reducer::aggregableReducer,
+                                IAggregableReduceOp::accept, IAggregableReduceOp::combine, numPartitions);
+
+                currentWritables = mapPartitions(pool, reduced, g -> {
+                    List<List<Writable>> out = new ArrayList<>(g.size());
+                    for (IAggregableReduceOp<List<Writable>, List<Writable>> op : g.values()) {
+                        out.add(op.get());
+                    }
+                    return out;
+                });
+            } else if (d.getCalculateSortedRank() != null) {
+                CalculateSortedRank csr = d.getCalculateSortedRank();
+                if (currentWritables == null) {
+                    throw new IllegalStateException(
+                                    "Error during execution of CalculateSortedRank: current writables are null. "
+                                                    + "Trying to execute a CalculateSortedRank operation on a "
+                                                    + "sequence? (not currently supported)");
+                }
+
+                final int sortColumnIdx = csr.getInputSchema().getIndexOfColumn(csr.getSortOnColumn());
+                final Comparator<Writable> comparator = csr.isAscending() ? csr.getComparator()
+                                : Collections.reverseOrder(csr.getComparator());
+
+                //Parallel (stable) merge sort, executed on the pool
+                @SuppressWarnings("unchecked")
+                final List<Writable>[] all = collect(currentWritables).toArray(new List[0]);
+                pool.submit(() -> Arrays.parallelSort(all,
+                                (o1, o2) -> comparator.compare(o1.get(sortColumnIdx), o2.get(sortColumnIdx))))
+                                .join();
+
+                List<List<Writable>> ranked = new ArrayList<>(all.length);
+                for (int j = 0; j < all.length; j++) {
+                    List<Writable> l = new ArrayList<>(all[j].size() + 1);
+                    l.addAll(all[j]);
+                    l.add(new LongWritable(j));
+                    ranked.add(l);
+                }
+                currentWritables = partition(ranked, numPartitions);
+            } else {
+                throw new RuntimeException("Unknown/not implemented action: " + d);
+            }
+        }
+
+        return new Pair<>(currentWritables, currentSequence);
+    }
+
+    private static List<List<List<Writable>>> executeSequenceStage(List<DataAction> stage,
+                    List<List<List<Writable>>> partition) {
+        List<List<List<Writable>>> out = new ArrayList<>(partition.size());
+        for (List<List<Writable>> seq : partition) {
+            boolean removed = false;
+            for (DataAction d : stage) {
+                Transform t = d.getTransform();
+                if (t != null) {
+                    seq = t.mapSequence(seq);
+                } else {
+                    Filter f = d.getFilter();
+                    if (f.removeSequence(seq)) {
+                        removed = true;
+                        break;
+                    }
+                }
+            }
+            if (!removed)
+                out.add(seq);
+        }
+        return out;
+    }
+
+    static void joinGroup(Join join, List<List<Writable>> leftList, List<List<Writable>> rightList,
+                    Consumer<List<Writable>> out) {
+        switch (join.getJoinType()) {
+            case Inner:
+                //Return records where key columns appear in BOTH
+                for (List<Writable> jvl : leftList) {
+                    for (List<Writable> jvr : rightList) {
+                        out.accept(join.joinExamples(jvl, jvr));
+                    }
+                }
+                break;
+            case LeftOuter:
+                //Return all records from left, even if no corresponding right value (NullWritable in that case)
+                for (List<Writable> jvl : leftList) {
+                    if (rightList.isEmpty()) {
+                        out.accept(join.joinExamples(jvl, null));
+                    } else {
+                        for (List<Writable> jvr : rightList) {
+                            out.accept(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+            case RightOuter:
+                //Return all records from right, even if no corresponding left value (NullWritable in that case)
+                for (List<Writable> jvr : rightList) {
+                    if (leftList.isEmpty()) {
+                        out.accept(join.joinExamples(null, jvr));
+                    } else {
+                        for (List<Writable> jvl : leftList) {
+                            out.accept(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+            case FullOuter:
+                //Return all records, even if no corresponding left/right value (NullWritable in that case)
+                if (leftList.isEmpty()) {
+                    for (List<Writable> jvr : rightList) {
+                        out.accept(join.joinExamples(null, jvr));
+                    }
+                } else if (rightList.isEmpty()) {
+                    for (List<Writable> jvl : leftList) {
+                        out.accept(join.joinExamples(jvl, null));
+                    }
+                } else {
+                    for (List<Writable> jvl : leftList) {
+                        for (List<Writable> jvr : rightList) {
+                            out.accept(join.joinExamples(jvl, jvr));
+                        }
+                    }
+                }
+                break;
+        }
+    }
+
+    static List<Writable> extractKeys(List<Writable> record, int[] columnIdxs) {
+        List<Writable> key = new ArrayList<>(columnIdxs.length);
+        for (int idx : columnIdxs) {
+            key.add(record.get(idx));
+        }
+        return key;
+    }
+
+    /**
+     * Key for reductions: same as used by the Spark executor (String values of the key columns, joined with "_")
+     */
+    private static String reducerKey(List<Writable> record, int[] keyIdxs) {
+        if (keyIdxs.length == 1)
+            return record.get(keyIdxs[0]).toString();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyIdxs.length; i++) {
+            if (i > 0)
+                sb.append("_");
+            sb.append(record.get(keyIdxs[i]).toString());
+        }
+        return sb.toString();
+    }
+
+    private static List<Integer> bucketIndices(int numBuckets) {
+        List<Integer> out = new ArrayList<>(numBuckets);
+        for (int i = 0; i < numBuckets; i++) {
+            out.add(i);
+        }
+        return out;
+    }
+
+    private static int numPartitions(ForkJoinPool pool) {
+        //A few partitions per thread, for load balancing
+        return 4 * pool.getParallelism();
+    }
+
+    /**
+     * Split the data into (at most) the specified number of contiguous partitions. Partitions are views of the input.
+     */
+    private static <T> List<List<T>> partition(List<T> data, int numPartitions) {
+        int n = data.size();
+        int partitionSize = Math.max(1, (n + numPartitions - 1) / numPartitions);
+        List<List<T>> out = new ArrayList<>(numPartitions);
+        for (int start = 0; start < n; start += partitionSize) {
+            out.add(data.subList(start, Math.min(n, start + partitionSize)));
+        }
+        return out;
+    }
+
+    private static <T> List<T> collect(List<List<T>> partitions) {
+        if (partitions == null)
+            return null;
+        int size = 0;
+        for (List<T> p : partitions) {
+            size += p.size();
+        }
+        List<T> out = new ArrayList<>(size);
+        for (List<T> p : partitions) {
+            out.addAll(p);
+        }
+        return out;
+    }
+
+    /**
+     * Apply the function to each partition in parallel. The order of the partitions is retained.
+     */
+    private static <T, R> List<R> mapPartitions(ForkJoinPool pool, List<T> partitions, final Function<T, R> fn) {
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(partitions.size());
+        for (final T p : partitions) {
+            tasks.add(pool.submit(() -> fn.apply(p)));
+        }
+        List<R> out = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<R> t : tasks) {
+            out.add(t.join());
+        }
+        return out;
+    }
+
+    /**
+     * Group the values by key. Returns one map per hash bucket; within each group, values are in input order
+     */
+    private static <K, V> List<Map<K, List<V>>> groupByKey(ForkJoinPool pool, List<List<V>> partitions,
+                    Function<V, K> keyFunction, int numBuckets) {
+        return combineByKey(pool, partitions, keyFunction, ArrayList::new, List::add, List::addAll, numBuckets);
+    }
+
+    /**
+     * Hash-partitioned combine by key.<br>
+     * First, each partition is (in parallel) split into numBuckets buckets by the hash of the key, with the values
+     * for each key combined into a single accumulator. Then, for each bucket (in parallel), the accumulators from
+     * all partitions are merged.
+     */
+    private static <K, V, C> List<Map<K, C>> combineByKey(ForkJoinPool pool, List<List<V>> partitions,
+                    final Function<V, K> keyFunction, final Supplier<C> createAccumulator,
+                    final BiConsumer<C, V> addToAccumulator, final BiConsumer<C, C> mergeAccumulators,
+                    final int numBuckets) {
+        final List<List<Map<K, C>>> bucketed = mapPartitions(pool, partitions, p -> {
+            List<Map<K, C>> buckets = new ArrayList<>(numBuckets);
+            for (int i = 0; i < numBuckets; i++) {
+                buckets.add(new LinkedHashMap<K, C>());
+            }
+            for (V v : p) {
+                K key = keyFunction.apply(v);
+                Map<K, C> bucket = buckets.get(Math.floorMod(key.hashCode(), numBuckets));
+                C acc = bucket.get(key);
+                if (acc == null) {
+                    acc = createAccumulator.get();
+                    bucket.put(key, acc);
+                }
+                addToAccumulator.accept(acc, v);
+            }
+            return buckets;
+        });
+
+        return mapPartitions(pool, bucketIndices(numBuckets), b -> {
+            Map<K, C> merged = new LinkedHashMap<>();
+            for (List<Map<K, C>> partitionBuckets : bucketed) {
+                for (Map.Entry<K, C> e : partitionBuckets.get(b).entrySet()) {
+                    C acc = merged.get(e.getKey());
+                    if (acc == null) {
+                        merged.put(e.getKey(), e.getValue());
+                    } else {
+                        mergeAccumulators.accept(acc, e.getValue());
+                    }
+                }
+            }
+            return merged;
+        });
+    }
+}
@@ -67,7 +67,7 @@ public class TableRecords {
         Table ret = table.fullCopy();
         for (DataAction dataAction : dataActions) {
             if (dataAction.getTransform() != null) {
-                ret = transformTable(table, dataAction.getTransform());
+                ret = transformTable(ret, dataAction.getTransform());
             } else if (dataAction.getFilter() != null) {
                 ret = filterTable(ret, dataAction.getFilter());
             } else if (dataAction.getCalculateSortedRank() != null) {
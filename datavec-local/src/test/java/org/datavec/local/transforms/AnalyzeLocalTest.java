@@ -0,0 +1,78 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.columns.CategoricalAnalysis;
+import org.datavec.api.transform.analysis.columns.DoubleAnalysis;
+import org.datavec.api.transform.analysis.columns.IntegerAnalysis;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
+import org.datavec.api.transform.quality.columns.ColumnQuality;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalyzeLocalTest {
+
+    @Test
+    public void testAnalyze() {
+        Schema schema = new Schema.Builder().addColumnInteger("intCol").addColumnDouble("doubleCol")
+                        .addColumnCategorical("catCol", "A", "B").build();
+
+        List<List<Writable>> data = new ArrayList<>();
+        double sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            double d = i / 10.0;
+            sum += d;
+            data.add(Arrays.<Writable>asList(new IntWritable(i % 100), new DoubleWritable(d),
+                            new Text(i % 4 == 0 ? "A" : "B")));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DataAnalysis da = AnalyzeLocal.analyze(schema, new CollectionRecordReader(data), 10, pool, 7);
+
+            IntegerAnalysis ia = (IntegerAnalysis) da.getColumnAnalysis().get(0);
+            assertEquals(0, ia.getMin());
+            assertEquals(99, ia.getMax());
+            assertEquals(1000, ia.getCountTotal());
+            assertEquals(10, ia.getCountZero());
+            assertEquals(49.5, ia.getMean(), 1e-9);
+            long[] intCounts = ia.getHistogramBucketCounts();
+            assertEquals(10, intCounts.length);
+            for (long l : intCounts) {
+                assertEquals(100, l);
+            }
+
+            DoubleAnalysis dba = (DoubleAnalysis) da.getColumnAnalysis().get(1);
+            assertEquals(0.0, dba.getMin(), 0.0);
+            assertEquals(99.9, dba.getMax(), 1e-9);
+            assertEquals(sum / 1000, dba.getMean(), 1e-9);
+            assertEquals(1000, dba.getCountTotal());
+
+            CategoricalAnalysis ca = (CategoricalAnalysis) da.getColumnAnalysis().get(2);
+            assertEquals(250L, (long) ca.getMapOfCounts().get("A"));
+            assertEquals(750L, (long) ca.getMapOfCounts().get("B"));
+
+            data.add(Arrays.<Writable>asList(new Text("notAnInt"), new DoubleWritable(0.0), new Text("C")));
+            DataQualityAnalysis dqa = AnalyzeLocal.analyzeQuality(schema, new CollectionRecordReader(data), pool, 7);
+            ColumnQuality intQuality = dqa.getColumnQualityList().get(0);
+            assertEquals(1001, intQuality.getCountTotal());
+            assertEquals(1000, intQuality.getCountValid());
+            assertEquals(1, intQuality.getCountInvalid());
+            ColumnQuality catQuality = dqa.getColumnQualityList().get(2);
+            assertEquals(1, catQuality.getCountInvalid());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.records.reader.impl.collection.CollectionRecordReader;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LocalJoinExecutorTest {
+
+    @Test
+    public void testJoinStrategies() throws Exception {
+        Schema leftSchema = new Schema.Builder().addColumnLong("key").addColumnString("name").build();
+        Schema rightSchema = new Schema.Builder().addColumnDouble("amount").addColumnLong("key").build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> left = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Writable key = i % 50 == 0 ? NullWritable.INSTANCE : new LongWritable(r.nextInt(100));
+            left.add(Arrays.<Writable>asList(key, new Text("name" + i)));
+        }
+        List<List<Writable>> right = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Writable key = i % 40 == 0 ? NullWritable.INSTANCE : new LongWritable(50 + r.nextInt(100));
+            right.add(Arrays.<Writable>asList(new DoubleWritable(i), key));
+        }
+
+        for (Join.JoinType type : Join.JoinType.values()) {
+            Join join = new Join.Builder(type).setJoinColumns("key").setSchemas(leftSchema, rightSchema).build();
+            List<List<Writable>> expected = sorted(LocalTransformExecutor.executeJoin(join, left, right));
+
+            //Hash table built on the right, then on the (smaller) left
+            assertEquals(type.toString(), expected, sorted(LocalJoinExecutor.executeJoin(join, left, right)));
+            List<List<Writable>> smallLeft = left.subList(0, 20);
+            assertEquals(type.toString(), sorted(LocalTransformExecutor.executeJoin(join, smallLeft, right)),
+                            sorted(LocalJoinExecutor.executeJoin(join, smallLeft, right)));
+
+            //Hash join on the right, then on the left, then external sort-merge join
+            for (int maxInMemory : new int[] {1000, 175, 16}) {
+                List<List<Writable>> out = LocalJoinExecutor.executeJoin(join, new CollectionRecordReader(left),
+                                new CollectionRecordReader(right), maxInMemory);
+                assertEquals(type + " - " + maxInMemory, expected, sorted(out));
+            }
+        }
+    }
+
+    @Test
+    public void testJoinIntegerAndLongKeys() throws Exception {
+        Schema intSchema = new Schema.Builder().addColumnInteger("key").addColumnString("name").build();
+        Schema longSchema = new Schema.Builder().addColumnDouble("amount").addColumnLong("key").build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> ints = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ints.add(Arrays.<Writable>asList(new IntWritable(r.nextInt(100)), new Text("name" + i)));
+        }
+        List<List<Writable>> longs = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            longs.add(Arrays.<Writable>asList(new DoubleWritable(i), new LongWritable(50 + r.nextInt(100))));
+        }
+
+        for (Join.JoinType type : Join.JoinType.values()) {
+            Join join = new Join.Builder(type).setJoinColumns("key").setSchemas(intSchema, longSchema).build();
+            List<List<Writable>> expected = sorted(LocalTransformExecutor.executeJoin(join, ints, longs));
+            if (type == Join.JoinType.Inner) {
+                assertTrue(expected.size() > 0);
+            }
+
+            //Hash table built on the long keys, then on the int keys, then external sort-merge join
+            assertEquals(type.toString(), expected, sorted(LocalJoinExecutor.executeJoin(join, ints, longs)));
+            for (int maxInMemory : new int[] {1000, 175, 16}) {
+                List<List<Writable>> out = LocalJoinExecutor.executeJoin(join, new CollectionRecordReader(ints),
+                                new CollectionRecordReader(longs), maxInMemory);
+                assertEquals(type + " - " + maxInMemory, expected, sorted(out));
+            }
+        }
+
+        //Negative values: integer and long keys must still match
+        Join join = new Join.Builder(Join.JoinType.Inner).setJoinColumns("key").setSchemas(intSchema, longSchema)
+                        .build();
+        List<List<Writable>> left = Arrays.asList(Arrays.<Writable>asList(new IntWritable(-3), new Text("a")),
+                        Arrays.<Writable>asList(new IntWritable(-1), new Text("b")));
+        List<List<Writable>> right = Arrays.asList(
+                        Arrays.<Writable>asList(new DoubleWritable(1.0), new LongWritable(-3)),
+                        Arrays.<Writable>asList(new DoubleWritable(2.0), new LongWritable(-2)));
+        assertEquals(1, LocalJoinExecutor.executeJoin(join, left, right).size());
+        assertEquals(1, LocalJoinExecutor.executeJoin(join, new CollectionRecordReader(left),
+                        new CollectionRecordReader(right), 1).size());
+    }
+
+    private static List<List<Writable>> sorted(List<List<Writable>> list) {
+        List<List<Writable>> out = new ArrayList<>(list);
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        });
+        return out;
+    }
+}
@@ -0,0 +1,156 @@
+package org.datavec.local.transforms;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.sequence.comparator.NumericalColumnComparator;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.comparator.LongWritableComparator;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalTransformExecutorTest {
+
+    @Test
+    public void testExecutionTransformsAndFilters() {
+        Schema schema = new Schema.Builder().addColumnInteger("col0")
+                        .addColumnCategorical("col1", "state0", "state1", "state2").addColumnDouble("col2").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .filter(new ConditionFilter(new IntegerColumnCondition("col0", ConditionOp.Equal, 1)))
+                        .doubleMathOp("col2", MathOp.Add, 10.0).build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        List<List<Writable>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputData.add(Arrays.<Writable>asList(new IntWritable(i), new Text("state" + (i % 3)),
+                            new DoubleWritable(i + 0.5)));
+            if (i != 1) {
+                expected.add(Arrays.<Writable>asList(new IntWritable(i), new IntWritable(i % 3),
+                                new DoubleWritable(i + 10.5)));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            //Order should be retained
+            assertEquals(expected, LocalTransformExecutor.execute(inputData, tp, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testConvertToSequenceAndReduce() {
+        Schema schema = new Schema.Builder().addColumnString("key").addColumnLong("time").addColumnDouble("value")
+                        .build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            inputData.add(Arrays.<Writable>asList(new Text("key" + (i % 5)), new LongWritable(100 - i),
+                            new DoubleWritable(i)));
+        }
+
+        TransformProcess toSeq = new TransformProcess.Builder(schema)
+                        .convertToSequence("key", new NumericalColumnComparator("time", true)).build();
+        List<List<List<Writable>>> sequences = LocalTransformExecutor.executeToSequence(inputData, toSeq);
+        assertEquals(5, sequences.size());
+        for (List<List<Writable>> seq : sequences) {
+            assertEquals(10, seq.size());
+            String key = seq.get(0).get(0).toString();
+            for (int i = 0; i < seq.size(); i++) {
+                assertEquals(key, seq.get(i).get(0).toString());
+                if (i > 0)
+                    assertEquals(true, seq.get(i).get(1).toLong() > seq.get(i - 1).get(1).toLong());
+            }
+        }
+
+        TransformProcess reduce = new TransformProcess.Builder(schema).reduce(new Reducer.Builder(ReduceOp.Sum)
+                        .keyColumns("key").takeFirstColumns("time").build()).build();
+        List<List<Writable>> reduced = LocalTransformExecutor.execute(inputData, reduce);
+        assertEquals(5, reduced.size());
+        Map<String, Double> sums = new HashMap<>();
+        for (List<Writable> l : reduced) {
+            sums.put(l.get(0).toString(), l.get(2).toDouble());
+        }
+        for (int k = 0; k < 5; k++) {
+            //Sum of k, k+5, ..., k+45
+            assertEquals(10 * k + 225.0, sums.get("key" + k), 1e-9);
+        }
+    }
+
+    @Test
+    public void testSortedRank() {
+        Schema schema = new Schema.Builder().addColumnString("str").addColumnLong("value").build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        inputData.add(Arrays.<Writable>asList(new Text("a"), new LongWritable(30)));
+        inputData.add(Arrays.<Writable>asList(new Text("b"), new LongWritable(10)));
+        inputData.add(Arrays.<Writable>asList(new Text("c"), new LongWritable(20)));
+
+        TransformProcess tp = new TransformProcess.Builder(schema)
+                        .calculateSortedRank("rank", "value", new LongWritableComparator(), false).build();
+
+        List<List<Writable>> out = LocalTransformExecutor.execute(inputData, tp);
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new Text("a"), new LongWritable(30), new LongWritable(0)));
+        expected.add(Arrays.<Writable>asList(new Text("c"), new LongWritable(20), new LongWritable(1)));
+        expected.add(Arrays.<Writable>asList(new Text("b"), new LongWritable(10), new LongWritable(2)));
+        assertEquals(expected, out);
+    }
+
+    @Test
+    public void testJoin() {
+        Schema customerInfoSchema =
+                        new Schema.Builder().addColumnLong("customerID").addColumnString("customerName").build();
+        Schema purchasesSchema = new Schema.Builder().addColumnLong("purchaseID").addColumnLong("customerID")
+                        .addColumnDouble("amount").build();
+
+        List<List<Writable>> infoList = new ArrayList<>();
+        infoList.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345")));
+        infoList.add(Arrays.<Writable>asList(new LongWritable(98765), new Text("Customer98765")));
+        infoList.add(Arrays.<Writable>asList(new LongWritable(50000), new Text("Customer50000")));
+
+        List<List<Writable>> purchaseList = new ArrayList<>();
+        purchaseList.add(Arrays.<Writable>asList(new LongWritable(1000000), new LongWritable(12345),
+                        new DoubleWritable(10.00)));
+        purchaseList.add(Arrays.<Writable>asList(new LongWritable(1000001), new LongWritable(12345),
+                        new DoubleWritable(20.00)));
+        purchaseList.add(Arrays.<Writable>asList(new LongWritable(1000002), new LongWritable(11111),
+                        new DoubleWritable(30.00)));
+
+        Join join = new Join.Builder(Join.JoinType.FullOuter).setJoinColumns("customerID")
+                        .setSchemas(customerInfoSchema, purchasesSchema).build();
+
+        List<List<Writable>> joined = new ArrayList<>(LocalTransformExecutor.executeJoin(join, infoList, purchaseList));
+        Collections.sort(joined, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.toString().compareTo(o2.toString());
+            }
+        });
+
+        List<List<Writable>> expected = new ArrayList<>();
+        expected.add(Arrays.<Writable>asList(new LongWritable(11111), NullWritable.INSTANCE,
+                        new LongWritable(1000002), new DoubleWritable(30.00)));
+        expected.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345"),
+                        new LongWritable(1000000), new DoubleWritable(10.00)));
+        expected.add(Arrays.<Writable>asList(new LongWritable(12345), new Text("Customer12345"),
+                        new LongWritable(1000001), new DoubleWritable(20.00)));
+        expected.add(Arrays.<Writable>asList(new LongWritable(50000), new Text("Customer50000"),
+                        NullWritable.INSTANCE, NullWritable.INSTANCE));
+        expected.add(Arrays.<Writable>asList(new LongWritable(98765), new Text("Customer98765"),
+                        NullWritable.INSTANCE, NullWritable.INSTANCE));
+        assertEquals(expected, joined);
+    }
+}
@@ -7,11 +7,17 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.datavec.api.transform.TransformProcess;
 import org.datavec.image.transform.ImageTransformProcess;
+import org.datavec.spark.transform.BinaryTransformProtocol;
 import org.datavec.spark.transform.model.*;
 import org.datavec.spark.transform.service.DataVecTransformService;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.shade.jackson.core.JsonProcessingException;
 
-import java.io.IOException;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
 
 /**
  * Created by agibsonccc on 6/12/17.
@@ -259,4 +265,98 @@ public class DataVecTransformClient implements DataVecTransformService {
         }
         return null;
     }
+
+    /**
+     * Transform a batch via the binary endpoint:
+     * records are sent as length prefixed rows,
+     * and the result is returned as raw array bytes
+     * (see {@link BinaryTransformProtocol})
+     * @param batchCSVRecord the records to transform
+     * @return the transformed records as a matrix,
+     * or null if all records were filtered
+     * @throws IOException
+     */
+    public INDArray transformArrayBinary(BatchCSVRecord batchCSVRecord) throws IOException {
+        return stack(transformArrayBinary(batchCSVRecord, 0));
+    }
+
+    /**
+     * Transform a batch via the binary endpoint,
+     * with the output streamed in frames of at most
+     * chunkSize rows each
+     * @param batchCSVRecord the records to transform
+     * @param chunkSize the maximum number of rows per frame (0 for a single frame)
+     * @return the output frames, in order
+     * @throws IOException
+     */
+    public List<INDArray> transformArrayBinary(final BatchCSVRecord batchCSVRecord, int chunkSize)
+            throws IOException {
+        return postBinary(BinaryTransformProtocol.ROWS_ARRAY_ENDPOINT, chunkSize, new BodyWriter() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                BinaryTransformProtocol.writeRows(batchCSVRecord, out);
+            }
+        });
+    }
+
+    /**
+     * Transform raw CSV (one record per line, UTF-8)
+     * via the binary endpoint. The request body is streamed
+     * from the input, and the output is streamed in frames of
+     * at most chunkSize rows each
+     * @param csv the raw csv to transform
+     * @param chunkSize the maximum number of rows per frame (0 for a single frame)
+     * @return the output frames, in order
+     * @throws IOException
+     */
+    public List<INDArray> transformCsvArray(final InputStream csv, int chunkSize) throws IOException {
+        return postBinary(BinaryTransformProtocol.CSV_ARRAY_ENDPOINT, chunkSize, new BodyWriter() {
+            @Override
+            public void write(OutputStream out) throws IOException {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = csv.read(buffer)) != -1)
+                    out.write(buffer, 0, read);
+            }
+        });
+    }
+
+    private List<INDArray> postBinary(String endpoint, int chunkSize, BodyWriter bodyWriter) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + endpoint).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            //Stream the request body instead of buffering it in memory
+            connection.setChunkedStreamingMode(0);
+            connection.setRequestProperty("Content-Type", BinaryTransformProtocol.CONTENT_TYPE);
+            connection.setRequestProperty("accept", BinaryTransformProtocol.CONTENT_TYPE);
+            connection.setRequestProperty(BinaryTransformProtocol.CHUNK_SIZE_HEADER, String.valueOf(chunkSize));
+
+            try (OutputStream out = new BufferedOutputStream(connection.getOutputStream())) {
+                bodyWriter.write(out);
+            }
+
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK)
+                throw new IOException("Error in " + endpoint + ": server returned status " + status);
+
+            try (InputStream in = connection.getInputStream()) {
+                return BinaryTransformProtocol.readArrays(in);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static INDArray stack(List<INDArray> arrays) {
+        if (arrays.isEmpty())
+            return null;
+        if (arrays.size() == 1)
+            return arrays.get(0);
+        return Nd4j.vstack(arrays);
+    }
+
+    private interface BodyWriter {
+        void write(OutputStream out) throws IOException;
+    }
 }
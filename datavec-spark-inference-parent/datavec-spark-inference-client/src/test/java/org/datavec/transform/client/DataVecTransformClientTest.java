@@ -13,17 +13,22 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeNotNull;
 
 /**
@@ -104,7 +109,58 @@ public class DataVecTransformClientTest {
         assumeNotNull(arr);
     }
 
+    @Test
+    public void testBatchRecordBinary() throws Exception {
+        List<SingleCSVRecord> records = new ArrayList<>();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            records.add(new SingleCSVRecord(new String[] {String.valueOf(i), "0"}));
+            csv.append(i).append(",0\n");
+        }
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord(records);
+        INDArray expected = Nd4jBase64.fromBase64(client.transformArray(batchCSVRecord).getNdarray());
+
+        INDArray arr = client.transformArrayBinary(batchCSVRecord);
+        assertEquals(expected, arr);
+
+        List<INDArray> chunks = client.transformCsvArray(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), 2);
+        assertEquals(3, chunks.size());
+        assertEquals(expected, Nd4j.vstack(chunks));
+    }
+
+
+
+    @Test
+    public void testBatchRecordBinaryErrors() throws Exception {
+        //Invalid requests are rejected before the response starts
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord(
+                Arrays.asList(new SingleCSVRecord(new String[] {"0", "0"})));
+        try {
+            client.transformArrayBinary(batchCSVRecord, -1);
+            fail("Expected IOException for invalid chunk size");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("400"));
+        }
+
+        //A failure after the first frames must surface as an error, not as a short or empty result
+        String csv = "0,0\n1,0\nnot a number,0\n";
+        try {
+            client.transformCsvArray(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 1);
+            fail("Expected IOException for error frame");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("error id"));
+        }
 
+        List<SingleCSVRecord> records = new ArrayList<>();
+        records.add(new SingleCSVRecord(new String[] {"not a number", "0"}));
+        try {
+            client.transformArrayBinary(new BatchCSVRecord(records));
+            fail("Expected IOException for error frame");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("error id"));
+        }
+    }
 
     public static int getAvailablePort() {
         try {
@@ -0,0 +1,351 @@
+package org.datavec.spark.transform;
+
+import org.datavec.api.records.reader.impl.csv.SerializableCSVParser;
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary wire format for the transform server,
+ * as an alternative to JSON + base64.
+ * <p>
+ * Input records are sent either as raw CSV text
+ * (one record per line, UTF-8) or as length prefixed rows:
+ * for each row, the number of values (int32), followed by
+ * each value as a byte length (int32) and UTF-8 bytes.
+ * <p>
+ * Output arrays are sent as one or more frames.
+ * Each frame is: rank (int32), the shape (int32 per dimension),
+ * the number of bytes per element (int32: 4 for float, 8 for double),
+ * followed by the values in c (row major) order.
+ * A large batch may be split in to several frames
+ * (see {@link #CHUNK_SIZE_HEADER}), each holding
+ * a consecutive block of rows, so that the response
+ * can be streamed.
+ * <p>
+ * If the transform fails after the response has started,
+ * the server ends the stream with an error frame instead:
+ * {@link #ERROR_FRAME} in place of the rank, followed by
+ * the byte length (int32) and UTF-8 bytes of the error message.
+ * Readers throw an IOException when they reach an error frame,
+ * so that a failed transform is never mistaken for an empty result.
+ * <p>
+ * Lengths and shapes are read from the stream, so they are validated
+ * (see {@link #MAX_FRAME_SIZE}) and buffers grow as the bytes
+ * arrive rather than being allocated up front.
+ * <p>
+ * All integers and values are little endian.
+ */
+public class BinaryTransformProtocol {
+    public static final String CONTENT_TYPE = "application/octet-stream";
+    /**
+     * Request header: maximum number of rows per output frame. 0 or absent: a single frame
+     */
+    public static final String CHUNK_SIZE_HEADER = "Chunk-Size";
+    public static final String CSV_ARRAY_ENDPOINT = "/transformcsvarray";
+    public static final String ROWS_ARRAY_ENDPOINT = "/transformrowsarray";
+    /**
+     * Marker written in place of the rank for an error frame
+     */
+    public static final int ERROR_FRAME = -1;
+    /**
+     * Maximum number of bytes of a single value, error message or array frame
+     */
+    public static final int MAX_FRAME_SIZE = 1 << 30;
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private BinaryTransformProtocol() {}
+
+    /**
+     * Write the records of the batch as length prefixed rows
+     * @param batch the records to write
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public static void writeRows(BatchCSVRecord batch, OutputStream out) throws IOException {
+        for (SingleCSVRecord record : batch.getRecords())
+            writeRow(record.getValues(), out);
+    }
+
+    /**
+     * Write a single length prefixed row
+     * @param values the values of the row
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public static void writeRow(List<String> values, OutputStream out) throws IOException {
+        byte[][] bytes = new byte[values.size()][];
+        int length = 4;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+            length += 4 + bytes[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(bytes.length);
+        for (byte[] b : bytes) {
+            buffer.putInt(b.length);
+            buffer.put(b);
+        }
+        out.write(buffer.array());
+    }
+
+    /**
+     * Lazily read length prefixed rows
+     * until the end of the stream
+     * @param in the stream to read from
+     * @return an iterator over the rows
+     */
+    public static Iterator<List<String>> readRows(InputStream in) {
+        return readRows(in, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lazily read length prefixed rows
+     * until the end of the stream
+     * @param in the stream to read from
+     * @param maxValues the maximum number of values per row
+     *                  (for example, the number of columns of the schema)
+     * @return an iterator over the rows
+     */
+    public static Iterator<List<String>> readRows(InputStream in, final int maxValues) {
+        final DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+        return new RowIterator() {
+            private final byte[] intBytes = new byte[4];
+
+            @Override
+            protected List<String> readNext() throws IOException {
+                int first = dis.read();
+                if (first < 0)
+                    return null;
+                intBytes[0] = (byte) first;
+                dis.readFully(intBytes, 1, 3);
+                int numValues = toInt(intBytes);
+                if (numValues < 0 || numValues > maxValues)
+                    throw new IOException("Invalid row: number of values " + numValues
+                                    + " is not between 0 and " + maxValues);
+
+                List<String> values = new ArrayList<>(Math.min(numValues, 64));
+                for (int i = 0; i < numValues; i++) {
+                    dis.readFully(intBytes);
+                    byte[] b = readBytes(dis, checkLength(toInt(intBytes), "value"));
+                    values.add(new String(b, StandardCharsets.UTF_8));
+                }
+                return values;
+            }
+        };
+    }
+
+    /**
+     * Lazily read CSV records (one per line, UTF-8)
+     * until the end of the stream. Empty lines are skipped.
+     * @param in the stream to read from
+     * @return an iterator over the rows
+     */
+    public static Iterator<List<String>> readCsvRows(InputStream in) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final SerializableCSVParser parser = new SerializableCSVParser();
+        return new RowIterator() {
+            @Override
+            protected List<String> readNext() throws IOException {
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line == null)
+                        return null;
+                } while (line.isEmpty());
+                return Arrays.asList(parser.parseLine(line));
+            }
+        };
+    }
+
+    /**
+     * Write an array as a single frame
+     * @param arr the array to write
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public static void writeArray(INDArray arr, OutputStream out) throws IOException {
+        int[] shape = arr.shape();
+        boolean isDouble = arr.data().dataType() == DataBuffer.Type.DOUBLE;
+        int elementSize = isDouble ? 8 : 4;
+
+        ByteBuffer header = ByteBuffer.allocate(4 * (shape.length + 2)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(shape.length);
+        for (int i : shape)
+            header.putInt(i);
+        header.putInt(elementSize);
+        out.write(header.array());
+
+        //Views and f order arrays: copy to a contiguous c order buffer first
+        INDArray c = arr.isView() || arr.ordering() != 'c' ? arr.dup('c') : arr;
+        int length = c.length();
+        ByteBuffer data = ByteBuffer.allocate(length * elementSize).order(ByteOrder.LITTLE_ENDIAN);
+        if (isDouble) {
+            data.asDoubleBuffer().put(c.data().asDouble(), 0, length);
+        } else {
+            data.asFloatBuffer().put(c.data().asFloat(), 0, length);
+        }
+        out.write(data.array());
+    }
+
+    /**
+     * Write an error frame, terminating the output
+     * @param message the error message (may be null)
+     * @param out the stream to write to
+     * @throws IOException
+     */
+    public static void writeError(String message, OutputStream out) throws IOException {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(ERROR_FRAME);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        out.write(buffer.array());
+    }
+
+    /**
+     * Read a single frame
+     * @param in the stream to read from
+     * @return the array, or null if the end of the stream was reached
+     * @throws IOException if the frame is invalid, or is an error frame
+     */
+    public static INDArray readArray(InputStream in) throws IOException {
+        DataInputStream dis = in instanceof DataInputStream ? (DataInputStream) in : new DataInputStream(in);
+        byte[] intBytes = new byte[4];
+        int first = dis.read();
+        if (first < 0)
+            return null;
+        intBytes[0] = (byte) first;
+        dis.readFully(intBytes, 1, 3);
+        int rank = toInt(intBytes);
+        if (rank == ERROR_FRAME) {
+            dis.readFully(intBytes);
+            byte[] message = readBytes(dis, checkLength(toInt(intBytes), "error message"));
+            throw new IOException("Transform failed on server: " + new String(message, StandardCharsets.UTF_8));
+        }
+        if (rank < 0)
+            throw new IOException("Invalid array frame: negative rank " + rank);
+
+        int[] shape = new int[rank];
+        //Each step is at most MAX_FRAME_SIZE * Integer.MAX_VALUE, so the long product can't overflow
+        long length = 1;
+        for (int i = 0; i < rank; i++) {
+            dis.readFully(intBytes);
+            shape[i] = toInt(intBytes);
+            if (shape[i] < 0)
+                throw new IOException("Invalid array frame: negative dimension " + shape[i]);
+            length *= shape[i];
+            if (length > MAX_FRAME_SIZE)
+                throw new IOException("Invalid array frame: shape " + Arrays.toString(Arrays.copyOf(shape, i + 1))
+                                + " exceeds the maximum frame size of " + MAX_FRAME_SIZE + " bytes");
+        }
+        dis.readFully(intBytes);
+        int elementSize = toInt(intBytes);
+        if (elementSize != 4 && elementSize != 8)
+            throw new IOException("Invalid array frame: unsupported element size " + elementSize);
+
+        byte[] bytes = readBytes(dis, checkLength(length * elementSize, "array"));
+        ByteBuffer data = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (elementSize == 8) {
+            double[] values = new double[bytes.length / 8];
+            data.asDoubleBuffer().get(values);
+            return Nd4j.create(values, shape, 'c');
+        } else {
+            float[] values = new float[bytes.length / 4];
+            data.asFloatBuffer().get(values);
+            return Nd4j.create(values, shape, 'c');
+        }
+    }
+
+    /**
+     * Read all frames until the end of the stream
+     * @param in the stream to read from
+     * @return the arrays, in order
+     * @throws IOException if a frame is invalid, or the server sent an error frame
+     */
+    public static List<INDArray> readArrays(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+        List<INDArray> ret = new ArrayList<>();
+        INDArray arr;
+        while ((arr = readArray(dis)) != null)
+            ret.add(arr);
+        return ret;
+    }
+
+    private static int checkLength(long length, String what) throws IOException {
+        if (length < 0 || length > MAX_FRAME_SIZE)
+            throw new IOException("Invalid " + what + " length " + length + ": must be between 0 and "
+                            + MAX_FRAME_SIZE + " bytes");
+        return (int) length;
+    }
+
+    /**
+     * Read exactly length bytes, growing the buffer as the bytes arrive,
+     * so that a bad length fails at the end of the stream instead of
+     * allocating a buffer of that size up front
+     */
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        byte[] b = new byte[Math.min(length, READ_BUFFER_SIZE)];
+        int n = 0;
+        while (n < length) {
+            if (n == b.length)
+                b = Arrays.copyOf(b, (int) Math.min(length, 2L * b.length));
+            int read = in.read(b, n, b.length - n);
+            if (read < 0)
+                throw new EOFException("Expected " + length + " bytes, got " + n);
+            n += read;
+        }
+        return b;
+    }
+
+    private static int toInt(byte[] b) {
+        return (b[0] & 0xFF) | (b[1] & 0xFF) << 8 | (b[2] & 0xFF) << 16 | (b[3] & 0xFF) << 24;
+    }
+
+    private abstract static class RowIterator implements Iterator<List<String>> {
+        private List<String> next;
+        private boolean done;
+
+        protected abstract List<String> readNext() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<String> ret = next;
+            next = null;
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
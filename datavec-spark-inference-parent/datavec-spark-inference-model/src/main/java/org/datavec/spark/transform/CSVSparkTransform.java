@@ -1,9 +1,14 @@
 package org.datavec.spark.transform;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.datavec.api.records.impl.Record;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.CompiledTransformProcess;
+import org.datavec.api.transform.DataAction;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.columnar.ColumnarBatch;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.Writable;
 import org.datavec.spark.transform.model.Base64NDArrayBody;
@@ -15,21 +20,58 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * CSVSpark Transform runs
  * the actual {@link TransformProcess}
  *
+ * Batches are executed in columnar form where possible: the raw
+ * strings are parsed directly into a {@link ColumnarBatch}, the
+ * {@link CompiledTransformProcess} is run over the whole batch,
+ * and the output is copied straight into the result array
+ *
  * @author Adan Gibson
  */
-@AllArgsConstructor
-
+@Slf4j
 public class CSVSparkTransform {
     @Getter
     private TransformProcess transformProcess;
+    private CompiledTransformProcess compiled;
+
+    public CSVSparkTransform(TransformProcess transformProcess) {
+        this.transformProcess = transformProcess;
+        this.compiled = compileColumnar(transformProcess);
+    }
+
+    /**
+     * Compile the transform process for columnar
+     * batch execution, if it can be executed on batches:
+     * it may only contain transforms and filters, and
+     * raw time values are parsed differently by the columnar
+     * parser and transformRawStringsToInputList, so
+     * time input columns are not supported
+     * @param transformProcess the transform process to compile
+     * @return the compiled transform process, or null if
+     * batches should be transformed one record at a time
+     */
+    private static CompiledTransformProcess compileColumnar(TransformProcess transformProcess) {
+        if (transformProcess.getInitialSchema().getColumnTypes().contains(ColumnType.Time)) {
+            log.info("Transform process has time input columns: batches are transformed one record at a time");
+            return null;
+        }
+        for (DataAction d : transformProcess.getActionList()) {
+            if (d.getTransform() == null && d.getFilter() == null) {
+                log.info("Transform process contains {}: batches are transformed one record at a time", d);
+                return null;
+            }
+        }
+        return transformProcess.compile();
+    }
 
     /**
      * Convert a raw record via
@@ -40,6 +82,22 @@ public class CSVSparkTransform {
      * @throws IOException
      */
     public Base64NDArrayBody toArray(BatchCSVRecord batch) throws IOException {
+        return new Base64NDArrayBody(Nd4jBase64.base64String(toMatrix(batch)));
+    }
+
+    /**
+     * Convert a batch of raw records via
+     * the {@link TransformProcess}
+     * to a matrix, with one row per (non filtered) record
+     * @param batch the records to convert
+     * @return the matrix
+     */
+    public INDArray toMatrix(BatchCSVRecord batch) {
+        ColumnarBatch columnar = executeColumnar(batch);
+        if (columnar != null) {
+            return RecordConverter.toMatrix(columnar);
+        }
+
         List<List<Writable>> records = new ArrayList<>();
         for (SingleCSVRecord singleCsvRecord : batch.getRecords()) {
             List<Writable> record2 = transformProcess.transformRawStringsToInputList(singleCsvRecord.getValues());
@@ -47,8 +105,49 @@ public class CSVSparkTransform {
             records.add(finalRecord);
         }
 
-        INDArray convert = RecordConverter.toMatrix(records);
-        return new Base64NDArrayBody(Nd4jBase64.base64String(convert));
+        return RecordConverter.toMatrix(records);
+    }
+
+    /**
+     * Convert a stream of raw records via
+     * the {@link TransformProcess}, writing the
+     * output as binary array frames
+     * (see {@link BinaryTransformProtocol}).
+     * Only chunkSize records are held in memory at a time;
+     * the output stream is flushed after each frame.
+     * @param records the raw records
+     * @param chunkSize the maximum number of records per frame,
+     *                  or 0 to write all records as a single frame
+     * @param out the stream to write the frames to
+     * @return the number of frames written
+     * @throws IOException
+     */
+    public int toArrays(Iterator<List<String>> records, int chunkSize, OutputStream out) throws IOException {
+        if (chunkSize < 0)
+            throw new IllegalArgumentException("Invalid chunk size: must be 0 or positive, got " + chunkSize);
+
+        int frames = 0;
+        BatchCSVRecord chunk = new BatchCSVRecord();
+        while (records.hasNext()) {
+            chunk.add(new SingleCSVRecord(records.next()));
+            if (chunkSize > 0 && chunk.getRecords().size() >= chunkSize) {
+                frames += writeFrame(chunk, out);
+                chunk = new BatchCSVRecord();
+            }
+        }
+        if (!chunk.getRecords().isEmpty())
+            frames += writeFrame(chunk, out);
+        return frames;
+    }
+
+    private int writeFrame(BatchCSVRecord chunk, OutputStream out) throws IOException {
+        INDArray arr = toMatrix(chunk);
+        //All records may have been filtered
+        if (arr.length() == 0)
+            return 0;
+        BinaryTransformProtocol.writeArray(arr, out);
+        out.flush();
+        return 1;
     }
 
     /**
@@ -73,6 +172,18 @@ public class CSVSparkTransform {
      */
     public BatchCSVRecord transform(BatchCSVRecord batch) {
         BatchCSVRecord batchCSVRecord = new BatchCSVRecord();
+        ColumnarBatch out = executeColumnar(batch);
+        if (out != null) {
+            int numColumns = out.numColumns();
+            for (int i = 0; i < out.numRows(); i++) {
+                String[] values = new String[numColumns];
+                for (int j = 0; j < numColumns; j++)
+                    values[j] = out.getColumn(j).get(i).toString();
+                batchCSVRecord.add(new SingleCSVRecord(values));
+            }
+            return batchCSVRecord;
+        }
+
         for (SingleCSVRecord record : batch.getRecords()) {
             List<Writable> record2 = transformProcess.transformRawStringsToInputList(record.getValues());
             List<Writable> finalRecord = transformProcess.execute(record2);
@@ -101,6 +212,41 @@ public class CSVSparkTransform {
 
     }
 
+    /**
+     * Execute the transform process on the batch
+     * in columnar form
+     * @param batch the records to transform
+     * @return the transformed batch, or null if the
+     * transform process can't be executed on batches
+     * (the records should then be transformed one at a time)
+     */
+    private ColumnarBatch executeColumnar(BatchCSVRecord batch) {
+        if (compiled == null)
+            return null;
+        return compiled.executeColumnar(toColumnarBatch(batch));
+    }
+
+    /**
+     * Parse the raw values of each record
+     * in to a columnar batch (based on the initial schema
+     * of the transform process)
+     * @param batch the records to parse
+     * @return the batch of parsed values
+     */
+    private ColumnarBatch toColumnarBatch(BatchCSVRecord batch) {
+        Schema schema = transformProcess.getInitialSchema();
+        List<SingleCSVRecord> records = batch.getRecords();
+        ColumnarBatch columnarBatch = new ColumnarBatch(schema, Math.max(1, records.size()));
+        for (SingleCSVRecord record : records) {
+            if (record.getValues().size() != schema.numColumns())
+                throw new IllegalArgumentException(
+                        String.format("Number of values %d does not match the number of input columns %d for schema",
+                                record.getValues().size(), schema.numColumns()));
+            columnarBatch.addStrings(record.getValues());
+        }
+        return columnarBatch;
+    }
+
     /**
      *
      * @param transform
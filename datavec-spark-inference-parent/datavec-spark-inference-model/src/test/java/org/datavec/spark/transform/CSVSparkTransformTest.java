@@ -1,6 +1,10 @@
 package org.datavec.spark.transform;
 
+import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.transform.integer.BaseIntegerTransform;
 import org.datavec.api.transform.transform.nlp.TextToCharacterIndexTransform;
@@ -14,13 +18,23 @@ import org.datavec.spark.transform.model.SingleCSVRecord;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.aggregates.Batch;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.serde.base64.Nd4jBase64;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeNotNull;
 
 /**
@@ -184,6 +198,178 @@ public class CSVSparkTransformTest {
         return ret;
     }
 
+    @Test
+    public void testBatchColumnarMatchesSingleRecord() throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnCategorical("cat", "a", "b", "c")
+                .addColumnDouble("double").build();
+        TransformProcess transformProcess = new TransformProcess.Builder(schema).categoricalToInteger("cat")
+                .filter(new ConditionFilter(new IntegerColumnCondition("int", ConditionOp.Equal, 3)))
+                .doubleMathOp("double", MathOp.Multiply, 2.0).integerMathOp("int", MathOp.Add, 1).build();
+        CSVSparkTransform csvSparkTransform = new CSVSparkTransform(transformProcess);
+
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord();
+        List<SingleCSVRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SingleCSVRecord record = new SingleCSVRecord(new String[] {String.valueOf(i),
+                    String.valueOf((char) ('a' + i % 3)), String.valueOf(i + 0.5)});
+            batchCSVRecord.add(record);
+            if (i != 3)
+                expected.add(csvSparkTransform.transform(record));
+        }
+
+        BatchCSVRecord transformed = csvSparkTransform.transform(batchCSVRecord);
+        assertEquals(expected, transformed.getRecords());
+
+        INDArray arr = Nd4jBase64.fromBase64(csvSparkTransform.toArray(batchCSVRecord).getNdarray());
+        assertArrayEquals(new int[] {9, 3}, arr.shape());
+        for (int i = 0; i < expected.size(); i++) {
+            List<String> values = expected.get(i).getValues();
+            for (int j = 0; j < values.size(); j++)
+                assertEquals(Double.parseDouble(values.get(j)), arr.getDouble(i, j), 1e-6);
+        }
+    }
+
+    @Test
+    public void testBatchColumnarMixedColumnTypes() throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnLong("long").addColumnFloat("float")
+                .addColumnDouble("double").addColumnCategorical("cat", "a", "b").addColumnString("str").build();
+        TransformProcess transformProcess = new TransformProcess.Builder(schema).integerMathOp("int", MathOp.Divide, 2)
+                .longMathOp("long", MathOp.Modulus, 7).doubleMathOp("double", MathOp.ReverseSubtract, 1.0)
+                .categoricalToInteger("cat").removeColumns("str").build();
+        CSVSparkTransform csvSparkTransform = new CSVSparkTransform(transformProcess);
+
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord();
+        List<SingleCSVRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SingleCSVRecord record = new SingleCSVRecord(new String[] {String.valueOf(i - 5),
+                    String.valueOf(1000L * i), String.valueOf(i + 0.25f), String.valueOf(i * 1.5),
+                    i % 2 == 0 ? "a" : "b", "s" + i});
+            batchCSVRecord.add(record);
+            expected.add(csvSparkTransform.transform(record));
+        }
+
+        assertEquals(expected, csvSparkTransform.transform(batchCSVRecord).getRecords());
+        INDArray arr = Nd4jBase64.fromBase64(csvSparkTransform.toArray(batchCSVRecord).getNdarray());
+        assertArrayEquals(new int[] {10, 5}, arr.shape());
+        for (int i = 0; i < expected.size(); i++) {
+            List<String> values = expected.get(i).getValues();
+            for (int j = 0; j < values.size(); j++)
+                assertEquals(Double.parseDouble(values.get(j)), arr.getDouble(i, j), 1e-6);
+        }
+    }
+
+    @Test
+    public void testBinaryArrayFrames() throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("int").addColumnCategorical("cat", "a", "b", "c")
+                .addColumnDouble("double").build();
+        TransformProcess transformProcess = new TransformProcess.Builder(schema).categoricalToInteger("cat")
+                .doubleMathOp("double", MathOp.Multiply, 2.0).build();
+        CSVSparkTransform csvSparkTransform = new CSVSparkTransform(transformProcess);
+
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            String[] values = {String.valueOf(i), String.valueOf((char) ('a' + i % 3)), String.valueOf(i + 0.5)};
+            batchCSVRecord.add(new SingleCSVRecord(values));
+            csv.append(values[0]).append(",").append(values[1]).append(",").append(values[2]).append("\n");
+        }
+        INDArray expected = csvSparkTransform.toMatrix(batchCSVRecord);
+
+        //Length prefixed rows in, 3 frames out
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        BinaryTransformProtocol.writeRows(batchCSVRecord, rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int frames = csvSparkTransform.toArrays(
+                BinaryTransformProtocol.readRows(new ByteArrayInputStream(rows.toByteArray())), 4, out);
+        assertEquals(3, frames);
+        List<INDArray> arrays = BinaryTransformProtocol.readArrays(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, arrays.size());
+        assertArrayEquals(new int[] {2, 3}, arrays.get(2).shape());
+        assertEquals(expected, Nd4j.vstack(arrays));
+
+        //Raw csv in, single frame out
+        out = new ByteArrayOutputStream();
+        csvSparkTransform.toArrays(BinaryTransformProtocol.readCsvRows(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8))), 0, out);
+        arrays = BinaryTransformProtocol.readArrays(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(1, arrays.size());
+        assertEquals(expected, arrays.get(0));
+    }
+
+    @Test
+    public void testBinaryArrayErrorFrame() throws Exception {
+        INDArray arr = Nd4j.create(new double[] {1, 2, 3, 4}, new int[] {2, 2});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTransformProtocol.writeArray(arr, out);
+        BinaryTransformProtocol.writeError("Bad value in row 3", out);
+
+        //The frames before the error are readable, the error frame itself must fail
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        DataInputStream dis = new DataInputStream(in);
+        assertEquals(arr, BinaryTransformProtocol.readArray(dis));
+        try {
+            BinaryTransformProtocol.readArray(dis);
+            fail("Expected IOException for error frame");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Bad value in row 3"));
+        }
+
+        //An error frame is never read as an empty (all filtered) result
+        out = new ByteArrayOutputStream();
+        BinaryTransformProtocol.writeError(null, out);
+        try {
+            BinaryTransformProtocol.readArrays(new ByteArrayInputStream(out.toByteArray()));
+            fail("Expected IOException for error frame");
+        } catch (IOException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void testBinaryInvalidLengths() throws Exception {
+        //Row with more values than allowed, or a huge value length: rejected without allocating it
+        ByteBuffer rows = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        rows.putInt(Integer.MAX_VALUE).putInt(0);
+        try {
+            BinaryTransformProtocol.readRows(new ByteArrayInputStream(rows.array()), 3).hasNext();
+            fail("Expected exception for too many values");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        rows = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        rows.putInt(1).putInt(Integer.MAX_VALUE);
+        try {
+            BinaryTransformProtocol.readRows(new ByteArrayInputStream(rows.array())).hasNext();
+            fail("Expected exception for invalid value length");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        //A valid length that is longer than the stream fails at the end of the stream
+        rows = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        rows.putInt(1).putInt(1 << 20).putInt(0);
+        try {
+            BinaryTransformProtocol.readRows(new ByteArrayInputStream(rows.array())).hasNext();
+            fail("Expected exception for truncated value");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof EOFException);
+        }
+
+        //Negative or overflowing dimensions
+        for (int[] shape : new int[][] {{2, -3}, {1 << 16, 1 << 16}, {Integer.MAX_VALUE, 2, 2}}) {
+            ByteBuffer frame = ByteBuffer.allocate(4 * (shape.length + 2)).order(ByteOrder.LITTLE_ENDIAN);
+            frame.putInt(shape.length);
+            for (int d : shape)
+                frame.putInt(d);
+            frame.putInt(8);
+            try {
+                BinaryTransformProtocol.readArray(new ByteArrayInputStream(frame.array()));
+                fail("Expected IOException for shape " + Arrays.toString(shape));
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("Invalid array frame"));
+            }
+        }
+    }
+
     public static class ConverToLowercase extends BaseIntegerTransform {
         public ConverToLowercase(String column) {
             super(column);
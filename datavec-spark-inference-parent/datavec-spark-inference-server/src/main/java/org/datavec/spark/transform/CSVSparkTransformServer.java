@@ -9,12 +9,19 @@ import org.datavec.api.transform.TransformProcess;
 import org.datavec.image.transform.ImageTransformProcess;
 import org.datavec.spark.transform.model.*;
 import play.Mode;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
 import play.routing.RoutingDsl;
 import play.server.Server;
 
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
 
+import static play.mvc.Controller.request;
 import static play.mvc.Results.*;
 
 /**
@@ -25,6 +32,13 @@ import static play.mvc.Results.*;
  * The input values are an {@link SingleCSVRecord}
  * which (based on the input schema) will automatically
  * have their values transformed.
+ * <p>
+ * For array outputs, {@link BinaryTransformProtocol#CSV_ARRAY_ENDPOINT}
+ * and {@link BinaryTransformProtocol#ROWS_ARRAY_ENDPOINT} accept
+ * raw CSV or length prefixed rows (content type
+ * {@link BinaryTransformProtocol#CONTENT_TYPE}) and return
+ * raw array frames instead of JSON + base64, streamed in
+ * chunks of {@link BinaryTransformProtocol#CHUNK_SIZE_HEADER} rows.
  *
  * @author Adam Gibson
  */
@@ -185,10 +199,117 @@ public class CSVSparkTransformServer extends SparkTransformServer {
             }
         })));
 
+        routingDsl.POST(BinaryTransformProtocol.CSV_ARRAY_ENDPOINT)
+                .routeTo(FunctionUtil.function0((() -> transformBinaryArray(true))));
+
+        routingDsl.POST(BinaryTransformProtocol.ROWS_ARRAY_ENDPOINT)
+                .routeTo(FunctionUtil.function0((() -> transformBinaryArray(false))));
 
         server = Server.forRouter(routingDsl.build(), Mode.PROD, port);
     }
 
+    /**
+     * Transform the records in the (binary) request body,
+     * streaming the output arrays back as binary frames.
+     * The request is validated before the response starts, so that
+     * a bad request is answered with a 400 status. Errors after that
+     * end the stream with an error frame (see {@link BinaryTransformProtocol}),
+     * holding a generic message and an id for the error logged on the server
+     * @param csv true if the body is raw CSV, false for length prefixed rows
+     * @return the chunked result
+     */
+    protected Result transformBinaryArray(boolean csv) {
+        final CSVSparkTransform csvSparkTransform = transform;
+        if (csvSparkTransform == null || isSequence())
+            return badRequest();
+
+        String chunkSizeHeader = getHeaderValue(BinaryTransformProtocol.CHUNK_SIZE_HEADER);
+        final int chunkSize;
+        try {
+            chunkSize = chunkSizeHeader == null ? 0 : Integer.parseInt(chunkSizeHeader.trim());
+        } catch (NumberFormatException e) {
+            return badRequest("Invalid " + BinaryTransformProtocol.CHUNK_SIZE_HEADER + " header: " + chunkSizeHeader);
+        }
+        if (chunkSize < 0)
+            return badRequest("Invalid " + BinaryTransformProtocol.CHUNK_SIZE_HEADER
+                            + " header: must be 0 or positive, got " + chunkSize);
+
+        final InputStream in;
+        try {
+            in = getBinaryBody();
+        } catch (Exception e) {
+            log.error("Error reading binary request body", e);
+            return internalServerError(e.getMessage());
+        }
+        if (in == null)
+            return badRequest("Missing request body");
+
+        final Iterator<List<String>> records = csv ? BinaryTransformProtocol.readCsvRows(in)
+                        : BinaryTransformProtocol.readRows(in,
+                                        csvSparkTransform.getTransformProcess().getInitialSchema().numColumns());
+        try {
+            //Read the first row up front: a malformed body is rejected before the response starts
+            records.hasNext();
+        } catch (Exception e) {
+            closeQuietly(in);
+            return badRequest("Invalid request body: " + e.getMessage());
+        }
+
+        Results.Chunks<byte[]> chunks = new Results.ByteChunks() {
+            @Override
+            public void onReady(Results.Chunks.Out<byte[]> out) {
+                ChunkOutputStream stream = new ChunkOutputStream(out);
+                try (InputStream toClose = in) {
+                    csvSparkTransform.toArrays(records, chunkSize, stream);
+                } catch (Exception e) {
+                    //Response has already started: the status can't change, so end with an error frame.
+                    //The details stay in the server log, the client gets an id to correlate with it
+                    String errorId = UUID.randomUUID().toString();
+                    log.error("Error in binary array transform (error id " + errorId + ")", e);
+                    stream.reset();
+                    try {
+                        BinaryTransformProtocol.writeError("Transform failed (error id " + errorId + ")", stream);
+                        stream.flush();
+                    } catch (Exception e2) {
+                        log.error("Error writing binary transform error frame", e2);
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        };
+        return ok(chunks).as(BinaryTransformProtocol.CONTENT_TYPE);
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("Error closing request body", e);
+        }
+    }
+
+    /**
+     * @return the request body as a stream,
+     * or null if the request has no body
+     */
+    protected InputStream getBinaryBody() throws IOException {
+        Http.RequestBody body = request().body();
+        Http.RawBuffer raw = body.asRaw();
+        if (raw != null) {
+            byte[] bytes = raw.asBytes();
+            if (bytes != null)
+                return new ByteArrayInputStream(bytes);
+            //Large bodies are buffered to disk
+            return new BufferedInputStream(new FileInputStream(raw.asFile()));
+        }
+
+        String text = body.asText();
+        if (text != null)
+            return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        return null;
+    }
+
     public static void main(String[] args) throws Exception {
         new CSVSparkTransformServer().runMain(args);
     }
@@ -318,4 +439,28 @@ public class CSVSparkTransformServer extends SparkTransformServer {
         log.error("Unsupported operation: transformArray(BatchImageRecord) not supported for class", getClass());
         throw new UnsupportedOperationException("Invalid operation for " + this.getClass());
     }
+
+    /**
+     * Sends everything written since the last flush as one chunk
+     */
+    private static class ChunkOutputStream extends ByteArrayOutputStream {
+        private final Results.Chunks.Out<byte[]> out;
+
+        private ChunkOutputStream(Results.Chunks.Out<byte[]> out) {
+            this.out = out;
+        }
+
+        @Override
+        public void flush() {
+            if (size() > 0) {
+                out.write(toByteArray());
+                reset();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+    }
 }
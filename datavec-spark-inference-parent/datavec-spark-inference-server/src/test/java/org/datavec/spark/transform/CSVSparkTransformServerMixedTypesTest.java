@@ -0,0 +1,106 @@
+package org.datavec.spark.transform;
+
+import com.mashape.unirest.http.ObjectMapper;
+import com.mashape.unirest.http.Unirest;
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.spark.transform.model.Base64NDArrayBody;
+import org.datavec.spark.transform.model.BatchCSVRecord;
+import org.datavec.spark.transform.model.SingleCSVRecord;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.serde.base64.Nd4jBase64;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Batch endpoints (executed in columnar form) should give the same results as the single record endpoints, for
+ * transform processes with mixed column types
+ */
+public class CSVSparkTransformServerMixedTypesTest {
+
+    private static CSVSparkTransformServer server;
+    private static Schema schema = new Schema.Builder().addColumnInteger("int").addColumnLong("long")
+                    .addColumnFloat("float").addColumnDouble("double").addColumnCategorical("cat", "a", "b")
+                    .addColumnString("str").build();
+    private static TransformProcess transformProcess = new TransformProcess.Builder(schema)
+                    .integerMathOp("int", MathOp.Divide, 2).longMathOp("long", MathOp.Modulus, 7)
+                    .doubleMathOp("double", MathOp.ReverseSubtract, 1.0).categoricalToInteger("cat")
+                    .removeColumns("str").build();
+    private static File fileSave = new File(UUID.randomUUID().toString() + ".json");
+
+    @BeforeClass
+    public static void before() throws Exception {
+        server = new CSVSparkTransformServer();
+        FileUtils.write(fileSave, transformProcess.toJson());
+        Unirest.setObjectMapper(new ObjectMapper() {
+            private org.nd4j.shade.jackson.databind.ObjectMapper jacksonObjectMapper =
+                            new org.nd4j.shade.jackson.databind.ObjectMapper();
+
+            public <T> T readValue(String value, Class<T> valueType) {
+                try {
+                    return jacksonObjectMapper.readValue(value, valueType);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+
+            public String writeValue(Object value) {
+                try {
+                    return jacksonObjectMapper.writeValueAsString(value);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        server.runMain(new String[] {"--jsonPath", fileSave.getAbsolutePath(), "-dp", "9050"});
+    }
+
+    @AfterClass
+    public static void after() throws Exception {
+        fileSave.deleteOnExit();
+        server.stop();
+    }
+
+    @Test
+    public void testBatchMatchesSingleRecords() throws Exception {
+        BatchCSVRecord batchCSVRecord = new BatchCSVRecord();
+        List<SingleCSVRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SingleCSVRecord record = new SingleCSVRecord(new String[] {String.valueOf(i - 5),
+                            String.valueOf(1000L * i), String.valueOf(i + 0.25f), String.valueOf(i * 1.5),
+                            i % 2 == 0 ? "a" : "b", "s" + i});
+            batchCSVRecord.add(record);
+            expected.add(Unirest.post("http://localhost:9050/transformincremental")
+                            .header("accept", "application/json").header("Content-Type", "application/json")
+                            .body(record).asObject(SingleCSVRecord.class).getBody());
+        }
+
+        BatchCSVRecord transformed = Unirest.post("http://localhost:9050/transform")
+                        .header("accept", "application/json").header("Content-Type", "application/json")
+                        .body(batchCSVRecord).asObject(BatchCSVRecord.class).getBody();
+        assertEquals(expected, transformed.getRecords());
+
+        Base64NDArrayBody array = Unirest.post("http://localhost:9050/transformarray")
+                        .header("accept", "application/json").header("Content-Type", "application/json")
+                        .body(batchCSVRecord).asObject(Base64NDArrayBody.class).getBody();
+        INDArray arr = Nd4jBase64.fromBase64(array.getNdarray());
+        assertArrayEquals(new int[] {10, 5}, arr.shape());
+        for (int i = 0; i < expected.size(); i++) {
+            List<String> values = expected.get(i).getValues();
+            for (int j = 0; j < values.size(); j++)
+                assertEquals(Double.parseDouble(values.get(j)), arr.getDouble(i, j), 1e-6);
+        }
+    }
+}
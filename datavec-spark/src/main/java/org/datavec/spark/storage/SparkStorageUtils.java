@@ -26,11 +26,15 @@ import org.apache.hadoop.mapreduce.lib.output.SequenceFileOutputFormat;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.hadoop.records.reader.mapfile.record.RecordWritable;
+import org.datavec.hadoop.records.reader.mapfile.record.SchemaRecordWritable;
 import org.datavec.hadoop.records.reader.mapfile.record.SequenceRecordWritable;
 import org.datavec.spark.storage.functions.RecordLoadPairFunction;
 import org.datavec.spark.storage.functions.RecordSavePrepPairFunction;
+import org.datavec.spark.storage.functions.SchemaRecordLoadPairFunction;
+import org.datavec.spark.storage.functions.SchemaRecordSavePrepPairFunction;
 import org.datavec.spark.storage.functions.SequenceRecordLoadPairFunction;
 import org.datavec.spark.storage.functions.SequenceRecordSavePrepPairFunction;
 
@@ -103,6 +107,34 @@ public class SparkStorageUtils {
                         SequenceFileOutputFormat.class);
     }
 
+    /**
+     * Save a {@code JavaRDD<List<Writable>>} to a Hadoop {@link org.apache.hadoop.io.SequenceFile}. Each record is given
+     * a unique (but noncontiguous) {@link LongWritable} key, and values are stored as {@link SchemaRecordWritable}
+     * instances: a compact encoding without per-value type information, typically several times smaller than
+     * {@link RecordWritable}.
+     * <p>
+     * Use {@link #restoreSequenceFile(String, Schema, JavaSparkContext)} to restore values saved with this method.
+     *
+     * @param path           Path to save the sequence file
+     * @param rdd            RDD to save
+     * @param schema         Schema of the records
+     * @param maxOutputFiles Nullable. If non-null: first coalesce the RDD to the specified size (number of partitions)
+     *                       to limit the maximum number of output sequence files
+     */
+    public static void saveSequenceFile(String path, JavaRDD<List<Writable>> rdd, Schema schema,
+                    @Nullable Integer maxOutputFiles) {
+        path = FilenameUtils.normalize(path, true);
+        if (maxOutputFiles != null) {
+            rdd = rdd.coalesce(maxOutputFiles);
+        }
+        JavaPairRDD<List<Writable>, Long> dataIndexPairs = rdd.zipWithUniqueId();
+        JavaPairRDD<LongWritable, SchemaRecordWritable> keyedByIndex =
+                        dataIndexPairs.mapToPair(new SchemaRecordSavePrepPairFunction(schema));
+
+        keyedByIndex.saveAsNewAPIHadoopFile(path, LongWritable.class, SchemaRecordWritable.class,
+                        SequenceFileOutputFormat.class);
+    }
+
     /**
      * Restore a {@code JavaRDD<List<Writable>>} previously saved with {@link #saveSequenceFile(String, JavaRDD)}
      *
@@ -114,6 +146,19 @@ public class SparkStorageUtils {
         return restoreMapFile(path, sc).values();
     }
 
+    /**
+     * Restore a {@code JavaRDD<List<Writable>>} previously saved with
+     * {@link #saveSequenceFile(String, JavaRDD, Schema, Integer)}
+     *
+     * @param path   Path of the sequence file
+     * @param schema Schema of the records
+     * @param sc     Spark context
+     * @return The restored RDD
+     */
+    public static JavaRDD<List<Writable>> restoreSequenceFile(String path, Schema schema, JavaSparkContext sc) {
+        return restoreMapFile(path, schema, sc).values();
+    }
+
     /**
      * Save a {@code JavaRDD<List<List<Writable>>>} to a Hadoop {@link org.apache.hadoop.io.SequenceFile}. Each record
      * is given a unique (but noncontiguous) {@link LongWritable} key, and values are stored as {@link SequenceRecordWritable} instances.
@@ -267,6 +312,69 @@ public class SparkStorageUtils {
         return pairRDD.mapToPair(new RecordLoadPairFunction());
     }
 
+    /**
+     * Save a {@code JavaRDD<List<Writable>>} to a Hadoop {@link org.apache.hadoop.io.MapFile} in the compact
+     * schema-based format, using a MapFile interval of {@link #DEFAULT_MAP_FILE_INTERVAL}. See
+     * {@link #saveMapFile(String, JavaRDD, Schema, Configuration, Integer)} for details.
+     *
+     * @param path   Path to save the MapFile
+     * @param rdd    RDD to save
+     * @param schema Schema of the records
+     */
+    public static void saveMapFile(String path, JavaRDD<List<Writable>> rdd, Schema schema) {
+        Configuration c = new Configuration();
+        c.set(MAP_FILE_INDEX_INTERVAL_KEY, String.valueOf(DEFAULT_MAP_FILE_INTERVAL));
+        saveMapFile(path, rdd, schema, c, null);
+    }
+
+    /**
+     * Save a {@code JavaRDD<List<Writable>>} to a Hadoop {@link org.apache.hadoop.io.MapFile}. Each record is
+     * given a <i>unique and contiguous</i> {@link LongWritable} key, and values are stored as
+     * {@link SchemaRecordWritable} instances: a compact encoding without per-value type information, typically several
+     * times smaller than {@link RecordWritable}.<br>
+     * Note that the schema is not stored in the map file: it must be provided when restoring the values with
+     * {@link #restoreMapFile(String, Schema, JavaSparkContext)}, or when reading them with
+     * {@link org.datavec.hadoop.records.reader.mapfile.MapFileRecordReader}.
+     *
+     * @param path           Path to save the MapFile
+     * @param rdd            RDD to save
+     * @param schema         Schema of the records
+     * @param c              Configuration object, used to customise options for the map file
+     * @param maxOutputFiles Nullable. If non-null: first coalesce the RDD to the specified size (number of partitions)
+     *                       to limit the maximum number of output map files
+     */
+    public static void saveMapFile(String path, JavaRDD<List<Writable>> rdd, Schema schema, Configuration c,
+                    @Nullable Integer maxOutputFiles) {
+        path = FilenameUtils.normalize(path, true);
+        if (maxOutputFiles != null) {
+            rdd = rdd.coalesce(maxOutputFiles);
+        }
+        JavaPairRDD<List<Writable>, Long> dataIndexPairs = rdd.zipWithIndex();
+        JavaPairRDD<LongWritable, SchemaRecordWritable> keyedByIndex =
+                        dataIndexPairs.mapToPair(new SchemaRecordSavePrepPairFunction(schema));
+
+        keyedByIndex.saveAsNewAPIHadoopFile(path, LongWritable.class, SchemaRecordWritable.class,
+                        MapFileOutputFormat.class, c);
+    }
+
+    /**
+     * Restore a {@code JavaPairRDD<Long,List<Writable>>} previously saved with
+     * {@link #saveMapFile(String, JavaRDD, Schema, Configuration, Integer)}
+     *
+     * @param path   Path of the MapFile
+     * @param schema Schema of the records
+     * @param sc     Spark context
+     * @return The restored RDD, with their unique indices as the key
+     */
+    public static JavaPairRDD<Long, List<Writable>> restoreMapFile(String path, Schema schema, JavaSparkContext sc) {
+        Configuration c = new Configuration();
+        c.set(FileInputFormat.INPUT_DIR, FilenameUtils.normalize(path, true));
+        JavaPairRDD<LongWritable, SchemaRecordWritable> pairRDD = sc.newAPIHadoopRDD(c, SequenceFileInputFormat.class,
+                        LongWritable.class, SchemaRecordWritable.class);
+
+        return pairRDD.mapToPair(new SchemaRecordLoadPairFunction(schema));
+    }
+
     /**
      * Save a {@code JavaRDD<List<List<Writable>>>} to a Hadoop {@link org.apache.hadoop.io.MapFile}. Each record is
      * given a <i>unique and contiguous</i> {@link LongWritable} key, and values are stored as
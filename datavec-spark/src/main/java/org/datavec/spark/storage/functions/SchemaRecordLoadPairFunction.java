@@ -0,0 +1,49 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.storage.functions;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.SchemaRecordCodec;
+import org.datavec.api.writable.Writable;
+import org.datavec.hadoop.records.reader.mapfile.record.SchemaRecordWritable;
+import scala.Tuple2;
+
+import java.util.List;
+
+/**
+ * A simple function to decode data saved in the compact schema-based format during loading via
+ * {@link org.datavec.spark.storage.SparkStorageUtils}
+ */
+public class SchemaRecordLoadPairFunction
+                implements PairFunction<Tuple2<LongWritable, SchemaRecordWritable>, Long, List<Writable>> {
+
+    private final SchemaRecordCodec codec;
+
+    public SchemaRecordLoadPairFunction(Schema schema) {
+        this.codec = new SchemaRecordCodec(schema);
+    }
+
+    @Override
+    public Tuple2<Long, List<Writable>> call(Tuple2<LongWritable, SchemaRecordWritable> t2) throws Exception {
+        //Hadoop input formats reuse the same value instance for each record: decode immediately to a new list
+        SchemaRecordWritable w = t2._2();
+        w.setCodec(codec);
+        return new Tuple2<>(t2._1().get(), w.getRecord());
+    }
+}
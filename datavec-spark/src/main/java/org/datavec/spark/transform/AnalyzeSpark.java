@@ -20,37 +20,36 @@ import org.apache.spark.api.java.JavaDoubleRDD;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.DataVecAnalysisUtils;
 import org.datavec.api.transform.analysis.SequenceDataAnalysis;
 import org.datavec.api.transform.analysis.columns.*;
+import org.datavec.api.transform.analysis.histogram.HistogramCounter;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 import org.datavec.api.transform.analysis.sequence.SequenceLengthAnalysis;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.quality.DataQualityAnalysis;
 import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
 import org.datavec.spark.transform.analysis.SelectColumnFunction;
 import org.datavec.spark.transform.analysis.SequenceFlatMapFunction;
 import org.datavec.spark.transform.analysis.SequenceLengthFunction;
 import org.datavec.spark.transform.analysis.aggregate.AnalysisAddFunction;
 import org.datavec.spark.transform.analysis.aggregate.AnalysisCombineFunction;
-import org.datavec.spark.transform.analysis.columns.*;
 import org.datavec.spark.transform.analysis.histogram.HistogramAddFunction;
 import org.datavec.spark.transform.analysis.histogram.HistogramCombineFunction;
-import org.datavec.spark.transform.analysis.histogram.HistogramCounter;
 import org.datavec.spark.transform.analysis.seqlength.IntToDoubleFunction;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisAddFunction;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisCounter;
 import org.datavec.spark.transform.analysis.seqlength.SequenceLengthAnalysisMergeFunction;
-import org.datavec.spark.transform.analysis.string.StringAnalysisCounter;
 import org.datavec.spark.transform.filter.FilterWritablesBySchemaFunction;
 import org.datavec.spark.transform.misc.ColumnToKeyPairTransform;
 import org.datavec.spark.transform.misc.SumLongsFunction2;
 import org.datavec.spark.transform.misc.comparator.Tuple2Comparator;
 import org.datavec.spark.transform.quality.QualityAnalysisAddFunction;
 import org.datavec.spark.transform.quality.QualityAnalysisCombineFunction;
-import org.datavec.spark.transform.quality.QualityAnalysisState;
 import scala.Tuple2;
 
 import java.util.*;
@@ -127,141 +126,52 @@ public class AnalyzeSpark {
          * TODO: Some care should be given to add histogramBuckets and histogramBucketCounts to this in the future
          */
 
-        List<ColumnType> columnTypes = schema.getColumnTypes();
         List<AnalysisCounter> counters =
                         data.aggregate(null, new AnalysisAddFunction(schema), new AnalysisCombineFunction());
 
         double[][] minsMaxes = new double[counters.size()][2];
-
-        int nColumns = schema.numColumns();
-        List<ColumnAnalysis> list = new ArrayList<>(nColumns);
-
-        for (int i = 0; i < nColumns; i++) {
-            ColumnType ct = columnTypes.get(i);
-
-            switch (ct) {
-                case String:
-                    StringAnalysisCounter sac = (StringAnalysisCounter) counters.get(i);
-                    list.add(new StringAnalysis.Builder().countTotal(sac.getCountTotal())
-                                    .minLength(sac.getMinLengthSeen()).maxLength(sac.getMaxLengthSeen())
-                                    .meanLength(sac.getMean()).sampleStdevLength(sac.getSampleStdev())
-                                    .sampleVarianceLength(sac.getSampleVariance()).build());
-                    minsMaxes[i][0] = sac.getMinLengthSeen();
-                    minsMaxes[i][1] = sac.getMaxLengthSeen();
-                    break;
-                case Integer:
-                    IntegerAnalysisCounter iac = (IntegerAnalysisCounter) counters.get(i);
-                    IntegerAnalysis ia = new IntegerAnalysis.Builder().min(iac.getMinValueSeen())
-                                    .max(iac.getMaxValueSeen()).mean(iac.getMean()).sampleStdev(iac.getSampleStdev())
-                                    .sampleVariance(iac.getSampleVariance()).countZero(iac.getCountZero())
-                                    .countNegative(iac.getCountNegative()).countPositive(iac.getCountPositive())
-                                    .countMinValue(iac.getCountMinValue()).countMaxValue(iac.getCountMaxValue())
-                                    .countTotal(iac.getCountTotal()).digest(iac.getDigest()).build();
-                    list.add(ia);
-
-                    minsMaxes[i][0] = iac.getMinValueSeen();
-                    minsMaxes[i][1] = iac.getMaxValueSeen();
-
-                    break;
-                case Long:
-                    LongAnalysisCounter lac = (LongAnalysisCounter) counters.get(i);
-
-                    LongAnalysis la = new LongAnalysis.Builder().min(lac.getMinValueSeen()).max(lac.getMaxValueSeen())
-                                    .mean(lac.getMean()).sampleStdev(lac.getSampleStdev())
-                                    .sampleVariance(lac.getSampleVariance()).countZero(lac.getCountZero())
-                                    .countNegative(lac.getCountNegative()).countPositive(lac.getCountPositive())
-                                    .countMinValue(lac.getCountMinValue()).countMaxValue(lac.getCountMaxValue())
-                                    .countTotal(lac.getCountTotal()).digest(lac.getDigest()).build();
-
-                    list.add(la);
-
-                    minsMaxes[i][0] = lac.getMinValueSeen();
-                    minsMaxes[i][1] = lac.getMaxValueSeen();
-
-                    break;
-                case Double:
-                    DoubleAnalysisCounter dac = (DoubleAnalysisCounter) counters.get(i);
-                    DoubleAnalysis da = new DoubleAnalysis.Builder().min(dac.getMinValueSeen())
-                                    .max(dac.getMaxValueSeen()).mean(dac.getMean()).sampleStdev(dac.getSampleStdev())
-                                    .sampleVariance(dac.getSampleVariance()).countZero(dac.getCountZero())
-                                    .countNegative(dac.getCountNegative()).countPositive(dac.getCountPositive())
-                                    .countMinValue(dac.getCountMinValue()).countMaxValue(dac.getCountMaxValue())
-                                    .countNaN(dac.getCountNaN()).digest(dac.getDigest()).countTotal(dac.getCountTotal()).build();
-                    list.add(da);
-
-                    minsMaxes[i][0] = dac.getMinValueSeen();
-                    minsMaxes[i][1] = dac.getMaxValueSeen();
-
-                    break;
-                case Categorical:
-                    CategoricalAnalysisCounter cac = (CategoricalAnalysisCounter) counters.get(i);
-                    CategoricalAnalysis ca = new CategoricalAnalysis(cac.getCounts());
-                    list.add(ca);
-
-                    break;
-                case Time:
-                    LongAnalysisCounter lac2 = (LongAnalysisCounter) counters.get(i);
-
-                    TimeAnalysis la2 = new TimeAnalysis.Builder().min(lac2.getMinValueSeen())
-                                    .max(lac2.getMaxValueSeen()).mean(lac2.getMean()).sampleStdev(lac2.getSampleStdev())
-                                    .sampleVariance(lac2.getSampleVariance()).countZero(lac2.getCountZero())
-                                    .countNegative(lac2.getCountNegative()).countPositive(lac2.getCountPositive())
-                                    .countMinValue(lac2.getCountMinValue()).countMaxValue(lac2.getCountMaxValue())
-                                    .countTotal(lac2.getCountTotal()).digest(lac2.getDigest()).build();
-
-                    list.add(la2);
-
-                    minsMaxes[i][0] = lac2.getMinValueSeen();
-                    minsMaxes[i][1] = lac2.getMaxValueSeen();
-
-                    break;
-                case Bytes:
-                    BytesAnalysisCounter bac = (BytesAnalysisCounter) counters.get(i);
-                    list.add(new BytesAnalysis.Builder().countTotal(bac.getCountTotal()).build());
-                    break;
-                case NDArray:
-                    NDArrayAnalysisCounter nac = (NDArrayAnalysisCounter) counters.get(i);
-                    NDArrayAnalysis nda = nac.toAnalysisObject();
-                    list.add(nda);
-
-                    minsMaxes[i][0] = nda.getMinValue();
-                    minsMaxes[i][1] = nda.getMaxValue();
-
-                    break;
-                default:
-                    throw new IllegalStateException("Unknown column type: " + ct);
-            }
-        }
+        List<ColumnAnalysis> list = DataVecAnalysisUtils.convertCounters(schema, counters, minsMaxes);
 
         List<HistogramCounter> histogramCounters =
                         data.aggregate(null, new HistogramAddFunction(maxHistogramBuckets, schema, minsMaxes),
                                         new HistogramCombineFunction());
 
         //Merge analysis values and histogram values
-        for (int i = 0; i < list.size(); i++) {
-            HistogramCounter hc = histogramCounters.get(i);
-            ColumnAnalysis ca = list.get(i);
-            if (ca instanceof IntegerAnalysis) {
-                ((IntegerAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((IntegerAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof DoubleAnalysis) {
-                ((DoubleAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((DoubleAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof LongAnalysis) {
-                ((LongAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((LongAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof TimeAnalysis) {
-                ((TimeAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((TimeAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof StringAnalysis) {
-                ((StringAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((StringAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            } else if (ca instanceof NDArrayAnalysis) {
-                ((NDArrayAnalysis) ca).setHistogramBuckets(hc.getBins());
-                ((NDArrayAnalysis) ca).setHistogramBucketCounts(hc.getCounts());
-            }
-        }
+        DataVecAnalysisUtils.mergeCounters(list, histogramCounters);
+
+        return new DataAnalysis(schema, list);
+    }
+
+    /**
+     * Analyze the data in a single pass, with the default number of histogram buckets.
+     * See {@link #analyzeSinglePass(Schema, JavaRDD, int)}
+     */
+    public static DataAnalysis analyzeSinglePass(Schema schema, JavaRDD<List<Writable>> data) {
+        return analyzeSinglePass(schema, data, DEFAULT_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyze the data using a single pass over the data set, without caching it.<br>
+     * Unlike {@link #analyze(Schema, JavaRDD, int)} (which requires the min/max values for each column before it can
+     * calculate histograms in a second pass), histograms for Integer, Long, Double, Time and String (length) columns
+     * are estimated from the (mergeable) t-digest sketches collected alongside the other statistics. The histogram
+     * bins are the same; the bin counts are approximate. All other statistics are exact.<br>
+     * Note that histograms are not calculated for NDArray columns in this mode.
+     *
+     * @param schema              Schema of the data
+     * @param data                Data to analyze
+     * @param maxHistogramBuckets Number of histogram buckets for each column
+     * @return Data analysis
+     */
+    public static DataAnalysis analyzeSinglePass(Schema schema, JavaRDD<List<Writable>> data,
+                    int maxHistogramBuckets) {
+        List<AnalysisCounter> counters =
+                        data.aggregate(null, new AnalysisAddFunction(schema), new AnalysisCombineFunction());
+
+        double[][] minsMaxes = new double[counters.size()][2];
+        List<ColumnAnalysis> list = DataVecAnalysisUtils.convertCounters(schema, counters, minsMaxes);
 
+        DataVecAnalysisUtils.estimateHistograms(list, counters, minsMaxes, maxHistogramBuckets);
 
         return new DataAnalysis(schema, list);
     }
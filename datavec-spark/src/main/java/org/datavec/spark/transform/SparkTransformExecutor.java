@@ -19,12 +19,13 @@ package org.datavec.spark.transform;
 import org.apache.commons.math3.util.Pair;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.Function;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.CompiledTransformProcess;
 import org.datavec.api.transform.DataAction;
-import org.datavec.api.transform.Transform;
 import org.datavec.api.transform.TransformProcess;
-import org.datavec.api.transform.filter.Filter;
 import org.datavec.api.transform.join.Join;
 import org.datavec.api.transform.ops.IAggregableReduceOp;
 import org.datavec.api.transform.rank.CalculateSortedRank;
@@ -33,25 +34,27 @@ import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.transform.sequence.ConvertToSequence;
 import org.datavec.api.transform.sequence.SequenceSplit;
+import org.datavec.api.transform.sequence.comparator.BaseColumnComparator;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.SequenceEmptyRecordFunction;
-import org.datavec.spark.functions.EmptyRecordFunction;
 import org.datavec.spark.transform.analysis.SequenceFlatMapFunction;
-import org.datavec.spark.transform.filter.SparkFilterFunction;
-import org.datavec.spark.transform.join.ExecuteJoinFromCoGroupFlatMapFunction;
-import org.datavec.spark.transform.join.ExtractKeysFunction;
+import org.datavec.spark.transform.join.*;
 import org.datavec.spark.transform.misc.ColumnAsKeyPairFunction;
 import org.datavec.spark.transform.rank.UnzipForCalculateSortedRankFunction;
 import org.datavec.spark.transform.reduce.MapToPairForReducerFunction;
 import org.datavec.spark.transform.sequence.*;
 import org.datavec.spark.transform.transform.SequenceSplitFunction;
-import org.datavec.spark.transform.transform.SparkTransformFunction;
+import org.datavec.spark.transform.transform.SparkFusedTransformFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.Tuple2;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Execute a datavec
@@ -67,6 +70,16 @@ public class SparkTransformExecutor {
     //will cause some functions to invoke a try catch block and just log errors
     //returning empty records
     public final static String LOG_ERROR_PROPERTY = "org.datavec.spark.transform.logerrors";
+    //a boolean jvm argument: when true, ConvertToSequence sorts by (key, comparator) using
+    //repartitionAndSortWithinPartitions and assembles sequences by streaming through the sorted partitions,
+    //instead of groupByKey followed by an in-memory sort of each group. Only used when sorting on a single column
+    //(a BaseColumnComparator, such as NumericalColumnComparator or StringComparator)
+    public final static String SORT_TO_SEQUENCE_PROPERTY = "org.datavec.spark.transform.sequence.sort";
+    //an int jvm argument: if positive (and SORT_TO_SEQUENCE_PROPERTY is true), sequences longer than this are
+    //returned as multiple consecutive sequences of at most this length
+    public final static String MAX_SEQUENCE_LENGTH_PROPERTY = "org.datavec.spark.transform.sequence.maxlength";
+    //number of keys sampled to find the hot keys for executeSkewJoin
+    public final static int SKEW_JOIN_SAMPLE_SIZE = 10000;
 
     /**
      * @deprecated Use static methods instead of instance methods on SparkTransformExecutor
@@ -158,6 +171,16 @@ public class SparkTransformExecutor {
         return Boolean.getBoolean(LOG_ERROR_PROPERTY);
     }
 
+    /**
+     * Returns true if ConvertToSequence
+     * is executed by sorting instead of grouping
+     * (see {@link #SORT_TO_SEQUENCE_PROPERTY}).
+     * @return
+     */
+    public static boolean isSortToSequence() {
+        return Boolean.getBoolean(SORT_TO_SEQUENCE_PROPERTY);
+    }
+
     private static Pair<JavaRDD<List<Writable>>, JavaRDD<List<List<Writable>>>> execute(
                     JavaRDD<List<Writable>> inputWritables, JavaRDD<List<List<Writable>>> inputSequence,
                     TransformProcess sequence) {
@@ -183,36 +206,28 @@ public class SparkTransformExecutor {
 
 
         int count = 1;
-        for (DataAction d : dataActions) {
+        for (int i = 0; i < dataActions.size(); i++) {
+            DataAction d = dataActions.get(i);
             //log.info("Starting execution of stage {} of {}", count, dataActions.size());     //
 
-            if (d.getTransform() != null) {
-                Transform t = d.getTransform();
-                if (currentWritables != null) {
-                    Function<List<Writable>, List<Writable>> function = new SparkTransformFunction(t);
-                    if (isTryCatch())
-                        currentWritables = currentWritables.map(function).filter(new EmptyRecordFunction());
-                    else
-                        currentWritables = currentWritables.map(function);
-                } else {
-                    Function<List<List<Writable>>, List<List<Writable>>> function =
-                                    new SparkSequenceTransformFunction(t);
-                    if (isTryCatch())
-                        currentSequence = currentSequence.map(function).filter(new SequenceEmptyRecordFunction());
-                    else
-                        currentSequence = currentSequence.map(function);
-
-
+            if (d.getTransform() != null || d.getFilter() != null) {
+                //Fuse all consecutive transforms and filters into a single stage, executed with one pass over
+                // each partition, instead of one RDD map/filter per action
+                int end = i + 1;
+                while (end < dataActions.size() && (dataActions.get(end).getTransform() != null
+                                || dataActions.get(end).getFilter() != null)) {
+                    end++;
                 }
-            } else if (d.getFilter() != null) {
-                //Filter
-                Filter f = d.getFilter();
+                List<DataAction> stage = new ArrayList<>(dataActions.subList(i, end));
+
                 if (currentWritables != null) {
-                    currentWritables = currentWritables.filter(new SparkFilterFunction(f));
+                    currentWritables = currentWritables
+                                    .mapPartitions(new SparkFusedTransformFunction(new CompiledTransformProcess(stage)));
                 } else {
-                    currentSequence = currentSequence.filter(new SparkSequenceFilterFunction(f));
+                    currentSequence = currentSequence.mapPartitions(new SparkFusedSequenceTransformFunction(stage));
                 }
-
+                count += end - i - 1;
+                i = end - 1;
             } else if (d.getConvertToSequence() != null) {
                 //Convert to a sequence...
                 final ConvertToSequence cts = d.getConvertToSequence();
@@ -226,12 +241,27 @@ public class SparkTransformExecutor {
                     //First: convert to PairRDD
                     Schema schema = cts.getInputSchema();
                     int[] colIdxs = schema.getIndexOfColumns(cts.getKeyColumns());
-                    JavaPairRDD<List<Writable>, List<Writable>> withKey =
-                            currentWritables.mapToPair(new SparkMapToPairByMultipleColumnsFunction(colIdxs));
-                    JavaPairRDD<List<Writable>, Iterable<List<Writable>>> grouped = withKey.groupByKey();
-
-                    //Now: convert to a sequence...
-                    currentSequence = grouped.mapValues(new SparkGroupToSequenceFunction(cts.getComparator())).values();
+                    if (isSortToSequence() && cts.getComparator() instanceof BaseColumnComparator) {
+                        //Secondary sort: partition by key, sort by (key, sort column) using Spark's external sorter,
+                        // then stream through each sorted partition - no group is ever materialized as a whole
+                        BaseColumnComparator comparator = (BaseColumnComparator) cts.getComparator();
+                        int sortColIdx = schema.getIndexOfColumn(comparator.columnName());
+                        JavaPairRDD<SequenceSortKey, List<Writable>> withKey = currentWritables
+                                .mapToPair(new SparkMapToSequenceSortKeyFunction(colIdxs, sortColIdx));
+                        JavaPairRDD<SequenceSortKey, List<Writable>> sorted = withKey.repartitionAndSortWithinPartitions(
+                                new SequenceSortKeyPartitioner(currentWritables.partitions().size()),
+                                new SequenceSortKeyComparator(comparator));
+                        int maxLength = Integer.getInteger(MAX_SEQUENCE_LENGTH_PROPERTY, 0);
+                        currentSequence = sorted.mapPartitions(new SparkSortedToSequenceFunction(maxLength));
+                    } else {
+                        JavaPairRDD<List<Writable>, List<Writable>> withKey =
+                                currentWritables.mapToPair(new SparkMapToPairByMultipleColumnsFunction(colIdxs));
+                        JavaPairRDD<List<Writable>, Iterable<List<Writable>>> grouped = withKey.groupByKey();
+
+                        //Now: convert to a sequence...
+                        currentSequence = grouped.mapValues(new SparkGroupToSequenceFunction(cts.getComparator()))
+                                .values();
+                    }
                     currentWritables = null;
                 }
             } else if (d.getConvertFromSequence() != null) {
@@ -332,24 +362,132 @@ public class SparkTransformExecutor {
     public static JavaRDD<List<Writable>> executeJoin(Join join, JavaRDD<List<Writable>> left,
                     JavaRDD<List<Writable>> right) {
 
-        String[] leftColumnNames = join.getJoinColumnsLeft();
-        int[] leftColumnIndexes = new int[leftColumnNames.length];
-        for (int i = 0; i < leftColumnNames.length; i++) {
-            leftColumnIndexes[i] = join.getLeftSchema().getIndexOfColumn(leftColumnNames[i]);
-        }
-        JavaPairRDD<List<Writable>, List<Writable>> leftJV = left.mapToPair(new ExtractKeysFunction(leftColumnIndexes));
-
-        String[] rightColumnNames = join.getJoinColumnsRight();
-        int[] rightColumnIndexes = new int[rightColumnNames.length];
-        for (int i = 0; i < rightColumnNames.length; i++) {
-            rightColumnIndexes[i] = join.getRightSchema().getIndexOfColumn(rightColumnNames[i]);
-        }
+        JavaPairRDD<List<Writable>, List<Writable>> leftJV =
+                        left.mapToPair(new ExtractKeysFunction(getJoinColumnIndexes(join, true)));
         JavaPairRDD<List<Writable>, List<Writable>> rightJV =
-                        right.mapToPair(new ExtractKeysFunction(rightColumnIndexes));
+                        right.mapToPair(new ExtractKeysFunction(getJoinColumnIndexes(join, false)));
 
         JavaPairRDD<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> cogroupedJV =
                         leftJV.cogroup(rightJV);
 
         return cogroupedJV.flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join));
     }
+
+    /**
+     * Execute a join on the specified data as a broadcast hash join: the small side is collected and broadcast as a
+     * hash table (key values to examples), and the large side is joined against it without a shuffle.<br>
+     * If the join type requires all examples from the small side (for example, a FullOuter join), the distinct keys
+     * of the large side that match the small side are collected, to find the small side examples without a match.
+     * This requires a shuffle of (at most) the number of distinct keys in the small side.
+     *
+     * @param join          Join to execute
+     * @param left          Left data for join
+     * @param right         Right data for join
+     * @param broadcastLeft If true, the left data is the small side (to broadcast); otherwise, the right data is
+     * @return Joined data
+     */
+    public static JavaRDD<List<Writable>> executeBroadcastJoin(Join join, JavaRDD<List<Writable>> left,
+                    JavaRDD<List<Writable>> right, boolean broadcastLeft) {
+        JavaRDD<List<Writable>> small = broadcastLeft ? left : right;
+        JavaRDD<List<Writable>> large = broadcastLeft ? right : left;
+        int[] smallIdxs = getJoinColumnIndexes(join, broadcastLeft);
+        int[] largeIdxs = getJoinColumnIndexes(join, !broadcastLeft);
+
+        Map<List<Writable>, List<List<Writable>>> table = new HashMap<>();
+        for (Tuple2<List<Writable>, List<Writable>> t2 : small.mapToPair(new ExtractKeysFunction(smallIdxs))
+                        .collect()) {
+            List<List<Writable>> list = table.get(t2._1());
+            if (list == null) {
+                list = new ArrayList<>();
+                table.put(t2._1(), list);
+            }
+            list.add(t2._2());
+        }
+
+        JavaSparkContext sc = JavaSparkContext.fromSparkContext(large.context());
+        Broadcast<Map<List<Writable>, List<List<Writable>>>> broadcast = sc.broadcast(table);
+        JavaRDD<List<Writable>> out =
+                        large.flatMap(new BroadcastHashJoinFunction(join, largeIdxs, broadcast, broadcastLeft));
+
+        Join.JoinType jt = join.getJoinType();
+        boolean allSmall = jt == Join.JoinType.FullOuter
+                        || (broadcastLeft ? jt == Join.JoinType.LeftOuter : jt == Join.JoinType.RightOuter);
+        if (allSmall) {
+            Set<List<Writable>> matched = new HashSet<>(large.mapToPair(new ExtractKeysFunction(largeIdxs)).keys()
+                            .filter(new FilterKeysInBroadcastFunction(broadcast)).distinct().collect());
+            List<List<Writable>> unmatched = new ArrayList<>();
+            for (Map.Entry<List<Writable>, List<List<Writable>>> e : table.entrySet()) {
+                if (matched.contains(e.getKey()))
+                    continue;
+                for (List<Writable> example : e.getValue()) {
+                    unmatched.add(broadcastLeft ? join.joinExamples(example, null)
+                                    : join.joinExamples(null, example));
+                }
+            }
+            if (!unmatched.isEmpty()) {
+                out = out.union(sc.parallelize(unmatched));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Execute a join on the specified data, where the left data is skewed: i.e., some keys ("hot" keys) have a
+     * large number of examples, which would otherwise all be joined in a single task.<br>
+     * Hot keys are found from a sample of the keys of the left data ({@link #SKEW_JOIN_SAMPLE_SIZE} keys): a key is
+     * hot if it accounts for more than 1/numPartitions of the sample. The left examples for each hot key are spread
+     * over numSalts groups (by adding a salt value to the key), and the right examples for each hot key are
+     * replicated to each group. Other keys are joined as per {@link #executeJoin(Join, JavaRDD, JavaRDD)}.
+     *
+     * @param join     Join to execute
+     * @param left     Left (skewed) data for join
+     * @param right    Right data for join
+     * @param numSalts Number of groups to split the examples for each hot key into
+     * @return Joined data
+     */
+    public static JavaRDD<List<Writable>> executeSkewJoin(Join join, JavaRDD<List<Writable>> left,
+                    JavaRDD<List<Writable>> right, int numSalts) {
+        if (numSalts <= 0)
+            throw new IllegalArgumentException("Invalid number of salts: must be positive, got " + numSalts);
+
+        JavaPairRDD<List<Writable>, List<Writable>> leftJV =
+                        left.mapToPair(new ExtractKeysFunction(getJoinColumnIndexes(join, true)));
+        JavaPairRDD<List<Writable>, List<Writable>> rightJV =
+                        right.mapToPair(new ExtractKeysFunction(getJoinColumnIndexes(join, false)));
+
+        List<List<Writable>> sample = leftJV.keys().takeSample(false, SKEW_JOIN_SAMPLE_SIZE);
+        Map<List<Writable>, Integer> counts = new HashMap<>();
+        for (List<Writable> key : sample) {
+            Integer c = counts.get(key);
+            counts.put(key, c == null ? 1 : c + 1);
+        }
+        int threshold = Math.max(2, sample.size() / left.partitions().size());
+        Set<List<Writable>> hotKeys = new HashSet<>();
+        for (Map.Entry<List<Writable>, Integer> e : counts.entrySet()) {
+            if (e.getValue() > threshold)
+                hotKeys.add(e.getKey());
+        }
+        if (hotKeys.isEmpty() || numSalts == 1) {
+            return leftJV.cogroup(rightJV).flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join));
+        }
+
+        JavaSparkContext sc = JavaSparkContext.fromSparkContext(left.context());
+        Broadcast<Set<List<Writable>>> hotKeysBroadcast = sc.broadcast(hotKeys);
+        JavaPairRDD<List<Writable>, List<Writable>> saltedLeft =
+                        leftJV.mapToPair(new SaltKeysFunction(hotKeysBroadcast, numSalts));
+        JavaPairRDD<List<Writable>, List<Writable>> saltedRight =
+                        JavaPairRDD.fromJavaRDD(rightJV.flatMap(new ReplicateKeysFunction(hotKeysBroadcast, numSalts)));
+
+        return saltedLeft.cogroup(saltedRight).flatMap(new ExecuteJoinFromCoGroupFlatMapFunction(join, true));
+    }
+
+    private static int[] getJoinColumnIndexes(Join join, boolean left) {
+        String[] columnNames = left ? join.getJoinColumnsLeft() : join.getJoinColumnsRight();
+        Schema schema = left ? join.getLeftSchema() : join.getRightSchema();
+        int[] columnIndexes = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columnIndexes[i] = schema.getIndexOfColumn(columnNames[i]);
+        }
+        return columnIndexes;
+    }
 }
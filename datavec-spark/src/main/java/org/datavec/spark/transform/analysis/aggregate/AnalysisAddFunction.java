@@ -16,73 +16,29 @@
 
 package org.datavec.spark.transform.analysis.aggregate;
 
-import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.Function2;
-import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
-import org.datavec.spark.transform.analysis.columns.*;
-import org.datavec.spark.transform.analysis.string.StringAnalysisCounter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Add function used for undertaking analysis of a data set via Spark
+ * Add function used for undertaking analysis of a data set via Spark.
+ * See {@link org.datavec.api.transform.analysis.aggregate.AnalysisAddFunction}
  *
  * @author Alex Black
  */
-@AllArgsConstructor
 public class AnalysisAddFunction implements Function2<List<AnalysisCounter>, List<Writable>, List<AnalysisCounter>> {
-    private Schema schema;
+    private final org.datavec.api.transform.analysis.aggregate.AnalysisAddFunction addFunction;
+
+    public AnalysisAddFunction(Schema schema) {
+        this.addFunction = new org.datavec.api.transform.analysis.aggregate.AnalysisAddFunction(schema);
+    }
 
     @Override
     public List<AnalysisCounter> call(List<AnalysisCounter> analysisCounters, List<Writable> writables)
                     throws Exception {
-        if (analysisCounters == null) {
-            analysisCounters = new ArrayList<>();
-            List<ColumnType> columnTypes = schema.getColumnTypes();
-            for (ColumnType ct : columnTypes) {
-                switch (ct) {
-                    case String:
-                        analysisCounters.add(new StringAnalysisCounter());
-                        break;
-                    case Integer:
-                        analysisCounters.add(new IntegerAnalysisCounter());
-                        break;
-                    case Long:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Double:
-                        analysisCounters.add(new DoubleAnalysisCounter());
-                        break;
-                    case Categorical:
-                        analysisCounters.add(new CategoricalAnalysisCounter());
-                        break;
-                    case Time:
-                        analysisCounters.add(new LongAnalysisCounter());
-                        break;
-                    case Bytes:
-                        analysisCounters.add(new BytesAnalysisCounter());
-                        break;
-                    case NDArray:
-                        analysisCounters.add(new NDArrayAnalysisCounter());
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown column type: " + ct);
-                }
-            }
-        }
-
-        int size = analysisCounters.size();
-        if (size != writables.size())
-            throw new IllegalStateException("Writables list and number of counters does not match (" + writables.size()
-                            + " vs " + size + ")");
-        for (int i = 0; i < size; i++) {
-            analysisCounters.get(i).add(writables.get(i));
-        }
-
-        return analysisCounters;
+        return addFunction.apply(analysisCounters, writables);
     }
 }
@@ -17,33 +17,23 @@
 package org.datavec.spark.transform.analysis.aggregate;
 
 import org.apache.spark.api.java.function.Function2;
-import org.datavec.spark.transform.analysis.AnalysisCounter;
+import org.datavec.api.transform.analysis.AnalysisCounter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Combine function used for undertaking analysis of a data set via Spark
+ * Combine function used for undertaking analysis of a data set via Spark.
+ * See {@link org.datavec.api.transform.analysis.aggregate.AnalysisCombineFunction}
  *
  * @author Alex Black
  */
 public class AnalysisCombineFunction
                 implements Function2<List<AnalysisCounter>, List<AnalysisCounter>, List<AnalysisCounter>> {
+    private final org.datavec.api.transform.analysis.aggregate.AnalysisCombineFunction combineFunction =
+                    new org.datavec.api.transform.analysis.aggregate.AnalysisCombineFunction();
+
     @Override
     public List<AnalysisCounter> call(List<AnalysisCounter> l1, List<AnalysisCounter> l2) throws Exception {
-        if (l1 == null)
-            return l2;
-        if (l2 == null)
-            return l1;
-
-        int size = l1.size();
-        if (size != l2.size())
-            throw new IllegalStateException("List lengths differ");
-
-        List<AnalysisCounter> out = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            out.add(l1.get(i).merge(l2.get(i)));
-        }
-        return out;
+        return combineFunction.apply(l1, l2);
     }
 }
@@ -17,42 +17,23 @@
 package org.datavec.spark.transform.analysis.histogram;
 
 import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.analysis.histogram.HistogramCounter;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A combiner function used in the calculation of histograms
+ * A combiner function used in the calculation of histograms via Spark.
+ * See {@link org.datavec.api.transform.analysis.histogram.HistogramCombineFunction}
  *
  * @author Alex Black
  */
 public class HistogramCombineFunction
                 implements Function2<List<HistogramCounter>, List<HistogramCounter>, List<HistogramCounter>> {
+    private final org.datavec.api.transform.analysis.histogram.HistogramCombineFunction combineFunction =
+                    new org.datavec.api.transform.analysis.histogram.HistogramCombineFunction();
+
     @Override
     public List<HistogramCounter> call(List<HistogramCounter> l1, List<HistogramCounter> l2) throws Exception {
-        if (l1 == null)
-            return l2;
-        if (l2 == null)
-            return l1;
-
-        int size = l1.size();
-        if (size != l2.size())
-            throw new IllegalStateException("List lengths differ");
-
-        List<HistogramCounter> out = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            HistogramCounter c1 = l1.get(i);
-            HistogramCounter c2 = l2.get(i);
-
-            //Normally shouldn't get null values here - but maybe for Bytes column, etc.
-            if (c1 == null) {
-                out.add(c2);
-            } else if (c2 == null) {
-                out.add(c1);
-            } else {
-                out.add(c1.merge(c2));
-            }
-        }
-        return out;
+        return combineFunction.apply(l1, l2);
     }
 }
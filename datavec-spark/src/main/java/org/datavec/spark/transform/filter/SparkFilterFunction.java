@@ -26,7 +26,11 @@ import java.util.List;
 /**
  * Spark function for executing filter operations
  * @author Alex Black
+ * @deprecated No longer used by {@link org.datavec.spark.transform.SparkTransformExecutor}, which executes
+ * consecutive transforms and filters in one pass; see
+ * {@link org.datavec.spark.transform.transform.SparkFusedTransformFunction}
  */
+@Deprecated
 @AllArgsConstructor
 public class SparkFilterFunction implements Function<List<Writable>, Boolean> {
 
@@ -0,0 +1,73 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.transform.join.Join;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+
+import java.util.*;
+
+/**
+ * Execute a join for one example of the large side, by looking up its key in a broadcast hash table (key values to
+ * examples) of the small side.<br>
+ * Examples of the large side without a match are returned (joined with null) if the join type includes all examples
+ * of the large side. Examples of the small side without a match are not handled here.
+ */
+public class BroadcastHashJoinFunctionAdapter implements FlatMapFunctionAdapter<List<Writable>, List<Writable>> {
+
+    private final Join join;
+    private final int[] keyColumnIdxs;
+    private final Broadcast<Map<List<Writable>, List<List<Writable>>>> broadcast;
+    private final boolean broadcastIsLeft;
+    private final boolean returnUnmatched;
+
+    public BroadcastHashJoinFunctionAdapter(Join join, int[] keyColumnIdxs,
+                    Broadcast<Map<List<Writable>, List<List<Writable>>>> broadcast, boolean broadcastIsLeft) {
+        this.join = join;
+        this.keyColumnIdxs = keyColumnIdxs;
+        this.broadcast = broadcast;
+        this.broadcastIsLeft = broadcastIsLeft;
+        Join.JoinType jt = join.getJoinType();
+        this.returnUnmatched = jt == Join.JoinType.FullOuter
+                        || (broadcastIsLeft ? jt == Join.JoinType.RightOuter : jt == Join.JoinType.LeftOuter);
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(List<Writable> writables) throws Exception {
+        List<Writable> key = new ArrayList<>(keyColumnIdxs.length);
+        for (int i : keyColumnIdxs) {
+            key.add(writables.get(i));
+        }
+
+        List<List<Writable>> matches = broadcast.getValue().get(key);
+        if (matches == null) {
+            if (!returnUnmatched)
+                return Collections.emptyList();
+            return Collections.singletonList(broadcastIsLeft ? join.joinExamples(null, writables)
+                            : join.joinExamples(writables, null));
+        }
+
+        List<List<Writable>> out = new ArrayList<>(matches.size());
+        for (List<Writable> m : matches) {
+            out.add(broadcastIsLeft ? join.joinExamples(m, writables) : join.joinExamples(writables, m));
+        }
+        return out;
+    }
+}
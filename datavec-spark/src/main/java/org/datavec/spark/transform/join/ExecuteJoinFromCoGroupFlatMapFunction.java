@@ -34,4 +34,8 @@ public class ExecuteJoinFromCoGroupFlatMapFunction extends
     public ExecuteJoinFromCoGroupFlatMapFunction(Join join) {
         super(new ExecuteJoinFromCoGroupFlatMapFunctionAdapter(join));
     }
+
+    public ExecuteJoinFromCoGroupFlatMapFunction(Join join, boolean saltedKeys) {
+        super(new ExecuteJoinFromCoGroupFlatMapFunctionAdapter(join, saltedKeys));
+    }
 }
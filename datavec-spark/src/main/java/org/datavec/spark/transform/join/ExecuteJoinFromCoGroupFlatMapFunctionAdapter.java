@@ -6,11 +6,18 @@ import org.datavec.api.writable.Writable;
 import org.datavec.spark.functions.FlatMapFunctionAdapter;
 import scala.Tuple2;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
- * Execute a join
+ * Execute a join.<br>
+ * Joined examples are generated lazily as the returned Iterable is iterated over, so the output for a key with many
+ * values on both sides is never held in memory.<br>
+ * If saltedKeys is true, the last key value is the salt added by {@link SaltKeysFunction} (and
+ * {@link ReplicateKeysFunction}): for hot (salted) keys, right values are replicated to every salt bucket, so right
+ * values without any left values in a bucket are not returned (hot keys always have left values, in other buckets).
  *
  * @author Alex Black
  */
@@ -18,9 +25,15 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
                 FlatMapFunctionAdapter<Tuple2<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>>, List<Writable>> {
 
     private final Join join;
+    private final boolean saltedKeys;
 
     public ExecuteJoinFromCoGroupFlatMapFunctionAdapter(Join join) {
+        this(join, false);
+    }
+
+    public ExecuteJoinFromCoGroupFlatMapFunctionAdapter(Join join, boolean saltedKeys) {
         this.join = join;
+        this.saltedKeys = saltedKeys;
     }
 
     @Override
@@ -28,76 +41,87 @@ public class ExecuteJoinFromCoGroupFlatMapFunctionAdapter implements
                     Tuple2<List<Writable>, Tuple2<Iterable<List<Writable>>, Iterable<List<Writable>>>> t2)
                     throws Exception {
 
-        Iterable<List<Writable>> leftList = t2._2()._1();
-        Iterable<List<Writable>> rightList = t2._2()._2();
+        final Iterable<List<Writable>> leftList = t2._2()._1();
+        final Iterable<List<Writable>> rightList = t2._2()._2();
+        boolean leftEmpty = Iterables.isEmpty(leftList);
+        boolean rightEmpty = Iterables.isEmpty(rightList);
+        boolean hotKey = saltedKeys && t2._1().get(t2._1().size() - 1).toInt() >= 0;
 
-        List<List<Writable>> ret = new ArrayList<>();
         Join.JoinType jt = join.getJoinType();
-        switch (jt) {
-            case Inner:
-                //Return records where key columns appear in BOTH
-                //So if no values from left OR right: no return values
-                for (List<Writable> jvl : leftList) {
-                    for (List<Writable> jvr : rightList) {
-                        List<Writable> joined = join.joinExamples(jvl, jvr);
-                        ret.add(joined);
-                    }
-                }
-                break;
-            case LeftOuter:
-                //Return all records from left, even if no corresponding right value (NullWritable in that case)
-                for (List<Writable> jvl : leftList) {
-                    if (Iterables.size(rightList) == 0) {
-                        List<Writable> joined = join.joinExamples(jvl, null);
-                        ret.add(joined);
-                    } else {
-                        for (List<Writable> jvr : rightList) {
-                            List<Writable> joined = join.joinExamples(jvl, jvr);
-                            ret.add(joined);
-                        }
-                    }
-                }
-                break;
-            case RightOuter:
-                //Return all records from right, even if no corresponding left value (NullWritable in that case)
-                for (List<Writable> jvr : rightList) {
-                    if (Iterables.size(leftList) == 0) {
-                        List<Writable> joined = join.joinExamples(null, jvr);
-                        ret.add(joined);
-                    } else {
-                        for (List<Writable> jvl : leftList) {
-                            List<Writable> joined = join.joinExamples(jvl, jvr);
-                            ret.add(joined);
-                        }
-                    }
-                }
-                break;
-            case FullOuter:
-                //Return all records, even if no corresponding left/right value (NullWritable in that case)
-                if (Iterables.size(leftList) == 0) {
-                    //Only right values
-                    for (List<Writable> jvr : rightList) {
-                        List<Writable> joined = join.joinExamples(null, jvr);
-                        ret.add(joined);
-                    }
-                } else if (Iterables.size(rightList) == 0) {
-                    //Only left values
-                    for (List<Writable> jvl : leftList) {
-                        List<Writable> joined = join.joinExamples(jvl, null);
-                        ret.add(joined);
-                    }
-                } else {
-                    //Records from both left and right
-                    for (List<Writable> jvl : leftList) {
-                        for (List<Writable> jvr : rightList) {
-                            List<Writable> joined = join.joinExamples(jvl, jvr);
-                            ret.add(joined);
-                        }
-                    }
-                }
-                break;
+        if (!leftEmpty && !rightEmpty) {
+            //Records from both left and right: all join types return all pairs
+            if (jt == Join.JoinType.RightOuter) {
+                return product(rightList, leftList, false);
+            }
+            return product(leftList, rightList, true);
+        } else if (rightEmpty && (jt == Join.JoinType.LeftOuter || jt == Join.JoinType.FullOuter)) {
+            //Only left values: NullWritable for right values
+            return product(leftList, null, true);
+        } else if (leftEmpty && !hotKey && (jt == Join.JoinType.RightOuter || jt == Join.JoinType.FullOuter)) {
+            //Only right values: NullWritable for left values
+            return product(rightList, null, false);
         }
+        return Collections.emptyList();
+    }
 
-        return ret;
+    /**
+     * Lazily join each outer value with each inner value, or with null if inner is null
+     */
+    private Iterable<List<Writable>> product(final Iterable<List<Writable>> outer,
+                    final Iterable<List<Writable>> inner, final boolean outerIsLeft) {
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new ProductIterator(outer.iterator(), inner, outerIsLeft);
+            }
+        };
+    }
+
+    private class ProductIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> outer;
+        private final Iterable<List<Writable>> inner;
+        private final boolean outerIsLeft;
+        private List<Writable> currentOuter;
+        private Iterator<List<Writable>> innerIter;
+
+        private ProductIterator(Iterator<List<Writable>> outer, Iterable<List<Writable>> inner, boolean outerIsLeft) {
+            this.outer = outer;
+            this.inner = inner;
+            this.outerIsLeft = outerIsLeft;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (inner == null)
+                return outer.hasNext();
+            while (innerIter == null || !innerIter.hasNext()) {
+                if (!outer.hasNext())
+                    return false;
+                currentOuter = outer.next();
+                innerIter = inner.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<Writable> o;
+            List<Writable> i;
+            if (inner == null) {
+                o = outer.next();
+                i = null;
+            } else {
+                o = currentOuter;
+                i = innerIter.next();
+            }
+            return outerIsLeft ? join.joinExamples(o, i) : join.joinExamples(i, o);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
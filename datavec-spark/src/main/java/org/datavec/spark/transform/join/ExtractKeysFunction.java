@@ -26,7 +26,7 @@ public class ExtractKeysFunction implements PairFunction<List<Writable>, List<Wr
         } else {
             keyValues = new ArrayList<>(columnIndexes.length);
             for (int i : columnIndexes) {
-                keyValues.add(writables.get(columnIndexes[i]));
+                keyValues.add(writables.get(i));
             }
         }
 
@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.writable.Writable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spark function to retain only the keys that are present in the broadcast hash table
+ */
+@AllArgsConstructor
+public class FilterKeysInBroadcastFunction implements Function<List<Writable>, Boolean> {
+
+    private final Broadcast<Map<List<Writable>, List<List<Writable>>>> broadcast;
+
+    @Override
+    public Boolean call(List<Writable> key) throws Exception {
+        return broadcast.getValue().containsKey(key);
+    }
+}
@@ -0,0 +1,66 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Add a salt value to the key of a (key, example) pair of the right side of a skew join: for hot keys, the example
+ * is returned once for each salt value 0 to numSalts-1 (to match every group of the left side examples, as salted by
+ * {@link SaltKeysFunction}); for all other keys, the example is returned once with a salt value of -1.
+ */
+public class ReplicateKeysFunctionAdapter implements
+                FlatMapFunctionAdapter<Tuple2<List<Writable>, List<Writable>>, Tuple2<List<Writable>, List<Writable>>> {
+
+    private final Broadcast<Set<List<Writable>>> hotKeys;
+    private final int numSalts;
+
+    public ReplicateKeysFunctionAdapter(Broadcast<Set<List<Writable>>> hotKeys, int numSalts) {
+        this.hotKeys = hotKeys;
+        this.numSalts = numSalts;
+    }
+
+    @Override
+    public Iterable<Tuple2<List<Writable>, List<Writable>>> call(Tuple2<List<Writable>, List<Writable>> t2)
+                    throws Exception {
+        if (!hotKeys.getValue().contains(t2._1())) {
+            return Collections.singletonList(salted(t2, -1));
+        }
+        List<Tuple2<List<Writable>, List<Writable>>> out = new ArrayList<>(numSalts);
+        for (int i = 0; i < numSalts; i++) {
+            out.add(salted(t2, i));
+        }
+        return out;
+    }
+
+    private static Tuple2<List<Writable>, List<Writable>> salted(Tuple2<List<Writable>, List<Writable>> t2, int salt) {
+        List<Writable> key = new ArrayList<>(t2._1().size() + 1);
+        key.addAll(t2._1());
+        key.add(new IntWritable(salt));
+        return new Tuple2<>(key, t2._2());
+    }
+}
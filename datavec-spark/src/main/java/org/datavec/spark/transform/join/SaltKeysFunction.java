@@ -0,0 +1,58 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.join;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.PairFunction;
+import org.apache.spark.broadcast.Broadcast;
+import org.datavec.api.writable.IntWritable;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Spark function to add a salt value to the key of each (key, example) pair of the (large) left side of a skew
+ * join.<br>
+ * For hot keys, the salt is in the range 0 to numSalts-1 (derived from the hash code of the example), so the examples
+ * for a hot key are spread over numSalts groups. For all other keys, the salt is -1.
+ * See {@link ReplicateKeysFunction} for the right side.
+ */
+@AllArgsConstructor
+public class SaltKeysFunction implements
+                PairFunction<Tuple2<List<Writable>, List<Writable>>, List<Writable>, List<Writable>> {
+
+    private final Broadcast<Set<List<Writable>>> hotKeys;
+    private final int numSalts;
+
+    @Override
+    public Tuple2<List<Writable>, List<Writable>> call(Tuple2<List<Writable>, List<Writable>> t2) throws Exception {
+        int salt = -1;
+        if (hotKeys.getValue().contains(t2._1())) {
+            salt = t2._2().hashCode() % numSalts;
+            if (salt < 0)
+                salt += numSalts;
+        }
+        List<Writable> key = new ArrayList<>(t2._1().size() + 1);
+        key.addAll(t2._1());
+        key.add(new IntWritable(salt));
+        return new Tuple2<>(key, t2._2());
+    }
+}
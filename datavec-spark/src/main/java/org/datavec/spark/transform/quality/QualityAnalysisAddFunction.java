@@ -16,78 +16,31 @@
 
 package org.datavec.spark.transform.quality;
 
-import lombok.AllArgsConstructor;
 import org.apache.spark.api.java.function.Function2;
-import org.datavec.api.transform.ColumnType;
-import org.datavec.api.transform.metadata.*;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
-import org.datavec.spark.transform.quality.bytes.BytesQualityAnalysisState;
-import org.datavec.spark.transform.quality.categorical.CategoricalQualityAnalysisState;
-import org.datavec.spark.transform.quality.integer.IntegerQualityAnalysisState;
-import org.datavec.spark.transform.quality.longq.LongQualityAnalysisState;
-import org.datavec.spark.transform.quality.real.RealQualityAnalysisState;
-import org.datavec.spark.transform.quality.string.StringQualityAnalysisState;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Add function used for undertaking quality analysis of a data set via Spark
+ * Add function used for undertaking quality analysis of a data set via Spark.
+ * See {@link org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction}
  *
  * @author Alex Black
  */
-@AllArgsConstructor
 public class QualityAnalysisAddFunction
                 implements Function2<List<QualityAnalysisState>, List<Writable>, List<QualityAnalysisState>> {
 
-    private Schema schema;
+    private final org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction addFunction;
+
+    public QualityAnalysisAddFunction(Schema schema) {
+        this.addFunction = new org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction(schema);
+    }
 
     @Override
     public List<QualityAnalysisState> call(List<QualityAnalysisState> analysisStates, List<Writable> writables)
                     throws Exception {
-        if (analysisStates == null) {
-            analysisStates = new ArrayList<>();
-            List<ColumnType> columnTypes = schema.getColumnTypes();
-            List<ColumnMetaData> columnMetaDatas = schema.getColumnMetaData();
-            for (int i = 0; i < columnTypes.size(); i++) {
-                switch (columnTypes.get(i)) {
-                    case String:
-                        analysisStates.add(new StringQualityAnalysisState((StringMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Integer:
-                        analysisStates.add(new IntegerQualityAnalysisState((IntegerMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Long:
-                        analysisStates.add(new LongQualityAnalysisState((LongMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Double:
-                        analysisStates.add(new RealQualityAnalysisState((DoubleMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Categorical:
-                        analysisStates.add(new CategoricalQualityAnalysisState(
-                                        (CategoricalMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Time:
-                        analysisStates.add(new LongQualityAnalysisState((LongMetaData) columnMetaDatas.get(i)));
-                        break;
-                    case Bytes:
-                        analysisStates.add(new BytesQualityAnalysisState()); //TODO
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown column type: " + columnTypes.get(i));
-                }
-            }
-        }
-
-        int size = analysisStates.size();
-        if (size != writables.size())
-            throw new IllegalStateException("Writables list and number of states does not match (" + writables.size()
-                            + " vs " + size + ")");
-        for (int i = 0; i < size; i++) {
-            analysisStates.get(i).add(writables.get(i));
-        }
-
-        return analysisStates;
+        return addFunction.apply(analysisStates, writables);
     }
 }
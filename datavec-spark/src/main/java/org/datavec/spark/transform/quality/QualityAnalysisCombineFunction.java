@@ -17,33 +17,24 @@
 package org.datavec.spark.transform.quality;
 
 import org.apache.spark.api.java.function.Function2;
+import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Combine function used for undertaking analysis of a data set via Spark
+ * Combine function used for undertaking quality analysis of a data set via Spark.
+ * See {@link org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction}
  *
  * @author Alex Black
  */
 public class QualityAnalysisCombineFunction implements
                 Function2<List<QualityAnalysisState>, List<QualityAnalysisState>, List<QualityAnalysisState>> {
+    private final org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction combineFunction =
+                    new org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction();
+
     @Override
     public List<QualityAnalysisState> call(List<QualityAnalysisState> l1, List<QualityAnalysisState> l2)
                     throws Exception {
-        if (l1 == null)
-            return l2;
-        if (l2 == null)
-            return l1;
-
-        int size = l1.size();
-        if (size != l2.size())
-            throw new IllegalStateException("List lengths differ");
-
-        List<QualityAnalysisState> out = new ArrayList<>();
-        for (int i = 0; i < size; i++) {
-            out.add(l1.get(i).merge(l2.get(i)));
-        }
-        return out;
+        return combineFunction.apply(l1, l2);
     }
 }
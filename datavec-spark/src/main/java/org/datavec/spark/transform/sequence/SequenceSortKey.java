@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Composite key used to convert examples to sequences by sorting (see {@link SequenceSortKeyComparator}): the values
+ * of the key columns (which determine the sequence the example belongs to), plus the value of the column the
+ * sequence is sorted on (which determines the position of the example within the sequence). The example itself is
+ * not part of the key
+ */
+@Data
+@AllArgsConstructor
+public class SequenceSortKey implements Serializable {
+
+    private List<Writable> key;
+    private Writable sortValue;
+
+}
@@ -0,0 +1,62 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.transform.sequence.comparator.BaseColumnComparator;
+import org.datavec.api.writable.Writable;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comparator for {@link SequenceSortKey}s: first by the key columns, then by the sort column values, using the
+ * provided column comparator.
+ * <br>
+ * The order of the key columns is arbitrary (hash code, then string representation) - it only needs to be consistent
+ * so that all examples of the same sequence are contiguous after sorting.
+ */
+public class SequenceSortKeyComparator implements Comparator<SequenceSortKey>, Serializable {
+
+    private final BaseColumnComparator comparator;
+
+    public SequenceSortKeyComparator(BaseColumnComparator comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int compare(SequenceSortKey o1, SequenceSortKey o2) {
+        int c = compareKeys(o1.getKey(), o2.getKey());
+        if (c != 0)
+            return c;
+        return comparator.compareColumnValues(o1.getSortValue(), o2.getSortValue());
+    }
+
+    public static int compareKeys(List<Writable> k1, List<Writable> k2) {
+        int c = Integer.compare(k1.hashCode(), k2.hashCode());
+        if (c != 0 || k1.equals(k2))
+            return c;
+        c = Integer.compare(k1.size(), k2.size());
+        for (int i = 0; c == 0 && i < k1.size(); i++) {
+            c = k1.get(i).toString().compareTo(k2.get(i).toString());
+            if (c == 0)
+                c = k1.get(i).getClass().getName().compareTo(k2.get(i).getClass().getName());
+        }
+        return c;
+    }
+}
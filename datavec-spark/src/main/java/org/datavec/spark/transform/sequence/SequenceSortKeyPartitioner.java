@@ -0,0 +1,58 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.apache.spark.Partitioner;
+
+/**
+ * Partitioner for {@link SequenceSortKey}s, based on the hash code of the key columns only, so that all examples for
+ * one sequence are assigned to the same partition
+ */
+public class SequenceSortKeyPartitioner extends Partitioner {
+
+    private final int numPartitions;
+
+    public SequenceSortKeyPartitioner(int numPartitions) {
+        if (numPartitions <= 0)
+            throw new IllegalArgumentException("Invalid number of partitions: " + numPartitions);
+        this.numPartitions = numPartitions;
+    }
+
+    @Override
+    public int numPartitions() {
+        return numPartitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+        int hash = ((SequenceSortKey) key).getKey().hashCode();
+        int mod = hash % numPartitions;
+        return mod < 0 ? mod + numPartitions : mod;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SequenceSortKeyPartitioner
+                        && ((SequenceSortKeyPartitioner) o).numPartitions == numPartitions;
+    }
+
+    @Override
+    public int hashCode() {
+        return numPartitions;
+    }
+}
@@ -0,0 +1,40 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function for executing a fused stage (a run of consecutive transforms and filters) on an entire partition
+ * of sequences, via {@code JavaRDD.mapPartitions}
+ *
+ * @see SparkFusedSequenceTransformFunctionAdapter
+ */
+public class SparkFusedSequenceTransformFunction
+                extends BaseFlatMapFunctionAdaptee<Iterator<List<List<Writable>>>, List<List<Writable>>> {
+
+    public SparkFusedSequenceTransformFunction(List<DataAction> actions) {
+        super(new SparkFusedSequenceTransformFunctionAdapter(actions));
+    }
+
+}
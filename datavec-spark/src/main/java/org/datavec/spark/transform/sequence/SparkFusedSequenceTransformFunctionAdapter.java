@@ -0,0 +1,119 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.SparkTransformExecutor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Executes a run of consecutive transform and filter actions lazily over all of the sequences in a partition.
+ * Sequences that are removed by a filter are skipped.<br>
+ * If {@link SparkTransformExecutor#isTryCatch()} is true, sequences that are empty after a transform are skipped.
+ * As for a separate map stage per sequence transform, exceptions are not caught.
+ */
+public class SparkFusedSequenceTransformFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<List<List<Writable>>>, List<List<Writable>>> {
+
+    private final Transform[] transforms;
+    private final Filter[] filters;
+
+    public SparkFusedSequenceTransformFunctionAdapter(List<DataAction> actions) {
+        int n = actions.size();
+        transforms = new Transform[n];
+        filters = new Filter[n];
+        for (int i = 0; i < n; i++) {
+            DataAction d = actions.get(i);
+            if (d.getTransform() != null) {
+                transforms[i] = d.getTransform();
+            } else if (d.getFilter() != null) {
+                filters[i] = d.getFilter();
+            } else {
+                throw new IllegalArgumentException("Only Transform and Filter actions can be fused: got " + d);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(final Iterator<List<List<Writable>>> partition) throws Exception {
+        final boolean tryCatch = SparkTransformExecutor.isTryCatch();
+        return new Iterable<List<List<Writable>>>() {
+            @Override
+            public Iterator<List<List<Writable>>> iterator() {
+                return new FusedIterator(partition, tryCatch);
+            }
+        };
+    }
+
+    /**
+     * Execute all steps on the specified sequence. Returns null if the sequence is filtered out.
+     */
+    private List<List<Writable>> execute(List<List<Writable>> sequence, boolean tryCatch) {
+        for (int i = 0; i < transforms.length; i++) {
+            if (transforms[i] != null) {
+                sequence = transforms[i].mapSequence(sequence);
+                if (tryCatch && sequence.isEmpty())
+                    return null;
+            } else if (filters[i].removeSequence(sequence)) {
+                return null;
+            }
+        }
+        return sequence;
+    }
+
+    private class FusedIterator implements Iterator<List<List<Writable>>> {
+        private final Iterator<List<List<Writable>>> input;
+        private final boolean tryCatch;
+        private List<List<Writable>> next;
+
+        private FusedIterator(Iterator<List<List<Writable>>> input, boolean tryCatch) {
+            this.input = input;
+            this.tryCatch = tryCatch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && input.hasNext()) {
+                List<List<Writable>> in = input.next();
+                next = execute(in, tryCatch);
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<List<Writable>> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<List<Writable>> ret = next;
+            next = null;
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import lombok.AllArgsConstructor;
+import org.apache.spark.api.java.function.PairFunction;
+import org.datavec.api.writable.Writable;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spark function to map an example to a {@link SequenceSortKey} (key column values and sort column value), with the
+ * example as the value
+ */
+@AllArgsConstructor
+public class SparkMapToSequenceSortKeyFunction
+                implements PairFunction<List<Writable>, SequenceSortKey, List<Writable>> {
+
+    private final int[] keyColumnIdxs;
+    private final int sortColumnIdx;
+
+    @Override
+    public Tuple2<SequenceSortKey, List<Writable>> call(List<Writable> writables) throws Exception {
+        List<Writable> keyOut = new ArrayList<>(keyColumnIdxs.length);
+        for (int keyColumnIdx : keyColumnIdxs) {
+            keyOut.add(writables.get(keyColumnIdx));
+        }
+        return new Tuple2<>(new SequenceSortKey(keyOut, writables.get(sortColumnIdx)), writables);
+    }
+}
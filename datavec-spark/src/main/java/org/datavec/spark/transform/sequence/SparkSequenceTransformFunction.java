@@ -26,7 +26,10 @@ import java.util.List;
 /**
  * Spark function for transforming sequences using a Transform
  * @author Alex Black
+ * @deprecated No longer used by {@link org.datavec.spark.transform.SparkTransformExecutor}, which executes
+ * consecutive transforms and filters in one pass; see {@link SparkFusedSequenceTransformFunction}
  */
+@Deprecated
 @AllArgsConstructor
 public class SparkSequenceTransformFunction implements Function<List<List<Writable>>, List<List<Writable>>> {
 
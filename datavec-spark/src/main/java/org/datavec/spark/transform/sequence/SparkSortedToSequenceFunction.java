@@ -0,0 +1,38 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+import scala.Tuple2;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Spark function to assemble sequences from a partition sorted by {@link SequenceSortKey}
+ * (see {@link SparkSortedToSequenceFunctionAdapter})
+ */
+public class SparkSortedToSequenceFunction extends
+                BaseFlatMapFunctionAdaptee<Iterator<Tuple2<SequenceSortKey, List<Writable>>>, List<List<Writable>>> {
+
+    public SparkSortedToSequenceFunction(int maxSequenceLength) {
+        super(new SparkSortedToSequenceFunctionAdapter(maxSequenceLength));
+    }
+
+}
@@ -0,0 +1,95 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.sequence;
+
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Assembles sequences by streaming through a partition that has been sorted by {@link SequenceSortKey} (i.e., the
+ * examples of each sequence are contiguous, and in order). Only one sequence is held in memory at a time.<br>
+ * If maxSequenceLength is positive, sequences longer than this are returned as multiple consecutive sequences of
+ * (at most) maxSequenceLength steps each, so memory use is bounded regardless of the sequence length.
+ */
+public class SparkSortedToSequenceFunctionAdapter implements
+                FlatMapFunctionAdapter<Iterator<Tuple2<SequenceSortKey, List<Writable>>>, List<List<Writable>>> {
+
+    private final int maxSequenceLength;
+
+    public SparkSortedToSequenceFunctionAdapter(int maxSequenceLength) {
+        this.maxSequenceLength = maxSequenceLength;
+    }
+
+    @Override
+    public Iterable<List<List<Writable>>> call(final Iterator<Tuple2<SequenceSortKey, List<Writable>>> partition)
+                    throws Exception {
+        return new Iterable<List<List<Writable>>>() {
+            @Override
+            public Iterator<List<List<Writable>>> iterator() {
+                return new SequenceIterator(partition);
+            }
+        };
+    }
+
+    private class SequenceIterator implements Iterator<List<List<Writable>>> {
+        private final Iterator<Tuple2<SequenceSortKey, List<Writable>>> input;
+        private Tuple2<SequenceSortKey, List<Writable>> pending; //First example of the next sequence (or chunk)
+
+        private SequenceIterator(Iterator<Tuple2<SequenceSortKey, List<Writable>>> input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null || input.hasNext();
+        }
+
+        @Override
+        public List<List<Writable>> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            if (pending == null)
+                pending = input.next();
+
+            List<Writable> key = pending._1().getKey();
+            List<List<Writable>> sequence = new ArrayList<>();
+            sequence.add(pending._2());
+            pending = null;
+            while (input.hasNext()) {
+                Tuple2<SequenceSortKey, List<Writable>> t = input.next();
+                if (!key.equals(t._1().getKey()) || (maxSequenceLength > 0 && sequence.size() >= maxSequenceLength)) {
+                    pending = t;
+                    break;
+                }
+                sequence.add(t._2());
+            }
+            return sequence;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
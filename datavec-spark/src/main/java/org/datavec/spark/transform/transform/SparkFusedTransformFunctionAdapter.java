@@ -0,0 +1,101 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+
+package org.datavec.spark.transform.transform;
+
+import lombok.extern.slf4j.Slf4j;
+import org.datavec.api.transform.CompiledTransformProcess;
+import org.datavec.api.writable.Writable;
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.SparkTransformExecutor;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Executes a {@link CompiledTransformProcess} lazily over all of the records in a partition. Records that are
+ * removed by a filter are skipped.<br>
+ * If {@link SparkTransformExecutor#isTryCatch()} is true, records that throw an exception during execution (or
+ * that are empty after execution) are logged and skipped, instead of failing the job.
+ */
+@Slf4j
+public class SparkFusedTransformFunctionAdapter
+                implements FlatMapFunctionAdapter<Iterator<List<Writable>>, List<Writable>> {
+
+    private final CompiledTransformProcess compiled;
+
+    public SparkFusedTransformFunctionAdapter(CompiledTransformProcess compiled) {
+        this.compiled = compiled;
+    }
+
+    @Override
+    public Iterable<List<Writable>> call(final Iterator<List<Writable>> partition) throws Exception {
+        final boolean tryCatch = SparkTransformExecutor.isTryCatch();
+        return new Iterable<List<Writable>>() {
+            @Override
+            public Iterator<List<Writable>> iterator() {
+                return new FusedIterator(partition, tryCatch);
+            }
+        };
+    }
+
+    private class FusedIterator implements Iterator<List<Writable>> {
+        private final Iterator<List<Writable>> input;
+        private final boolean tryCatch;
+        private List<Writable> next;
+
+        private FusedIterator(Iterator<List<Writable>> input, boolean tryCatch) {
+            this.input = input;
+            this.tryCatch = tryCatch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && input.hasNext()) {
+                List<Writable> in = input.next();
+                if (tryCatch) {
+                    try {
+                        next = compiled.execute(in);
+                    } catch (Exception e) {
+                        log.warn("Error occurred " + e + " on record " + in);
+                        next = null;
+                    }
+                    if (next != null && next.isEmpty())
+                        next = null;
+                } else {
+                    next = compiled.execute(in);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<Writable> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            List<Writable> ret = next;
+            next = null;
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
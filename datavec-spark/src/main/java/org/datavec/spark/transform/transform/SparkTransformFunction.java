@@ -28,7 +28,10 @@ import java.util.List;
 
 /**
  * Created by Alex on 5/03/2016.
+ * @deprecated No longer used by {@link SparkTransformExecutor}, which executes consecutive transforms and filters
+ * in one pass; see {@link SparkFusedTransformFunction}
  */
+@Deprecated
 @AllArgsConstructor
 @Slf4j
 public class SparkTransformFunction implements Function<List<Writable>, List<Writable>> {
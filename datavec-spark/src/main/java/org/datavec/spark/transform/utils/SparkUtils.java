@@ -31,6 +31,7 @@ import org.datavec.api.transform.split.RandomSplit;
 import org.datavec.api.transform.split.SplitStrategy;
 import org.datavec.api.transform.ui.HtmlAnalysis;
 import org.datavec.api.writable.*;
+import org.datavec.spark.util.kryo.DataVecKryoRegistrator;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -43,6 +44,8 @@ import java.util.List;
  */
 public class SparkUtils {
 
+    public static final String KRYO_REGISTRATOR_KEY = "spark.kryo.registrator";
+
     public static <T> List<JavaRDD<T>> splitData(SplitStrategy splitStrategy, JavaRDD<T> data, long seed) {
 
         if (splitStrategy instanceof RandomSplit) {
@@ -269,14 +272,18 @@ public class SparkUtils {
     }
 
     /**
-     * Register the DataVec writable classes for Kryo
+     * Register the DataVec classes for Kryo, via {@link DataVecKryoRegistrator}: writables (with dedicated
+     * serializers), records, sequences and analysis counters. Any registrators already set in the configuration
+     * are retained.
      */
     public static void registerKryoClasses(SparkConf conf) {
-        List<Class<?>> classes = Arrays.<Class<?>>asList(BooleanWritable.class, ByteWritable.class,
-                        DoubleWritable.class, FloatWritable.class, IntWritable.class, LongWritable.class,
-                        NullWritable.class, Text.class);
-
-        conf.registerKryoClasses((Class<?>[]) classes.toArray());
+        String registrator = DataVecKryoRegistrator.class.getName();
+        String existing = conf.get(KRYO_REGISTRATOR_KEY, "");
+        if (existing.isEmpty()) {
+            conf.set(KRYO_REGISTRATOR_KEY, registrator);
+        } else if (!Arrays.asList(existing.split(",")).contains(registrator)) {
+            conf.set(KRYO_REGISTRATOR_KEY, existing + "," + registrator);
+        }
     }
 
     public static Class<? extends CompressionCodec> getCompressionCodeClass(String compressionCodecClass) {
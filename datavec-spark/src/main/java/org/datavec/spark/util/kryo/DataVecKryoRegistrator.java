@@ -0,0 +1,68 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.util.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.datavec.api.transform.analysis.counter.*;
+import org.datavec.api.writable.*;
+import org.datavec.spark.util.kryo.WritableSerializers.*;
+
+import java.util.*;
+
+/**
+ * A Kryo registrator for DataVec classes commonly serialized by Spark: all writables (with the dedicated serializers
+ * in {@link WritableSerializers}), records and sequences (as {@code List<Writable>} and {@code List<List<Writable>>}),
+ * and the analysis counters.<br>
+ * Use with {@link org.datavec.spark.transform.utils.SparkUtils#registerKryoClasses(org.apache.spark.SparkConf)}, or
+ * directly via {@code sparkConf.set("spark.kryo.registrator", DataVecKryoRegistrator.class.getName())}
+ */
+public class DataVecKryoRegistrator implements KryoRegistrator {
+
+    @Override
+    public void registerClasses(Kryo kryo) {
+        //Note: registration order determines the class IDs, hence must not depend on anything other than this method
+        kryo.register(BooleanWritable.class, new BooleanWritableSerializer());
+        kryo.register(ByteWritable.class, new ByteWritableSerializer());
+        kryo.register(DoubleWritable.class, new DoubleWritableSerializer());
+        kryo.register(FloatWritable.class, new FloatWritableSerializer());
+        kryo.register(IntWritable.class, new IntWritableSerializer());
+        kryo.register(LongWritable.class, new LongWritableSerializer());
+        kryo.register(NullWritable.class, new NullWritableSerializer());
+        kryo.register(Text.class, new TextSerializer());
+        kryo.register(NDArrayWritable.class, new NDArrayWritableSerializer());
+        kryo.register(SparseVectorWritable.class, new SparseVectorWritableSerializer());
+
+        ListSerializer listSerializer = new ListSerializer();
+        kryo.register(ArrayList.class, listSerializer);
+        kryo.register(Arrays.asList().getClass(), listSerializer);
+        kryo.register(Collections.emptyList().getClass(), listSerializer);
+        kryo.register(Collections.singletonList(null).getClass(), listSerializer);
+        kryo.register(Collections.unmodifiableList(new ArrayList<>()).getClass(), listSerializer);
+        kryo.register(Collections.unmodifiableList(new LinkedList<>()).getClass(), listSerializer);
+
+        kryo.register(StatCounter.class);
+        kryo.register(BytesAnalysisCounter.class);
+        kryo.register(CategoricalAnalysisCounter.class);
+        kryo.register(DoubleAnalysisCounter.class);
+        kryo.register(IntegerAnalysisCounter.class);
+        kryo.register(LongAnalysisCounter.class);
+        kryo.register(NDArrayAnalysisCounter.class);
+        kryo.register(StringAnalysisCounter.class);
+        kryo.register(HashMap.class);
+    }
+}
@@ -0,0 +1,325 @@
+/*-
+ *  * Copyright 2017 Skymind, Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ */
+
+package org.datavec.spark.util.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.datavec.api.writable.*;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written Kryo serializers for DataVec {@link Writable}s and records, registered by
+ * {@link DataVecKryoRegistrator}.<br>
+ * Compared to Kryo's default FieldSerializer (or Java serialization), these write only the values themselves:
+ * primitive writables as their raw (or variable length) values, {@link Text} as length-prefixed UTF-8 bytes, and
+ * {@link NDArrayWritable} as the shape plus a direct copy of the array's data buffer.
+ */
+public class WritableSerializers {
+
+    private WritableSerializers() {}
+
+    public static class BooleanWritableSerializer extends Serializer<BooleanWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, BooleanWritable w) {
+            output.writeBoolean(w.get());
+        }
+
+        @Override
+        public BooleanWritable read(Kryo kryo, Input input, Class<BooleanWritable> type) {
+            return new BooleanWritable(input.readBoolean());
+        }
+    }
+
+    public static class ByteWritableSerializer extends Serializer<ByteWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, ByteWritable w) {
+            output.writeByte(w.get());
+        }
+
+        @Override
+        public ByteWritable read(Kryo kryo, Input input, Class<ByteWritable> type) {
+            return new ByteWritable(input.readByte());
+        }
+    }
+
+    public static class IntWritableSerializer extends Serializer<IntWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, IntWritable w) {
+            output.writeInt(w.get(), false);
+        }
+
+        @Override
+        public IntWritable read(Kryo kryo, Input input, Class<IntWritable> type) {
+            return new IntWritable(input.readInt(false));
+        }
+    }
+
+    public static class LongWritableSerializer extends Serializer<LongWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, LongWritable w) {
+            output.writeLong(w.get(), false);
+        }
+
+        @Override
+        public LongWritable read(Kryo kryo, Input input, Class<LongWritable> type) {
+            return new LongWritable(input.readLong(false));
+        }
+    }
+
+    public static class FloatWritableSerializer extends Serializer<FloatWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, FloatWritable w) {
+            output.writeFloat(w.get());
+        }
+
+        @Override
+        public FloatWritable read(Kryo kryo, Input input, Class<FloatWritable> type) {
+            return new FloatWritable(input.readFloat());
+        }
+    }
+
+    public static class DoubleWritableSerializer extends Serializer<DoubleWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, DoubleWritable w) {
+            output.writeDouble(w.get());
+        }
+
+        @Override
+        public DoubleWritable read(Kryo kryo, Input input, Class<DoubleWritable> type) {
+            return new DoubleWritable(input.readDouble());
+        }
+    }
+
+    public static class NullWritableSerializer extends Serializer<NullWritable> {
+        public NullWritableSerializer() {
+            super(false, true);
+        }
+
+        @Override
+        public void write(Kryo kryo, Output output, NullWritable w) {
+            //No content
+        }
+
+        @Override
+        public NullWritable read(Kryo kryo, Input input, Class<NullWritable> type) {
+            return NullWritable.INSTANCE;
+        }
+    }
+
+    public static class TextSerializer extends Serializer<Text> {
+        @Override
+        public void write(Kryo kryo, Output output, Text w) {
+            output.writeInt(w.getLength(), true);
+            output.writeBytes(w.getBytes(), 0, w.getLength());
+        }
+
+        @Override
+        public Text read(Kryo kryo, Input input, Class<Text> type) {
+            int length = input.readInt(true);
+            return new Text(input.readBytes(length));
+        }
+    }
+
+    public static class SparseVectorWritableSerializer extends Serializer<SparseVectorWritable> {
+        @Override
+        public void write(Kryo kryo, Output output, SparseVectorWritable w) {
+            int[] indices = w.getIndices();
+            double[] values = w.getValues();
+            output.writeInt((int) w.length(), true);
+            output.writeInt(indices.length, true);
+            //Indices are strictly ascending: delta encoding keeps the variable length values small
+            int last = 0;
+            for (int i = 0; i < indices.length; i++) {
+                output.writeInt(indices[i] - last, true);
+                last = indices[i];
+            }
+            for (double d : values) {
+                output.writeDouble(d);
+            }
+        }
+
+        @Override
+        public SparseVectorWritable read(Kryo kryo, Input input, Class<SparseVectorWritable> type) {
+            int length = input.readInt(true);
+            int n = input.readInt(true);
+            int[] indices = new int[n];
+            double[] values = new double[n];
+            int last = 0;
+            for (int i = 0; i < n; i++) {
+                last += input.readInt(true);
+                indices[i] = last;
+            }
+            for (int i = 0; i < n; i++) {
+                values[i] = input.readDouble();
+            }
+            return new SparseVectorWritable(length, indices, values);
+        }
+    }
+
+    /**
+     * Serializes the array as: data type, byte order, shape, then the raw bytes of the (c order) data buffer, copied
+     * directly from the buffer in native byte order. Arrays of data types other than float and double are written as
+     * doubles.
+     */
+    public static class NDArrayWritableSerializer extends Serializer<NDArrayWritable> {
+        private static final int NULL = 0;
+        private static final int FLOAT = 1;
+        private static final int DOUBLE = 2;
+        private static final int CHUNK_SIZE = 8192;
+
+        @Override
+        public void write(Kryo kryo, Output output, NDArrayWritable w) {
+            INDArray arr = w.get();
+            if (arr == null) {
+                output.writeByte(NULL);
+                return;
+            }
+            if (arr.isView() || arr.ordering() != 'c' || arr.offset() != 0 || arr.data().length() != arr.length()) {
+                arr = arr.dup('c');
+            }
+            DataBuffer.Type dataType = arr.data().dataType();
+            boolean direct = dataType == DataBuffer.Type.FLOAT || dataType == DataBuffer.Type.DOUBLE;
+            boolean isFloat = dataType == DataBuffer.Type.FLOAT;
+            output.writeByte(isFloat ? FLOAT : DOUBLE);
+            //Byte order of the data: native order for a direct buffer copy, Kryo's (big endian) order otherwise
+            output.writeBoolean(direct && ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+            int[] shape = arr.shape();
+            output.writeInt(shape.length, true);
+            for (int s : shape) {
+                output.writeInt(s, true);
+            }
+
+            if (!direct) {
+                for (double d : arr.data().asDouble()) {
+                    output.writeDouble(d);
+                }
+                return;
+            }
+            ByteBuffer bb = arr.data().asNio().duplicate();
+            int numBytes = arr.length() * (isFloat ? 4 : 8);
+            bb.position(0);
+            bb.limit(numBytes);
+            byte[] chunk = new byte[Math.min(CHUNK_SIZE, numBytes)];
+            while (bb.hasRemaining()) {
+                int n = Math.min(chunk.length, bb.remaining());
+                bb.get(chunk, 0, n);
+                output.writeBytes(chunk, 0, n);
+            }
+        }
+
+        @Override
+        public NDArrayWritable read(Kryo kryo, Input input, Class<NDArrayWritable> type) {
+            int dataType = input.readByte();
+            if (dataType == NULL) {
+                return new NDArrayWritable();
+            }
+            ByteOrder order = input.readBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            int[] shape = new int[input.readInt(true)];
+            int length = 1;
+            for (int i = 0; i < shape.length; i++) {
+                shape[i] = input.readInt(true);
+                length *= shape[i];
+            }
+
+            boolean isFloat = dataType == FLOAT;
+            ByteBuffer bb = ByteBuffer.wrap(input.readBytes(length * (isFloat ? 4 : 8))).order(order);
+            INDArray arr;
+            if (isFloat) {
+                float[] data = new float[length];
+                bb.asFloatBuffer().get(data);
+                arr = Nd4j.create(data, shape, 'c');
+            } else {
+                double[] data = new double[length];
+                bb.asDoubleBuffer().get(data);
+                arr = Nd4j.create(data, shape, 'c');
+            }
+            return new NDArrayWritable(arr);
+        }
+    }
+
+    /**
+     * Serializer for records ({@code List<Writable>}) and sequences ({@code List<List<Writable>>}), registered for the
+     * common list implementations. Lists are written as the number of elements, followed by the elements. When all
+     * elements are of the same (non-null) class - for example, all rows of a sequence - the class is written only once.
+     * <br>
+     * Lists are always deserialized as {@link ArrayList}s.
+     */
+    public static class ListSerializer extends Serializer<List> {
+        @Override
+        public void write(Kryo kryo, Output output, List list) {
+            int size = list.size();
+            output.writeInt(size, true);
+            if (size == 0) {
+                return;
+            }
+
+            Class<?> elementClass = list.get(0) == null ? null : list.get(0).getClass();
+            for (int i = 1; i < size && elementClass != null; i++) {
+                Object o = list.get(i);
+                if (o == null || o.getClass() != elementClass) {
+                    elementClass = null;
+                }
+            }
+
+            if (elementClass != null) {
+                output.writeBoolean(true);
+                kryo.writeClass(output, elementClass);
+                Serializer serializer = kryo.getSerializer(elementClass);
+                for (int i = 0; i < size; i++) {
+                    kryo.writeObject(output, list.get(i), serializer);
+                }
+            } else {
+                output.writeBoolean(false);
+                for (int i = 0; i < size; i++) {
+                    kryo.writeClassAndObject(output, list.get(i));
+                }
+            }
+        }
+
+        @Override
+        public List read(Kryo kryo, Input input, Class<List> type) {
+            int size = input.readInt(true);
+            List<Object> list = new ArrayList<>(size);
+            kryo.reference(list);
+            if (size == 0) {
+                return list;
+            }
+
+            if (input.readBoolean()) {
+                Class<?> elementClass = kryo.readClass(input).getType();
+                Serializer serializer = kryo.getSerializer(elementClass);
+                for (int i = 0; i < size; i++) {
+                    list.add(kryo.readObject(input, elementClass, serializer));
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    list.add(kryo.readClassAndObject(input));
+                }
+            }
+            return list;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.datavec.spark;
 
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.datavec.spark.transform.utils.SparkUtils;
 import org.junit.After;
 import org.junit.Before;
 
@@ -63,6 +64,7 @@ public abstract class BaseSparkTest implements Serializable {
                         .set("spark.executorEnv.SPARK_LOCAL_IP", "127.0.0.1").setAppName("sparktest");
         if (useKryo()) {
             sparkConf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
+            SparkUtils.registerKryoClasses(sparkConf);
         }
 
 
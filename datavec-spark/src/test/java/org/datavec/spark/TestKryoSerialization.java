@@ -16,17 +16,25 @@
 
 package org.datavec.spark;
 
+import org.apache.spark.serializer.JavaSerializer;
 import org.apache.spark.serializer.KryoSerializer;
 import org.apache.spark.serializer.KryoSerializerInstance;
 import org.apache.spark.serializer.SerializerInstance;
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.split.FileSplit;
+import org.datavec.api.transform.analysis.counter.DoubleAnalysisCounter;
 import org.datavec.api.util.ClassPathResource;
+import org.datavec.api.writable.*;
 import org.junit.Test;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -58,6 +66,39 @@ public class TestKryoSerialization extends BaseSparkTest {
     }
 
 
+    @Test
+    public void testWritablesAndRecords() throws Exception {
+        SerializerInstance si = sc.env().serializer().newInstance();
+
+        List<Writable> record = Arrays.<Writable>asList(new BooleanWritable(true), new ByteWritable((byte) -3),
+                        new DoubleWritable(Math.PI), new FloatWritable(-1.5f), new IntWritable(-100000),
+                        new LongWritable(Long.MIN_VALUE), NullWritable.INSTANCE, new Text("text \u00e9"),
+                        new NDArrayWritable(Nd4j.linspace(1, 12, 12).reshape(3, 4)),
+                        new NDArrayWritable(Nd4j.linspace(1, 12, 12).reshape(3, 4).transpose()),
+                        new SparseVectorWritable(100, new int[] {3, 50, 99}, new double[] {1, -2, 3}));
+        assertEquals(record, serDe(record, si));
+        assertEquals(new ArrayList<>(record), serDe(new ArrayList<>(record), si));
+
+        List<List<Writable>> sequence = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sequence.add(Arrays.<Writable>asList(new IntWritable(i), new Text(String.valueOf(i))));
+        }
+        assertEquals(sequence, serDe(sequence, si));
+        assertEquals(Collections.<Writable>emptyList(), serDe(Collections.<Writable>emptyList(), si));
+
+        //Sequences with dedicated serializers should be much smaller than with Java serialization
+        int size = si.serialize(sequence, null).remaining();
+        int javaSize = new JavaSerializer(sc.getConf()).newInstance().serialize(sequence, null).remaining();
+        assertTrue(size + " vs. " + javaSize, 4 * size < javaSize);
+
+        DoubleAnalysisCounter counter = new DoubleAnalysisCounter();
+        counter.add(new DoubleWritable(1.0));
+        counter.add(new DoubleWritable(-2.0));
+        DoubleAnalysisCounter counter2 = serDe(counter, si);
+        assertEquals(counter.getCountTotal(), counter2.getCountTotal());
+        assertEquals(counter.getMean(), counter2.getMean(), 0.0);
+    }
+
     private <T> T serDe(T in, SerializerInstance si){
         ByteBuffer bb = si.serialize(in, null);
         return (T)si.deserialize(bb, null);
@@ -19,6 +19,7 @@ package org.datavec.spark.storage;
 import com.google.common.io.Files;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.*;
 import org.datavec.spark.BaseSparkTest;
 import org.junit.Test;
@@ -80,6 +81,41 @@ public class TestSparkStorageUtils extends BaseSparkTest {
         assertTrue(l.containsAll(restored2) && restored2.containsAll(l));
     }
 
+    @Test
+    public void testSaveRestoreMapFileWithSchema() {
+        Schema schema = new Schema.Builder().addColumnString("str").addColumnInteger("int")
+                        .addColumnCategorical("cat", "a", "b").addColumnDouble("double").build();
+
+        List<List<Writable>> l = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            l.add(Arrays.<Writable>asList(new Text("value" + i), new IntWritable(i), new Text(i % 2 == 0 ? "a" : "b"),
+                            i == 5 ? NullWritable.INSTANCE : new DoubleWritable(i / 2.0)));
+        }
+        JavaRDD<List<Writable>> rdd = sc.parallelize(l);
+
+        File f = Files.createTempDir();
+        f.delete();
+        f.deleteOnExit();
+        String path = "file:///" + f.getAbsolutePath();
+
+        SparkStorageUtils.saveMapFile(path, rdd, schema);
+        Map<Long, List<Writable>> m = SparkStorageUtils.restoreMapFile(path, schema, sc).collectAsMap();
+        assertEquals(10, m.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(l.get(i), m.get((long) i));
+        }
+
+        f = Files.createTempDir();
+        f.delete();
+        f.deleteOnExit();
+        path = "file:///" + f.getAbsolutePath();
+
+        SparkStorageUtils.saveSequenceFile(path, rdd, schema, null);
+        List<List<Writable>> restored = SparkStorageUtils.restoreSequenceFile(path, schema, sc).collect();
+        assertEquals(10, restored.size());
+        assertTrue(l.containsAll(restored) && restored.containsAll(l));
+    }
+
     @Test
     public void testSaveRestoreMapFileSequences() {
         List<List<List<Writable>>> l = new ArrayList<>();
@@ -19,6 +19,9 @@ package org.datavec.spark.transform;
 import org.apache.spark.api.java.JavaRDD;
 import org.datavec.api.transform.MathOp;
 import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.schema.SequenceSchema;
 import org.datavec.api.writable.DoubleWritable;
@@ -117,4 +120,43 @@ public class ExecutionTest extends BaseSparkTest {
         assertEquals(expectedSequence, out);
     }
 
+    @Test
+    public void testExecutionFusedTransformsAndFilters() {
+        Schema schema = new Schema.Builder().addColumnInteger("col0")
+                        .addColumnCategorical("col1", "state0", "state1", "state2").addColumnDouble("col2").build();
+
+        TransformProcess tp = new TransformProcess.Builder(schema).categoricalToInteger("col1")
+                        .doubleMathOp("col2", MathOp.Add, 10.0)
+                        .filter(new ConditionFilter(new IntegerColumnCondition("col1", ConditionOp.Equal, 1)))
+                        .doubleMathOp("col2", MathOp.Multiply, 2.0).integerMathOp("col0", MathOp.Add, 5)
+                        .removeColumns("col1").build();
+
+        List<List<Writable>> inputData = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            inputData.add(Arrays.<Writable>asList(new IntWritable(i), new Text("state" + (i % 3)),
+                            new DoubleWritable(i)));
+        }
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(inputData, 4);
+
+        List<List<Writable>> out = new ArrayList<>(SparkTransformExecutor.execute(rdd, tp).collect());
+
+        Collections.sort(out, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return Integer.compare(o1.get(0).toInt(), o2.get(0).toInt());
+            }
+        });
+
+        List<List<Writable>> expected = new ArrayList<>();
+        for (List<Writable> l : inputData) {
+            List<Writable> after = tp.execute(l);
+            if (after != null)
+                expected.add(after);
+        }
+
+        assertEquals(20, expected.size());
+        assertEquals(expected, out);
+    }
+
 }
@@ -20,6 +20,7 @@ import com.tdunning.math.stats.TDigest;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.util.StatCounter;
 import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.counter.StringAnalysisCounter;
 import org.datavec.api.transform.analysis.columns.*;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.transform.ui.HtmlAnalysis;
@@ -208,6 +209,70 @@ public class TestAnalysis extends BaseSparkTest {
     }
 
 
+    @Test
+    public void testAnalysisSinglePass() {
+        Schema schema = new Schema.Builder().addColumnInteger("intCol").addColumnDouble("doubleCol")
+                        .addColumnString("strCol").addColumnCategorical("catCol", "A", "B").build();
+
+        Random r = new Random(12345);
+        List<List<Writable>> data = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = 1 + r.nextInt(20);
+            for (int j = 0; j < len; j++) {
+                sb.append('x');
+            }
+            data.add(Arrays.asList((Writable) new IntWritable(r.nextInt(100)), new DoubleWritable(r.nextGaussian()),
+                            new Text(sb.toString()), new Text(r.nextBoolean() ? "A" : "B")));
+        }
+
+        JavaRDD<List<Writable>> rdd = sc.parallelize(data, 4);
+
+        DataAnalysis twoPass = AnalyzeSpark.analyze(schema, rdd, 10);
+        DataAnalysis singlePass = AnalyzeSpark.analyzeSinglePass(schema, rdd, 10);
+
+        IntegerAnalysis ia1 = (IntegerAnalysis) twoPass.getColumnAnalysis().get(0);
+        IntegerAnalysis ia2 = (IntegerAnalysis) singlePass.getColumnAnalysis().get(0);
+        assertEquals(ia1.getMin(), ia2.getMin());
+        assertEquals(ia1.getMax(), ia2.getMax());
+        assertEquals(ia1.getMean(), ia2.getMean(), 1e-9);
+        assertArrayEquals(ia1.getHistogramBuckets(), ia2.getHistogramBuckets(), 1e-9);
+        assertHistogramClose(ia1.getHistogramBucketCounts(), ia2.getHistogramBucketCounts(), 1000);
+
+        DoubleAnalysis da1 = (DoubleAnalysis) twoPass.getColumnAnalysis().get(1);
+        DoubleAnalysis da2 = (DoubleAnalysis) singlePass.getColumnAnalysis().get(1);
+        assertEquals(da1.getMin(), da2.getMin(), 0.0);
+        assertEquals(da1.getMax(), da2.getMax(), 0.0);
+        assertEquals(da1.getSampleStdev(), da2.getSampleStdev(), 1e-9);
+        assertArrayEquals(da1.getHistogramBuckets(), da2.getHistogramBuckets(), 1e-9);
+        assertHistogramClose(da1.getHistogramBucketCounts(), da2.getHistogramBucketCounts(), 1000);
+
+        StringAnalysis sa = (StringAnalysis) singlePass.getColumnAnalysis().get(2);
+        assertEquals(1, sa.getMinLength());
+        assertEquals(20, sa.getMaxLength());
+        assertEquals(1.0, sa.getHistogramBuckets()[0], 0.0);
+        assertEquals(20.0, sa.getHistogramBuckets()[10], 0.0);
+        assertEquals(1000, sum(sa.getHistogramBucketCounts()));
+
+        assertEquals(twoPass.getColumnAnalysis().get(3), singlePass.getColumnAnalysis().get(3));
+    }
+
+    private static void assertHistogramClose(long[] exact, long[] estimated, long total) {
+        assertEquals(exact.length, estimated.length);
+        assertEquals(total, sum(estimated));
+        for (int i = 0; i < exact.length; i++) {
+            assertEquals(exact[i], estimated[i], 0.05 * total);
+        }
+    }
+
+    private static long sum(long[] arr) {
+        long sum = 0;
+        for (long l : arr) {
+            sum += l;
+        }
+        return sum;
+    }
+
     @Test
     public void testSampleMostFrequent() {
 
@@ -243,4 +308,27 @@ public class TestAnalysis extends BaseSparkTest {
         assertEquals(2L, (long) map.get(new Text("ThirdMostCommon")));
     }
 
+    @Test
+    public void testStringAnalysisCounterMergeDigest() {
+        StringAnalysisCounter a = new StringAnalysisCounter();
+        StringAnalysisCounter b = new StringAnalysisCounter();
+        for (int i = 0; i < 10; i++) {
+            a.add(new Text("a" + i));
+            b.add(new Text("bbbbbbbbb" + i));
+        }
+
+        //Merging must not modify (or share) the digests of the merged counters
+        StringAnalysisCounter merged = a.merge(b);
+        assertEquals(10, a.getDigest().size());
+        assertEquals(10, b.getDigest().size());
+        assertEquals(20, merged.getDigest().size());
+        assertNotSame(a.getDigest(), merged.getDigest());
+        assertNotSame(b.getDigest(), merged.getDigest());
+
+        //Merging a counter with itself
+        StringAnalysisCounter self = new StringAnalysisCounter();
+        self.add(new Text("abc"));
+        assertEquals(2, self.merge(self).getDigest().size());
+        assertEquals(1, self.getDigest().size());
+    }
 }
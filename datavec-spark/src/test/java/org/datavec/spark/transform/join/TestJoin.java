@@ -232,4 +232,47 @@ public class TestJoin extends BaseSparkTest {
         assertEquals(4, count);
     }
 
+    @Test
+    public void testJoinStrategies() {
+        Schema leftSchema = new Schema.Builder().addColumnLong("id").addColumnString("key").build();
+        Schema rightSchema = new Schema.Builder().addColumnString("otherKey").addColumnInteger("value").build();
+
+        //Skewed left data: most examples have key "hot"
+        List<List<Writable>> left = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String key = i % 10 == 0 ? "k" + (i % 30) : "hot";
+            left.add(Arrays.<Writable>asList(new LongWritable(i), new Text(key)));
+        }
+        List<List<Writable>> right = new ArrayList<>();
+        right.add(Arrays.<Writable>asList(new Text("hot"), new IntWritable(0)));
+        right.add(Arrays.<Writable>asList(new Text("hot"), new IntWritable(1)));
+        right.add(Arrays.<Writable>asList(new Text("k0"), new IntWritable(2)));
+        right.add(Arrays.<Writable>asList(new Text("k10"), new IntWritable(3)));
+        right.add(Arrays.<Writable>asList(new Text("unmatched"), new IntWritable(4)));
+
+        JavaRDD<List<Writable>> leftRDD = sc.parallelize(left, 4);
+        JavaRDD<List<Writable>> rightRDD = sc.parallelize(right, 2);
+
+        for (Join.JoinType jt : Join.JoinType.values()) {
+            Join join = new Join.Builder(jt).setJoinColumnsLeft("key").setJoinColumnsRight("otherKey")
+                            .setSchemas(leftSchema, rightSchema).build();
+
+            List<String> expected = toSortedStrings(SparkTransformExecutor.executeJoin(join, leftRDD, rightRDD));
+            assertEquals(jt.toString(), expected,
+                            toSortedStrings(SparkTransformExecutor.executeBroadcastJoin(join, leftRDD, rightRDD, false)));
+            assertEquals(jt.toString(), expected,
+                            toSortedStrings(SparkTransformExecutor.executeBroadcastJoin(join, leftRDD, rightRDD, true)));
+            assertEquals(jt.toString(), expected,
+                            toSortedStrings(SparkTransformExecutor.executeSkewJoin(join, leftRDD, rightRDD, 4)));
+        }
+    }
+
+    private static List<String> toSortedStrings(JavaRDD<List<Writable>> rdd) {
+        List<String> out = new ArrayList<>();
+        for (List<Writable> l : rdd.collect()) {
+            out.add(l.toString());
+        }
+        Collections.sort(out);
+        return out;
+    }
 }
@@ -27,9 +27,12 @@ import org.datavec.spark.BaseSparkTest;
 import org.datavec.spark.transform.SparkTransformExecutor;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -84,6 +87,52 @@ public class TestConvertToSequence extends BaseSparkTest {
         assertEquals(expSeq1, seq1);
     }
 
+    @Test
+    public void testConvertToSequenceSorted() throws Exception {
+        Schema s = new Schema.Builder().addColumnsString("key").addColumnLong("time").build();
+
+        List<List<Writable>> allExamples = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            //Keys with 10, 20, 30 and 40 examples, in reverse time order
+            int key = i < 10 ? 0 : (i < 30 ? 1 : (i < 60 ? 2 : 3));
+            allExamples.add(Arrays.<Writable>asList(new Text("k" + key), new LongWritable(1000 - i)));
+        }
+
+        TransformProcess tp = new TransformProcess.Builder(s)
+                        .convertToSequence("key", new NumericalColumnComparator("time")).build();
+        JavaRDD<List<Writable>> rdd = sc.parallelize(allExamples, 4);
+
+        List<List<List<Writable>>> expected = new ArrayList<>(SparkTransformExecutor.executeToSequence(rdd, tp).collect());
+        assertEquals(4, expected.size());
+
+        System.setProperty(SparkTransformExecutor.SORT_TO_SEQUENCE_PROPERTY, "true");
+        try {
+            List<List<List<Writable>>> sorted = new ArrayList<>(SparkTransformExecutor.executeToSequence(rdd, tp).collect());
+            assertEquals(new HashSet<>(expected), new HashSet<>(sorted));
+
+            //Only the key and sort column values are in the sort key; the example is the value
+            SequenceSortKey sortKey = new SparkMapToSequenceSortKeyFunction(new int[] {0}, 1)
+                            .call(allExamples.get(0))._1();
+            assertEquals(Collections.<Writable>singletonList(new Text("k0")), sortKey.getKey());
+            assertEquals(new LongWritable(1000), sortKey.getSortValue());
+
+            //With a maximum sequence length: consecutive chunks of each sequence
+            System.setProperty(SparkTransformExecutor.MAX_SEQUENCE_LENGTH_PROPERTY, "15");
+            List<List<List<Writable>>> chunked = SparkTransformExecutor.executeToSequence(rdd, tp).collect();
+            assertEquals(1 + 2 + 2 + 3, chunked.size());
+            Set<List<List<Writable>>> expChunks = new HashSet<>();
+            for (List<List<Writable>> seq : expected) {
+                for (int i = 0; i < seq.size(); i += 15) {
+                    expChunks.add(seq.subList(i, Math.min(seq.size(), i + 15)));
+                }
+            }
+            assertEquals(expChunks, new HashSet<>(chunked));
+        } finally {
+            System.clearProperty(SparkTransformExecutor.SORT_TO_SEQUENCE_PROPERTY);
+            System.clearProperty(SparkTransformExecutor.MAX_SEQUENCE_LENGTH_PROPERTY);
+        }
+    }
+
     @Test
     public void testConvertToSequenceLength1(){
 